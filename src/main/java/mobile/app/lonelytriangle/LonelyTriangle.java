@@ -2,6 +2,7 @@ package mobile.app.lonelytriangle;
 
 import mobile.app.lonelytriangle.core.GameManager;
 import mobile.app.lonelytriangle.core.IGameManager;
+import mobile.app.lonelytriangle.resource.AndroidRawResources;
 import mobile.app.lonelytriangle.resource.ResourceManager;
 import mobile.app.lonelytriangle.resource.SoundManager;
 import android.app.Activity;
@@ -27,7 +28,7 @@ public class LonelyTriangle extends Activity
     public void onCreate(final Bundle savedInstanceState)
     {
         /* initialize the resource manager */
-        ResourceManager.getInstance().init(getResources());
+        ResourceManager.getInstance().init(new AndroidRawResources(getResources()));
         super.onCreate(savedInstanceState);
         this.setContentView(R.layout.main_layout);
         sound = new SoundManager(this, (AudioManager) getSystemService(AUDIO_SERVICE));
@@ -0,0 +1,201 @@
+package mobile.app.lonelytriangle.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+import mobile.app.lonelytriangle.resource.ResourceManager.CatchUpPolicy;
+import mobile.app.lonelytriangle.util.FrameTimeHistogram;
+
+/**
+ * The GameLoop is the thread which drives the game. It calls the loopIteration of the IGameManager with the target frame
+ * rate. The loop is based on System.nanoTime: the start of the next frame is derived from the start of the last planned
+ * frame (and not from the end of the last iteration), so the small errors of the sleeping do not add up (drift correction).
+ *
+ * If the loop falls behind its schedule (a long iteration or a stall of the device) the CatchUpPolicy decides what
+ * happens: Skip drops the missed frames and waits for the next regular frame, the next iteration gets the whole elapsed
+ * time as its delta. Burst runs the missed frames without waiting and every iteration gets the period of a frame as its
+ * delta, so the simulated time catches up in regular steps (at most maxCatchUpFrames, a longer stall resets the schedule
+ * and the time of the stall is not simulated). The time between two iterations is recorded in a FrameTimeHistogram.
+ */
+public class GameLoop extends Thread
+{
+    /** the number of nano seconds of a second. */
+    private static final long        NANOS_PER_SECOND = 1000000000L;
+
+    /** the game which is driven by this loop. */
+    private final IGameManager       manager;
+
+    /** the target time of one frame in nano seconds. */
+    private final long               period;
+
+    private final CatchUpPolicy      policy;
+
+    /** the maximal number of frames which are run without waiting (Burst). */
+    private final int                maxCatchUpFrames;
+
+    /** the time between two iterations. */
+    private final FrameTimeHistogram frameTimes;
+
+    private volatile boolean         running;
+
+    /** the measured start of the last iteration in nano seconds. */
+    private long                     lastFrameStart;
+
+    /** the planned start of the next iteration in nano seconds. */
+    private long                     nextFrame;
+
+    /**
+     * Constructs a newly allocated GameLoop, the loop starts with start().
+     *
+     * @param manager the game which is driven by this loop
+     * @param frameRate the target frame rate (frames per second)
+     * @param policy the policy if the loop falls behind its schedule
+     * @param maxCatchUpFrames the maximal number of frames which are run without waiting (only used by Burst)
+     */
+    public GameLoop(final IGameManager manager, final long frameRate, final CatchUpPolicy policy, final int maxCatchUpFrames)
+    {
+        super("GameLoop");
+
+        if (frameRate <= 0)
+        {
+            throw new IllegalArgumentException("the frame rate has to be positive");
+        }
+
+        this.manager = manager;
+        this.policy = policy;
+        this.maxCatchUpFrames = maxCatchUpFrames;
+        period = NANOS_PER_SECOND / frameRate;
+        frameTimes = new FrameTimeHistogram();
+        running = true;
+    }
+
+    @Override
+    public void run()
+    {
+        startSchedule();
+
+        while (running && !isInterrupted())
+        {
+            waitUntil(nextFrame);
+
+            if (!running || isInterrupted())
+            {
+                break;
+            }
+            iterate();
+        }
+    }
+
+    /**
+     * Starts the schedule, the first iteration is planned one period after now.
+     */
+    void startSchedule()
+    {
+        lastFrameStart = nanoTime();
+        nextFrame = lastFrameStart + period;
+    }
+
+    /**
+     * Runs one iteration of the game and plans the next one.
+     */
+    void iterate()
+    {
+        final long frameStart = nanoTime();
+        final long elapsedTime = frameStart - lastFrameStart;
+        lastFrameStart = frameStart;
+        frameTimes.record(elapsedTime);
+
+        // a frame of the burst simulates the period of the frame it catches up
+        final long delta = policy == CatchUpPolicy.Burst ? period : elapsedTime;
+        manager.loopIteration(delta / (float) NANOS_PER_SECOND);
+
+        nextFrame = schedule(nextFrame, nanoTime());
+    }
+
+    /**
+     * Returns the planned start of the next iteration.
+     *
+     * @return the planned start of the next iteration in nano seconds
+     */
+    long getNextFrame()
+    {
+        return nextFrame;
+    }
+
+    /**
+     * Returns the current time of the loop, System.nanoTime.
+     *
+     * @return the current time in nano seconds
+     */
+    long nanoTime()
+    {
+        return System.nanoTime();
+    }
+
+    /**
+     * Terminates the loop. The current iteration is finished, the thread is not joined.
+     */
+    public void terminate()
+    {
+        running = false;
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Returns the distribution of the time between two iterations.
+     *
+     * @return the frame times of this loop
+     */
+    public FrameTimeHistogram getFrameTimes()
+    {
+        return frameTimes;
+    }
+
+    /**
+     * Calculates the start of the next frame.
+     *
+     * @param lastFrame the planned start of the last frame in nano seconds
+     * @param now the current time in nano seconds
+     * @return the planned start of the next frame in nano seconds
+     */
+    long schedule(final long lastFrame, final long now)
+    {
+        long nextFrame = lastFrame + period;
+        final long behind = now - nextFrame;
+
+        if (behind > 0)
+        {
+            switch (policy)
+            {
+                case Burst:
+                    // the missed frames are run without waiting, a longer stall resets the schedule
+                    if (behind > maxCatchUpFrames * period)
+                    {
+                        nextFrame = now;
+                    }
+                    break;
+
+                default:
+                    // drop the missed frames but stay on the schedule
+                    nextFrame += (behind / period + 1) * period;
+                    break;
+            }
+        }
+        return nextFrame;
+    }
+
+    /**
+     * Parks the thread until the deadline, the thread is only woken up earlier by terminate or an interrupt.
+     *
+     * @param deadline the deadline in nano seconds
+     */
+    private void waitUntil(final long deadline)
+    {
+        long remaining = deadline - nanoTime();
+
+        while (running && remaining > 0 && !isInterrupted())
+        {
+            LockSupport.parkNanos(this, remaining);
+            remaining = deadline - nanoTime();
+        }
+    }
+}
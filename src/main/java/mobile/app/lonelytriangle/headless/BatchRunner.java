@@ -0,0 +1,377 @@
+package mobile.app.lonelytriangle.headless;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mobile.app.lonelytriangle.rendering.MeshFactory;
+import mobile.app.lonelytriangle.resource.IResourceManager;
+import mobile.app.lonelytriangle.resource.ResourceManager;
+import mobile.app.lonelytriangle.simulation.Simulation;
+import mobile.app.lonelytriangle.simulation.shapes.ShapeFactory;
+import mobile.app.lonelytriangle.simulation.shapes.Ship;
+import mobile.app.lonelytriangle.util.FrameTimeHistogram;
+import mobile.app.lonelytriangle.util.SplitMixRandom;
+
+/**
+ * The BatchRunner plays many independent, seeded games of one or more configurations headless on all cores and prints an
+ * aggregated report per configuration: the survival time, the score, the peaks of the entities and the cost of the
+ * updates and of the pilot. The games are played by the Autopilot. It is the harness for balancing the difficulty
+ * configs.
+ *
+ * Every game has its own IResourceManager, factories and Simulation, so the games share no state and need no locks. A
+ * game is a coarse task of a fixed thread pool with one thread per core.
+ *
+ * Usage: BatchRunner [games per config] [max simulated seconds] [threads] [seed] [config files...]
+ */
+public class BatchRunner
+{
+    /** the default config files (relative to the project root). */
+    private static final String[] DEFAULT_CONFIGS = {"res/raw/difficulty_easy.cfg", "res/raw/difficulty_hard.cfg", "res/raw/difficulty_insane.cfg"};
+
+    /** the default number of games per config. */
+    private static final int      DEFAULT_GAMES   = 100;
+
+    /** the default maximal simulated time of one game in seconds. */
+    private static final float    DEFAULT_MAX_TIME = 300;
+
+    /** the elapsed time of one update if the config has no fixed steps (50 fps). */
+    private static final float    DEFAULT_DELTA   = 0.02f;
+
+    /** the width of the simulated screen. */
+    private static final int      SCREEN_WIDTH    = 480;
+
+    /** the height of the simulated screen. */
+    private static final int      SCREEN_HEIGHT   = 800;
+
+    private final int             threads;
+
+    /** the maximal simulated time of one game in seconds. */
+    private final float           maxTime;
+
+    /**
+     * Construct a new BatchRunner.
+     *
+     * @param threads the number of threads
+     * @param maxTime the maximal simulated time of one game in seconds
+     */
+    public BatchRunner(final int threads, final float maxTime)
+    {
+        if (threads <= 0)
+        {
+            throw new IllegalArgumentException("the number of threads has to be positive!");
+        }
+
+        this.threads = threads;
+        this.maxTime = maxTime;
+    }
+
+    /**
+     * Plays the games of all configs in parallel and waits for the results.
+     *
+     * @param configs the content of the config files
+     * @param games the number of games per config
+     * @param seed the seed of the seeds of the games
+     * @return the results of the games, ordered by config and game
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public List<Game> run(final List<byte[]> configs, final int games, final long seed) throws InterruptedException
+    {
+        final SplitMixRandom seeds = new SplitMixRandom(seed);
+        final List<Callable<Game>> tasks = new ArrayList<Callable<Game>>(configs.size() * games);
+
+        for (int c = 0; c < configs.size(); c++)
+        {
+            for (int g = 0; g < games; g++)
+            {
+                final int config = c;
+                final byte[] data = configs.get(c);
+                final long gameSeed = seeds.nextLong();
+                tasks.add(new Callable<Game>()
+                {
+                    @Override
+                    public Game call()
+                    {
+                        return play(config, data, gameSeed);
+                    }
+                });
+            }
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try
+        {
+            final List<Future<Game>> futures = executor.invokeAll(tasks);
+            final List<Game> results = new ArrayList<Game>(futures.size());
+
+            for (final Future<Game> future : futures)
+            {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (final ExecutionException e)
+        {
+            throw new IllegalStateException("a game has failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates the pilot of one game.
+     *
+     * @return a new pilot
+     */
+    protected IPilot createPilot()
+    {
+        return new Autopilot();
+    }
+
+    /**
+     * Plays one game until the ship is destroyed or the maximal time has elapsed.
+     *
+     * @param config the index of the config
+     * @param data the content of the config file
+     * @param seed the seed of the game
+     * @return the result of the game
+     */
+    private Game play(final int config, final byte[] data, final long seed)
+    {
+        final IResourceManager resourceManager = ResourceManager.newInstance(new ByteArrayInputStream(data));
+        final Simulation simulation = new Simulation(resourceManager, new ShapeFactory(resourceManager, new MeshFactory(resourceManager)));
+        final float delta = resourceManager.getFixedStepRate() > 0 ? 1.0f / resourceManager.getFixedStepRate() : DEFAULT_DELTA;
+        final IPilot pilot = createPilot();
+        final Game game = new Game(config, seed);
+
+        simulation.setSeed(seed);
+        simulation.screenResize(SCREEN_WIDTH, SCREEN_HEIGHT);
+        simulation.initGame();
+        pilot.reset();
+
+        final Ship ship = simulation.getShip();
+        final int maxSteps = (int) (maxTime / delta);
+        int steps = 0;
+
+        try
+        {
+            while (ship.getLife() > 0 && steps < maxSteps)
+            {
+                final long start = System.nanoTime();
+                pilot.control(simulation, delta);
+                final long controlled = System.nanoTime();
+                simulation.update(delta);
+                game.updateTimes.record(System.nanoTime() - controlled);
+                game.pilotTimes.record(controlled - start);
+                steps++;
+
+                game.peakEnemies = Math.max(game.peakEnemies, simulation.getAllEnemies().size());
+                game.peakBullets = Math.max(game.peakBullets, simulation.getBullets().size());
+                game.peakBoni = Math.max(game.peakBoni, simulation.getBoni().size());
+            }
+        }
+        finally
+        {
+            simulation.shutdown();
+        }
+
+        game.survivalTime = steps * delta;
+        game.died = ship.getLife() <= 0;
+        game.score = simulation.getScore();
+        return game;
+    }
+
+    /**
+     * Prints the aggregated results of every config.
+     *
+     * @param names the names of the configs
+     * @param games the results of the games
+     */
+    public static void report(final String[] names, final List<Game> games)
+    {
+        for (int c = 0; c < names.length; c++)
+        {
+            final List<Float> survival = new ArrayList<Float>();
+            final FrameTimeHistogram updateTimes = newHistogram();
+            final FrameTimeHistogram pilotTimes = newHistogram();
+            long scores = 0;
+            int maxScore = 0;
+            int deaths = 0;
+            int peakEnemies = 0;
+            int peakBullets = 0;
+            int peakBoni = 0;
+
+            for (final Game game : games)
+            {
+                if (game.config == c)
+                {
+                    survival.add(game.survivalTime);
+                    updateTimes.add(game.updateTimes);
+                    pilotTimes.add(game.pilotTimes);
+                    scores += game.score;
+                    maxScore = Math.max(maxScore, game.score);
+                    deaths += game.died ? 1 : 0;
+                    peakEnemies = Math.max(peakEnemies, game.peakEnemies);
+                    peakBullets = Math.max(peakBullets, game.peakBullets);
+                    peakBoni = Math.max(peakBoni, game.peakBoni);
+                }
+            }
+
+            if (survival.isEmpty())
+            {
+                continue;
+            }
+
+            final float[] times = new float[survival.size()];
+            float sum = 0;
+
+            for (int i = 0; i < times.length; i++)
+            {
+                times[i] = survival.get(i);
+                sum += times[i];
+            }
+            Arrays.sort(times);
+
+            System.out.println(names[c] + ": " + times.length + " games, " + deaths + " deaths");
+            System.out.println("  survival [s]: mean=" + sum / times.length + " min=" + times[0] + " p50=" + times[times.length / 2] + " max=" + times[times.length - 1]);
+            System.out.println("  score:        mean=" + scores / times.length + " max=" + maxScore);
+            System.out.println("  peaks:        enemies=" + peakEnemies + " bullets=" + peakBullets + " boni=" + peakBoni);
+            System.out.println("  update times: " + updateTimes);
+            System.out.println("  pilot times:  " + pilotTimes);
+        }
+    }
+
+    private static FrameTimeHistogram newHistogram()
+    {
+        // buckets of 1 µs up to 1 ms
+        return new FrameTimeHistogram(1000L, 1000);
+    }
+
+    /**
+     * The result of one game.
+     */
+    public static final class Game
+    {
+        private final int                config;
+        private final long               seed;
+        private final FrameTimeHistogram updateTimes;
+        private final FrameTimeHistogram pilotTimes;
+        private float                    survivalTime;
+        private boolean                  died;
+        private int                      score;
+        private int                      peakEnemies;
+        private int                      peakBullets;
+        private int                      peakBoni;
+
+        private Game(final int config, final long seed)
+        {
+            this.config = config;
+            this.seed = seed;
+            updateTimes = newHistogram();
+            pilotTimes = newHistogram();
+        }
+
+        /**
+         * Returns the seed of the game.
+         *
+         * @return the seed of the game
+         */
+        public long getSeed()
+        {
+            return seed;
+        }
+
+        /**
+         * Returns the simulated time until the ship was destroyed (or the maximal time).
+         *
+         * @return the survival time in seconds
+         */
+        public float getSurvivalTime()
+        {
+            return survivalTime;
+        }
+
+        /**
+         * Returns the score of the game.
+         *
+         * @return the score of the game
+         */
+        public int getScore()
+        {
+            return score;
+        }
+    }
+
+    /**
+     * Runs the batch and prints the report.
+     *
+     * @param args [games per config] [max simulated seconds] [threads] [seed] [config files...]
+     * @throws IOException if a config file can not be read
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException
+    {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        final float maxTime = args.length > 1 ? Float.parseFloat(args[1]) : DEFAULT_MAX_TIME;
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        final long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        final String[] names = args.length > 4 ? Arrays.copyOfRange(args, 4, args.length) : DEFAULT_CONFIGS;
+
+        final List<byte[]> configs = new ArrayList<byte[]>(names.length);
+        for (final String name : names)
+        {
+            configs.add(readConfig(name));
+        }
+
+        final BatchRunner runner = new BatchRunner(threads, maxTime);
+        final long start = System.nanoTime();
+        final List<Game> results = runner.run(configs, games, seed);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(results.size() + " games on " + threads + " threads in " + seconds + " s (seed " + seed + ")");
+        report(names, results);
+    }
+
+    /**
+     * Reads the content of a config file.
+     *
+     * @param file the path of the config file
+     * @return the content of the config file
+     * @throws IOException if the file can not be read
+     */
+    static byte[] readConfig(final String file) throws IOException
+    {
+        final InputStream stream = new FileInputStream(file);
+
+        try
+        {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read = stream.read(buffer);
+
+            while (read >= 0)
+            {
+                out.write(buffer, 0, read);
+                read = stream.read(buffer);
+            }
+            return out.toByteArray();
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package mobile.app.lonelytriangle.headless;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import mobile.app.lonelytriangle.rendering.MeshFactory;
+import mobile.app.lonelytriangle.resource.IResourceManager;
+import mobile.app.lonelytriangle.resource.ResourceManager;
+import mobile.app.lonelytriangle.simulation.ISimulation;
+import mobile.app.lonelytriangle.simulation.Simulation;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
+import mobile.app.lonelytriangle.simulation.shapes.ShapeFactory;
+import mobile.app.lonelytriangle.simulation.shapes.Ship;
+import mobile.app.lonelytriangle.util.FrameTimeHistogram;
+
+/**
+ * The HeadlessRunner drives the simulation without any android component (no rendering, no input, no sound) as fast as
+ * the CPU allows. It is the entry point for load tests and benchmarks on a plain JVM. After the run it prints the
+ * distribution of the update times and the metrics of the shape pools and the bullets, they help to size the pools and
+ * the BulletStore of a difficulty.
+ *
+ * Usage: HeadlessRunner [config file] [number of frames] [delta in seconds] [seed]
+ */
+public final class HeadlessRunner
+{
+    /** the default config file (relative to the project root). */
+    private static final String DEFAULT_CONFIG = "res/raw/difficulty_hard.cfg";
+
+    /** the default number of simulated frames. */
+    private static final int    DEFAULT_FRAMES = 100000;
+
+    /** the default elapsed time of one frame in seconds (50 fps). */
+    private static final float  DEFAULT_DELTA  = 0.02f;
+
+    /** the width of the simulated screen. */
+    private static final int    SCREEN_WIDTH   = 480;
+
+    /** the height of the simulated screen. */
+    private static final int    SCREEN_HEIGHT  = 800;
+
+    private final ISimulation   simulation;
+
+    private int                 numberOfGames;
+
+    /** the time of every update. */
+    private final FrameTimeHistogram updateTimes;
+
+    /**
+     * Construct a new HeadlessRunner which simulates a game with the configuration of the IResourceManager.
+     *
+     * @param simulation the simulation which will be driven
+     */
+    public HeadlessRunner(final ISimulation simulation)
+    {
+        this.simulation = simulation;
+        updateTimes = new FrameTimeHistogram(1000L, 1000);
+        simulation.screenResize(SCREEN_WIDTH, SCREEN_HEIGHT);
+        startGame();
+    }
+
+    /**
+     * Simulates the specified number of frames. If the player ship is destroyed a new game starts.
+     *
+     * @param frames the number of frames
+     * @param delta the elapsed time of one frame in seconds
+     */
+    public void run(final int frames, final float delta)
+    {
+        for (int i = 0; i < frames; i++)
+        {
+            final long start = System.nanoTime();
+            simulation.update(delta);
+            updateTimes.record(System.nanoTime() - start);
+
+            if (((Ship) simulation.getShip()).getLife() <= 0)
+            {
+                startGame();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of started games.
+     *
+     * @return the number of started games
+     */
+    public int getNumberOfGames()
+    {
+        return numberOfGames;
+    }
+
+    /**
+     * Returns the distribution of the update times (buckets of 1 µs).
+     *
+     * @return the update times
+     */
+    public FrameTimeHistogram getUpdateTimes()
+    {
+        return updateTimes;
+    }
+
+    /**
+     * Returns the shots of the simulation.
+     *
+     * @return the shots of the simulation
+     */
+    public BulletStore getBullets()
+    {
+        return simulation.getBullets();
+    }
+
+    private void startGame()
+    {
+        simulation.initGame();
+        simulation.setTargetX(SCREEN_WIDTH / 2);
+        simulation.setTargetY(0);
+        simulation.enableShipShoting();
+        numberOfGames++;
+    }
+
+    /**
+     * Runs the headless simulation and prints the achieved frame rate.
+     *
+     * @param args [config file] [number of frames] [delta in seconds] [seed]
+     * @throws IOException if the config file can not be read
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        final String config = args.length > 0 ? args[0] : DEFAULT_CONFIG;
+        final int frames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FRAMES;
+        final float delta = args.length > 2 ? Float.parseFloat(args[2]) : DEFAULT_DELTA;
+        final long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        final IResourceManager resourceManager = ResourceManager.getInstance();
+        final InputStream stream = new FileInputStream(config);
+        try
+        {
+            resourceManager.loadConfig(stream);
+        }
+        finally
+        {
+            stream.close();
+        }
+
+        final ShapeFactory shapeFactory = new ShapeFactory(resourceManager, MeshFactory.getInstance());
+        final Simulation simulation = new Simulation(resourceManager, shapeFactory);
+        simulation.setSeed(seed);
+        final HeadlessRunner runner = new HeadlessRunner(simulation);
+        final long start = System.nanoTime();
+        runner.run(frames, delta);
+        simulation.shutdown();
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(frames + " frames in " + seconds + " s (" + (int) (frames / seconds) + " fps, " + runner.getNumberOfGames() + " games, seed " + seed + ")");
+        System.out.println("update times:         " + runner.getUpdateTimes());
+        System.out.println("bullets:              " + runner.getBullets());
+        System.out.println("rectangle enemy pool: " + shapeFactory.getRectangleEnemyPool());
+        System.out.println("triangle enemy pool:  " + shapeFactory.getTriangleEnemyPool());
+        System.out.println("diamond enemy pool:   " + shapeFactory.getDiamondEnemyPool());
+        System.out.println("bonus pool:           " + shapeFactory.getBonusPool());
+    }
+}
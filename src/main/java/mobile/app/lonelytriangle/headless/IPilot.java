@@ -0,0 +1,23 @@
+package mobile.app.lonelytriangle.headless;
+
+import mobile.app.lonelytriangle.simulation.ISimulation;
+
+/**
+ * An IPilot replaces the player in headless runs. It gives the same input as the GameManager: the target of the ship
+ * (setTargetX, setTargetY) and the shooting (enableShipShoting, disableShipShoting).
+ */
+public interface IPilot
+{
+    /**
+     * Prepares the pilot for a new game.
+     */
+    void reset();
+
+    /**
+     * Gives the input of the next update. This is called before every update of the simulation.
+     *
+     * @param simulation the simulation of the game
+     * @param delta the elapsed time of the next update in seconds
+     */
+    void control(ISimulation simulation, float delta);
+}
@@ -0,0 +1,51 @@
+package mobile.app.lonelytriangle.headless;
+
+import mobile.app.lonelytriangle.simulation.ISimulation;
+
+/**
+ * The ScriptedPilot sweeps the ship from one side of the screen to the other at the bottom of the screen and shoots all
+ * the time. It does not look at the enemies, so it is cheap and behaves the same in every game.
+ */
+public class ScriptedPilot implements IPilot
+{
+    /** the time of one sweep from the left to the right side in seconds. */
+    private final float sweepTime;
+
+    /** the elapsed time of the current game in seconds. */
+    private float       time;
+
+    /**
+     * Construct a new ScriptedPilot.
+     *
+     * @param sweepTime the time of one sweep from the left to the right side in seconds
+     */
+    public ScriptedPilot(final float sweepTime)
+    {
+        if (sweepTime <= 0)
+        {
+            throw new IllegalArgumentException("the sweep time has to be positive!");
+        }
+
+        this.sweepTime = sweepTime;
+    }
+
+    @Override
+    public void reset()
+    {
+        time = 0;
+    }
+
+    @Override
+    public void control(final ISimulation simulation, final float delta)
+    {
+        time += delta;
+
+        // triangle wave between 0 and 1
+        final float phase = (time / sweepTime) % 2.0f;
+        final float position = phase < 1.0f ? phase : 2.0f - phase;
+
+        simulation.setTargetX((int) (position * simulation.getScreenWidth()));
+        simulation.setTargetY(0);
+        simulation.enableShipShoting();
+    }
+}
@@ -1,41 +1,38 @@
 package mobile.app.lonelytriangle.rendering;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
-import java.util.HashSet;
-import java.util.Set;
-
-import javax.microedition.khronos.opengles.GL10;
+import mobile.app.lonelytriangle.util.ConvexPolygon;
 
 /**
- * The AbstractMesh draws every Mesh defined by its verticies and optional by his indicies. Every Mesh has only implement the getIndicies and the getVerticies methods. If u need some special rendering u should override the render method.
+ * The AbstractMesh defines every Mesh by its verticies and optional by his indicies. Every Mesh has only implement the getIndicies and the getVerticies methods. The
+ * AbstractMesh does not depend on OpenGL, it is drawn by the SpriteBatch. If u need some special rendering u should implement the IDrawableMesh.
  * 
  * @author Benedikt Zönnchen
  * @version v1.0
  * 
  */
-@SuppressWarnings("boxing")
-public abstract class AbstractMesh implements IDrawableMesh
+public abstract class AbstractMesh implements IMesh
 {
-    private final int                 width;
-    private final int                 height;
-    private short[]                   indices;
-    private FloatBuffer               vertexBuffer;
-    private ShortBuffer               indexBuffer;
-    private float[]                   vertices;
-    private boolean                   initialized;
-    private int                       openGlDrawType              = GL10.GL_TRIANGLE_STRIP;
-    private static final Set<Integer> SUPPORTED_OPENGL_DRAW_TYPES = new HashSet<Integer>();
-
-    static
+    /**
+     * The DrawType defines how the verticies (or indicies) form the triangles of the mesh, like the OpenGL draw types.
+     */
+    public enum DrawType
     {
-        SUPPORTED_OPENGL_DRAW_TYPES.add(GL10.GL_TRIANGLE_FAN);
-        SUPPORTED_OPENGL_DRAW_TYPES.add(GL10.GL_TRIANGLE_STRIP);
-        SUPPORTED_OPENGL_DRAW_TYPES.add(GL10.GL_TRIANGLES);
+        /** every three verticies form a triangle. */
+        TRIANGLES,
+        /** every vertex forms a triangle with the previous two verticies. */
+        TRIANGLE_STRIP,
+        /** every vertex forms a triangle with the first and the previous vertex. */
+        TRIANGLE_FAN
     }
 
+    private final int     width;
+    private final int     height;
+    private float[]       batchVertices;
+    private short[]       triangleIndices;
+    private ConvexPolygon hull;
+    private boolean       hullCreated;
+    private DrawType      drawType = DrawType.TRIANGLE_STRIP;
+
     /**
      * Constructs a newly allocated AbstractMesh with a specified width and height.
      * 
@@ -46,57 +43,20 @@ public abstract class AbstractMesh implements IDrawableMesh
     {
         this.width = width;
         this.height = height;
-        this.initialized = false;
-    }
-
-    /**
-     * has to be called before firt time rendering.
-     */
-    protected void init()
-    {
-        this.vertices = this.getVerticies();
-        this.indices = this.getIndicies();
-
-        final ByteBuffer vbb = ByteBuffer.allocateDirect(this.vertices.length * 4);
-        vbb.order(ByteOrder.nativeOrder());
-        this.vertexBuffer = vbb.asFloatBuffer();
-        this.vertexBuffer.put(this.vertices);
-        this.vertexBuffer.position(0);
-
-        if (this.indices != null)
-        {
-            final ByteBuffer ibb = ByteBuffer.allocateDirect(this.indices.length * 2);
-            ibb.order(ByteOrder.nativeOrder());
-            this.indexBuffer = ibb.asShortBuffer();
-            this.indexBuffer.put(this.indices);
-            this.indexBuffer.position(0);
-            this.initialized = true;
-        }
     }
 
     /**
-     * Sets the OpenGLDrawType GL10.GL_TRIANGLES, GL10.GL_TRIANGLE_FAN or GL10.GL_TRIANGLE_STRIP.
+     * Sets the DrawType DrawType.TRIANGLES, DrawType.TRIANGLE_FAN or DrawType.TRIANGLE_STRIP (default).
      * 
-     * @param openGlDrawType the openGL draw type (GL10.GL_TRIANGLES, GL10.GL_TRIANGLE_FAN, GL10.GL_TRIANGLE_STRIP)
+     * @param drawType the draw type
      */
-    protected void setOpenGlDrawType(final int openGlDrawType)
+    protected void setDrawType(final DrawType drawType)
     {
-        if (!SUPPORTED_OPENGL_DRAW_TYPES.contains(openGlDrawType))
+        if (drawType == null)
         {
-            throw new IllegalArgumentException("this openGL draw type is not supportet (" + openGlDrawType + ")");
+            throw new IllegalArgumentException("the draw type is missing");
         }
-        this.openGlDrawType = openGlDrawType;
-    }
-
-    /**
-     * Retunrs true if the AbstractMesh is initialized. This means that the buffers are ready. You can only
-     * render a AbstractMesh if it is initialized.
-     * 
-     * @return true if the AbstractMesh is initialized, else false
-     */
-    protected boolean isInitialised()
-    {
-        return this.initialized;
+        this.drawType = drawType;
     }
 
     /**
@@ -133,26 +93,80 @@ public abstract class AbstractMesh implements IDrawableMesh
      */
     protected abstract float[] getVerticies();
 
-    @Override
-    public void render(final GL10 gl)
+    /**
+     * Returns the vertices (x, y, z) of the AbstractMesh for the SpriteBatch. The vertices are computed only once.
+     * 
+     * @return the vertices of the AbstractMesh
+     */
+    float[] getBatchVertices()
     {
-        if (!this.isInitialised())
+        if (this.batchVertices == null)
         {
-            this.init();
+            this.batchVertices = this.getVerticies();
         }
+        return this.batchVertices;
+    }
 
-        gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
-        gl.glVertexPointer(3, GL10.GL_FLOAT, 0, this.vertexBuffer);
-
-        if (this.indices != null)
+    /**
+     * Returns the collision geometry of the AbstractMesh: the convex hull of its vertices in the coordinates of the
+     * AbstractMesh. A concave mesh (e.g. the heart) collides like its hull. The hull is computed only once.
+     * 
+     * @return the hull of the AbstractMesh or null if the vertices do not span an area
+     */
+    @Override
+    public synchronized ConvexPolygon getHull()
+    {
+        if (!this.hullCreated)
         {
-            gl.glDrawElements(this.openGlDrawType, this.indices.length, GL10.GL_UNSIGNED_SHORT, this.indexBuffer);
+            this.hull = ConvexPolygon.createHull(this.getVerticies(), 3);
+            this.hullCreated = true;
         }
-        else
+        return this.hull;
+    }
+
+    /**
+     * Returns the indices of the AbstractMesh as a list of triangles (DrawType.TRIANGLES) for the SpriteBatch. Strips and
+     * fans are converted, a mesh without indices uses its vertices in order. The indices are computed only once.
+     * 
+     * @return the indices of the triangles
+     */
+    short[] getTriangleIndices()
+    {
+        if (this.triangleIndices == null)
         {
-            gl.glDrawArrays(this.openGlDrawType, 0, 50);
+            final short[] source = this.getIndicies();
+            final int count = source != null ? source.length : this.getBatchVertices().length / 3;
+            final int triangles = this.drawType == DrawType.TRIANGLES ? count / 3 : Math.max(count - 2, 0);
+            final short[] result = new short[triangles * 3];
+
+            for (int i = 0; i < triangles; i++)
+            {
+                if (this.drawType == DrawType.TRIANGLES)
+                {
+                    result[i * 3] = index(source, i * 3);
+                    result[i * 3 + 1] = index(source, i * 3 + 1);
+                    result[i * 3 + 2] = index(source, i * 3 + 2);
+                }
+                else if (this.drawType == DrawType.TRIANGLE_FAN)
+                {
+                    result[i * 3] = index(source, 0);
+                    result[i * 3 + 1] = index(source, i + 1);
+                    result[i * 3 + 2] = index(source, i + 2);
+                }
+                else
+                {
+                    result[i * 3] = index(source, i);
+                    result[i * 3 + 1] = index(source, i + 1);
+                    result[i * 3 + 2] = index(source, i + 2);
+                }
+            }
+            this.triangleIndices = result;
         }
+        return this.triangleIndices;
+    }
 
-        gl.glDisableClientState(GL10.GL_VERTEX_ARRAY);
+    private static short index(final short[] source, final int i)
+    {
+        return source != null ? source[i] : (short) i;
     }
 }
@@ -1,7 +1,5 @@
 package mobile.app.lonelytriangle.rendering;
 
-import javax.microedition.khronos.opengles.GL10;
-
 /**
  * Figure: GL_TRIANGLE_FAN
  * 
@@ -25,7 +23,7 @@ public class Circle extends AbstractMesh
     {
         super(diameter, diameter);
         this.diameter = diameter;
-        this.setOpenGlDrawType(GL10.GL_TRIANGLE_FAN);
+        this.setDrawType(DrawType.TRIANGLE_FAN);
     }
 
     @Override
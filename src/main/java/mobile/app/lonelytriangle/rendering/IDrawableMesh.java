@@ -3,13 +3,13 @@ package mobile.app.lonelytriangle.rendering;
 import javax.microedition.khronos.opengles.GL10;
 
 /**
- * A IDrawableMesh is a mesh that can be rendered by a Renderer, so it can be drawn on the viewport. 
+ * A IDrawableMesh is a mesh that renders itself, so it can be drawn on the viewport without the SpriteBatch. 
  * 
  * @author Benedikt Zönnchen
  * @version v1.0
  * 
  */
-public interface IDrawableMesh
+public interface IDrawableMesh extends IMesh
 {
     /**
      * Renders the IDrawableMesh on the viewport of the GL10 object.
@@ -0,0 +1,17 @@
+package mobile.app.lonelytriangle.rendering;
+
+import mobile.app.lonelytriangle.util.ConvexPolygon;
+
+/**
+ * A IMesh is the geometry of a shape. The simulation only knows the IMesh, it does not depend on OpenGL, so the
+ * simulation runs on every JVM. The Renderer draws the IMesh on the viewport.
+ */
+public interface IMesh
+{
+    /**
+     * Returns the collision geometry of the IMesh: the convex hull of its vertices in the coordinates of the IMesh.
+     * 
+     * @return the hull of the IMesh or null if the box of the shape is the collision geometry
+     */
+    ConvexPolygon getHull();
+}
@@ -13,67 +13,68 @@ import mobile.app.lonelytriangle.simulation.shapes.Shape;
 public interface IMeshFactory
 {
     /**
-     * Returns a IDrawableMesh that represents the Playership.
-     * @return a IDrawableMesh that represents the Playership.
+     * Returns a IMesh that represents the Playership.
+     * @return a IMesh that represents the Playership.
      */
-    IDrawableMesh getShip();
+    IMesh getShip();
 
     /**
-     * Returns a IDrawableMesh that represents a shot of the parent Shape.
+     * Returns a IMesh that represents a shot of the parent Shape. The mesh may be shared by all shots of the same
+     * parent mesh type and size.
      * 
      * @param parent the parent Shape of this shot
      * @param width the width of the shot
      * @param height the height of the shot
-     * @return a IDrawableMesh that represents a shot of the parent Shape
+     * @return a IMesh that represents a shot of the parent Shape
      */
-    IDrawableMesh getShot(Shape parent, float width, float height);
+    IMesh getShot(Shape parent, float width, float height);
 
     /**
-     * Returns a IDrawableMesh that represents a RectangleEnemy.
+     * Returns a IMesh that represents a RectangleEnemy.
      * 
-     * @return a IDrawableMesh that represents a RectangleEnemy
+     * @return a IMesh that represents a RectangleEnemy
      */
-    IDrawableMesh getRectangleEnemy();
+    IMesh getRectangleEnemy();
 
     /**
-     * Returns a IDrawableMesh that represents a TriangleEnemy.
+     * Returns a IMesh that represents a TriangleEnemy.
      * 
-     * @return a IDrawableMesh that represents a TriangleEnemy
+     * @return a IMesh that represents a TriangleEnemy
      */
-    IDrawableMesh getTriangleEnemy();
+    IMesh getTriangleEnemy();
 
     /**
-     * Returns a IDrawableMesh that represents a Star.
+     * Returns a IMesh that represents a Star.
      * 
-     * @return a IDrawableMesh that represents a Star
+     * @return a IMesh that represents a Star
      */
-    IDrawableMesh getStar();
+    IMesh getStar();
 
     /**
-     * Returns a IDrawableMesh that represents a fast Shot.
+     * Returns a IMesh that represents a fast Shot.
      * 
-     * @return a IDrawableMesh that represents a fast Shot
+     * @return a IMesh that represents a fast Shot
      */
-    IDrawableMesh getFastShot();
+    IMesh getFastShot();
 
     /**
-     * Returns a IDrawableMesh that represents a triple Shot.
+     * Returns a IMesh that represents a triple Shot.
      * 
-     * @return a IDrawableMesh that represents a triple Shot
+     * @return a IMesh that represents a triple Shot
      */
-    IDrawableMesh getTripleShot();
+    IMesh getTripleShot();
 
     /**
-     * Returns a IDrawableMesh that represents a PlusLife.
+     * Returns a IMesh that represents a PlusLife.
      * 
-     * @return a IDrawableMesh that represents a PlusLife
+     * @return a IMesh that represents a PlusLife
      */
-    IDrawableMesh getLifePlus();
+    IMesh getLifePlus();
 
     /**
-     * Returns a IDrawableMesh that represents a DiamondEnemy.
+     * Returns a IMesh that represents a DiamondEnemy.
      * 
-     * @return a IDrawableMesh that represents a DiamondEnemy
+     * @return a IMesh that represents a DiamondEnemy
      */
-    IDrawableMesh getDiamondEnemy();
+    IMesh getDiamondEnemy();
 }
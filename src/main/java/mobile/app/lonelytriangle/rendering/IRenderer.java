@@ -5,7 +5,7 @@ import javax.microedition.khronos.opengles.GL10;
 import android.opengl.GLSurfaceView;
 
 /**
- * The IRenderer do all the render work in the render method. The IRenderer renders all IDrawableMeshes on the viewport.
+ * The IRenderer do all the render work in the render method. The IRenderer renders all IMeshes on the viewport.
  * The IRenderer also extends the IScreenResizeObservable which means that Observers can be registered to receive the new width and height if the viewport is resized.
  * 
  * @author Benedikt Zönnchen
@@ -15,7 +15,7 @@ import android.opengl.GLSurfaceView;
 public interface IRenderer extends GLSurfaceView.Renderer, IScreenResizeObservable
 {
     /**
-     * Renders all the IDrawableMeshes on the viewport.
+     * Renders all the IMeshes on the viewport.
      * 
      * @param gl the GL10 object of the viewport
      */
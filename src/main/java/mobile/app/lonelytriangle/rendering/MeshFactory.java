@@ -1,13 +1,14 @@
 package mobile.app.lonelytriangle.rendering;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 
 import mobile.app.lonelytriangle.resource.IResourceManager;
 import mobile.app.lonelytriangle.resource.ResourceManager;
 import mobile.app.lonelytriangle.simulation.shapes.Shape;
 
 /**
- * singleton implementation of IMeshFactory. The Factory saves the IDrawableMesh objects and returns the same object for multiple use. This keeps the amount of memory
+ * singleton implementation of IMeshFactory. The Factory saves the IMesh objects and returns the same object for multiple use. This keeps the amount of memory
  * usage low.
  * 
  * @author Benedikt Zönnchen
@@ -16,21 +17,42 @@ import mobile.app.lonelytriangle.simulation.shapes.Shape;
  */
 public final class MeshFactory implements IMeshFactory
 {
+    /** the initial capacity of the shot mesh cache (one per parent type). */
+    private static final int       INITIAL_SHOT_MESHES = 8;
+
     private static MeshFactory     instance = new MeshFactory();
     private final IResourceManager resourceManager;
 
-    private IDrawableMesh          ship;
-    private IDrawableMesh          diamond;
-    private IDrawableMesh          rect;
-    private IDrawableMesh          triangle;
-    private IDrawableMesh          life;
-    private IDrawableMesh          star;
-    private IDrawableMesh          fastShot;
-    private IDrawableMesh          tripleShot;
+    private IMesh                  ship;
+    private IMesh                  diamond;
+    private IMesh                  rect;
+    private IMesh                  triangle;
+    private IMesh                  life;
+    private IMesh                  star;
+    private IMesh                  fastShot;
+    private IMesh                  tripleShot;
+
+    /** the cache of the shot meshes, a shot mesh is identified by its mesh type, width and height. */
+    private Class<?>[]             shotMeshTypes   = new Class<?>[INITIAL_SHOT_MESHES];
+    private int[]                  shotMeshWidths  = new int[INITIAL_SHOT_MESHES];
+    private int[]                  shotMeshHeights = new int[INITIAL_SHOT_MESHES];
+    private IMesh[]                shotMeshes      = new IMesh[INITIAL_SHOT_MESHES];
+    private int                    numberOfShotMeshes;
 
     private MeshFactory()
     {
-        resourceManager = ResourceManager.getInstance();
+        this(ResourceManager.getInstance());
+    }
+
+    /**
+     * Construct a new MeshFactory (not the singleton) with a specified IResourceManager. Headless tools which run several
+     * simulations at the same time give every simulation its own factory, so they do not share the mesh cache.
+     * 
+     * @param resourceManager the IResourceManager which stores the sizes of the shapes
+     */
+    public MeshFactory(final IResourceManager resourceManager)
+    {
+        this.resourceManager = resourceManager;
     }
 
     /**
@@ -43,7 +65,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getShip()
+    public IMesh getShip()
     {
         if (ship == null)
         {
@@ -53,7 +75,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getRectangleEnemy()
+    public IMesh getRectangleEnemy()
     {
         if (rect == null)
         {
@@ -63,7 +85,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getTriangleEnemy()
+    public IMesh getTriangleEnemy()
     {
         if (triangle == null)
         {
@@ -72,14 +94,58 @@ public final class MeshFactory implements IMeshFactory
         return triangle;
     }
 
-    @SuppressWarnings("boxing")
+    /**
+     * Returns the shot mesh of the parent mesh type with the specified size. All shots of the same parent type share one
+     * mesh, so only the first shot of a type and size creates the mesh (by reflection), its triangles are built once.
+     * 
+     * @param parent the parent Shape which defines the mesh type
+     * @param width the width of the shot
+     * @param height the height of the shot
+     * @return the shared shot mesh
+     */
     @Override
-    public IDrawableMesh getShot(final Shape parent, final float width, final float height)
+    public synchronized IMesh getShot(final Shape parent, final float width, final float height)
+    {
+        final Class<?> type = parent.getMesh().getClass();
+        final int meshWidth = (int) width;
+        final int meshHeight = (int) height;
+
+        for (int i = 0; i < numberOfShotMeshes; i++)
+        {
+            if (shotMeshTypes[i] == type && shotMeshWidths[i] == meshWidth && shotMeshHeights[i] == meshHeight)
+            {
+                return shotMeshes[i];
+            }
+        }
+
+        final IMesh mesh = newShotMesh(type, meshWidth, meshHeight);
+
+        if (mesh != null)
+        {
+            if (numberOfShotMeshes == shotMeshes.length)
+            {
+                final int capacity = numberOfShotMeshes * 2;
+                shotMeshTypes = Arrays.copyOf(shotMeshTypes, capacity);
+                shotMeshWidths = Arrays.copyOf(shotMeshWidths, capacity);
+                shotMeshHeights = Arrays.copyOf(shotMeshHeights, capacity);
+                shotMeshes = Arrays.copyOf(shotMeshes, capacity);
+            }
+
+            shotMeshTypes[numberOfShotMeshes] = type;
+            shotMeshWidths[numberOfShotMeshes] = meshWidth;
+            shotMeshHeights[numberOfShotMeshes] = meshHeight;
+            shotMeshes[numberOfShotMeshes] = mesh;
+            numberOfShotMeshes++;
+        }
+        return mesh;
+    }
+
+    @SuppressWarnings("boxing")
+    private IMesh newShotMesh(final Class<?> type, final int width, final int height)
     {
-        // TODO: improve only one mesh per enemy type!
         try
         {
-            return parent.getMesh().getClass().getConstructor(int.class, int.class).newInstance((int) width, (int) height);
+            return (IMesh) type.getConstructor(int.class, int.class).newInstance(width, height);
         }
         catch (final IllegalArgumentException e)
         {
@@ -105,7 +171,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getDiamondEnemy()
+    public IMesh getDiamondEnemy()
     {
         if (diamond == null)
         {
@@ -115,7 +181,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getLifePlus()
+    public IMesh getLifePlus()
     {
         if (life == null)
         {
@@ -125,7 +191,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getStar()
+    public IMesh getStar()
     {
         if (star == null)
         {
@@ -135,7 +201,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getFastShot()
+    public IMesh getFastShot()
     {
         if (fastShot == null)
         {
@@ -145,7 +211,7 @@ public final class MeshFactory implements IMeshFactory
     }
 
     @Override
-    public IDrawableMesh getTripleShot()
+    public IMesh getTripleShot()
     {
         if (tripleShot == null)
         {
@@ -154,17 +220,17 @@ public final class MeshFactory implements IMeshFactory
         return tripleShot;
     }
 
-    private IDrawableMesh getHeart(final int width, final int height)
+    private IMesh getHeart(final int width, final int height)
     {
         return new Heart(width, height);
     }
 
-    private IDrawableMesh getTriangle(final int width, final int height)
+    private IMesh getTriangle(final int width, final int height)
     {
         return new Triangle(width, height);
     }
 
-    private IDrawableMesh getRectangle(final int width, final int height)
+    private IMesh getRectangle(final int width, final int height)
     {
         return new Rectangle(width, height);
     }
@@ -23,7 +23,7 @@ public class One extends AbstractMesh
     protected One(final int width, final int height)
     {
         super(width, height);
-        setOpenGlDrawType(GL10.GL_TRIANGLES);
+        setDrawType(DrawType.TRIANGLES);
         vertices = new float[]
         { 
             width * 4 / 7f, 0f, 0f, // 0
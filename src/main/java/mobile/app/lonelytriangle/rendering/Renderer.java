@@ -11,10 +11,7 @@ import mobile.app.lonelytriangle.resource.IResourceManager;
 import mobile.app.lonelytriangle.resource.ResourceManager;
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
 import mobile.app.lonelytriangle.simulation.IGameStateModel;
-import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
-import mobile.app.lonelytriangle.simulation.shapes.Shape;
-import mobile.app.lonelytriangle.simulation.shapes.Ship;
+import mobile.app.lonelytriangle.simulation.RenderSnapshot;
 import android.opengl.GLU;
 
 /**
@@ -41,6 +38,9 @@ public class Renderer implements IRenderer
     /** the set of all IScreenResizeListener. */
     private final Set<IScreenResizeListener> resizeListener;
 
+    /** collects the shapes of a frame and draws them grouped by color. */
+    private final SpriteBatch                batch;
+
     /**
      * Constructs a newly allocated Renderer object.
      * 
@@ -51,19 +51,46 @@ public class Renderer implements IRenderer
         this.simulation = simulation;
         resource = ResourceManager.getInstance();
         resizeListener = new HashSet<IScreenResizeListener>();
+        batch = new SpriteBatch();
     }
 
+    /**
+     * Renders a frame. The renderer reads the latest render snapshot of the model (without locking) and interpolates the
+     * positions by its interpolation factor, the shapes are collected by the SpriteBatch and drawn with one draw call per
+     * layer and color.
+     * 
+     * @param gl the GL10 object of the viewport
+     */
     @Override
     public void render(final GL10 gl)
     {
         initialRenderPhase(gl);
-        renderShapeList(gl, simulation.getStars());
-        renderEnemyList(gl, simulation.getAllEnemies());
-        renderShapeList(gl, simulation.getBoni());
-        renderShapeList(gl, simulation.getEnemyShots());
-        renderShapeList(gl, simulation.getPlayerShots());
-        renderShape(gl, simulation.getShip());
-        renderLife(gl);
+
+        final RenderSnapshot snapshot = simulation.getRenderSnapshot();
+        final float alpha = snapshot.getAlpha();
+        batch.begin();
+        int layer = 0;
+
+        // blend the positions before and after the last simulation step
+        for (int i = 0; i < snapshot.size(); i++)
+        {
+            final float previousX = snapshot.getPreviousX(i);
+            final float previousY = snapshot.getPreviousY(i);
+            final float x = previousX + (snapshot.getX(i) - previousX) * alpha;
+            final float y = previousY + (snapshot.getY(i) - previousY) * alpha;
+
+            if (snapshot.getLayer(i) != layer)
+            {
+                layer = snapshot.getLayer(i);
+                batch.nextLayer();
+            }
+            renderMesh(gl, snapshot.getMesh(i), snapshot.getColor(i), x, y);
+        }
+
+        // the hearts are drawn over all shapes
+        batch.nextLayer();
+        renderLife(gl, snapshot.getShipLife());
+        batch.end(gl);
         endRenderPhase(gl);
     }
 
@@ -107,23 +134,16 @@ public class Renderer implements IRenderer
         GLU.gluOrtho2D(gl, 0, width, 0, height);
     }
 
-    private void renderLife(final GL10 gl)
+    private void renderLife(final GL10 gl, final int lifes)
     {
-        final Ship ship = (Ship) simulation.getShip();
-        if (ship != null)
+        if (lifes >= 0)
         {
-            final int lifes = ship.getLife();
             if (lifes <= resource.getMaxNumberOfShownHearts())
             {
-                final IDrawableMesh heart = MeshFactory.getInstance().getLifePlus();
+                final IMesh heart = MeshFactory.getInstance().getLifePlus();
                 for (int i = 1; i <= lifes; i++)
                 {
-                    setColor(gl, Colors.Red);
-                    gl.glPushMatrix();
-                    gl.glTranslatef(width - (i * (ResourceManager.getInstance().getBonusSize() + 10)), height - ResourceManager.getInstance().getBonusSize() - 5, 0);
-                    heart.render(gl);
-                    gl.glPopMatrix();
-                    
+                    renderMesh(gl, heart, Colors.Red, width - (i * (resource.getBonusSize() + 10)), height - resource.getBonusSize() - 5);
                 }
             }
         }
@@ -134,84 +154,27 @@ public class Renderer implements IRenderer
 
     }
 
-    private void renderShape(final GL10 gl, final IMoveable shape)
+    /**
+     * Adds the mesh to the batch. A IDrawableMesh which can not be batched renders itself immediately.
+     * 
+     * @param gl the GL10 object of the viewport
+     * @param mesh the mesh
+     * @param color the color of the mesh
+     * @param x the x-coordinate of the mesh
+     * @param y the y-coordinate of the mesh
+     */
+    private void renderMesh(final GL10 gl, final IMesh mesh, final Colors color, final float x, final float y)
     {
-        if (shape != null)
+        if (!batch.add(mesh, color, x, y) && mesh instanceof IDrawableMesh)
         {
-            setColor(gl, ((Shape) shape).getColor());
+            SpriteBatch.setColor(gl, color);
             gl.glPushMatrix();
-            gl.glTranslatef(shape.getX(), shape.getY(), 0); // move to correct
-                                                            // position
-            ((Shape) shape).getMesh().render(gl);
+            gl.glTranslatef(x, y, 0); // move to correct position
+            ((IDrawableMesh) mesh).render(gl);
             gl.glPopMatrix();
         }
     }
 
-    private void renderShapeList(final GL10 gl, final Iterable<IMoveable> shapes)
-    {
-        synchronized (simulation)
-        {
-            if (shapes != null)
-            {
-                for (final IMoveable shape : shapes)
-                {
-                    renderShape(gl, shape);
-                }
-            }
-        }
-    }
-
-    private void renderEnemyList(final GL10 gl, final Iterable<EnemyShip> shapes)
-    {
-        synchronized (simulation)
-        {
-            if (shapes != null)
-            {
-                for (final IMoveable shape : shapes)
-                {
-                    renderShape(gl, shape);
-                }
-            }
-        }
-
-    }
-
-    private void setColor(final GL10 gl, final Colors color)
-    {
-        switch (color)
-        {
-            case White:
-                gl.glColor4f(1, 1, 1, 1);
-                break;
-
-            case Yellow:
-                gl.glColor4f(1, 1, 0, 1);
-                break;
-
-            case Green:
-                gl.glColor4f(0, 0.75f, 0, 1);
-                break;
-
-            case Blue:
-                gl.glColor4f(0, 0, 1, 1);
-                break;
-
-            case Red:
-                gl.glColor4f(1, 0, 0, 1);
-                break;
-
-            case Orange:
-                gl.glColor4f(1, 0.5f, 0, 1);
-                break;
-
-            case Purple:
-                gl.glColor4f(0.75f, 0, 1, 1);
-                break;
-            default:
-                throw new IllegalArgumentException("wrong color");
-        }
-    }
-
     @Override
     public void addScreenResizeListener(final IScreenResizeListener listener)
     {
@@ -0,0 +1,299 @@
+package mobile.app.lonelytriangle.rendering;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import javax.microedition.khronos.opengles.GL10;
+
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+
+/**
+ * The SpriteBatch collects the translated triangles of all meshes of a frame grouped by their layer and color. Every group
+ * is drawn by a single glDrawElements, so the number of draw calls depends on the number of layers and colors and not on the
+ * number of shapes. A group holds at most 65536 vertices (unsigned short indices), a bigger group is continued in a new
+ * group of the same color.
+ *
+ * The groups are drawn in the order of their creation, so a layer is drawn over all lower layers (e.g. the shots over the
+ * enemies). Within a layer the meshes of one color are drawn together, the order of meshes with different colors is lost.
+ *
+ * The collecting (begin, add) does not need the GL10 object, so it can be done while the model is locked and the drawing
+ * (end) can be done afterwards. The arrays and the direct buffers are reused, they only grow if a frame needs more space.
+ */
+public class SpriteBatch
+{
+    /** the maximal number of vertices of a group (unsigned short indices). */
+    private static final int MAX_VERTICES     = 65536;
+
+    /** the initial number of vertices and indices of a group. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** the groups of this frame (index 0 to numberOfGroups - 1), the other groups are reused later. */
+    private Group[]          groups;
+    private int              numberOfGroups;
+
+    /** the current group of each color of the current layer (index is the ordinal of the color). */
+    private final Group[]    currentGroups;
+
+    private FloatBuffer      vertexBuffer;
+    private ShortBuffer      indexBuffer;
+
+    /** the number of draw calls of the last frame. */
+    private int              drawCalls;
+
+    /**
+     * Constructs a newly allocated SpriteBatch.
+     */
+    public SpriteBatch()
+    {
+        groups = new Group[Colors.values().length];
+        currentGroups = new Group[Colors.values().length];
+        numberOfGroups = 0;
+        vertexBuffer = newVertexBuffer(INITIAL_CAPACITY * 2);
+        indexBuffer = newIndexBuffer(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Starts a new frame, all collected triangles of the last frame are discarded.
+     */
+    public void begin()
+    {
+        numberOfGroups = 0;
+        Arrays.fill(currentGroups, null);
+    }
+
+    /**
+     * Starts a new layer, the meshes which are added next are drawn over all meshes added so far.
+     */
+    public void nextLayer()
+    {
+        Arrays.fill(currentGroups, null);
+    }
+
+    /**
+     * Adds the mesh translated by (x, y) to the group of its color in the current layer. Only an AbstractMesh can be
+     * batched.
+     *
+     * @param mesh the mesh
+     * @param color the color of the mesh
+     * @param x the x translation
+     * @param y the y translation
+     * @return true if the mesh was added, false if the mesh can not be batched (it has to be rendered directly)
+     */
+    public boolean add(final IMesh mesh, final Colors color, final float x, final float y)
+    {
+        if (!(mesh instanceof AbstractMesh))
+        {
+            return false;
+        }
+
+        final AbstractMesh abstractMesh = (AbstractMesh) mesh;
+        final float[] vertices = abstractMesh.getBatchVertices();
+        final short[] indices = abstractMesh.getTriangleIndices();
+        final int vertexCount = vertices.length / 3;
+        Group group = currentGroups[color.ordinal()];
+
+        if (group == null || group.vertexCount + vertexCount > MAX_VERTICES)
+        {
+            group = nextGroup(color);
+            currentGroups[color.ordinal()] = group;
+        }
+
+        group.ensureCapacity(vertexCount, indices.length);
+
+        final int offset = group.vertexCount;
+        final float[] groupVertices = group.vertices;
+        int v = offset * 2;
+
+        for (int i = 0; i < vertices.length; i += 3)
+        {
+            groupVertices[v++] = vertices[i] + x;
+            groupVertices[v++] = vertices[i + 1] + y;
+        }
+
+        final short[] groupIndices = group.indices;
+        int n = group.indexCount;
+
+        for (int i = 0; i < indices.length; i++)
+        {
+            groupIndices[n++] = (short) (indices[i] + offset);
+        }
+
+        group.vertexCount += vertexCount;
+        group.indexCount = n;
+        return true;
+    }
+
+    /**
+     * Draws all collected groups, one glDrawElements per group.
+     *
+     * @param gl the GL10 object of the viewport
+     */
+    public void end(final GL10 gl)
+    {
+        drawCalls = 0;
+
+        if (numberOfGroups == 0)
+        {
+            return;
+        }
+
+        gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
+
+        for (int i = 0; i < numberOfGroups; i++)
+        {
+            final Group group = groups[i];
+
+            if (group.indexCount == 0)
+            {
+                continue;
+            }
+
+            if (vertexBuffer.capacity() < group.vertexCount * 2)
+            {
+                vertexBuffer = newVertexBuffer(group.vertices.length);
+            }
+
+            if (indexBuffer.capacity() < group.indexCount)
+            {
+                indexBuffer = newIndexBuffer(group.indices.length);
+            }
+
+            vertexBuffer.clear();
+            vertexBuffer.put(group.vertices, 0, group.vertexCount * 2);
+            vertexBuffer.position(0);
+            indexBuffer.clear();
+            indexBuffer.put(group.indices, 0, group.indexCount);
+            indexBuffer.position(0);
+
+            setColor(gl, group.color);
+            gl.glVertexPointer(2, GL10.GL_FLOAT, 0, vertexBuffer);
+            gl.glDrawElements(GL10.GL_TRIANGLES, group.indexCount, GL10.GL_UNSIGNED_SHORT, indexBuffer);
+            drawCalls++;
+        }
+
+        gl.glDisableClientState(GL10.GL_VERTEX_ARRAY);
+    }
+
+    /**
+     * Returns the number of draw calls of the last frame.
+     *
+     * @return the number of draw calls of the last frame
+     */
+    public int getDrawCalls()
+    {
+        return drawCalls;
+    }
+
+    /**
+     * Returns the number of groups of the current frame.
+     *
+     * @return the number of groups of the current frame
+     */
+    public int getNumberOfGroups()
+    {
+        return numberOfGroups;
+    }
+
+    private Group nextGroup(final Colors color)
+    {
+        if (numberOfGroups == groups.length)
+        {
+            groups = Arrays.copyOf(groups, numberOfGroups * 2);
+        }
+
+        if (groups[numberOfGroups] == null)
+        {
+            groups[numberOfGroups] = new Group();
+        }
+
+        final Group group = groups[numberOfGroups++];
+        group.color = color;
+        group.vertexCount = 0;
+        group.indexCount = 0;
+        return group;
+    }
+
+    private static FloatBuffer newVertexBuffer(final int floats)
+    {
+        final ByteBuffer vbb = ByteBuffer.allocateDirect(floats * 4);
+        vbb.order(ByteOrder.nativeOrder());
+        return vbb.asFloatBuffer();
+    }
+
+    private static ShortBuffer newIndexBuffer(final int shorts)
+    {
+        final ByteBuffer ibb = ByteBuffer.allocateDirect(shorts * 2);
+        ibb.order(ByteOrder.nativeOrder());
+        return ibb.asShortBuffer();
+    }
+
+    /**
+     * Sets the current color of the GL10 object.
+     *
+     * @param gl the GL10 object
+     * @param color the color
+     */
+    static void setColor(final GL10 gl, final Colors color)
+    {
+        switch (color)
+        {
+            case White:
+                gl.glColor4f(1, 1, 1, 1);
+                break;
+
+            case Yellow:
+                gl.glColor4f(1, 1, 0, 1);
+                break;
+
+            case Green:
+                gl.glColor4f(0, 0.75f, 0, 1);
+                break;
+
+            case Blue:
+                gl.glColor4f(0, 0, 1, 1);
+                break;
+
+            case Red:
+                gl.glColor4f(1, 0, 0, 1);
+                break;
+
+            case Orange:
+                gl.glColor4f(1, 0.5f, 0, 1);
+                break;
+
+            case Purple:
+                gl.glColor4f(0.75f, 0, 1, 1);
+                break;
+            default:
+                throw new IllegalArgumentException("wrong color");
+        }
+    }
+
+    /**
+     * A Group are the triangles (2D vertices and indices) of one color in one layer.
+     */
+    private static final class Group
+    {
+        private Colors  color;
+        private float[] vertices   = new float[INITIAL_CAPACITY * 2];
+        private int     vertexCount;
+        private short[] indices    = new short[INITIAL_CAPACITY];
+        private int     indexCount;
+
+        private void ensureCapacity(final int additionalVertices, final int additionalIndices)
+        {
+            if ((vertexCount + additionalVertices) * 2 > vertices.length)
+            {
+                vertices = Arrays.copyOf(vertices, Math.max(vertices.length * 2, (vertexCount + additionalVertices) * 2));
+            }
+
+            if (indexCount + additionalIndices > indices.length)
+            {
+                indices = Arrays.copyOf(indices, Math.max(indices.length * 2, indexCount + additionalIndices));
+            }
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package mobile.app.lonelytriangle.rendering;
 
-import javax.microedition.khronos.opengles.GL10;
-
 /**
  * The TopDownTriangle is a Triangle which has the base at top. Figure: GL_TRIANGLES
  * 
@@ -23,7 +21,7 @@ public class TopDownTriangle extends AbstractMesh
     public TopDownTriangle(final int width, final int height)
     {
         super(width, height);
-        this.setOpenGlDrawType(GL10.GL_TRIANGLES);
+        this.setDrawType(DrawType.TRIANGLES);
         this.vertices = new float[]
         { 
                 width / 2, 0f, 0f,  // 0
@@ -1,7 +1,5 @@
 package mobile.app.lonelytriangle.rendering;
 
-import javax.microedition.khronos.opengles.GL10;
-
 /**
  * A TrippleHorizontalTriangles is a Figure which has three triangles (base at bottom) in one line (horizontal).
  * Figure: GL_TRIANGLES
@@ -24,7 +22,7 @@ public class TrippleHorizontalTriangles extends AbstractMesh
     protected TrippleHorizontalTriangles(final int width, final int height)
     {
         super(width, height);
-        this.setOpenGlDrawType(GL10.GL_TRIANGLES);
+        this.setDrawType(DrawType.TRIANGLES);
         this.vertices = new float[]
         {
                 0f, 0f, 0f,                         // 0
@@ -1,7 +1,5 @@
 package mobile.app.lonelytriangle.rendering;
 
-import javax.microedition.khronos.opengles.GL10;
-
 /**
  * A TrippleTriangle is a Figure which shows three triangles (base at bottom) first two in a line (vertical) and than one centered on top of these two.
  * Figure: GL_TRIANGLES
@@ -24,7 +22,7 @@ public class TrippleTriangle extends AbstractMesh
     protected TrippleTriangle(final int width, final int height)
     {
         super(width, height);
-        this.setOpenGlDrawType(GL10.GL_TRIANGLES);
+        this.setDrawType(DrawType.TRIANGLES);
 
         this.vertices = new float[]
         {
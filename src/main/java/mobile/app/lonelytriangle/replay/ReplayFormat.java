@@ -0,0 +1,126 @@
+package mobile.app.lonelytriangle.replay;
+
+/**
+ * The binary format of a replay. A replay is the seed of a game plus the input of the player, every other state can be
+ * simulated again.
+ *
+ * <pre>
+ * header: magic (4 bytes) | version | seed (8 bytes) | start time | step | screen width | screen height | difficulty
+ * event:  type | time
+ *         type | time | x | y (MOVE_AND_SHOOT)
+ *         type | time | width | height (RESIZE)
+ * </pre>
+ *
+ * All numbers except the magic and the seed are unsigned varints (7 bits per byte, the highest bit marks a following
+ * byte). The start time is the simulated time in nano seconds, the step are the bits of the float step size in seconds
+ * (the exact float is needed to advance the SimulationClock equally). The time of an event is the distance to the previous
+ * event in simulated nano seconds, the touch target is the zig-zag encoded distance to the previous target. So a usual
+ * event needs only a few bytes. The size of a RESIZE is absolute. The last event of a replay is END.
+ *
+ * Version 2 adds the RESIZE event, a replay of version 1 is a valid replay of version 2.
+ */
+public final class ReplayFormat
+{
+    /** the first bytes of a replay: "LTRP". */
+    public static final int MAGIC             = 0x4C545250;
+
+    /** the version of the format. */
+    public static final int VERSION           = 2;
+
+    /** the end of the replay. */
+    public static final int END               = 0;
+
+    /** the player touched the screen: the ship moves to the target and shoots. */
+    public static final int MOVE_AND_SHOOT    = 1;
+
+    /** the player released the screen: the ship stops shooting. */
+    public static final int STOP_SHOOTING     = 2;
+
+    /** the screen was resized: the simulation gets the new size (since version 2). */
+    public static final int RESIZE            = 3;
+
+    /** the maximal number of bytes of one event (type and three varints of 64 bits). */
+    public static final int MAX_EVENT_SIZE    = 1 + 3 * 10;
+
+    private ReplayFormat()
+    {
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param buffer the target buffer (at least 10 bytes have to be free)
+     * @param position the position of the first byte
+     * @param value the value (interpreted as unsigned)
+     * @return the position behind the last written byte
+     */
+    public static int writeVarLong(final byte[] buffer, final int position, final long value)
+    {
+        int pos = position;
+        long rest = value;
+
+        while ((rest & ~0x7FL) != 0)
+        {
+            buffer[pos++] = (byte) ((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        buffer[pos++] = (byte) rest;
+        return pos;
+    }
+
+    /**
+     * Writes an int as 4 bytes (big endian).
+     *
+     * @param buffer the target buffer (at least 4 bytes have to be free)
+     * @param position the position of the first byte
+     * @param value the value
+     * @return the position behind the last written byte
+     */
+    public static int writeInt(final byte[] buffer, final int position, final int value)
+    {
+        for (int i = 0; i < 4; i++)
+        {
+            buffer[position + i] = (byte) (value >>> (24 - 8 * i));
+        }
+        return position + 4;
+    }
+
+    /**
+     * Writes a long as 8 bytes (big endian).
+     *
+     * @param buffer the target buffer (at least 8 bytes have to be free)
+     * @param position the position of the first byte
+     * @param value the value
+     * @return the position behind the last written byte
+     */
+    public static int writeLong(final byte[] buffer, final int position, final long value)
+    {
+        for (int i = 0; i < 8; i++)
+        {
+            buffer[position + i] = (byte) (value >>> (56 - 8 * i));
+        }
+        return position + 8;
+    }
+
+    /**
+     * Maps a signed value to an unsigned value, so small negative values get a short varint as well.
+     *
+     * @param value the signed value
+     * @return the zig-zag encoded value
+     */
+    public static long zigZag(final long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverts the zig-zag encoding.
+     *
+     * @param value the zig-zag encoded value
+     * @return the signed value
+     */
+    public static long unZigZag(final long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,413 @@
+package mobile.app.lonelytriangle.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import mobile.app.lonelytriangle.rendering.MeshFactory;
+import mobile.app.lonelytriangle.resource.IResourceManager;
+import mobile.app.lonelytriangle.resource.ResourceManager;
+import mobile.app.lonelytriangle.simulation.CheckpointRing;
+import mobile.app.lonelytriangle.simulation.ISimulation;
+import mobile.app.lonelytriangle.simulation.ISimulation.Difficulty;
+import mobile.app.lonelytriangle.simulation.Simulation;
+import mobile.app.lonelytriangle.simulation.shapes.ShapeFactory;
+import mobile.app.lonelytriangle.util.FrameTimeHistogram;
+
+/**
+ * The ReplayPlayer plays a replay of the ReplayRecorder: it initialises an ISimulation with the recorded seed and screen
+ * and applies the recorded input and resizes at the recorded simulated time. The simulation is driven headless as fast as the CPU
+ * allows, so a replay reproduces a reported stutter or serves as a repeatable load benchmark.
+ *
+ * The simulation has to be configured with the config of the recorded difficulty.
+ *
+ * Usage: ReplayPlayer [replay file] [config file] [seek time in seconds]
+ */
+public class ReplayPlayer
+{
+    /** the interval of the checkpoints in seconds if the config disables them. */
+    private static final float DEFAULT_CHECKPOINT_INTERVAL = 5.0f;
+
+    private final byte[]     data;
+
+    /** the position of the first event. */
+    private final int        firstEvent;
+    private final long       seed;
+    private final long       startTime;
+    private final float      step;
+    private final int        screenWidth;
+    private final int        screenHeight;
+    private final Difficulty difficulty;
+
+    /** the read position of the current play. */
+    private int              position;
+
+    /** the simulation of the current play. */
+    private ISimulation      simulation;
+
+    /** the next event and its time since the start of the replay (the target is already decoded). */
+    private int              eventType;
+    private long             eventTime;
+    private int              x;
+    private int              y;
+
+    /** the size of the last RESIZE event. */
+    private int              width;
+    private int              height;
+
+    /**
+     * Construct a new ReplayPlayer which reads the whole replay.
+     *
+     * @param in the stream of the replay, it is not closed by the player
+     * @throws IOException if the replay can not be read or is not a replay
+     */
+    public ReplayPlayer(final InputStream in) throws IOException
+    {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final byte[] bytes = new byte[4096];
+        int read = in.read(bytes);
+
+        while (read >= 0)
+        {
+            buffer.write(bytes, 0, read);
+            read = in.read(bytes);
+        }
+
+        data = buffer.toByteArray();
+        position = 0;
+
+        if (data.length < 4 || readInt() != ReplayFormat.MAGIC)
+        {
+            throw new IOException("the stream is not a replay");
+        }
+
+        final long version = readVarLong();
+
+        if (version < 1 || version > ReplayFormat.VERSION)
+        {
+            throw new IOException("unsupported replay version " + version);
+        }
+
+        seed = readLong();
+        startTime = readVarLong();
+        step = Float.intBitsToFloat((int) readVarLong());
+        screenWidth = (int) readVarLong();
+        screenHeight = (int) readVarLong();
+        difficulty = Difficulty.values()[(int) readVarLong()];
+        firstEvent = position;
+    }
+
+    /**
+     * Initialises the simulation with the recorded seed, screen and clock and rewinds the replay.
+     *
+     * @param simulation the simulation which is driven by the replay
+     * @throws IOException if the replay is corrupt
+     */
+    public void start(final ISimulation simulation) throws IOException
+    {
+        this.simulation = simulation;
+
+        // apply the screen size first, the first resize of a simulation initialises the stars
+        simulation.screenResize(screenWidth, screenHeight);
+        simulation.initSimulation();
+        simulation.setDifficulty(difficulty);
+        simulation.setSeed(seed);
+        simulation.getClock().setTimeNanos(startTime);
+        simulation.initGame();
+        rewind();
+    }
+
+    /**
+     * Applies the input which is due and simulates one step.
+     *
+     * @return false if the end of the replay is reached (nothing is simulated), otherwise true
+     * @throws IOException if the replay is corrupt
+     */
+    public boolean step() throws IOException
+    {
+        while (eventTime <= getTime())
+        {
+            switch (eventType)
+            {
+                case ReplayFormat.END:
+                    return false;
+                case ReplayFormat.MOVE_AND_SHOOT:
+                    simulation.enableShipShoting();
+                    simulation.setTargetX(x);
+                    simulation.setTargetY(y);
+                    break;
+                case ReplayFormat.RESIZE:
+                    simulation.screenResize(width, height);
+                    break;
+                default:
+                    simulation.disableShipShoting();
+                    break;
+            }
+            readEvent();
+        }
+
+        simulation.update(step);
+        return true;
+    }
+
+    /**
+     * Plays the whole replay.
+     *
+     * @param simulation the simulation which is driven by the replay
+     * @param updateTimes records the time of every update, may be null
+     * @param checkpoints takes the checkpoints of the replay, may be null
+     * @return the number of simulated steps
+     * @throws IOException if the replay is corrupt
+     */
+    public int play(final ISimulation simulation, final FrameTimeHistogram updateTimes, final CheckpointRing checkpoints) throws IOException
+    {
+        start(simulation);
+        int steps = 0;
+
+        while (true)
+        {
+            final long start = updateTimes != null ? System.nanoTime() : 0;
+
+            if (!step())
+            {
+                return steps;
+            }
+
+            if (updateTimes != null)
+            {
+                updateTimes.record(System.nanoTime() - start);
+            }
+
+            if (checkpoints != null)
+            {
+                checkpoints.update();
+            }
+            steps++;
+        }
+    }
+
+    /**
+     * Seeks a time of the replay: the simulation continues from the latest checkpoint which is not later than the time
+     * (or from the start) and is simulated forward to the time. The replay has to be started before.
+     *
+     * @param checkpoints the checkpoints of the replay, may be null
+     * @param time the simulated time since the start of the replay in nano seconds
+     * @return the number of simulated steps
+     * @throws IOException if the replay is corrupt
+     */
+    public int seek(final CheckpointRing checkpoints, final long time) throws IOException
+    {
+        final long restored = checkpoints != null ? checkpoints.restore(startTime + time) : -1;
+
+        if (restored < 0)
+        {
+            start(simulation);
+        }
+        else
+        {
+            // skip the input which is already part of the restored state, the screen size is not part of the state
+            rewind();
+            int restoredWidth = screenWidth;
+            int restoredHeight = screenHeight;
+
+            while (eventType != ReplayFormat.END && eventTime < restored - startTime)
+            {
+                if (eventType == ReplayFormat.RESIZE)
+                {
+                    restoredWidth = width;
+                    restoredHeight = height;
+                }
+                readEvent();
+            }
+
+            if (restoredWidth != simulation.getScreenWidth() || restoredHeight != simulation.getScreenHeight())
+            {
+                simulation.screenResize(restoredWidth, restoredHeight);
+            }
+        }
+
+        int steps = 0;
+
+        while (getTime() < time && step())
+        {
+            if (checkpoints != null)
+            {
+                checkpoints.update();
+            }
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Returns the simulated time since the start of the replay.
+     *
+     * @return the simulated time in nano seconds
+     */
+    public long getTime()
+    {
+        return simulation.getClock().getTimeNanos() - startTime;
+    }
+
+    private void rewind() throws IOException
+    {
+        position = firstEvent;
+        eventTime = 0;
+        x = 0;
+        y = 0;
+        readEvent();
+    }
+
+    /**
+     * Reads the next event, the target of a MOVE_AND_SHOOT and the size of a RESIZE are decoded immediately.
+     */
+    private void readEvent() throws IOException
+    {
+        eventType = readByte();
+        eventTime += readVarLong();
+
+        if (eventType == ReplayFormat.MOVE_AND_SHOOT)
+        {
+            x += (int) ReplayFormat.unZigZag(readVarLong());
+            y += (int) ReplayFormat.unZigZag(readVarLong());
+        }
+        else if (eventType == ReplayFormat.RESIZE)
+        {
+            width = (int) readVarLong();
+            height = (int) readVarLong();
+        }
+        else if (eventType != ReplayFormat.END && eventType != ReplayFormat.STOP_SHOOTING)
+        {
+            throw new IOException("unknown event " + eventType + " at " + (position - 1));
+        }
+    }
+
+    /**
+     * Returns the seed of the recorded game.
+     *
+     * @return the seed of the recorded game
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Returns the size of the fixed steps of the recorded game.
+     *
+     * @return the size of the steps in seconds
+     */
+    public float getStep()
+    {
+        return step;
+    }
+
+    /**
+     * Returns the difficulty of the recorded game.
+     *
+     * @return the difficulty of the recorded game
+     */
+    public Difficulty getDifficulty()
+    {
+        return difficulty;
+    }
+
+    private int readByte() throws IOException
+    {
+        if (position >= data.length)
+        {
+            throw new IOException("unexpected end of the replay");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    private long readVarLong() throws IOException
+    {
+        long value = 0;
+        int shift = 0;
+        int b = readByte();
+
+        while ((b & 0x80) != 0)
+        {
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+            b = readByte();
+        }
+        return value | ((long) b << shift);
+    }
+
+    private int readInt() throws IOException
+    {
+        int value = 0;
+
+        for (int i = 0; i < 4; i++)
+        {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private long readLong() throws IOException
+    {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Plays a replay headless and prints the achieved speed and the update times.
+     *
+     * @param args [replay file] [config file] (default: the config of the recorded difficulty in res/raw) [seek time]
+     * @throws IOException if the replay or the config file can not be read
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.out.println("usage: ReplayPlayer [replay file] [config file] [seek time in seconds]");
+            return;
+        }
+
+        final ReplayPlayer player;
+        final InputStream replay = new FileInputStream(args[0]);
+        try
+        {
+            player = new ReplayPlayer(replay);
+        }
+        finally
+        {
+            replay.close();
+        }
+
+        final String config = args.length > 1 ? args[1] : "res/raw/difficulty_" + player.getDifficulty().toString().toLowerCase() + ".cfg";
+        final IResourceManager resourceManager = ResourceManager.getInstance();
+        final InputStream stream = new FileInputStream(config);
+        try
+        {
+            resourceManager.loadConfig(stream);
+        }
+        finally
+        {
+            stream.close();
+        }
+
+        final Simulation simulation = new Simulation(resourceManager, new ShapeFactory(resourceManager, MeshFactory.getInstance()));
+        final CheckpointRing checkpoints = new CheckpointRing(simulation, resourceManager.getCheckpointInterval() > 0 ? resourceManager.getCheckpointInterval() : DEFAULT_CHECKPOINT_INTERVAL, resourceManager.getCheckpointCapacity());
+        final FrameTimeHistogram updateTimes = new FrameTimeHistogram(1000L, 1000);
+        long start = System.nanoTime();
+        final int steps = player.play(simulation, updateTimes, checkpoints);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(steps + " steps (" + steps * player.getStep() + " s simulated) in " + seconds + " s, seed " + player.getSeed() + ", score " + simulation.getScore());
+        System.out.println("update times: " + updateTimes);
+
+        if (args.length > 2)
+        {
+            final long time = (long) (Double.parseDouble(args[2]) * 1e9);
+            start = System.nanoTime();
+            final int seekSteps = player.seek(checkpoints, time);
+            seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println("seek " + args[2] + " s: " + seekSteps + " steps in " + seconds + " s (" + checkpoints.size() + " checkpoints)");
+        }
+        simulation.shutdown();
+    }
+}
@@ -0,0 +1,292 @@
+package mobile.app.lonelytriangle.replay;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import mobile.app.lonelytriangle.simulation.ISimulation;
+
+/**
+ * The ReplayRecorder records the seed and the input of one game in the ReplayFormat. The events are encoded by the
+ * thread of the game loop into a chunk of memory, full chunks are written to the stream by a writer thread. So the game
+ * loop never waits for the file system and (after the first few chunks) does not allocate memory.
+ *
+ * The time of an event is the simulated time, so a replay reproduces the game only if the simulation runs with fixed
+ * steps. A resize of the screen has to be recorded at the simulated time the simulation gets the new size.
+ */
+public class ReplayRecorder
+{
+    /** the size of a chunk in bytes. */
+    private static final int           CHUNK_SIZE      = 4096;
+
+    /** the number of chunks which are allocated in advance. */
+    private static final int           NUMBER_OF_CHUNKS = 4;
+
+    /** the chunk which stops the writer thread. */
+    private static final Chunk         POISON          = new Chunk(0);
+
+    private final OutputStream         out;
+    private final Thread               writer;
+
+    /** the chunks which have to be written. */
+    private final BlockingQueue<Chunk> full;
+
+    /** the written chunks which can be reused. */
+    private final BlockingQueue<Chunk> free;
+
+    /** the chunk which is filled at the moment. */
+    private Chunk                      current;
+
+    private ISimulation                simulation;
+
+    /** the simulated time of the game start in nano seconds. */
+    private long                       startTime;
+
+    /** the simulated time of the last event relative to the game start. */
+    private long                       lastTime;
+    private int                        lastX;
+    private int                        lastY;
+    private boolean                    ended;
+
+    /** the first exception of the writer thread. */
+    private volatile IOException       error;
+
+    /**
+     * Construct a new ReplayRecorder and starts its writer thread.
+     *
+     * @param out the stream of the replay, it is closed by the recorder
+     */
+    public ReplayRecorder(final OutputStream out)
+    {
+        this.out = out;
+        full = new LinkedBlockingQueue<Chunk>();
+        free = new LinkedBlockingQueue<Chunk>();
+
+        for (int i = 0; i < NUMBER_OF_CHUNKS; i++)
+        {
+            free.offer(new Chunk(CHUNK_SIZE));
+        }
+
+        current = obtainChunk();
+        writer = new Thread("ReplayWriter")
+        {
+            @Override
+            public void run()
+            {
+                write();
+            }
+        };
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records the header of the game. This has to be called after the seed of the simulation is set and before the game
+     * is initialised. The screen size of the simulation is recorded.
+     *
+     * @param simulation the simulation of the game
+     * @param step the size of the fixed steps in seconds
+     */
+    public void begin(final ISimulation simulation, final float step)
+    {
+        begin(simulation, step, simulation.getScreenWidth(), simulation.getScreenHeight());
+    }
+
+    /**
+     * Records the header of the game. This has to be called after the seed of the simulation is set and before the game
+     * is initialised.
+     *
+     * @param simulation the simulation of the game
+     * @param step the size of the fixed steps in seconds
+     * @param screenWidth the width of the screen of the game (e.g. a resize which the simulation has not applied yet)
+     * @param screenHeight the height of the screen of the game
+     */
+    public void begin(final ISimulation simulation, final float step, final int screenWidth, final int screenHeight)
+    {
+        this.simulation = simulation;
+        startTime = simulation.getClock().getTimeNanos();
+        lastTime = 0;
+        lastX = 0;
+        lastY = 0;
+
+        final byte[] data = current.data;
+        int pos = current.length;
+        pos = ReplayFormat.writeInt(data, pos, ReplayFormat.MAGIC);
+        pos = ReplayFormat.writeVarLong(data, pos, ReplayFormat.VERSION);
+        pos = ReplayFormat.writeLong(data, pos, simulation.getSeed());
+        pos = ReplayFormat.writeVarLong(data, pos, startTime);
+        pos = ReplayFormat.writeVarLong(data, pos, Float.floatToIntBits(step));
+        pos = ReplayFormat.writeVarLong(data, pos, screenWidth);
+        pos = ReplayFormat.writeVarLong(data, pos, screenHeight);
+        pos = ReplayFormat.writeVarLong(data, pos, simulation.getDifficulty().ordinal());
+        current.length = pos;
+    }
+
+    /**
+     * Records that the player touched the screen.
+     *
+     * @param x the x-coordinate of the target
+     * @param y the y-coordinate of the target
+     */
+    public void moveAndShoot(final int x, final int y)
+    {
+        int pos = writeEvent(ReplayFormat.MOVE_AND_SHOOT);
+        pos = ReplayFormat.writeVarLong(current.data, pos, ReplayFormat.zigZag(x - lastX));
+        pos = ReplayFormat.writeVarLong(current.data, pos, ReplayFormat.zigZag(y - lastY));
+        current.length = pos;
+        lastX = x;
+        lastY = y;
+    }
+
+    /**
+     * Records that the player released the screen.
+     */
+    public void stopShooting()
+    {
+        current.length = writeEvent(ReplayFormat.STOP_SHOOTING);
+    }
+
+    /**
+     * Records that the screen was resized. This has to be called when the simulation gets the new size.
+     *
+     * @param width the new width of the screen
+     * @param height the new height of the screen
+     */
+    public void screenResize(final int width, final int height)
+    {
+        int pos = writeEvent(ReplayFormat.RESIZE);
+        pos = ReplayFormat.writeVarLong(current.data, pos, width);
+        pos = ReplayFormat.writeVarLong(current.data, pos, height);
+        current.length = pos;
+    }
+
+    /**
+     * Hands the recorded events over to the writer thread (e.g. if the game is paused).
+     */
+    public void flush()
+    {
+        if (current.length > 0)
+        {
+            full.offer(current);
+            current = obtainChunk();
+        }
+    }
+
+    /**
+     * Records the end of the game, writes all events and closes the stream. This method waits for the writer thread.
+     *
+     * @throws IOException if the replay could not be written
+     */
+    public void close() throws IOException
+    {
+        if (!ended)
+        {
+            current.length = writeEvent(ReplayFormat.END);
+            ended = true;
+            flush();
+            full.offer(POISON);
+        }
+
+        try
+        {
+            writer.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (error != null)
+        {
+            throw error;
+        }
+    }
+
+    private int writeEvent(final int type)
+    {
+        if (ended)
+        {
+            throw new IllegalStateException("the replay is closed");
+        }
+
+        if (current.length + ReplayFormat.MAX_EVENT_SIZE > current.data.length)
+        {
+            flush();
+        }
+
+        final long time = simulation.getClock().getTimeNanos() - startTime;
+        int pos = current.length;
+        current.data[pos++] = (byte) type;
+        pos = ReplayFormat.writeVarLong(current.data, pos, time - lastTime);
+        lastTime = time;
+        return pos;
+    }
+
+    private Chunk obtainChunk()
+    {
+        final Chunk chunk = free.poll();
+
+        // the writer is behind, never wait for it
+        return chunk != null ? chunk : new Chunk(CHUNK_SIZE);
+    }
+
+    private void write()
+    {
+        try
+        {
+            Chunk chunk = full.take();
+
+            while (chunk != POISON)
+            {
+                // after an error the chunks are only recycled
+                if (error == null)
+                {
+                    try
+                    {
+                        out.write(chunk.data, 0, chunk.length);
+                    }
+                    catch (IOException e)
+                    {
+                        error = e;
+                    }
+                }
+                chunk.length = 0;
+                free.offer(chunk);
+                chunk = full.take();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            try
+            {
+                out.close();
+            }
+            catch (IOException e)
+            {
+                if (error == null)
+                {
+                    error = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * A part of the replay.
+     */
+    private static final class Chunk
+    {
+        private final byte[] data;
+        private int          length;
+
+        private Chunk(final int size)
+        {
+            data = new byte[size];
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package mobile.app.lonelytriangle.resource;
+
+import java.io.InputStream;
+
+import android.content.res.Resources;
+
+/**
+ * The AndroidRawResources is the android side of the IRawResources, it opens the raw resources by the Resources of the
+ * activity.
+ */
+public class AndroidRawResources implements IRawResources
+{
+    /** the Resources of the activity. */
+    private final Resources resources;
+
+    /**
+     * Construct a new AndroidRawResources.
+     *
+     * @param resources the Resources object of the activity
+     */
+    public AndroidRawResources(final Resources resources)
+    {
+        this.resources = resources;
+    }
+
+    @Override
+    public InputStream openRawResource(final int rawResource)
+    {
+        return resources.openRawResource(rawResource);
+    }
+}
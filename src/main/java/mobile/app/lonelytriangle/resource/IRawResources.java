@@ -0,0 +1,19 @@
+package mobile.app.lonelytriangle.resource;
+
+import java.io.InputStream;
+
+/**
+ * The IRawResources is the platform shim which opens the raw resources (res/raw) of the application. On android it
+ * wraps the Resources of the activity. Keeping it behind this interface allows the IResourceManager to be loaded on
+ * every JVM.
+ */
+public interface IRawResources
+{
+    /**
+     * Opens the raw resource with the specified id.
+     *
+     * @param rawResource the id of the raw resource (R.raw)
+     * @return the stream of the raw resource
+     */
+    InputStream openRawResource(final int rawResource);
+}
@@ -1,7 +1,10 @@
 package mobile.app.lonelytriangle.resource;
 
+import java.io.InputStream;
+
+import mobile.app.lonelytriangle.resource.ResourceManager.Broadphase;
+import mobile.app.lonelytriangle.resource.ResourceManager.CatchUpPolicy;
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
-import android.content.res.Resources;
 
 //TODO: javadoc is missing!
 
@@ -20,17 +23,33 @@ public interface IResourceManager
      */
     void loadConfig(final int rawResource);
 
+    /**
+     * Loads a new config from a stream. This works without the android Resources, so a simulation can be configured
+     * on every JVM (e.g. by the config files of res/raw).
+     * 
+     * @param stream the stream of the config file
+     */
+    void loadConfig(final InputStream stream);
+
     /**
      * Initialize the IResourceManager. This method have to be called before you use the IResourceManager.
      * 
-     * @param resources the Resources object of the activity
+     * @param rawResources the raw resources of the application (on android the AndroidRawResources)
      */
-    void init(final Resources resources);
+    void init(final IRawResources rawResources);
     
     float getMsToSec();
 
     long getMaxFrameRate();
 
+    CatchUpPolicy getCatchUpPolicy();
+
+    int getMaxCatchUpFrames();
+
+    float getFixedStepRate();
+
+    int getMaxStepsPerFrame();
+
     int getShipWidth();
 
     int getShipHeight();
@@ -124,6 +143,28 @@ public interface IResourceManager
     int getLevelUpFactor();
 
     int getLevel();
+
+    Broadphase getBroadphase();
+
+    int getGridColumns();
+
+    int getGridRows();
+
+    int getQuadtreeDepth();
+
+    int getCollisionThreads();
+
+    int getBulletCapacity();
+
+    int getEnemyPoolSize();
+
+    int getBonusPoolSize();
+
+    boolean isRecordReplays();
+
+    float getCheckpointInterval();
+
+    int getCheckpointCapacity();
     
     int getMaxNumberOfShownHearts();
 }
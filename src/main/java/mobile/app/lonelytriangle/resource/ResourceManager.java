@@ -10,10 +10,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import mobile.app.lonelytriangle.R;
-import android.content.res.Resources;
 
 /**
- * singleton implementation of the IResourceManager. This resource manager loads the data from a config file.
+ * singleton implementation of the IResourceManager. This resource manager loads the data from a config file. Headless
+ * tools which run several configurations at the same time create their own instances by newInstance.
  * 
  * @author Benedikt Zönnchen, Alexander Waldeck, Johannes Szeibert
  * @version v1.0
@@ -33,11 +33,37 @@ public final class ResourceManager implements IResourceManager
         Yellow, Green, White, Red, Blue, Orange, Purple
     }
 
+    /**
+     * A Broadphase identifies the ISpatialIndex implementation which collects the shapes for the collision detection.
+     * @author Benedikt Zönnchen
+     * @version v1.0
+     *
+     */
+    public enum Broadphase
+    {
+        Grid, HashedGrid, LooseQuadtree, SortAndSweep
+    }
+
+    /**
+     * A CatchUpPolicy decides what the game loop does if it falls behind its schedule.
+     * @author Benedikt Zönnchen
+     * @version v1.0
+     *
+     */
+    public enum CatchUpPolicy
+    {
+        Skip, Burst
+    }
+
     //TODO: But this variable in the config file!
     /** the maximum number of shown hearts. If the user has more lifes than this number the display mode will change. */
     private static final int              MAX_NUMBER_OF_SHOWN_HEARTS = 10;
     private float                         msToSec;    
     private long                          maxFrameRate;
+    private CatchUpPolicy                 catchUpPolicy;
+    private int                           maxCatchUpFrames;
+    private float                         fixedStepRate;
+    private int                           maxStepsPerFrame;
     private int                           levelUpFactor;
 
     // Colors
@@ -101,11 +127,28 @@ public final class ResourceManager implements IResourceManager
     private float                         diamRad;
     private float                         diamShotChance;
 
+    // Collision detection
+    private Broadphase                    broadphase;
+    private int                           gridColumns;
+    private int                           gridRows;
+    private int                           quadtreeDepth;
+    private int                           collisionThreads;
+
+    // Pools (a size of zero disables the pool) and the initial capacity of the BulletStore
+    private int                           bulletCapacity;
+    private int                           enemyPoolSize;
+    private int                           bonusPoolSize;
+
+    // Replays and checkpoints of the played games
+    private boolean                       recordReplays;
+    private float                         checkpointInterval;
+    private int                           checkpointCapacity;
+
     // Highscore level
     private int                           level;
     // Instance
     private static IResourceManager       instance = new ResourceManager();
-    private Resources                     resource;
+    private IRawResources                 rawResources;
     private final Map<Class<?>, Class<?>> typeMap  = new HashMap<Class<?>, Class<?>>();
 
     /**
@@ -118,12 +161,26 @@ public final class ResourceManager implements IResourceManager
     }
 
     @Override
-    public void init(final Resources resources)
+    public void init(final IRawResources newRawResources)
     {
-        resource = resources;
+        rawResources = newRawResources;
         loadConfig(R.raw.difficulty_hard);
     }
 
+    /**
+     * Returns a new ResourceManager (not the singleton) which is loaded by a config stream. It has no raw resources, so
+     * it can only load further config streams.
+     * 
+     * @param stream the stream of the config file, it is not closed
+     * @return the new ResourceManager
+     */
+    public static IResourceManager newInstance(final InputStream stream)
+    {
+        final IResourceManager resourceManager = new ResourceManager();
+        resourceManager.loadConfig(stream);
+        return resourceManager;
+    }
+
     /**
      * Returns the instance of this singleton.
      * 
@@ -136,6 +193,12 @@ public final class ResourceManager implements IResourceManager
 
     @Override
     public void loadConfig(final int rawResource)
+    {
+        loadConfig(rawResources.openRawResource(rawResource));
+    }
+
+    @Override
+    public void loadConfig(final InputStream stream)
     {
         typeMap.put(int.class, Integer.class);
         typeMap.put(long.class, Long.class);
@@ -147,8 +210,9 @@ public final class ResourceManager implements IResourceManager
         typeMap.put(void.class, Void.class);
         typeMap.put(short.class, Short.class);
         typeMap.put(Colors.class, Colors.class);
+        typeMap.put(Broadphase.class, Broadphase.class);
+        typeMap.put(CatchUpPolicy.class, CatchUpPolicy.class);
 
-        final InputStream stream = resource.openRawResource(rawResource);
         final BufferedReader br = new BufferedReader(new InputStreamReader(stream));
 
         try
@@ -231,6 +295,30 @@ public final class ResourceManager implements IResourceManager
         return maxFrameRate;
     }
 
+    @Override
+    public CatchUpPolicy getCatchUpPolicy()
+    {
+        return catchUpPolicy;
+    }
+
+    @Override
+    public int getMaxCatchUpFrames()
+    {
+        return maxCatchUpFrames;
+    }
+
+    @Override
+    public float getFixedStepRate()
+    {
+        return fixedStepRate;
+    }
+
+    @Override
+    public int getMaxStepsPerFrame()
+    {
+        return maxStepsPerFrame;
+    }
+
     @Override
     public int getShipWidth()
     {
@@ -507,6 +595,72 @@ public final class ResourceManager implements IResourceManager
         return level;
     }
 
+    @Override
+    public Broadphase getBroadphase()
+    {
+        return broadphase;
+    }
+
+    @Override
+    public int getGridColumns()
+    {
+        return gridColumns;
+    }
+
+    @Override
+    public int getGridRows()
+    {
+        return gridRows;
+    }
+
+    @Override
+    public int getQuadtreeDepth()
+    {
+        return quadtreeDepth;
+    }
+
+    @Override
+    public int getCollisionThreads()
+    {
+        return collisionThreads;
+    }
+
+    @Override
+    public int getBulletCapacity()
+    {
+        return bulletCapacity;
+    }
+
+    @Override
+    public int getEnemyPoolSize()
+    {
+        return enemyPoolSize;
+    }
+
+    @Override
+    public int getBonusPoolSize()
+    {
+        return bonusPoolSize;
+    }
+
+    @Override
+    public boolean isRecordReplays()
+    {
+        return recordReplays;
+    }
+
+    @Override
+    public float getCheckpointInterval()
+    {
+        return checkpointInterval;
+    }
+
+    @Override
+    public int getCheckpointCapacity()
+    {
+        return checkpointCapacity;
+    }
+
     @Override
     public int getMaxNumberOfShownHearts()
     {
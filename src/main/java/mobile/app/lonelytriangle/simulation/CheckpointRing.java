@@ -0,0 +1,191 @@
+package mobile.app.lonelytriangle.simulation;
+
+import mobile.app.lonelytriangle.util.StateBuffer;
+
+/**
+ * The CheckpointRing takes a full snapshot of the state of an ISimulation every interval of simulated time. It keeps the
+ * latest checkpoints in a ring of a fixed capacity, the oldest checkpoint is overwritten. The buffers of the checkpoints
+ * are reused, so taking a checkpoint does not allocate memory once the buffers have reached the size of the state.
+ *
+ * To seek a point of a session the nearest earlier checkpoint is restored and the simulation is simulated forward, which
+ * is much faster than simulating the whole session again. The checkpoints can only be restored to the simulation which
+ * took them.
+ */
+public class CheckpointRing
+{
+    /** the initial capacity of a state buffer in ints. */
+    private static final int     INITIAL_STATE_SIZE = 4096;
+
+    private final ISimulation    simulation;
+
+    /** the interval of the checkpoints in simulated nano seconds. */
+    private final long           interval;
+
+    /** the simulated time of the checkpoints. */
+    private final long[]         times;
+
+    /** the states of the checkpoints. */
+    private final StateBuffer[]  states;
+
+    /** the index of the next checkpoint. */
+    private int                  next;
+
+    /** the number of checkpoints. */
+    private int                  size;
+
+    /** the simulated time of the last checkpoint. */
+    private long                 lastTime;
+
+    /**
+     * Constructs a newly allocated CheckpointRing.
+     *
+     * @param simulation the simulation
+     * @param interval the interval of the checkpoints in simulated seconds
+     * @param capacity the maximal number of checkpoints
+     */
+    public CheckpointRing(final ISimulation simulation, final float interval, final int capacity)
+    {
+        if (interval <= 0)
+        {
+            throw new IllegalArgumentException("the interval of the checkpoints has to be positive!");
+        }
+
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("the capacity of the checkpoints has to be positive!");
+        }
+
+        this.simulation = simulation;
+        this.interval = (long) (interval * 1e9);
+        times = new long[capacity];
+        states = new StateBuffer[capacity];
+
+        for (int i = 0; i < capacity; i++)
+        {
+            states[i] = new StateBuffer(INITIAL_STATE_SIZE);
+        }
+        clear();
+    }
+
+    /**
+     * Takes a checkpoint if the interval has elapsed since the last checkpoint. This should be called after the
+     * simulation was advanced.
+     *
+     * @return true if a checkpoint was taken, otherwise false
+     */
+    public boolean update()
+    {
+        if (size > 0 && simulation.getClock().getTimeNanos() - lastTime < interval)
+        {
+            return false;
+        }
+
+        take();
+        return true;
+    }
+
+    /**
+     * Takes a checkpoint, the oldest checkpoint is overwritten if the ring is full.
+     */
+    public void take()
+    {
+        final StateBuffer state = states[next];
+        state.clear();
+        simulation.saveState(state);
+        lastTime = simulation.getClock().getTimeNanos();
+        times[next] = lastTime;
+        next = (next + 1) % times.length;
+
+        if (size < times.length)
+        {
+            size++;
+        }
+    }
+
+    /**
+     * Restores the latest checkpoint which is not later than the specified time.
+     *
+     * @param time the simulated time in nano seconds
+     * @return the simulated time of the restored checkpoint, or -1 if there is no such checkpoint
+     */
+    public long restore(final long time)
+    {
+        int newer = 0;
+
+        // the checkpoints are ordered by time, search from the latest
+        while (newer < size && times[(next - 1 - newer + times.length) % times.length] > time)
+        {
+            newer++;
+        }
+
+        if (newer == size)
+        {
+            return -1;
+        }
+
+        // the later checkpoints are dropped, they are taken again if the simulation runs forward
+        next = (next - newer + times.length) % times.length;
+        size -= newer;
+
+        final int index = (next - 1 + times.length) % times.length;
+        states[index].rewind();
+        simulation.restoreState(states[index]);
+        lastTime = times[index];
+        return lastTime;
+    }
+
+    /**
+     * Seeks the specified time: the latest checkpoint which is not later is restored and the simulation is advanced by
+     * fixed steps until it reaches the time. This requires that the input of the player does not change in between.
+     *
+     * @param time the simulated time in nano seconds
+     * @param step the size of the steps in seconds
+     * @return the number of simulated steps, or -1 if there is no checkpoint before the time
+     */
+    public int seek(final long time, final float step)
+    {
+        if (restore(time) < 0)
+        {
+            return -1;
+        }
+
+        int steps = 0;
+
+        while (simulation.getClock().getTimeNanos() < time)
+        {
+            simulation.update(step);
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Removes all checkpoints.
+     */
+    public void clear()
+    {
+        next = 0;
+        size = 0;
+        lastTime = 0;
+    }
+
+    /**
+     * Returns the number of checkpoints.
+     *
+     * @return the number of checkpoints
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the simulated time of the oldest checkpoint.
+     *
+     * @return the simulated time in nano seconds, or -1 if there is no checkpoint
+     */
+    public long getOldestTime()
+    {
+        return size == 0 ? -1 : times[(next - size + times.length) % times.length];
+    }
+}
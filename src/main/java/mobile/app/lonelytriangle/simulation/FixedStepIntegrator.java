@@ -0,0 +1,135 @@
+package mobile.app.lonelytriangle.simulation;
+
+/**
+ * The FixedStepIntegrator advances an ISimulation in steps of a fixed size, independent of the frame rate of the game
+ * loop. The elapsed time of the frames is collected in an accumulator, every complete step is simulated. So the behaviour
+ * and the collision results do not depend on the frame timing and a long stall can not make a fast shot skip an enemy.
+ *
+ * At most maxStepsPerFrame steps are simulated per frame, the time of a longer stall is dropped (the game slows down
+ * instead of spending more and more time to catch up). The remaining time of the accumulator is the interpolation factor
+ * of the published render snapshot, so the rendering can run at a different rate than the simulation.
+ *
+ * A step rate of zero disables the fixed steps: every frame is simulated by one update with the elapsed time.
+ */
+public class FixedStepIntegrator
+{
+    private final ISimulation simulation;
+
+    /** the size of one step in seconds (0 => variable steps). */
+    private final float       step;
+
+    /** the maximal number of steps of one frame. */
+    private final int         maxStepsPerFrame;
+
+    /** the elapsed time which is not simulated so far in seconds. */
+    private float             accumulator;
+
+    /** the interpolation factor of the last frame. */
+    private float             alpha;
+
+    /** the number of steps which were dropped because of the maxStepsPerFrame limit. */
+    private long              droppedSteps;
+
+    /**
+     * Constructs a newly allocated FixedStepIntegrator.
+     *
+     * @param simulation the simulation which will be advanced
+     * @param stepRate the number of steps per second (0 => one variable step per frame)
+     * @param maxStepsPerFrame the maximal number of steps of one frame
+     */
+    public FixedStepIntegrator(final ISimulation simulation, final float stepRate, final int maxStepsPerFrame)
+    {
+        if (stepRate < 0)
+        {
+            throw new IllegalArgumentException("the step rate is lower than zero!");
+        }
+
+        if (maxStepsPerFrame <= 0)
+        {
+            throw new IllegalArgumentException("the maximal number of steps per frame has to be positive!");
+        }
+
+        this.simulation = simulation;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        step = stepRate > 0 ? 1.0f / stepRate : 0;
+        reset();
+    }
+
+    /**
+     * Advances the simulation by the elapsed time of a frame and publishes the render snapshot.
+     *
+     * @param delta the elapsed time of the frame in seconds
+     * @return the number of simulated steps
+     */
+    public int advance(final float delta)
+    {
+        if (step == 0)
+        {
+            simulation.update(delta);
+            alpha = 1.0f;
+            simulation.publishRenderSnapshot(alpha);
+            return 1;
+        }
+
+        accumulator += delta;
+        int steps = 0;
+
+        while (accumulator >= step && steps < maxStepsPerFrame)
+        {
+            simulation.update(step);
+            accumulator -= step;
+            steps++;
+        }
+
+        // drop the time which could not be simulated in this frame
+        if (accumulator >= step)
+        {
+            final int dropped = (int) (accumulator / step);
+            droppedSteps += dropped;
+            accumulator -= dropped * step;
+        }
+
+        alpha = accumulator / step;
+        simulation.publishRenderSnapshot(alpha);
+        return steps;
+    }
+
+    /**
+     * Discards the collected time, this should be called if the game was paused.
+     */
+    public void reset()
+    {
+        accumulator = 0;
+        alpha = 1.0f;
+    }
+
+    /**
+     * Returns the size of one step.
+     *
+     * @return the size of one step in seconds (0 => variable steps)
+     */
+    public float getStep()
+    {
+        return step;
+    }
+
+    /**
+     * Returns the interpolation factor of the last frame.
+     *
+     * @return the interpolation factor (0.0 previous state, 1.0 current state)
+     */
+    public float getAlpha()
+    {
+        return alpha;
+    }
+
+    /**
+     * Returns the number of steps which were dropped because of the maxStepsPerFrame limit.
+     *
+     * @return the number of dropped steps
+     */
+    public long getDroppedSteps()
+    {
+        return droppedSteps;
+    }
+}
@@ -0,0 +1,27 @@
+package mobile.app.lonelytriangle.simulation;
+
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
+
+/**
+ * The ICollisionSink receives the detected collisions. The detection only records the colliding pairs, the IMoveables
+ * handle their collisions later (deferred), so the detection does not change the state of the game.
+ */
+public interface ICollisionSink
+{
+    /**
+     * Adds a collision of two IMoveables.
+     * 
+     * @param first the first IMoveable
+     * @param second the second IMoveable
+     */
+    void addCollision(final IMoveable first, final IMoveable second);
+
+    /**
+     * Adds a collision of a bullet and an IMoveable.
+     * 
+     * @param bullets the BulletStore of the bullet
+     * @param bullet the index of the bullet
+     * @param target the hit IMoveable
+     */
+    void addBulletCollision(final BulletStore bullets, final int bullet, final IMoveable target);
+}
@@ -2,8 +2,9 @@ package mobile.app.lonelytriangle.simulation;
 
 import java.util.List;
 
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
 import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
-import mobile.app.lonelytriangle.util.Grid;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
 
 /**
  * The IGameStateModel offers only methods to get informations of the game model. There is no
@@ -17,25 +18,18 @@ import mobile.app.lonelytriangle.util.Grid;
 public interface IGameStateModel
 {
     /**
-     * return all visible Player shots.
+     * return all visible shots (of the player and of the enemies).
      * 
-     * @return all visible Player shots
+     * @return all visible shots
      */
-    Grid<IMoveable> getPlayerShots();
-
-    /**
-     * return all visible Enemy shots.
-     * 
-     * @return all visible enemy shots
-     */
-    Grid<IMoveable> getEnemyShots();
+    BulletStore getBullets();
 
     /**
      * return all visible enemies.
      * 
      * @return all visible enemies
      */
-    Grid<EnemyShip> getAllEnemies();
+    ISpatialIndex<EnemyShip> getAllEnemies();
 
     /**
      * return all stars.
@@ -56,7 +50,7 @@ public interface IGameStateModel
      * 
      * @return the boni
      */
-    Grid<IMoveable> getBoni();
+    ISpatialIndex<IMoveable> getBoni();
 
     /**
      * return the score value of the user.
@@ -65,4 +59,12 @@ public interface IGameStateModel
      */
     int getScore();
 
+    /**
+     * return the latest published render snapshot. The snapshot is not changed by the simulation until the next call, so
+     * it can be read without locking. This method should only be called by the render thread.
+     * 
+     * @return the latest published render snapshot
+     */
+    RenderSnapshot getRenderSnapshot();
+
 }
@@ -1,7 +1,6 @@
 package mobile.app.lonelytriangle.simulation;
 
 import mobile.app.lonelytriangle.util.IGridable;
-import android.graphics.RectF;
 
 /**
  * A IMoveable is a object which can be moved, handle collision and can find intersection with other IMoveable objects.
@@ -108,12 +107,15 @@ public interface IMoveable extends IGridable
     boolean intersect(final float width, final float height);
     
     /**
-     * Returns true if this shap is out of the bounding box.
+     * Returns true if this shape intersects the bounding box specified by its corners.
      * 
-     * @param rect bounding box
-     * @return true if this shap is out of the bounding box, otherwise false
+     * @param minX the lowest x-coordinate of the bounding box
+     * @param minY the lowest y-coordinate of the bounding box
+     * @param maxX the biggest x-coordinate of the bounding box
+     * @param maxY the biggest y-coordinate of the bounding box
+     * @return true if this shape intersects the bounding box, otherwise false
      */
-    boolean intersect(final RectF rect);
+    boolean intersect(final float minX, final float minY, final float maxX, final float maxY);
     
     /**
      * a Callback method which should be called by the CollisionDetector. The moveable object decides here himself what should happen after it collide with an other IMoveable.
@@ -135,4 +137,24 @@ public interface IMoveable extends IGridable
      * @param delta elapsed time in seconds
      */
     void update(final float delta);
+
+    /**
+     * stores the current position as the previous position. This should be called before the position is changed by an
+     * update, the renderer interpolates between the previous and the current position.
+     */
+    void savePosition();
+
+    /**
+     * return the x-coordinate of the moveable object before the last update.
+     * 
+     * @return the previous x-coordinate of the moveable object
+     */
+    float getPreviousX();
+
+    /**
+     * return the y-coordinate of the moveable object before the last update.
+     * 
+     * @return the previous y-coordinate of the moveable object
+     */
+    float getPreviousY();
 }
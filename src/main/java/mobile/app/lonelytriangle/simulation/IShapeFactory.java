@@ -1,8 +1,10 @@
 package mobile.app.lonelytriangle.simulation;
 
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
 import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
 import mobile.app.lonelytriangle.simulation.shapes.Shape;
 import mobile.app.lonelytriangle.simulation.shapes.Ship;
+import mobile.app.lonelytriangle.util.StateBuffer;
 
 /**
  * The IShapeFactory is a factory which offers methods to create new IMoveable and different Shapes.
@@ -14,16 +16,16 @@ import mobile.app.lonelytriangle.simulation.shapes.Ship;
 public interface IShapeFactory
 {
     /**
-     * Returns a new IMoveable (a shot) with the specified x,y-coordinates and angle. The parent Shape is used to
-     * get the same IDrawableMesh with a differrent width and height (defined by a scale factor).
+     * Adds a new shot with the specified x,y-coordinates and angle to the BulletStore. The parent Shape is used to
+     * get the same IMesh with a differrent width and height (defined by a scale factor) and the owner of the shot.
      * 
-     * @param x the x-coordinate of the IMoveable
-     * @param y the y-coordinate of the IMoveable
-     * @param parent the parent Shape which defines the IDrawableMesh of this IMoveable
+     * @param bullets the BulletStore which stores the shot
+     * @param x the x-coordinate of the shot
+     * @param y the y-coordinate of the shot
+     * @param parent the parent Shape which defines the IMesh of the shot
      * @param angle the angle defines the dircetion of the shot
-     * @return a new IMoveable (a shot)
      */
-    IMoveable getShot(final float x, final float y, Shape parent, float angle);
+    void addShot(final BulletStore bullets, final float x, final float y, Shape parent, float angle);
 
     /**
      * Returns and configure a new Ship (the player ship) with the specified x,y-coordinate.
@@ -97,4 +99,34 @@ public interface IShapeFactory
      */
     IMoveable getLifeUp(final float x, final float y);
 
+    /**
+     * Gives a IMoveable which was created by this factory back to the factory, if the IMoveable is no longer part of the
+     * game. The factory may recycle it (pool), so the IMoveable must not be used after this call.
+     * 
+     * @param moveable the IMoveable which is no longer used
+     */
+    void free(IMoveable moveable);
+
+    /**
+     * Adjusts the pools of the factory to the current configuration of the IResourceManager (e.g. after the difficulty
+     * has changed). The simulation calls it if a new game starts.
+     */
+    void initPools();
+
+    /**
+     * Writes the kind and the state of an enemy or bonus of this factory (a checkpoint).
+     * 
+     * @param moveable the enemy or bonus
+     * @param state the buffer of the state
+     */
+    void saveShape(IMoveable moveable, StateBuffer state);
+
+    /**
+     * Returns and configure a new enemy or bonus with the kind and the state which was written by saveShape.
+     * 
+     * @param state the buffer of the state
+     * @return the restored IMoveable
+     */
+    IMoveable restoreShape(StateBuffer state);
+
 }
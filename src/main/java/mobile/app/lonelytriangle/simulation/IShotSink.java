@@ -0,0 +1,21 @@
+package mobile.app.lonelytriangle.simulation;
+
+import mobile.app.lonelytriangle.simulation.shapes.Shape;
+
+/**
+ * The IShotSink receives the shots which are fired by the ships. A shot is written directly into the store of the
+ * simulation, so firing does not create any objects.
+ */
+public interface IShotSink
+{
+    /**
+     * Adds a new shot with the specified x,y-coordinates and angle. The parent Shape defines the display format and the
+     * owner of the shot.
+     * 
+     * @param x the x-coordinate of the shot
+     * @param y the y-coordinate of the shot
+     * @param parent the Shape which fires the shot
+     * @param angle the angle defines the dircetion of the shot (0 is right, 90 is straight up)
+     */
+    void addShot(final float x, final float y, final Shape parent, final float angle);
+}
@@ -1,6 +1,7 @@
 package mobile.app.lonelytriangle.simulation;
 
 import mobile.app.lonelytriangle.core.IScreenResizeListener;
+import mobile.app.lonelytriangle.util.StateBuffer;
 
 
 /**
@@ -112,6 +113,13 @@ public interface ISimulation extends IGameStateModel, IScreenResizeListener
      */
     void update(final float delta);
 
+    /**
+     * publish the current state of the game world as render snapshot. The renderer interpolates the positions between
+     * the state before and after the last update.
+     * 
+     * @param alpha the interpolation factor (0.0 previous state, 1.0 current state)
+     */
+    void publishRenderSnapshot(final float alpha);
     
     /**
      * reset the simulation to use for playing the game.
@@ -183,6 +191,57 @@ public interface ISimulation extends IGameStateModel, IScreenResizeListener
      */
     void setSoundOn(boolean soundOn);
     
+    /**
+     * Returns the width of the simulated screen.
+     * 
+     * @return the width of the simulated screen
+     */
+    int getScreenWidth();
+
+    /**
+     * Returns the height of the simulated screen.
+     * 
+     * @return the height of the simulated screen
+     */
+    int getScreenHeight();
+
+    /**
+     * Returns the clock of the simulated time, it is advanced by every update.
+     * 
+     * @return the clock of the simulation
+     */
+    SimulationClock getClock();
+
+    /**
+     * Sets the seed of the game. The independent random number generators of the enemy spawning, the enemy fire, the
+     * bonus drops and the starfield are derived from it, so two runs with the same seed and the same input are identical.
+     * 
+     * @param seed the seed
+     */
+    void setSeed(final long seed);
+
+    /**
+     * Returns the seed of the game.
+     * 
+     * @return the seed of the game
+     */
+    long getSeed();
+
+    /**
+     * Writes the whole state of the simulation (ship, enemies, shots, boni, stars, score, random numbers and the clock)
+     * into the buffer.
+     * 
+     * @param state the buffer of the state, the state is appended
+     */
+    void saveState(StateBuffer state);
+
+    /**
+     * Replaces the state of the simulation by a state which was written by saveState of this simulation.
+     * 
+     * @param state the buffer of the state, it is read from its read position
+     */
+    void restoreState(StateBuffer state);
+
     /**
      * Returns true if this simulation model is only for simulating the background of the menu.
      * 
@@ -190,6 +249,13 @@ public interface ISimulation extends IGameStateModel, IScreenResizeListener
      */
     boolean isBackground();
     
+    /**
+     * Stops the worker threads of the simulation (e.g. of the collision detection) if the simulation is discarded. The
+     * simulation can still be updated (with the same results) on the calling thread, the next initGame starts new
+     * workers.
+     */
+    void shutdown();
+
     /**
      * Set the difficulty of the simulation.
      * @param difficulty the difficulty
@@ -0,0 +1,238 @@
+package mobile.app.lonelytriangle.simulation;
+
+import java.util.Arrays;
+
+import mobile.app.lonelytriangle.rendering.IMesh;
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+
+/**
+ * A RenderSnapshot is a copy of everything the renderer needs of one frame: the previous and the current position, color
+ * and mesh of every visible shape (in drawing order), the interpolation factor and the life of the player ship. The simulation fills a snapshot and publishes it, after that
+ * it is only read by the renderer. The arrays are reused, they only grow.
+ *
+ * The shapes are divided into layers (e.g. stars, enemies, boni, shots, ship), a shape is drawn over all shapes of the lower
+ * layers. The renderer may change the order of the shapes within a layer.
+ */
+public final class RenderSnapshot
+{
+    private static final int INITIAL_CAPACITY = 256;
+
+    private float[]          previousXs;
+    private float[]          previousYs;
+    private float[]          xs;
+    private float[]          ys;
+    private Colors[]         colors;
+    private IMesh[]          meshes;
+    private int[]            layers;
+    private int              size;
+
+    /** the layer of the shapes which are added next. */
+    private int              layer;
+
+    /** the interpolation factor between the previous and the current positions. */
+    private float            alpha;
+
+    /** the life of the player ship, -1 if there is no ship. */
+    private int              shipLife;
+
+    /**
+     * Construct a new empty RenderSnapshot.
+     */
+    public RenderSnapshot()
+    {
+        previousXs = new float[INITIAL_CAPACITY];
+        previousYs = new float[INITIAL_CAPACITY];
+        xs = new float[INITIAL_CAPACITY];
+        ys = new float[INITIAL_CAPACITY];
+        colors = new Colors[INITIAL_CAPACITY];
+        meshes = new IMesh[INITIAL_CAPACITY];
+        layers = new int[INITIAL_CAPACITY];
+        size = 0;
+        layer = 0;
+        shipLife = -1;
+        alpha = 1.0f;
+    }
+
+    /**
+     * Removes all shapes of the snapshot.
+     */
+    public void clear()
+    {
+        // release the meshes of the last frame
+        Arrays.fill(meshes, 0, size, null);
+        size = 0;
+        layer = 0;
+        shipLife = -1;
+        alpha = 1.0f;
+    }
+
+    /**
+     * Starts a new layer, the shapes which are added next are drawn over all shapes added so far.
+     */
+    public void nextLayer()
+    {
+        layer++;
+    }
+
+    /**
+     * Adds a shape to the current layer to the snapshot.
+     *
+     * @param previousX the x-coordinate of the shape before the last update
+     * @param previousY the y-coordinate of the shape before the last update
+     * @param x the x-coordinate of the shape
+     * @param y the y-coordinate of the shape
+     * @param color the color of the shape
+     * @param mesh the mesh of the shape
+     */
+    public void add(final float previousX, final float previousY, final float x, final float y, final Colors color,
+            final IMesh mesh)
+    {
+        if (size == xs.length)
+        {
+            final int capacity = size * 2;
+            previousXs = Arrays.copyOf(previousXs, capacity);
+            previousYs = Arrays.copyOf(previousYs, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            meshes = Arrays.copyOf(meshes, capacity);
+            layers = Arrays.copyOf(layers, capacity);
+        }
+
+        previousXs[size] = previousX;
+        previousYs[size] = previousY;
+        xs[size] = x;
+        ys[size] = y;
+        colors[size] = color;
+        meshes[size] = mesh;
+        layers[size] = layer;
+        size++;
+    }
+
+    /**
+     * Returns the number of shapes.
+     *
+     * @return the number of shapes
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the x-coordinate of the shape with the specified index.
+     *
+     * @param index the index of the shape (0 to size - 1)
+     * @return the x-coordinate
+     */
+    public float getX(final int index)
+    {
+        return xs[index];
+    }
+
+    /**
+     * Returns the y-coordinate of the shape with the specified index.
+     *
+     * @param index the index of the shape (0 to size - 1)
+     * @return the y-coordinate
+     */
+    public float getY(final int index)
+    {
+        return ys[index];
+    }
+
+    /**
+     * Returns the x-coordinate of the shape with the specified index before the last update.
+     *
+     * @param index the index of the shape (0 to size - 1)
+     * @return the previous x-coordinate
+     */
+    public float getPreviousX(final int index)
+    {
+        return previousXs[index];
+    }
+
+    /**
+     * Returns the y-coordinate of the shape with the specified index before the last update.
+     *
+     * @param index the index of the shape (0 to size - 1)
+     * @return the previous y-coordinate
+     */
+    public float getPreviousY(final int index)
+    {
+        return previousYs[index];
+    }
+
+    /**
+     * Returns the interpolation factor between the previous and the current positions.
+     *
+     * @return the interpolation factor (0.0 previous positions, 1.0 current positions)
+     */
+    public float getAlpha()
+    {
+        return alpha;
+    }
+
+    /**
+     * Sets the interpolation factor between the previous and the current positions.
+     *
+     * @param alpha the interpolation factor (0.0 previous positions, 1.0 current positions)
+     */
+    public void setAlpha(final float alpha)
+    {
+        this.alpha = alpha;
+    }
+
+    /**
+     * Returns the color of the shape with the specified index.
+     *
+     * @param index the index of the shape (0 to size - 1)
+     * @return the color
+     */
+    public Colors getColor(final int index)
+    {
+        return colors[index];
+    }
+
+    /**
+     * Returns the mesh of the shape with the specified index.
+     *
+     * @param index the index of the shape (0 to size - 1)
+     * @return the mesh
+     */
+    public IMesh getMesh(final int index)
+    {
+        return meshes[index];
+    }
+
+    /**
+     * Returns the layer of the shape with the specified index.
+     *
+     * @param index the index of the shape (0 to size - 1)
+     * @return the layer, the layers are numbered in drawing order
+     */
+    public int getLayer(final int index)
+    {
+        return layers[index];
+    }
+
+    /**
+     * Returns the life of the player ship.
+     *
+     * @return the life of the player ship, -1 if there is no ship
+     */
+    public int getShipLife()
+    {
+        return shipLife;
+    }
+
+    /**
+     * Sets the life of the player ship.
+     *
+     * @param shipLife the life of the player ship, -1 if there is no ship
+     */
+    public void setShipLife(final int shipLife)
+    {
+        this.shipLife = shipLife;
+    }
+}
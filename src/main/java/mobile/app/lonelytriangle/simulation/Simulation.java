@@ -2,49 +2,109 @@ package mobile.app.lonelytriangle.simulation;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 import mobile.app.lonelytriangle.resource.IResourceManager;
 import mobile.app.lonelytriangle.resource.ResourceManager;
 import mobile.app.lonelytriangle.simulation.collision.CollisionDetector;
+import mobile.app.lonelytriangle.simulation.shapes.Bonus;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
 import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
+import mobile.app.lonelytriangle.simulation.shapes.Shape;
 import mobile.app.lonelytriangle.simulation.shapes.ShapeFactory;
 import mobile.app.lonelytriangle.simulation.shapes.Ship;
+import mobile.app.lonelytriangle.simulation.shapes.Star;
 import mobile.app.lonelytriangle.util.Grid;
+import mobile.app.lonelytriangle.util.HashedGrid;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+import mobile.app.lonelytriangle.util.LooseQuadtree;
+import mobile.app.lonelytriangle.util.SortAndSweep;
+import mobile.app.lonelytriangle.util.SplitMixRandom;
+import mobile.app.lonelytriangle.util.StateBuffer;
+import mobile.app.lonelytriangle.util.TimingWheel;
+import mobile.app.lonelytriangle.util.TripleBuffer;
 
 /**
  * The simulation holds all the objects which are moving or change the game world in any way. It calculate all the
  * movement, collision (by a collision detector) and all the things which change the game world.
  * 
+ * The simulation is only changed by the thread of the game loop. After every update it publishes a RenderSnapshot which
+ * the render thread can acquire without locking, a resize of the screen is only recorded and applied by the game loop.
+ * 
  * @author Benedikt Zönnchen, Waldeck Alexander
  * @version v1.0
  * 
  */
 public class Simulation implements ISimulation
 {
-    private Grid<EnemyShip>         enemies;
-    private Grid<IMoveable>         enemyShots;
+    private ISpatialIndex<EnemyShip> enemies;
     private List<IMoveable>         stars;
-    private Grid<IMoveable>         boni;    
-    private Grid<IMoveable>         playerShots;
+    private ISpatialIndex<IMoveable> boni;    
+
+    /** the expiries of the boni (the id is the index of the bonus), a bonus expires if it has left the screen or its visible time is over. */
+    private final TimingWheel       bonusExpiries;
+
+    /** the length of a tick of the expiries: 2^20 ns (about 1 ms). */
+    private static final int        EXPIRY_TICK_SHIFT = 20;
+
+    /** the shots of the player and of the enemies. */
+    private BulletStore             bullets;
+
+    /** the simulated time. */
+    private final SimulationClock   clock;
+
+    /** writes the fired shots into the BulletStore. */
+    private final IShotSink         shotSink;
 
     private Ship                    ship;
     private int                     screenWidth;
     private int                     screenHeight;
     private boolean                 initialized;
     private boolean                 resized;
-    private final Random            random;
+
+    /** the seed of the game, all random number generators are derived from it. */
+    private long                    seed;
+
+    /** the random numbers of the enemy spawning. */
+    private final SplitMixRandom    spawnRandom;
+
+    /** the random numbers of the enemy fire. */
+    private final SplitMixRandom    fireRandom;
+
+    /** the random numbers of the bonus drops. */
+    private final SplitMixRandom    bonusRandom;
+
+    /** the random numbers of the starfield. */
+    private final SplitMixRandom    starRandom;
+
+    /** the seed of the starfield: the initial positions and the x-coordinates of the wrapped stars. */
+    private long                    starSeed;
+
+    /** the random numbers of the initial star positions, it is seeded by the starSeed for every layout. */
+    private final SplitMixRandom    starLayoutRandom;
+
+    /** the simulated time of the creation of the starfield in nano seconds. */
+    private long                    starTime;
+
+    /** the elapsed time of the last update (the stars are evaluated at the time of the last two updates). */
+    private float                   lastDelta;
+
     private final CollisionDetector collisionDetector;
     private final IShapeFactory     shapeFactory;
 
     private int                     score;
     private Difficulty              difficulty = Difficulty.Hard;
     private boolean                 soundOn;
-    private static final int        NUMBER_OF_GRID_COLUMNS = 4;
-    private static final int        NUMBER_OF_GRID_ROWS = 4;
     
     private final IResourceManager        resourceManager;
 
+    /** the render snapshots, written by the game loop and read by the render thread. */
+    private final TripleBuffer<RenderSnapshot> snapshots;
+
+    /** the size of the last screen resize which is not applied so far: (width << 32) | height, or NO_RESIZE. */
+    private final AtomicLong              pendingResize;
+    private static final long             NO_RESIZE = -1L;
+
     /**
      * true => this simulation model is for the background (no collision detection and other functionality is not
      * necessary), otherwise false (game mode).
@@ -52,59 +112,165 @@ public class Simulation implements ISimulation
     private boolean                 background;
 
     /**
-     * Construct a new Simulation object.
+     * Construct a new Simulation object which uses the singleton IResourceManager and IShapeFactory.
      */
     public Simulation()
     {
+        this(ResourceManager.getInstance(), ShapeFactory.getInsance());
+    }
+
+    /**
+     * Construct a new Simulation object with a specified IResourceManager and IShapeFactory. The simulation itself does
+     * not depend on the android platform, so it can be driven headless on every JVM as long as the IResourceManager is
+     * loaded by a config stream.
+     * 
+     * @param resourceManager the IResourceManager which stores all the configuration data
+     * @param shapeFactory the IShapeFactory which creates all the shapes of the simulation
+     */
+    public Simulation(final IResourceManager resourceManager, final IShapeFactory shapeFactory)
+    {
+        this(resourceManager, shapeFactory, new SimulationClock());
+    }
+
+    /**
+     * Construct a new Simulation object with a specified IResourceManager, IShapeFactory and SimulationClock. The clock
+     * is advanced by every update.
+     * 
+     * @param resourceManager the IResourceManager which stores all the configuration data
+     * @param shapeFactory the IShapeFactory which creates all the shapes of the simulation
+     * @param clock the clock of the simulated time
+     */
+    public Simulation(final IResourceManager resourceManager, final IShapeFactory shapeFactory, final SimulationClock clock)
+    {
+        this.clock = clock;
         background = true;
         initialized = false;
         resized = false;
         soundOn = false;
         score = 0;
-        random = new Random();
+        spawnRandom = new SplitMixRandom(0);
+        fireRandom = new SplitMixRandom(0);
+        bonusRandom = new SplitMixRandom(0);
+        starRandom = new SplitMixRandom(0);
+        starLayoutRandom = new SplitMixRandom(0);
+        setSeed(new SplitMixRandom().nextLong());
+        shotSink = new ShotSink();
+        bonusExpiries = new TimingWheel(16);
         collisionDetector = new CollisionDetector(this);
-        shapeFactory = ShapeFactory.getInsance();
-        resourceManager = ResourceManager.getInstance();
+        this.shapeFactory = shapeFactory;
+        this.resourceManager = resourceManager;
         stars      = new ArrayList<IMoveable>();
+        snapshots = new TripleBuffer<RenderSnapshot>(new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot());
+        pendingResize = new AtomicLong(NO_RESIZE);
     }
 
     @Override
-    public synchronized void update(final float delta)
+    public void update(final float delta)
     {
-       
+        applyPendingResize();
+        clock.advance(delta);
+        lastDelta = delta;
+
         // the game has been initialised.
         if (initialized)
         {
-            // 1. update game functionality
+            // 1. detect all collisions and handle it
             if (!isBackground())
             {
-                // 1.1 detect all collisions and handle it
                 collisionDetector.update();
+            }
 
-                // 1.2 update shots of the ship
-                playerShots = updateShapes(delta, ship.getShots());
-                ship.setShots(playerShots);
+            // 2. update all shots (remove destroyed shots and shots out of the screen), new shots move with the next update
+            bullets.cull(screenWidth, screenHeight);
+            bullets.update(delta);
 
-                // 1.3 update the ship
+            // 3. update game functionality
+            if (!isBackground())
+            {
+                // 3.1 update the ship
+                ship.savePosition();
                 ship.update(delta);
 
-                // 1.4 update boni
-                boni = updateShapes(delta, boni);
-                //System.out.println("p-s: " + ship.getShots().size());
+                // 3.2 update boni
+                updateShapes(delta, boni);
             }
 
-            // 2. add new enemies to the simulation
+            // 4. add new enemies to the simulation
             generateEnemies(delta);
 
-            // 3. update enemy shots
-            enemyShots = updateShapes(delta, enemyShots);
+            // 5. update enemies
+            updateEnemies(delta, enemies);
+
+            // 6. the stars are not updated, they are evaluated by their motion model if they are rendered
+        }
+    }
+
+    /**
+     * Copies the positions, colors and meshes of all visible shapes (in drawing order) into the back RenderSnapshot and
+     * publishes it. Every kind of shape is a layer of its own.
+     * 
+     * @param alpha the interpolation factor (0.0 previous state, 1.0 current state)
+     */
+    @Override
+    public void publishRenderSnapshot(final float alpha)
+    {
+        if (!initialized)
+        {
+            return;
+        }
 
-            // 4. update enemies
-            enemies = updateEnemies(delta, enemies);
+        final RenderSnapshot snapshot = snapshots.getBack();
+        snapshot.clear();
+        snapshot.setAlpha(alpha);
+        moveStars();
 
-            // 5. update stars
-            stars = updateStars(delta, stars);
+        for (int i = 0; i < stars.size(); i++)
+        {
+            addToSnapshot(snapshot, stars.get(i));
         }
+
+        snapshot.nextLayer();
+        addToSnapshot(snapshot, enemies);
+        snapshot.nextLayer();
+        addToSnapshot(snapshot, boni);
+        snapshot.nextLayer();
+
+        for (int i = 0; i < bullets.size(); i++)
+        {
+            snapshot.add(bullets.getPreviousX(i), bullets.getPreviousY(i), bullets.getX(i), bullets.getY(i), bullets.getColor(i), bullets.getMesh(i));
+        }
+
+        if (ship != null)
+        {
+            snapshot.nextLayer();
+            addToSnapshot(snapshot, ship);
+            snapshot.setShipLife(ship.getLife());
+        }
+
+        snapshots.publish();
+    }
+
+    private static void addToSnapshot(final RenderSnapshot snapshot, final ISpatialIndex<? extends IMoveable> shapes)
+    {
+        if (shapes != null)
+        {
+            for (int i = 0; i < shapes.size(); i++)
+            {
+                addToSnapshot(snapshot, shapes.get(i));
+            }
+        }
+    }
+
+    private static void addToSnapshot(final RenderSnapshot snapshot, final IMoveable moveable)
+    {
+        final Shape shape = (Shape) moveable;
+        snapshot.add(shape.getPreviousX(), shape.getPreviousY(), shape.getX(), shape.getY(), shape.getColor(), shape.getMesh());
+    }
+
+    @Override
+    public RenderSnapshot getRenderSnapshot()
+    {
+        return snapshots.acquire();
     }
 
     /**
@@ -119,103 +285,152 @@ public class Simulation implements ISimulation
         final double triChance = resourceManager.getTriChance() * factor;
         final double diamChance = resourceManager.getDiamChance() * factor;
 
-        if (random.nextDouble() < rectChance * delta)
+        if (spawnRandom.nextDouble() < rectChance * delta)
         {
-            enemies.add(shapeFactory.getRectangleEnemy(random.nextInt(screenWidth), screenHeight));
+            enemies.add(shapeFactory.getRectangleEnemy(spawnRandom.nextInt(screenWidth), screenHeight));
         }
 
-        if (random.nextDouble() < triChance * delta)
+        if (spawnRandom.nextDouble() < triChance * delta)
         {
-            enemies.add(shapeFactory.getTriangleEnemy(random.nextInt(screenWidth), screenHeight));
+            enemies.add(shapeFactory.getTriangleEnemy(spawnRandom.nextInt(screenWidth), screenHeight));
         }
 
-        if (random.nextDouble() < diamChance * delta)
+        if (spawnRandom.nextDouble() < diamChance * delta)
         {
-            enemies.add(shapeFactory.getDiamondEnemy(random.nextInt(screenWidth), screenHeight));
+            enemies.add(shapeFactory.getDiamondEnemy(spawnRandom.nextInt(screenWidth), screenHeight));
         }
     }
 
     /**
-     * Updates the shots (position update). Delete shots out of the screen.
+     * Updates the boni (position update). Delete the expired boni (out of the screen or out of time) and the caught boni.
+     * The expired boni are taken from the timing wheel, so the boni are not tested against the screen bounds. The spatial
+     * index is updated in place, boni are only relocated inside of the index if their cell span has changed.
      * 
      * @param delta the amount of elapsed time since the last update.
-     * @param oldShapes the old shots
-     * @return the updated shots
+     * @param shapes the boni
      */
-    protected Grid<IMoveable> updateShapes(final float delta, final Iterable<IMoveable> oldShapes)
+    protected void updateShapes(final float delta, final ISpatialIndex<IMoveable> shapes)
     {
-        final Grid<IMoveable> shapes = new Grid<IMoveable>(screenWidth, screenHeight, 4, 4);
+        // descending indices, so the moved last bonus is never an expired one
+        final int expired = bonusExpiries.advance(getExpiryTick(clock.getTimeNanos()));
+
+        for (int i = 0; i < expired; i++)
+        {
+            removeBonus(bonusExpiries.getExpired(i));
+        }
 
-        for (final IMoveable shot : oldShapes)
+        int i = 0;
+
+        while (i < shapes.size())
         {
-            if (!shot.isDestroyed() && shot.intersect(screenWidth, screenHeight))
+            final IMoveable bonus = shapes.get(i);
+
+            if (!bonus.isDestroyed())
+            {
+                bonus.savePosition();
+                bonus.update(delta);
+                shapes.move(i);
+                i++;
+            }
+            else
             {
-                shapes.add(shot);
-                shot.update(delta);
+                // the last bonus takes the index i
+                removeBonus(i);
             }
         }
+    }
 
-        return shapes;
+    /**
+     * Adds a bonus and schedules its expiry. A bonus moves straight down, so the time it leaves the screen is known (a
+     * screen resize does not change it).
+     * 
+     * @param bonus the new bonus
+     */
+    private void addBonus(final IMoveable bonus)
+    {
+        final float lifetime = ((Bonus) bonus).getLifetime(screenWidth, screenHeight);
+        final long expiry = clock.getTimeNanos() + (long) Math.ceil(lifetime * 1e9);
+        boni.add(bonus);
+
+        // round up, a bonus must not expire before its time (a bonus outside of the screen expires with the next update)
+        bonusExpiries.schedule(boni.size() - 1, lifetime == 0 ? Long.MIN_VALUE : getExpiryTick(expiry + (1L << EXPIRY_TICK_SHIFT) - 1));
+    }
+
+    /**
+     * Removes the bonus with the specified index, the bonus goes back to its pool and the last bonus takes its index.
+     * 
+     * @param index the index of the bonus
+     */
+    private void removeBonus(final int index)
+    {
+        final int last = boni.size() - 1;
+        bonusExpiries.cancel(index);
+        shapeFactory.free(boni.remove(index));
+        bonusExpiries.move(last, index);
+    }
+
+    private static long getExpiryTick(final long nanos)
+    {
+        return nanos >> EXPIRY_TICK_SHIFT;
     }
 
     /**
      * Update the enemies (position update, generating new shots and delete old destroyed enemies). Delete also enemies
-     * out of the screen in y-direction.
+     * out of the screen in y-direction. The spatial index is updated in place.
      * 
      * @param delta the amount of elapsed time since the last update.
-     * @param enemyList old enemies
-     * @return the updated enemies
+     * @param enemyList the enemies
      */
-    protected Grid<EnemyShip> updateEnemies(final float delta, final Iterable<EnemyShip> enemyList)
+    protected void updateEnemies(final float delta, final ISpatialIndex<EnemyShip> enemyList)
     {
-        final Grid<EnemyShip> shapes = new Grid<EnemyShip>(screenWidth, screenHeight, 4, 4);
+        int i = 0;
 
-        for (final EnemyShip enemy : enemyList)
+        while (i < enemyList.size())
         {
+            final EnemyShip enemy = enemyList.get(i);
+
             if (enemy.isDestroyed())
             {
                 createBonus(enemy.getX(), enemy.getY());
                 score += enemy.getScore();
+                shapeFactory.free(enemyList.remove(i));
             }
             else if (enemy.getY() > -enemy.getHeight())
             {
-                shapes.add(enemy);
-                
-                for (IMoveable shot : enemy.shot(delta))
-                {
-                    enemyShots.add(shot);
-                }
+                enemy.shot(delta, clock, shotSink, fireRandom);
+                enemy.savePosition();
                 enemy.update(delta);
+                enemyList.move(i);
+                i++;
+            }
+            else
+            {
+                shapeFactory.free(enemyList.remove(i));
             }
         }
-        return shapes;
     }
 
     /**
-     * Update (resporn stars which are out of the screen) the stars of the game (part of the background).
-     * 
-     * @param delta the amount of elapsed time since the last update.
-     * @param starList old starts
-     * @return updated stars
+     * Moves the stars of the game (part of the background) to the time of the last update, the previous positions are
+     * evaluated at the time of the update before. A star which has wrapped to the top is not interpolated.
      */
-    protected List<IMoveable> updateStars(final float delta, final List<IMoveable> starList)
+    private void moveStars()
     {
-        for (final IMoveable star : starList)
+        final double age = (clock.getTimeNanos() - starTime) / 1e9;
+
+        for (int i = 0; i < stars.size(); i++)
         {
-            final float y = star.getY();
+            final Star star = (Star) stars.get(i);
+            final long key = SplitMixRandom.mix64(starSeed + i);
+            star.moveTo(Math.max(0, age - lastDelta), screenWidth, screenHeight, key);
+            star.savePosition();
+            star.moveTo(age, screenWidth, screenHeight, key);
 
-            // reposition star!
-            if (y < 0)
-            {
-                star.setY(screenHeight);
-                star.setX(random.nextInt(screenWidth + 1));
-            }
-            else
+            if (star.getY() > star.getPreviousY())
             {
-                star.update(delta);
+                star.savePosition();
             }
         }
-        return starList;
     }
 
     /**
@@ -226,43 +441,33 @@ public class Simulation implements ISimulation
      */
     protected void createBonus(final float x, final float y)
     {
-        if (random.nextDouble() < resourceManager.getBonusShotChance())
+        if (bonusRandom.nextDouble() < resourceManager.getBonusShotChance())
         {
-            if (random.nextBoolean())
+            if (bonusRandom.nextBoolean())
             {
-                boni.add(shapeFactory.getFastShot(x, y));
+                addBonus(shapeFactory.getFastShot(x, y));
             }
             else
             {
-                boni.add(shapeFactory.getTripleShot(x, y));
+                addBonus(shapeFactory.getTripleShot(x, y));
             }
         }
-        else if (random.nextDouble() < resourceManager.getBonusLifeChance())
+        else if (bonusRandom.nextDouble() < resourceManager.getBonusLifeChance())
         {
-            boni.add(shapeFactory.getLifeUp(x, y));
+            addBonus(shapeFactory.getLifeUp(x, y));
         }
     }
 
     @Override
-    public Grid<EnemyShip> getAllEnemies()
+    public ISpatialIndex<EnemyShip> getAllEnemies()
     {
         return enemies;
     }
 
     @Override
-    public Grid<IMoveable> getEnemyShots()
-    {
-        return enemyShots;
-    }
-
-    @Override
-    public Grid<IMoveable> getPlayerShots()
+    public BulletStore getBullets()
     {
-        if (!isBackground())
-        {
-            return ship.getShots();
-        }
-        return null;
+        return bullets;
     }
 
     @Override
@@ -272,7 +477,7 @@ public class Simulation implements ISimulation
     }
 
     @Override
-    public Grid<IMoveable> getBoni()
+    public ISpatialIndex<IMoveable> getBoni()
     {
         return boni;
     }
@@ -290,14 +495,20 @@ public class Simulation implements ISimulation
     }
 
     @Override
-    public synchronized void initGame()
-    {
-        ship = shapeFactory.getShip(screenWidth / 2 - ResourceManager.getInstance().getShipWidth() / 2, 0);
-        boni = new Grid<IMoveable>(screenWidth, screenHeight, NUMBER_OF_GRID_COLUMNS, NUMBER_OF_GRID_ROWS);
-        enemies = new Grid<EnemyShip>(screenWidth, screenHeight, NUMBER_OF_GRID_COLUMNS, NUMBER_OF_GRID_ROWS);
-        enemyShots = new Grid<IMoveable>(screenWidth, screenHeight, NUMBER_OF_GRID_COLUMNS, NUMBER_OF_GRID_ROWS);
-        playerShots = new Grid<IMoveable>(screenWidth, screenHeight, NUMBER_OF_GRID_COLUMNS, NUMBER_OF_GRID_ROWS); 
-        ship.setShots(playerShots);
+    public void initGame()
+    {
+        applyPendingResize();
+        shapeFactory.initPools();
+        ship = shapeFactory.getShip(screenWidth / 2 - resourceManager.getShipWidth() / 2, 0);
+        free(boni);
+        free(enemies);
+        boni = createSpatialIndex();
+        enemies = createSpatialIndex();
+        collisionDetector.setThreads(resourceManager.getCollisionThreads(), resourceManager.getGridColumns(), resourceManager.getGridRows());
+        bonusExpiries.reset(getExpiryTick(clock.getTimeNanos()));
+        clearBullets();
+        ship.setShots(shotSink);
+        ship.setClock(clock);
         score = 0;
         background = false;
         initBackground();
@@ -305,9 +516,22 @@ public class Simulation implements ISimulation
     }
 
     /**
-     * initialize the background (generate the stars inside the viewport).
+     * initialize the background (generate the stars inside the viewport). Every call takes a new starSeed of the random
+     * numbers of the starfield.
      */
-    protected synchronized void initBackground()
+    protected void initBackground()
+    {
+        applyPendingResize();
+        starSeed = starRandom.nextLong();
+        starTime = clock.getTimeNanos();
+        layoutStars();
+    }
+
+    /**
+     * Generates the stars inside the viewport. The positions only depend on the starSeed and the size of the screen, so a
+     * resize does not consume the random numbers of the starfield.
+     */
+    private void layoutStars()
     {
         final int numberOfStars = resourceManager.getNumberOfStars();
         if (numberOfStars < 0)
@@ -316,26 +540,85 @@ public class Simulation implements ISimulation
         }
 
         stars.clear();
+        starLayoutRandom.setState(starSeed);
 
         for (int i = 0; i < numberOfStars; i++)
         {
-            stars.add(shapeFactory.getStar(random.nextInt(screenWidth), random.nextInt(screenHeight)));
+            stars.add(shapeFactory.getStar(starLayoutRandom.nextInt(screenWidth), starLayoutRandom.nextInt(screenHeight)));
         }
     }
 
     @Override
-    public synchronized void initSimulation()
+    public void initSimulation()
     {
+        applyPendingResize();
+        // the background has no collisions
+        collisionDetector.shutdown();
         ship = null;
-        enemies = new Grid<EnemyShip>(screenWidth, screenHeight, NUMBER_OF_GRID_COLUMNS, NUMBER_OF_GRID_ROWS);
-        enemyShots = new Grid<IMoveable>(screenWidth, screenHeight, NUMBER_OF_GRID_COLUMNS, NUMBER_OF_GRID_ROWS);
-        boni = new Grid<IMoveable>(screenWidth, screenHeight, NUMBER_OF_GRID_COLUMNS, NUMBER_OF_GRID_ROWS);
+        free(enemies);
+        free(boni);
+        enemies = createSpatialIndex();
+        boni = createSpatialIndex();
+        bonusExpiries.reset(getExpiryTick(clock.getTimeNanos()));
+        clearBullets();
         score = 0;
         background = true;
         initBackground();
         initialized = true;
     }
 
+    /**
+     * Removes all shots, the BulletStore is created by the first call.
+     */
+    private void clearBullets()
+    {
+        if (bullets == null)
+        {
+            bullets = new BulletStore(resourceManager.getBulletCapacity());
+        }
+        bullets.clear(clock.getTimeNanos());
+    }
+
+    /**
+     * Gives all shapes of the spatial index back to the IShapeFactory.
+     *
+     * @param shapes the shapes which are no longer part of the game (can be null)
+     */
+    private void free(final ISpatialIndex<? extends IMoveable> shapes)
+    {
+        if (shapes != null)
+        {
+            for (int i = 0; i < shapes.size(); i++)
+            {
+                shapeFactory.free(shapes.get(i));
+            }
+        }
+    }
+
+    /**
+     * Creates a new empty spatial index (the broadphase of the collision detection) of the configured type.
+     *
+     * @param <T>-Tag the type of the shapes
+     * @return a new empty spatial index
+     */
+    protected <T extends IMoveable> ISpatialIndex<T> createSpatialIndex()
+    {
+        final int columns = resourceManager.getGridColumns();
+        final int rows = resourceManager.getGridRows();
+
+        switch (resourceManager.getBroadphase())
+        {
+            case HashedGrid:
+                return new HashedGrid<T>(screenWidth, screenHeight, rows, columns);
+            case LooseQuadtree:
+                return new LooseQuadtree<T>(screenWidth, screenHeight, resourceManager.getQuadtreeDepth());
+            case SortAndSweep:
+                return new SortAndSweep<T>();
+            default:
+                return new Grid<T>(screenWidth, screenHeight, rows, columns);
+        }
+    }
+
     @Override
     public Difficulty getDifficulty()
     {
@@ -392,12 +675,43 @@ public class Simulation implements ISimulation
         this.soundOn = soundOn;
     }
 
+    /**
+     * Records the new size of the screen. This method is called by the render thread, the size is applied by the thread of
+     * the game loop (with the next update or initialization), so the render thread never waits for the simulation.
+     * 
+     * @param width the new width of the screen
+     * @param height the new height of the screen
+     */
     @Override
-    public synchronized void screenResize(int width, int height)
+    public void screenResize(int width, int height)
+    {
+        pendingResize.set(((long) width << 32) | (height & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Applies the last recorded screen size (if there is one).
+     */
+    private void applyPendingResize()
     {
+        final long size = pendingResize.getAndSet(NO_RESIZE);
+
+        if (size == NO_RESIZE)
+        {
+            return;
+        }
+
+        final int width = (int) (size >>> 32);
+        final int height = (int) size;
         screenWidth = width;
         screenHeight = height;
         
+        // relocate the elements of the existing spatial indices
+        if (resized)
+        {
+            enemies.resize(width, height);
+            boni.resize(width, height);
+        }
+
         // this is to initialise the simulation after the first resize (before the first game start)
         if (!resized)
         {
@@ -407,7 +721,188 @@ public class Simulation implements ISimulation
             background = true;
         }
         
-        initBackground();
+        layoutStars();
+    }
+
+    @Override
+    public int getScreenWidth()
+    {
+        return screenWidth;
+    }
+
+    @Override
+    public int getScreenHeight()
+    {
+        return screenHeight;
+    }
+
+    @Override
+    public SimulationClock getClock()
+    {
+        return clock;
+    }
+
+    @Override
+    public void setSeed(final long seed)
+    {
+        this.seed = seed;
+
+        // every stream gets its own seed, so e.g. an additional shot does not change the enemy spawning
+        final SplitMixRandom master = new SplitMixRandom(seed);
+        spawnRandom.setSeed(master.nextLong());
+        fireRandom.setSeed(master.nextLong());
+        bonusRandom.setSeed(master.nextLong());
+        starRandom.setSeed(master.nextLong());
+    }
+
+    @Override
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    @Override
+    public void saveState(final StateBuffer state)
+    {
+        state.putLong(clock.getTimeNanos());
+        state.putLong(seed);
+        state.putLong(spawnRandom.getState());
+        state.putLong(fireRandom.getState());
+        state.putLong(bonusRandom.getState());
+        state.putLong(starRandom.getState());
+        state.putInt(score);
+        state.putBoolean(background);
+        state.putBoolean(initialized);
+
+        state.putBoolean(ship != null);
+        if (ship != null)
+        {
+            ship.saveState(state);
+        }
+
+        saveShapes(state, enemies);
+        saveShapes(state, boni);
+
+        for (int i = 0; boni != null && i < boni.size(); i++)
+        {
+            state.putLong(bonusExpiries.getTick(i));
+        }
+
+        state.putLong(starSeed);
+        state.putLong(starTime);
+        state.putInt(stars.size());
+        for (int i = 0; i < stars.size(); i++)
+        {
+            ((Shape) stars.get(i)).saveState(state);
+        }
+
+        state.putBoolean(bullets != null);
+        if (bullets != null)
+        {
+            bullets.saveState(state);
+        }
+    }
+
+    private void saveShapes(final StateBuffer state, final ISpatialIndex<? extends IMoveable> shapes)
+    {
+        final int size = shapes == null ? 0 : shapes.size();
+        state.putInt(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            shapeFactory.saveShape(shapes.get(i), state);
+        }
+    }
+
+    @Override
+    public void restoreState(final StateBuffer state)
+    {
+        applyPendingResize();
+        clock.setTimeNanos(state.getLong());
+        seed = state.getLong();
+        spawnRandom.setState(state.getLong());
+        fireRandom.setState(state.getLong());
+        bonusRandom.setState(state.getLong());
+        starRandom.setState(state.getLong());
+        score = state.getInt();
+        background = state.getBoolean();
+        initialized = state.getBoolean();
+
+        if (state.getBoolean())
+        {
+            if (ship == null)
+            {
+                ship = shapeFactory.getShip(0, 0);
+                ship.setShots(shotSink);
+                ship.setClock(clock);
+            }
+            ship.restoreState(state);
+        }
+        else
+        {
+            ship = null;
+        }
+
+        // the restored shapes are taken from the pools, the existing shapes go back first
+        free(enemies);
+        free(boni);
+        enemies = clearSpatialIndex(enemies);
+        boni = clearSpatialIndex(boni);
+
+        for (int i = state.getInt(); i > 0; i--)
+        {
+            enemies.add((EnemyShip) shapeFactory.restoreShape(state));
+        }
+
+        final int numberOfBoni = state.getInt();
+        for (int i = 0; i < numberOfBoni; i++)
+        {
+            boni.add(shapeFactory.restoreShape(state));
+        }
+
+        bonusExpiries.reset(getExpiryTick(clock.getTimeNanos()));
+        for (int i = 0; i < numberOfBoni; i++)
+        {
+            bonusExpiries.schedule(i, state.getLong());
+        }
+
+        starSeed = state.getLong();
+        starTime = state.getLong();
+        final int numberOfStars = state.getInt();
+        while (stars.size() > numberOfStars)
+        {
+            stars.remove(stars.size() - 1);
+        }
+
+        for (int i = 0; i < numberOfStars; i++)
+        {
+            if (i == stars.size())
+            {
+                stars.add(shapeFactory.getStar(0, 0));
+            }
+            ((Shape) stars.get(i)).restoreState(state);
+        }
+
+        if (state.getBoolean())
+        {
+            clearBullets();
+            bullets.restoreState(state);
+        }
+        else if (bullets != null)
+        {
+            bullets.clear(clock.getTimeNanos());
+        }
+    }
+
+    private <T extends IMoveable> ISpatialIndex<T> clearSpatialIndex(final ISpatialIndex<T> shapes)
+    {
+        if (shapes == null)
+        {
+            return createSpatialIndex();
+        }
+
+        shapes.clear();
+        return shapes;
     }
 
     @Override
@@ -416,9 +911,27 @@ public class Simulation implements ISimulation
         return background;
     }
 
+    @Override
+    public void shutdown()
+    {
+        collisionDetector.shutdown();
+    }
+
     @Override
     public void setDifficulty(Difficulty difficulty)
     {
         this.difficulty = difficulty;
     }
+
+    /**
+     * The ShotSink adds the fired shots (configured by the IShapeFactory) to the current BulletStore.
+     */
+    private final class ShotSink implements IShotSink
+    {
+        @Override
+        public void addShot(final float x, final float y, final Shape parent, final float angle)
+        {
+            shapeFactory.addShot(bullets, x, y, parent, angle);
+        }
+    }
 }
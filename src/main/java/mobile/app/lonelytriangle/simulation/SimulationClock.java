@@ -0,0 +1,65 @@
+package mobile.app.lonelytriangle.simulation;
+
+/**
+ * The SimulationClock is the time of the simulated game world. It is only advanced by the updates of the simulation, so
+ * it stops while the game is paused and runs as fast as the simulation (e.g. faster than real time in headless runs).
+ * All timing of the shapes (e.g. the shot intervals) should use this clock instead of the system time.
+ * 
+ * The time is counted in nano seconds, so the clock does not lose precision in long runs.
+ */
+public class SimulationClock
+{
+    /** the number of nano seconds of a second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /** the simulated time in nano seconds. */
+    private long                time;
+
+    /**
+     * Construct a new SimulationClock which starts at zero.
+     */
+    public SimulationClock()
+    {
+        time = 0;
+    }
+
+    /**
+     * Advances the clock.
+     * 
+     * @param delta the elapsed simulated time in seconds
+     */
+    public void advance(final float delta)
+    {
+        time += (long) (delta * NANOS_PER_SECOND);
+    }
+
+    /**
+     * Returns the simulated time in milli seconds.
+     * 
+     * @return the simulated time in milli seconds
+     */
+    public long getTimeMillis()
+    {
+        return time / 1000000L;
+    }
+
+    /**
+     * Returns the simulated time in nano seconds.
+     * 
+     * @return the simulated time in nano seconds
+     */
+    public long getTimeNanos()
+    {
+        return time;
+    }
+
+    /**
+     * Sets the simulated time (e.g. to restore a saved game).
+     * 
+     * @param nanos the simulated time in nano seconds
+     */
+    public void setTimeNanos(final long nanos)
+    {
+        time = nanos;
+    }
+}
@@ -0,0 +1,514 @@
+package mobile.app.lonelytriangle.simulation.collision;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mobile.app.lonelytriangle.simulation.ICollisionSink;
+import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
+import mobile.app.lonelytriangle.simulation.shapes.Shot;
+import mobile.app.lonelytriangle.util.AABB;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+
+/**
+ * A BandedBroadphase tests the bullets of one owner against the targets of an ISpatialIndex on several threads. The
+ * bounds of all tested bullets and targets are divided into cells (columns x rows, like the Grid) and both are binned
+ * into the cells they overlap (counting sort, no allocation after warming up). A row of cells is a band, the threads take
+ * the next band until all bands are done, so bands with many bullets do not stall the others. The spatial index is only
+ * read (its queries are not thread-safe), the store is only read by the exact tests.
+ *
+ * A pair which overlaps more than one cell is found in several cells, it is only reported by the cell which contains the
+ * lower left corner of the intersection of the boxes, so every pair is reported exactly once without any shared state.
+ * The pairs of all bands are sorted by the index of the bullet and the index of the target before they are added to the
+ * sink, so the result does not depend on the number of threads or on the scheduling. Small passes (a few bullets or
+ * targets) run on the calling thread only, the hand-over to the workers would cost more than the tests.
+ */
+final class BandedBroadphase
+{
+    /** the minimal number of bullet-target combinations of a pass which runs on the workers. */
+    private static final long                  MIN_PARALLEL_PAIRS = 16384;
+
+    private final int                          columns;
+    private final int                          rows;
+    private final int                          threads;
+
+    /** the workers (null if the caller is the only thread). */
+    private final ThreadPoolExecutor           executor;
+
+    /** the bands (one per row of cells). */
+    private final Band[]                       bands;
+
+    /** the next band which is not taken by a thread. */
+    private final AtomicInteger                nextBand = new AtomicInteger();
+
+    /** runs bands until all bands are taken. */
+    private final Runnable                     worker;
+
+    // the tested bullets and targets (boxes and indices)
+    private final Boxes                        bulletBoxes;
+    private final Boxes                        targetBoxes;
+
+    // the state of the current pass
+    private BulletStore                        bullets;
+    private ISpatialIndex<? extends IMoveable> targets;
+    private float                              minX;
+    private float                              minY;
+    private float                              cellWidth;
+    private float                              cellHeight;
+    private CountDownLatch                     done;
+    private volatile Throwable                 failure;
+
+    // the sorted pairs of all bands (bullet << 32 | target)
+    private long[]                             pairs    = new long[64];
+
+    /**
+     * Construct a new BandedBroadphase.
+     *
+     * @param threads the number of threads (including the calling thread)
+     * @param columns the number of columns of the cells
+     * @param rows the number of rows of the cells (the number of bands)
+     */
+    BandedBroadphase(final int threads, final int columns, final int rows)
+    {
+        if (threads < 1 || columns < 1 || rows < 1)
+        {
+            throw new IllegalArgumentException("the number of threads, columns and rows have to be positive");
+        }
+
+        this.threads = threads;
+        this.columns = columns;
+        this.rows = rows;
+        bulletBoxes = new Boxes(columns * rows);
+        targetBoxes = new Boxes(columns * rows);
+        bands = new Band[rows];
+
+        for (int i = 0; i < rows; i++)
+        {
+            bands[i] = new Band(i);
+        }
+
+        worker = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    runBands();
+                }
+                catch (final Throwable e)
+                {
+                    failure = e;
+                }
+                finally
+                {
+                    done.countDown();
+                }
+            }
+        };
+
+        if (threads == 1)
+        {
+            executor = null;
+        }
+        else
+        {
+            // idle workers (e.g. of a finished game) terminate after a second
+            executor = new ThreadPoolExecutor(threads - 1, threads - 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, "collision");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * Returns the number of threads (including the calling thread).
+     *
+     * @return the number of threads
+     */
+    int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Stops the workers, the passes run on the calling thread afterwards.
+     */
+    void shutdown()
+    {
+        if (executor != null)
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns true if the workers are stopped.
+     *
+     * @return true if the broadphase has been shut down, otherwise false
+     */
+    boolean isShutdown()
+    {
+        return executor != null && executor.isShutdown();
+    }
+
+    /**
+     * Tests all bullets of the owner against all targets and adds every hit to the sink (sorted by bullet and target).
+     *
+     * @param store the bullets
+     * @param owner the owner of the tested bullets (PLAYER or ENEMY)
+     * @param index the targets
+     * @param sink the sink of the hits
+     */
+    void collide(final BulletStore store, final int owner, final ISpatialIndex<? extends IMoveable> index, final ICollisionSink sink)
+    {
+        bulletBoxes.clear();
+        targetBoxes.clear();
+
+        for (int i = 0; i < store.size(); i++)
+        {
+            if (store.getOwner(i) == owner && !store.isDestroyed(i))
+            {
+                bulletBoxes.add(i, store.getX(i), store.getY(i), store.getWidth(i), store.getHeight(i));
+            }
+        }
+
+        if (bulletBoxes.size == 0 || index.size() == 0)
+        {
+            return;
+        }
+
+        for (int i = 0; i < index.size(); i++)
+        {
+            final IMoveable target = index.get(i);
+            targetBoxes.add(i, target.getX(), target.getY(), target.getWidth(), target.getHeight());
+        }
+
+        // the cells cover the union of all boxes
+        minX = Math.min(bulletBoxes.minX, targetBoxes.minX);
+        minY = Math.min(bulletBoxes.minY, targetBoxes.minY);
+        cellWidth = Math.max(Math.max(bulletBoxes.maxX, targetBoxes.maxX) - minX, 1f) / columns;
+        cellHeight = Math.max(Math.max(bulletBoxes.maxY, targetBoxes.maxY) - minY, 1f) / rows;
+        bin(bulletBoxes);
+        bin(targetBoxes);
+
+        bullets = store;
+        targets = index;
+        run((long) bulletBoxes.size * targetBoxes.size >= MIN_PARALLEL_PAIRS);
+        merge(sink);
+        bullets = null;
+        targets = null;
+    }
+
+    /**
+     * Runs all bands on the calling thread and (if parallel) on the workers. The workers are always awaited, even if a
+     * band of the calling thread fails, so no worker writes its band during the next pass.
+     */
+    private void run(final boolean parallel)
+    {
+        nextBand.set(0);
+        failure = null;
+
+        if (executor == null || !parallel || executor.isShutdown())
+        {
+            runBands();
+            return;
+        }
+
+        done = new CountDownLatch(threads - 1);
+
+        for (int i = 1; i < threads; i++)
+        {
+            try
+            {
+                executor.execute(worker);
+            }
+            catch (final RejectedExecutionException e)
+            {
+                // the executor is shut down, the calling thread takes the bands
+                done.countDown();
+            }
+        }
+
+        try
+        {
+            runBands();
+        }
+        finally
+        {
+            awaitWorkers();
+        }
+
+        if (failure != null)
+        {
+            throw new IllegalStateException("the collision detection of a band has failed", failure);
+        }
+    }
+
+    private void awaitWorkers()
+    {
+        boolean interrupted = false;
+
+        while (true)
+        {
+            try
+            {
+                done.await();
+                break;
+            }
+            catch (final InterruptedException e)
+            {
+                // the workers have to finish anyway
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runBands()
+    {
+        int band = nextBand.getAndIncrement();
+
+        while (band < rows)
+        {
+            bands[band].run();
+            band = nextBand.getAndIncrement();
+        }
+    }
+
+    /**
+     * Adds the pairs of all bands to the sink, sorted by the index of the bullet and the index of the target.
+     */
+    private void merge(final ICollisionSink sink)
+    {
+        int size = 0;
+
+        for (int i = 0; i < rows; i++)
+        {
+            final Band band = bands[i];
+
+            if (size + band.size > pairs.length)
+            {
+                pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, size + band.size));
+            }
+
+            System.arraycopy(band.pairs, 0, pairs, size, band.size);
+            size += band.size;
+        }
+
+        Arrays.sort(pairs, 0, size);
+
+        for (int i = 0; i < size; i++)
+        {
+            sink.addBulletCollision(bullets, (int) (pairs[i] >>> 32), targets.get((int) pairs[i]));
+        }
+    }
+
+    private int getColumn(final float x)
+    {
+        return Math.min(columns - 1, Math.max(0, (int) ((x - minX) / cellWidth)));
+    }
+
+    private int getRow(final float y)
+    {
+        return Math.min(rows - 1, Math.max(0, (int) ((y - minY) / cellHeight)));
+    }
+
+    /**
+     * Bins the boxes into the cells they overlap (counting sort).
+     */
+    private void bin(final Boxes boxes)
+    {
+        final int[] starts = boxes.starts;
+        Arrays.fill(starts, 0);
+        int total = 0;
+
+        for (int i = 0; i < boxes.size; i++)
+        {
+            final int minColumn = getColumn(boxes.xs[i]);
+            final int maxColumn = getColumn(boxes.xs[i] + boxes.widths[i]);
+            final int minRow = getRow(boxes.ys[i]);
+            final int maxRow = getRow(boxes.ys[i] + boxes.heights[i]);
+
+            for (int row = minRow; row <= maxRow; row++)
+            {
+                for (int column = minColumn; column <= maxColumn; column++)
+                {
+                    starts[row * columns + column + 1]++;
+                    total++;
+                }
+            }
+        }
+
+        for (int cell = 0; cell < columns * rows; cell++)
+        {
+            starts[cell + 1] += starts[cell];
+        }
+
+        if (total > boxes.items.length)
+        {
+            boxes.items = new int[Math.max(total, boxes.items.length * 2)];
+        }
+
+        final int[] ends = boxes.ends;
+        System.arraycopy(starts, 0, ends, 0, ends.length);
+
+        for (int i = 0; i < boxes.size; i++)
+        {
+            final int minColumn = getColumn(boxes.xs[i]);
+            final int maxColumn = getColumn(boxes.xs[i] + boxes.widths[i]);
+            final int minRow = getRow(boxes.ys[i]);
+            final int maxRow = getRow(boxes.ys[i] + boxes.heights[i]);
+
+            for (int row = minRow; row <= maxRow; row++)
+            {
+                for (int column = minColumn; column <= maxColumn; column++)
+                {
+                    boxes.items[ends[row * columns + column]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * The Boxes are the boxes and the indices of the tested bullets (or targets) and their cells: the boxes of the cell c
+     * are items[starts[c]] to items[starts[c + 1] - 1].
+     */
+    private static final class Boxes
+    {
+        private int[]   indices = new int[64];
+        private float[] xs      = new float[64];
+        private float[] ys      = new float[64];
+        private float[] widths  = new float[64];
+        private float[] heights = new float[64];
+        private int     size;
+
+        private float   minX;
+        private float   minY;
+        private float   maxX;
+        private float   maxY;
+
+        private final int[] starts;
+        private final int[] ends;
+        private int[]       items = new int[64];
+
+        private Boxes(final int numberOfCells)
+        {
+            starts = new int[numberOfCells + 1];
+            ends = new int[numberOfCells];
+        }
+
+        private void clear()
+        {
+            size = 0;
+            minX = Float.MAX_VALUE;
+            minY = Float.MAX_VALUE;
+            maxX = -Float.MAX_VALUE;
+            maxY = -Float.MAX_VALUE;
+        }
+
+        private void add(final int index, final float x, final float y, final float width, final float height)
+        {
+            if (size == indices.length)
+            {
+                final int capacity = size * 2;
+                indices = Arrays.copyOf(indices, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                widths = Arrays.copyOf(widths, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+            }
+
+            indices[size] = index;
+            xs[size] = x;
+            ys[size] = y;
+            widths[size] = width;
+            heights[size] = height;
+            size++;
+
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x + width);
+            maxY = Math.max(maxY, y + height);
+        }
+    }
+
+    /**
+     * A Band tests the bullets and targets of the cells of one row. It has its own probe and its own pairs, so the bands
+     * can run on different threads.
+     */
+    private final class Band
+    {
+        private final int  row;
+        private final Shot probe;
+        private long[]     pairs = new long[16];
+        private int        size;
+
+        private Band(final int row)
+        {
+            this.row = row;
+            probe = BulletStore.createProbe();
+        }
+
+        private void run()
+        {
+            size = 0;
+            final Boxes b = bulletBoxes;
+            final Boxes t = targetBoxes;
+
+            for (int cell = row * columns; cell < (row + 1) * columns; cell++)
+            {
+                for (int i = b.starts[cell]; i < b.starts[cell + 1]; i++)
+                {
+                    final int bullet = b.items[i];
+
+                    for (int j = t.starts[cell]; j < t.starts[cell + 1]; j++)
+                    {
+                        final int target = t.items[j];
+
+                        if (AABB.intersects(b.xs[bullet], b.ys[bullet], b.widths[bullet], b.heights[bullet], t.xs[target], t.ys[target], t.widths[target], t.heights[target])
+                                && isReferenceCell(cell, Math.max(b.xs[bullet], t.xs[target]), Math.max(b.ys[bullet], t.ys[target]))
+                                && bullets.intersect(b.indices[bullet], targets.get(t.indices[target]), probe))
+                        {
+                            add(((long) b.indices[bullet] << 32) | t.indices[target]);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns true if the cell contains the lower left corner of the intersection (the pair is reported by this cell).
+         */
+        private boolean isReferenceCell(final int cell, final float x, final float y)
+        {
+            return getRow(y) * columns + getColumn(x) == cell;
+        }
+
+        private void add(final long pair)
+        {
+            if (size == pairs.length)
+            {
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = pair;
+        }
+    }
+}
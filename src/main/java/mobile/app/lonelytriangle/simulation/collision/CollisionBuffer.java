@@ -0,0 +1,166 @@
+package mobile.app.lonelytriangle.simulation.collision;
+
+import java.util.Arrays;
+
+import mobile.app.lonelytriangle.simulation.ICollisionSink;
+import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+
+/**
+ * A CollisionBuffer is the event queue of the collisions: the detection adds the colliding pairs, the dispatch notifies
+ * the IMoveables of all pairs in the order they were added. The pairs are stored in parallel arrays which are allocated
+ * once (and grow if necessary), so a frame does not create any objects.
+ */
+public final class CollisionBuffer implements ICollisionSink
+{
+    // the pairs (a bullet pair has a store and the index of the bullet instead of the first IMoveable)
+    private IMoveable[]   firsts;
+    private IMoveable[]   seconds;
+    private BulletStore[] stores;
+    private int[]         bullets;
+    private int           size;
+
+    // the sort keys of sortBulletPairs (bullet << 32 | target)
+    private long[]        keys;
+
+    /**
+     * Construct a new empty CollisionBuffer.
+     * 
+     * @param capacity the initial number of pairs (the buffer grows if necessary)
+     */
+    public CollisionBuffer(final int capacity)
+    {
+        final int initialCapacity = Math.max(capacity, 16);
+        firsts = new IMoveable[initialCapacity];
+        seconds = new IMoveable[initialCapacity];
+        stores = new BulletStore[initialCapacity];
+        bullets = new int[initialCapacity];
+        keys = new long[initialCapacity];
+    }
+
+    @Override
+    public void addCollision(final IMoveable first, final IMoveable second)
+    {
+        add(first, second, null, -1);
+    }
+
+    @Override
+    public void addBulletCollision(final BulletStore store, final int bullet, final IMoveable target)
+    {
+        add(null, target, store, bullet);
+    }
+
+    private void add(final IMoveable first, final IMoveable second, final BulletStore store, final int bullet)
+    {
+        if (size == firsts.length)
+        {
+            final int capacity = size * 2;
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            stores = Arrays.copyOf(stores, capacity);
+            bullets = Arrays.copyOf(bullets, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+
+        firsts[size] = first;
+        seconds[size] = second;
+        stores[size] = store;
+        bullets[size] = bullet;
+        size++;
+    }
+
+    /**
+     * Returns the number of pairs.
+     * 
+     * @return the number of pairs
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Sorts the bullet pairs from the specified position to the end by the index of the bullet and the index of the
+     * target, the order of the pairs of the BandedBroadphase. The queries of the ISpatialIndex add the pairs in the order
+     * of the bullets but the targets of a bullet in the order of the visits, so the pairs are nearly sorted and an
+     * insertion sort does not allocate anything.
+     * 
+     * @param from the position of the first bullet pair (the size before the pairs were added)
+     * @param targets the targets of the bullet pairs
+     */
+    public void sortBulletPairs(final int from, final ISpatialIndex<? extends IMoveable> targets)
+    {
+        for (int i = from; i < size; i++)
+        {
+            keys[i] = (long) bullets[i] << 32 | indexOf(targets, seconds[i]);
+        }
+
+        for (int i = from + 1; i < size; i++)
+        {
+            final long key = keys[i];
+            final IMoveable second = seconds[i];
+            final BulletStore store = stores[i];
+            final int bullet = bullets[i];
+            int j = i - 1;
+
+            while (j >= from && keys[j] > key)
+            {
+                keys[j + 1] = keys[j];
+                seconds[j + 1] = seconds[j];
+                stores[j + 1] = stores[j];
+                bullets[j + 1] = bullets[j];
+                j--;
+            }
+
+            keys[j + 1] = key;
+            seconds[j + 1] = second;
+            stores[j + 1] = store;
+            bullets[j + 1] = bullet;
+        }
+    }
+
+    private static int indexOf(final ISpatialIndex<? extends IMoveable> targets, final IMoveable target)
+    {
+        for (int i = 0; i < targets.size(); i++)
+        {
+            if (targets.get(i) == target)
+            {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("the target is not an element of the spatial index");
+    }
+
+    /**
+     * Notifies the IMoveables of all pairs (in the order the pairs were added) and removes the pairs. Both IMoveables of
+     * a pair handle the collision, the first one first.
+     */
+    public void dispatch()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (stores[i] == null)
+            {
+                firsts[i].handleCollision(seconds[i]);
+                seconds[i].handleCollision(firsts[i]);
+            }
+            else
+            {
+                stores[i].hit(bullets[i], seconds[i]);
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Removes all pairs without notifying the IMoveables.
+     */
+    public void clear()
+    {
+        Arrays.fill(firsts, 0, size, null);
+        Arrays.fill(seconds, 0, size, null);
+        Arrays.fill(stores, 0, size, null);
+        size = 0;
+    }
+}
@@ -1,12 +1,31 @@
 package mobile.app.lonelytriangle.simulation.collision;
 
+import mobile.app.lonelytriangle.simulation.ICollisionSink;
 import mobile.app.lonelytriangle.simulation.IGameStateModel;
 import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
-import mobile.app.lonelytriangle.util.Grid;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+import mobile.app.lonelytriangle.util.IGridVisitor;
 
 /**
- * Implements a simple collision detection. It only uses the intersect method of the IMoveable.
+ * Implements a simple collision detection. It only uses the intersect method of the IMoveable. The IMoveables are
+ * organized in collision layers, a CollisionMatrix defines which layers collide. A layer is a single IMoveable, an
+ * ISpatialIndex or the bullets of one owner of the BulletStore. Every frame all pairs of layers are processed in one pass
+ * (in ascending order), pairs which do not collide are filtered before any test. The candidates of a collision are the
+ * neighbours which the ISpatialIndex (broadphase) visits, a candidate pair is only tested once per frame. The shots are
+ * tested by the bulk collision passes of the BulletStore.
+ * 
+ * The detection and the response are separated: the detection only adds the colliding pairs to a preallocated
+ * CollisionBuffer, the dispatch notifies the IMoveables afterwards. So the detection never sees a state which was changed
+ * by a response of the same frame, and the order of the responses is the order of the detection (the layer pairs in
+ * ascending order, then the order of the passes), which is deterministic for the replays.
+ * 
+ * With threads the bullets are not tested by queries of the ISpatialIndex but by a BandedBroadphase: the cells of the
+ * bullets and targets are partitioned in bands of rows which run on several threads. Its pairs are sorted by bullet and
+ * target, the pairs of the queries are sorted the same way, so the result is the same for every number of threads.
+ * 
+ * A new category of IMoveables only needs a layer and the entries of the matrix, the detection code stays the same.
+ * Collisions inside of a layer and between two bullet layers are not supported.
  * 
  * @author Benedikt Zönnchen
  * @version v1.0
@@ -14,19 +33,163 @@ import mobile.app.lonelytriangle.util.Grid;
  */
 public class CollisionDetector
 {
+    /** the layer of the shots of the ship. */
+    public static final int        PLAYER_SHOTS      = 0;
+
+    /** the layer of the enemies. */
+    public static final int        ENEMIES           = 1;
+
+    /** the layer of the ship. */
+    public static final int        SHIP              = 2;
+
+    /** the layer of the shots of the enemies. */
+    public static final int        ENEMY_SHOTS       = 3;
+
+    /** the layer of the boni. */
+    public static final int        BONI              = 4;
+
     /** the simulation and model object of the game. */
     private final IGameStateModel simulation;
-    
-    //private static int collisionCount = 0;
+
+    /** the collision layers. */
+    private final Layer[]          layers            = new Layer[CollisionMatrix.MAX_LAYERS];
+
+    /** the number of layers (the highest used layer + 1). */
+    private int                    numberOfLayers;
+
+    /** defines which layers collide. */
+    private final CollisionMatrix  matrix            = new CollisionMatrix();
+
+    /** the detected collisions of the current frame. */
+    private final CollisionBuffer  buffer            = new CollisionBuffer(64);
+
+    /** the reusable visitor of the neighbour queries. */
+    private final CollisionVisitor collisionVisitor = new CollisionVisitor(buffer);
+
+    /** the parallel bullet broadphase (null => the bullets query the ISpatialIndex). */
+    private BandedBroadphase       bandedBroadphase;
+    private int                    columns;
+    private int                    rows;
 
     /**
-     * Construct a new CollisionDetector object which needs the ISimulation to get the information about the game.
+     * Construct a new CollisionDetector object which needs the ISimulation to get the information about the game. The
+     * matrix contains the collisions of the game: shots of the ship <-> enemies, enemies <-> ship, shots of the enemies
+     * <-> ship and boni <-> ship.
      * 
      * @param simulation the model object of the game
      */
     public CollisionDetector(final IGameStateModel simulation)
     {
         this.simulation = simulation;
+
+        for (int i = 0; i < layers.length; i++)
+        {
+            layers[i] = new Layer();
+        }
+
+        matrix.enable(PLAYER_SHOTS, ENEMIES);
+        matrix.enable(ENEMIES, SHIP);
+        matrix.enable(SHIP, ENEMY_SHOTS);
+        matrix.enable(SHIP, BONI);
+    }
+
+    /**
+     * Returns the CollisionMatrix which defines which layers collide.
+     * 
+     * @return the collision matrix
+     */
+    public CollisionMatrix getMatrix()
+    {
+        return matrix;
+    }
+
+    /**
+     * Sets the number of threads of the bullet passes. With zero threads the bullets query the ISpatialIndex on the
+     * calling thread, otherwise the cells (columns x rows) of the bullets and targets are tested in bands of rows by the
+     * calling thread and threads - 1 workers.
+     * 
+     * @param threads the number of threads (0 => no banded broadphase)
+     * @param newColumns the number of columns of the cells
+     * @param newRows the number of rows of the cells (the number of bands)
+     */
+    public void setThreads(final int threads, final int newColumns, final int newRows)
+    {
+        if (threads < 0)
+        {
+            throw new IllegalArgumentException("the number of threads is lower than zero (" + threads + ")");
+        }
+
+        if (bandedBroadphase != null && !bandedBroadphase.isShutdown() && bandedBroadphase.getThreads() == threads && columns == newColumns && rows == newRows)
+        {
+            return;
+        }
+
+        shutdown();
+        bandedBroadphase = null;
+
+        if (threads > 0)
+        {
+            bandedBroadphase = new BandedBroadphase(threads, newColumns, newRows);
+            columns = newColumns;
+            rows = newRows;
+        }
+    }
+
+    /**
+     * Stops the worker threads of the bullet passes (if there are any). The banded broadphase stays, its passes run on
+     * the calling thread afterwards (the results do not change), setThreads starts new workers.
+     */
+    public void shutdown()
+    {
+        if (bandedBroadphase != null)
+        {
+            bandedBroadphase.shutdown();
+        }
+    }
+
+    /**
+     * Sets a layer which contains one IMoveable.
+     * 
+     * @param layer the layer
+     * @param moveable the IMoveable (null => the layer is empty)
+     */
+    public void setLayer(final int layer, final IMoveable moveable)
+    {
+        getLayer(layer).set(moveable, null, null, 0);
+    }
+
+    /**
+     * Sets a layer which contains the IMoveables of a ISpatialIndex.
+     * 
+     * @param layer the layer
+     * @param index the ISpatialIndex (null => the layer is empty)
+     */
+    public void setLayer(final int layer, final ISpatialIndex<? extends IMoveable> index)
+    {
+        getLayer(layer).set(null, index, null, 0);
+    }
+
+    /**
+     * Sets a layer which contains the bullets of one owner.
+     * 
+     * @param layer the layer
+     * @param bullets the BulletStore (null => the layer is empty)
+     * @param owner the owner of the bullets (PLAYER or ENEMY)
+     */
+    public void setLayer(final int layer, final BulletStore bullets, final int owner)
+    {
+        getLayer(layer).set(null, null, bullets, owner);
+    }
+
+    private Layer getLayer(final int layer)
+    {
+        if (layer < 0 || layer >= layers.length)
+        {
+            throw new IllegalArgumentException("the layer has to be between 0 and " + (layers.length - 1) + " (" + layer + ")");
+        }
+
+        numberOfLayers = Math.max(numberOfLayers, layer + 1);
+        return layers[layer];
     }
 
     /**
@@ -34,62 +197,153 @@ public class CollisionDetector
      */
     public void update()
     {
-       // collisionCount = 0;
-        final Grid<EnemyShip> enemies = simulation.getAllEnemies();
-        final Grid<IMoveable> playerShots = simulation.getPlayerShots();
-        final Grid<IMoveable> enemyShots = simulation.getEnemyShots();
-        final Grid<IMoveable> boni = simulation.getBoni();
+        detect();
+        dispatch();
+    }
 
-        final IMoveable ship = simulation.getShip();
+    /**
+     * Detects the collisions of all colliding layers and adds them to the buffer. The state of the game is not changed.
+     */
+    public void detect()
+    {
+        final BulletStore bullets = simulation.getBullets();
+        setLayer(PLAYER_SHOTS, bullets, BulletStore.PLAYER);
+        setLayer(ENEMIES, simulation.getAllEnemies());
+        setLayer(SHIP, simulation.getShip());
+        setLayer(ENEMY_SHOTS, bullets, BulletStore.ENEMY);
+        setLayer(BONI, simulation.getBoni());
 
-        // TODO: improve performance this is to expensive O(n^2)!
-        // ship shots <-> enemies
-        for (final IMoveable shot : playerShots)
+        for (int i = 0; i < numberOfLayers; i++)
         {
-            for (final IMoveable enemy : enemies.getElements(shot))
+            final int mask = matrix.getMask(i);
+
+            for (int j = i + 1; j < numberOfLayers; j++)
             {
-               // collisionCount++;
-                if (enemy.intersect(shot))
+                if ((mask & (1 << j)) != 0)
                 {
-                    enemy.handleCollision(shot);
-                    shot.handleCollision(enemy);
+                    collide(layers[i], layers[j]);
                 }
             }
         }
-        
-        // enemies <-> ship
-        for (final IMoveable enemy :  enemies.getElements(ship))
+    }
+
+    /**
+     * Notifies the IMoveables of the detected collisions in the order of the detection.
+     */
+    public void dispatch()
+    {
+        buffer.dispatch();
+    }
+
+    /**
+     * Tests all IMoveables of two layers. The bullets are tested by the bulk passes of the BulletStore, the single
+     * IMoveables are the subjects of the queries.
+     */
+    private void collide(final Layer first, final Layer second)
+    {
+        if (first.isEmpty() || second.isEmpty())
+        {
+            return;
+        }
+
+        if (second.bullets != null && first.bullets == null)
         {
-           // collisionCount++;
-            if (ship.intersect(enemy))
+            collide(second, first);
+        }
+        else if (first.bullets != null)
+        {
+            if (second.index != null && bandedBroadphase != null)
+            {
+                bandedBroadphase.collide(first.bullets, first.owner, second.index, buffer);
+            }
+            else if (second.index != null)
+            {
+                // the same order as the BandedBroadphase, so the number of threads does not change the game
+                final int from = buffer.size();
+                first.bullets.collide(first.owner, second.index, buffer);
+                buffer.sortBulletPairs(from, second.index);
+            }
+            else if (second.moveable != null)
             {
-                ship.handleCollision(enemy);
-                enemy.handleCollision(ship);
+                first.bullets.collide(first.owner, second.moveable, buffer);
             }
         }
-       
-        // enemy shots <-> ship
-        for (final IMoveable shot : enemyShots.getElements(ship))
+        else if (first.index != null && second.moveable != null)
+        {
+            collisionVisitor.subject = second.moveable;
+            first.index.query(second.moveable, collisionVisitor);
+        }
+        else if (first.moveable != null && second.index != null)
+        {
+            collisionVisitor.subject = first.moveable;
+            second.index.query(first.moveable, collisionVisitor);
+        }
+        else if (first.moveable != null)
         {
-            //collisionCount++;
-            if (ship.intersect(shot))
+            collisionVisitor.subject = first.moveable;
+            collisionVisitor.visit(second.moveable);
+        }
+        else
+        {
+            for (int i = 0; i < first.index.size(); i++)
             {
-                ship.handleCollision(shot);
-                shot.handleCollision(ship);
+                collisionVisitor.subject = first.index.get(i);
+                second.index.query(collisionVisitor.subject, collisionVisitor);
             }
         }
 
-        // boni <-> ship
-        for (final IMoveable bonus :  boni.getElements(ship))
+        collisionVisitor.subject = null;
+    }
+
+    /**
+     * A Layer is the source of the IMoveables of a collision layer: a single IMoveable, an ISpatialIndex or the bullets
+     * of one owner.
+     */
+    private static final class Layer
+    {
+        private IMoveable                          moveable;
+        private ISpatialIndex<? extends IMoveable> index;
+        private BulletStore                        bullets;
+        private int                                owner;
+
+        private void set(final IMoveable newMoveable, final ISpatialIndex<? extends IMoveable> newIndex, final BulletStore newBullets, final int newOwner)
+        {
+            moveable = newMoveable;
+            index = newIndex;
+            bullets = newBullets;
+            owner = newOwner;
+        }
+
+        private boolean isEmpty()
+        {
+            return moveable == null && index == null && bullets == null;
+        }
+    }
+
+    /**
+     * The CollisionVisitor tests every visited IMoveable against its subject and adds the pair to the sink if they
+     * intersect. It is reused for all queries, so the collision detection does not allocate any memory.
+     */
+    private static final class CollisionVisitor implements IGridVisitor<IMoveable>
+    {
+        /** the sink of the colliding pairs. */
+        private final ICollisionSink sink;
+
+        /** the IMoveable which is tested against the visited IMoveables. */
+        private IMoveable            subject;
+
+        private CollisionVisitor(final ICollisionSink sink)
+        {
+            this.sink = sink;
+        }
+
+        @Override
+        public void visit(final IMoveable element)
         {
-           // collisionCount++;
-            if (ship.intersect(bonus))
+            if (subject.intersect(element))
             {
-                ship.handleCollision(bonus);
-                bonus.handleCollision(ship);
+                sink.addCollision(subject, element);
             }
         }
-        
-       // System.out.println(collisionCount);
     }
 }
@@ -0,0 +1,85 @@
+package mobile.app.lonelytriangle.simulation.collision;
+
+/**
+ * A CollisionMatrix defines which collision layers collide with each other. Every layer has a bitmask of the layers it
+ * collides with, the matrix is symmetric. A pair of layers which does not collide is never tested, so adding a layer only
+ * costs the tests of the pairs which are enabled.
+ */
+public final class CollisionMatrix
+{
+    /** the maximal number of layers (the bits of a mask). */
+    public static final int MAX_LAYERS = 32;
+
+    /** the bitmask of every layer. */
+    private final int[]     masks      = new int[MAX_LAYERS];
+
+    /**
+     * Enables the collisions of two layers.
+     *
+     * @param layer1 the first layer
+     * @param layer2 the second layer
+     */
+    public void enable(final int layer1, final int layer2)
+    {
+        checkLayer(layer1);
+        checkLayer(layer2);
+        masks[layer1] |= 1 << layer2;
+        masks[layer2] |= 1 << layer1;
+    }
+
+    /**
+     * Disables the collisions of two layers.
+     *
+     * @param layer1 the first layer
+     * @param layer2 the second layer
+     */
+    public void disable(final int layer1, final int layer2)
+    {
+        checkLayer(layer1);
+        checkLayer(layer2);
+        masks[layer1] &= ~(1 << layer2);
+        masks[layer2] &= ~(1 << layer1);
+    }
+
+    /**
+     * Disables all collisions.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < MAX_LAYERS; i++)
+        {
+            masks[i] = 0;
+        }
+    }
+
+    /**
+     * Returns true if the two layers collide.
+     *
+     * @param layer1 the first layer
+     * @param layer2 the second layer
+     * @return true if the layers collide, otherwise false
+     */
+    public boolean collides(final int layer1, final int layer2)
+    {
+        return (masks[layer1] & (1 << layer2)) != 0;
+    }
+
+    /**
+     * Returns the bitmask of the layers which collide with the layer.
+     *
+     * @param layer the layer
+     * @return the bitmask of the colliding layers
+     */
+    public int getMask(final int layer)
+    {
+        return masks[layer];
+    }
+
+    private static void checkLayer(final int layer)
+    {
+        if (layer < 0 || layer >= MAX_LAYERS)
+        {
+            throw new IllegalArgumentException("the layer has to be between 0 and " + (MAX_LAYERS - 1) + " (" + layer + ")");
+        }
+    }
+}
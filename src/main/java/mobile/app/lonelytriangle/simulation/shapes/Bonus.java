@@ -2,6 +2,7 @@ package mobile.app.lonelytriangle.simulation.shapes;
 
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
 import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.util.StateBuffer;
 
 /**
  * A Bonus is a straight down moving thing. If the user catches it, it improves some values.
@@ -32,11 +33,18 @@ public class Bonus extends Shape
         TripleShot
     }
     
-    private float   elapsedTime;
     private float   visibleTime;
     private boolean destroyed;
-    private final BonusType type;
+    private BonusType type;
     
+    /**
+     * Construct a blank Bonus for a pool, it has to be reset before it is used.
+     */
+    Bonus()
+    {
+        this(0, 0, 1, 1, null, BonusType.LifeUp);
+    }
+
     /**
      * Construct a new Bonus with a specified position, size and color.
      * 
@@ -50,23 +58,56 @@ public class Bonus extends Shape
     protected Bonus(final float x, final float y, final float width, final float height, final Colors color, BonusType type)
     {
         super(x, y, width, height, color);
-        elapsedTime = 0f;
         visibleTime = 0f;
         destroyed = false;
         this.type = type;
     }
 
+    /**
+     * Resets a pooled Bonus to a new position, size, color and type. The visible time has to be set again.
+     * 
+     * @param x x-coordinate of the position
+     * @param y y-coordinate of the position
+     * @param width width of the Shape
+     * @param height height of the Shape
+     * @param color color of the Shape
+     * @param newType the specified BonusType
+     */
+    protected void reset(final float x, final float y, final float width, final float height, final Colors color, final BonusType newType)
+    {
+        reset(x, y, width, height, color);
+        visibleTime = 0f;
+        destroyed = false;
+        type = newType;
+    }
+
     @Override
-    public void update(final float delta)
+    public void saveState(final StateBuffer state)
     {
-        elapsedTime += delta;
+        super.saveState(state);
+        state.putFloat(visibleTime);
+        state.putBoolean(destroyed);
+    }
 
-        setY(getY() + getYVelocity() * -delta);
+    @Override
+    public void restoreState(final StateBuffer state)
+    {
+        super.restoreState(state);
+        visibleTime = state.getFloat();
+        destroyed = state.getBoolean();
+    }
 
-        if (elapsedTime > visibleTime)
-        {
-            destroyed = true;
-        }
+    @Override
+    public void update(final float delta)
+    {
+        moveTo(getAge() + delta);
+    }
+
+    @Override
+    public void moveTo(final float newAge)
+    {
+        super.moveTo(newAge);
+        setY(getSpawnY() - getYVelocity() * newAge);
     }
 
     @Override
@@ -94,6 +135,19 @@ public class Bonus extends Shape
         this.visibleTime = visibleTime;
     }
     
+    /**
+     * Returns the time until the bonus disappears: the bonus moves straight down until it leaves the screen or its
+     * visible time is over. The simulation schedules the removal of the bonus by this time.
+     * 
+     * @param screenWidth the width of the screen
+     * @param screenHeight the height of the screen
+     * @return the time in seconds
+     */
+    public float getLifetime(final float screenWidth, final float screenHeight)
+    {
+        return Math.min(visibleTime, getExitTime(getX(), getY(), getWidth(), getHeight(), 0, -getYVelocity(), screenWidth, screenHeight));
+    }
+
     /**
      * Returns the BonusType of this bonus.
      * 
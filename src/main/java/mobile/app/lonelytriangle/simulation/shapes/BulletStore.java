@@ -0,0 +1,709 @@
+package mobile.app.lonelytriangle.simulation.shapes;
+
+import java.util.Arrays;
+
+import mobile.app.lonelytriangle.rendering.IMesh;
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+import mobile.app.lonelytriangle.simulation.ICollisionSink;
+import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.util.IGridVisitor;
+import mobile.app.lonelytriangle.util.AABB;
+import mobile.app.lonelytriangle.util.ConvexPolygon;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+import mobile.app.lonelytriangle.util.StateBuffer;
+import mobile.app.lonelytriangle.util.TimingWheel;
+
+/**
+ * The BulletStore holds all shots of the game (of the player and of the enemies) in parallel primitive arrays (structure
+ * of arrays) instead of one object per shot. The velocity of a bullet is calculated once by its angle, so the bulk
+ * update, the bulk bounds cull and the bulk collision pass are tight loops over a few float arrays.
+ *
+ * The flags of a bullet pack its owner (PLAYER or ENEMY) and the destroyed bit. The color, mesh and size of a bullet
+ * are shared by all bullets of the same style, a bullet only stores the index of its style. Removing a bullet moves the
+ * last bullet to its index, so the order of the bullets is not stable.
+ *
+ * A bullet moves linearly, so the time it leaves the screen is known when it is added. The expiry of every bullet is
+ * scheduled in a TimingWheel (the id of a bullet is its index), a destroyed bullet expires immediately. The cull only
+ * removes the expired bullets instead of testing every bullet against the screen bounds. The time of the store is set by
+ * clear and advanced by the updates; a screen resize reschedules all bullets.
+ *
+ * The collision passes only report the hits to an ICollisionSink, the hits are handled later by hit. A hit IMoveable
+ * gets a Shot (a reusable representative of the bullet) for its collision handling.
+ */
+public final class BulletStore
+{
+    /** the owner of the bullets of the player ship. */
+    public static final int    PLAYER     = 0;
+
+    /** the owner of the bullets of the enemies. */
+    public static final int    ENEMY      = 1;
+
+    private static final int   OWNER_MASK = 1;
+    private static final int   DESTROYED  = 2;
+
+    /** the length of a tick of the expiries: 2^20 ns (about 1 ms). */
+    private static final int   TICK_SHIFT = 20;
+
+    // the bullets
+    private float[]            xs;
+    private float[]            ys;
+    private float[]            previousXs;
+    private float[]            previousYs;
+    private float[]            xVelocities;
+    private float[]            yVelocities;
+    private int[]              flags;
+    private int[]              styles;
+    private int                size;
+
+    /** the maximal number of bullets at the same time. */
+    private int                highWater;
+
+    /** the expiries of the bullets (the id is the index of the bullet). */
+    private final TimingWheel  expiries;
+
+    /** the time of the current positions in nano seconds. */
+    private long               time;
+
+    // the screen bounds of the scheduled expiries
+    private float              width;
+    private float              height;
+
+    // the styles (color, mesh and size of a bullet)
+    private Colors[]           styleColors;
+    private IMesh[]            styleMeshes;
+    private ConvexPolygon[]    styleHulls;
+    private float[]            styleWidths;
+    private float[]            styleHeights;
+    private int                numberOfStyles;
+
+    /** the representative of a bullet for the collision handling. */
+    private final Shot         probe;
+
+    /** the reusable visitor of the collision queries. */
+    private final ProbeVisitor visitor;
+
+    /**
+     * Construct a new empty BulletStore.
+     *
+     * @param capacity the initial number of bullets (the store grows if necessary)
+     */
+    public BulletStore(final int capacity)
+    {
+        final int initialCapacity = Math.max(capacity, 16);
+        xs = new float[initialCapacity];
+        ys = new float[initialCapacity];
+        previousXs = new float[initialCapacity];
+        previousYs = new float[initialCapacity];
+        xVelocities = new float[initialCapacity];
+        yVelocities = new float[initialCapacity];
+        flags = new int[initialCapacity];
+        styles = new int[initialCapacity];
+
+        styleColors = new Colors[4];
+        styleMeshes = new IMesh[4];
+        styleHulls = new ConvexPolygon[4];
+        styleWidths = new float[4];
+        styleHeights = new float[4];
+
+        expiries = new TimingWheel(initialCapacity);
+
+        probe = new Shot();
+        visitor = new ProbeVisitor(this, probe);
+    }
+
+    /**
+     * Returns the index of the style with the specified color, mesh and size. A new style is added if there is no such
+     * style.
+     *
+     * @param color the color of the bullets
+     * @param mesh the mesh of the bullets
+     * @param width the width of the bullets
+     * @param height the height of the bullets
+     * @return the index of the style
+     */
+    public int getStyle(final Colors color, final IMesh mesh, final float width, final float height)
+    {
+        for (int i = 0; i < numberOfStyles; i++)
+        {
+            if (styleMeshes[i] == mesh && styleColors[i] == color && styleWidths[i] == width && styleHeights[i] == height)
+            {
+                return i;
+            }
+        }
+
+        if (numberOfStyles == styleColors.length)
+        {
+            final int capacity = numberOfStyles * 2;
+            styleColors = Arrays.copyOf(styleColors, capacity);
+            styleMeshes = Arrays.copyOf(styleMeshes, capacity);
+            styleHulls = Arrays.copyOf(styleHulls, capacity);
+            styleWidths = Arrays.copyOf(styleWidths, capacity);
+            styleHeights = Arrays.copyOf(styleHeights, capacity);
+        }
+
+        styleColors[numberOfStyles] = color;
+        styleMeshes[numberOfStyles] = mesh;
+        styleHulls[numberOfStyles] = Shape.getHull(mesh, width, height);
+        styleWidths[numberOfStyles] = width;
+        styleHeights[numberOfStyles] = height;
+        return numberOfStyles++;
+    }
+
+    /**
+     * Adds a new bullet.
+     *
+     * @param x the x-coordinate of the bullet
+     * @param y the y-coordinate of the bullet
+     * @param xVelocity the velocity in x direction
+     * @param yVelocity the velocity in y direction
+     * @param owner the owner of the bullet (PLAYER or ENEMY)
+     * @param style the index of the style of the bullet (see getStyle)
+     */
+    public void add(final float x, final float y, final float xVelocity, final float yVelocity, final int owner, final int style)
+    {
+        if (size == xs.length)
+        {
+            grow(size * 2);
+        }
+
+        xs[size] = x;
+        ys[size] = y;
+        previousXs[size] = x;
+        previousYs[size] = y;
+        xVelocities[size] = xVelocity;
+        yVelocities[size] = yVelocity;
+        flags[size] = owner & OWNER_MASK;
+        styles[size] = style;
+        schedule(size);
+        size++;
+
+        if (size > highWater)
+        {
+            highWater = size;
+        }
+    }
+
+    /**
+     * Moves all bullets (bulk update). The current positions are saved as the previous positions.
+     *
+     * @param delta the elapsed time in seconds
+     */
+    public void update(final float delta)
+    {
+        final float[] x = xs;
+        final float[] y = ys;
+
+        for (int i = 0; i < size; i++)
+        {
+            previousXs[i] = x[i];
+            previousYs[i] = y[i];
+            x[i] += xVelocities[i] * delta;
+            y[i] += yVelocities[i] * delta;
+        }
+
+        // the same rounding as the SimulationClock
+        time += (long) (delta * 1e9);
+    }
+
+    /**
+     * Removes all destroyed bullets and all bullets which have left the screen. Only the expired bullets are visited, all
+     * bullets are rescheduled if the screen size has changed.
+     *
+     * @param screenWidth the width of the screen
+     * @param screenHeight the height of the screen
+     * @return the number of removed bullets
+     */
+    public int cull(final float screenWidth, final float screenHeight)
+    {
+        if (screenWidth != width || screenHeight != height)
+        {
+            width = screenWidth;
+            height = screenHeight;
+
+            for (int i = 0; i < size; i++)
+            {
+                if ((flags[i] & DESTROYED) == 0)
+                {
+                    schedule(i);
+                }
+            }
+        }
+
+        // descending indices, so the moved last bullet is never an expired one
+        final int expired = expiries.advance(time >> TICK_SHIFT);
+
+        for (int i = 0; i < expired; i++)
+        {
+            remove(expiries.getExpired(i));
+        }
+        return expired;
+    }
+
+    /**
+     * Tests all bullets of the owner against the targets of the spatial index (bulk collision pass). Every hit is added
+     * to the sink.
+     *
+     * @param owner the owner of the tested bullets (PLAYER or ENEMY)
+     * @param targets the targets
+     * @param sink the sink of the hits
+     */
+    public void collide(final int owner, final ISpatialIndex<? extends IMoveable> targets, final ICollisionSink sink)
+    {
+        visitor.sink = sink;
+
+        for (int i = 0; i < size; i++)
+        {
+            if ((flags[i] & (OWNER_MASK | DESTROYED)) == owner)
+            {
+                final int style = styles[i];
+                probe.reset(xs[i], ys[i], styleWidths[style], styleHeights[style]);
+                probe.setHull(styleHulls[style]);
+                visitor.bullet = i;
+                targets.query(probe, visitor);
+            }
+        }
+
+        visitor.sink = null;
+    }
+
+    /**
+     * Tests all bullets of the owner against one target (bulk collision pass). Every hit is added to the sink.
+     *
+     * @param owner the owner of the tested bullets (PLAYER or ENEMY)
+     * @param target the target (can be null)
+     * @param sink the sink of the hits
+     */
+    public void collide(final int owner, final IMoveable target, final ICollisionSink sink)
+    {
+        if (target == null)
+        {
+            return;
+        }
+
+        final float targetX = target.getX();
+        final float targetY = target.getY();
+        final float targetWidth = target.getWidth();
+        final float targetHeight = target.getHeight();
+
+        for (int i = 0; i < size; i++)
+        {
+            if ((flags[i] & (OWNER_MASK | DESTROYED)) == owner)
+            {
+                final int style = styles[i];
+                final float x = xs[i];
+                final float y = ys[i];
+
+                if (AABB.intersects(x, y, styleWidths[style], styleHeights[style], targetX, targetY, targetWidth, targetHeight))
+                {
+                    // the exact test only for the few bullets which hit the box of the target
+                    probe.reset(x, y, styleWidths[style], styleHeights[style]);
+                    probe.setHull(styleHulls[style]);
+
+                    if (probe.intersect(target))
+                    {
+                        sink.addBulletCollision(this, i, target);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the bullet intersects the target (exact test). The probe is reset to the bullet, so the test does
+     * not write the store and can run on several threads, every thread with its own probe.
+     *
+     * @param index the index of the bullet
+     * @param target the target
+     * @param probe the probe of the calling thread (see createProbe)
+     * @return true if the bullet intersects the target, otherwise false
+     */
+    public boolean intersect(final int index, final IMoveable target, final Shot probe)
+    {
+        final int style = styles[index];
+        probe.reset(xs[index], ys[index], styleWidths[style], styleHeights[style]);
+        probe.setHull(styleHulls[style]);
+        return probe.intersect(target);
+    }
+
+    /**
+     * Creates a new probe for the intersection tests of one thread.
+     *
+     * @return a new probe
+     */
+    public static Shot createProbe()
+    {
+        return new Shot();
+    }
+
+    /**
+     * Handles a hit of a bullet (reported by a collision pass): the target handles the collision with the Shot of the
+     * bullet and the bullet is destroyed. The bullets are not removed before the next cull, so the index stays valid.
+     *
+     * @param index the index of the bullet
+     * @param target the hit IMoveable
+     */
+    public void hit(final int index, final IMoveable target)
+    {
+        final int style = styles[index];
+        probe.reset(xs[index], ys[index], styleWidths[style], styleHeights[style]);
+        probe.setHull(styleHulls[style]);
+        probe.handleCollision(target);
+        target.handleCollision(probe);
+        destroy(index);
+    }
+
+    /**
+     * Removes the bullet with the specified index, the last bullet takes its index.
+     *
+     * @param index the index of the bullet
+     */
+    private void remove(final int index)
+    {
+        final int last = --size;
+        expiries.cancel(index);
+
+        if (index != last)
+        {
+            expiries.move(last, index);
+            xs[index] = xs[last];
+            ys[index] = ys[last];
+            previousXs[index] = previousXs[last];
+            previousYs[index] = previousYs[last];
+            xVelocities[index] = xVelocities[last];
+            yVelocities[index] = yVelocities[last];
+            flags[index] = flags[last];
+            styles[index] = styles[last];
+        }
+    }
+
+    /**
+     * Writes all bullets (a checkpoint). The style table is not part of the state, so the bullets can only be restored to
+     * this store.
+     *
+     * @param state the buffer of the state
+     */
+    public void saveState(final StateBuffer state)
+    {
+        state.putLong(time);
+        state.putFloat(width);
+        state.putFloat(height);
+        state.putInt(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            state.putFloat(xs[i]);
+            state.putFloat(ys[i]);
+            state.putFloat(previousXs[i]);
+            state.putFloat(previousYs[i]);
+            state.putFloat(xVelocities[i]);
+            state.putFloat(yVelocities[i]);
+            state.putInt(flags[i]);
+            state.putInt(styles[i]);
+            state.putLong(expiries.isScheduled(i) ? expiries.getTick(i) : Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Replaces all bullets by the bullets which were written by saveState.
+     *
+     * @param state the buffer of the state
+     */
+    public void restoreState(final StateBuffer state)
+    {
+        time = state.getLong();
+        width = state.getFloat();
+        height = state.getFloat();
+        expiries.reset(time >> TICK_SHIFT);
+        final int newSize = state.getInt();
+
+        if (newSize > xs.length)
+        {
+            grow(newSize);
+        }
+
+        for (int i = 0; i < newSize; i++)
+        {
+            xs[i] = state.getFloat();
+            ys[i] = state.getFloat();
+            previousXs[i] = state.getFloat();
+            previousYs[i] = state.getFloat();
+            xVelocities[i] = state.getFloat();
+            yVelocities[i] = state.getFloat();
+            flags[i] = state.getInt();
+            styles[i] = state.getInt();
+            final long tick = state.getLong();
+
+            if (tick != Long.MAX_VALUE)
+            {
+                expiries.schedule(i, tick);
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * Removes all bullets and sets the time of the store, the time is advanced by the updates.
+     *
+     * @param timeNanos the simulated time in nano seconds
+     */
+    public void clear(final long timeNanos)
+    {
+        size = 0;
+        time = timeNanos;
+        expiries.reset(time >> TICK_SHIFT);
+    }
+
+    /**
+     * Returns the number of bullets.
+     *
+     * @return the number of bullets
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of bullets of the owner.
+     *
+     * @param owner the owner (PLAYER or ENEMY)
+     * @return the number of bullets of the owner
+     */
+    public int size(final int owner)
+    {
+        int count = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            if ((flags[i] & OWNER_MASK) == owner)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the x-coordinate of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the x-coordinate
+     */
+    public float getX(final int index)
+    {
+        return xs[index];
+    }
+
+    /**
+     * Returns the y-coordinate of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the y-coordinate
+     */
+    public float getY(final int index)
+    {
+        return ys[index];
+    }
+
+    /**
+     * Returns the x-coordinate of the bullet with the specified index before the last update.
+     *
+     * @param index the index of the bullet
+     * @return the previous x-coordinate
+     */
+    public float getPreviousX(final int index)
+    {
+        return previousXs[index];
+    }
+
+    /**
+     * Returns the y-coordinate of the bullet with the specified index before the last update.
+     *
+     * @param index the index of the bullet
+     * @return the previous y-coordinate
+     */
+    public float getPreviousY(final int index)
+    {
+        return previousYs[index];
+    }
+
+    /**
+     * Returns the velocity in x direction of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the velocity in x direction
+     */
+    public float getXVelocity(final int index)
+    {
+        return xVelocities[index];
+    }
+
+    /**
+     * Returns the velocity in y direction of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the velocity in y direction
+     */
+    public float getYVelocity(final int index)
+    {
+        return yVelocities[index];
+    }
+
+    /**
+     * Returns the width of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the width
+     */
+    public float getWidth(final int index)
+    {
+        return styleWidths[styles[index]];
+    }
+
+    /**
+     * Returns the height of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the height
+     */
+    public float getHeight(final int index)
+    {
+        return styleHeights[styles[index]];
+    }
+
+    /**
+     * Returns the color of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the color
+     */
+    public Colors getColor(final int index)
+    {
+        return styleColors[styles[index]];
+    }
+
+    /**
+     * Returns the mesh of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the mesh
+     */
+    public IMesh getMesh(final int index)
+    {
+        return styleMeshes[styles[index]];
+    }
+
+    /**
+     * Returns the owner of the bullet with the specified index.
+     *
+     * @param index the index of the bullet
+     * @return the owner (PLAYER or ENEMY)
+     */
+    public int getOwner(final int index)
+    {
+        return flags[index] & OWNER_MASK;
+    }
+
+    /**
+     * Returns true if the bullet with the specified index is destroyed (it is removed by the next cull).
+     *
+     * @param index the index of the bullet
+     * @return true if the bullet is destroyed, otherwise false
+     */
+    public boolean isDestroyed(final int index)
+    {
+        return (flags[index] & DESTROYED) != 0;
+    }
+
+    /**
+     * Destroys the bullet with the specified index, it is removed by the next cull.
+     *
+     * @param index the index of the bullet
+     */
+    public void destroy(final int index)
+    {
+        if ((flags[index] & DESTROYED) == 0)
+        {
+            flags[index] |= DESTROYED;
+            expiries.schedule(index, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Returns the maximal number of bullets at the same time.
+     *
+     * @return the high-water mark
+     */
+    public int getHighWater()
+    {
+        return highWater;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "size=" + size + "/" + xs.length + " highWater=" + highWater + " styles=" + numberOfStyles;
+    }
+
+    /**
+     * Schedules the expiry of a bullet: the first tick at which it is completely outside of the screen.
+     */
+    private void schedule(final int index)
+    {
+        final float exitTime = Shape.getExitTime(xs[index], ys[index], getWidth(index), getHeight(index), xVelocities[index], yVelocities[index], width, height);
+
+        if (exitTime == Float.POSITIVE_INFINITY)
+        {
+            expiries.cancel(index);
+        }
+        else if (exitTime == 0)
+        {
+            // already outside, it expires with the next cull
+            expiries.schedule(index, Long.MIN_VALUE);
+        }
+        else
+        {
+            // round up, a bullet must not expire before it has left the screen
+            final long exit = time + (long) Math.ceil(exitTime * 1e9);
+            expiries.schedule(index, (exit + (1L << TICK_SHIFT) - 1) >> TICK_SHIFT);
+        }
+    }
+
+    private void grow(final int capacity)
+    {
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        previousXs = Arrays.copyOf(previousXs, capacity);
+        previousYs = Arrays.copyOf(previousYs, capacity);
+        xVelocities = Arrays.copyOf(xVelocities, capacity);
+        yVelocities = Arrays.copyOf(yVelocities, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        styles = Arrays.copyOf(styles, capacity);
+    }
+
+    /**
+     * The ProbeVisitor tests every visited IMoveable against the probe and adds the hits of the bullet to the sink.
+     */
+    private static final class ProbeVisitor implements IGridVisitor<IMoveable>
+    {
+        private final BulletStore store;
+        private final Shot        probe;
+        private ICollisionSink    sink;
+        private int               bullet;
+
+        private ProbeVisitor(final BulletStore store, final Shot probe)
+        {
+            this.store = store;
+            this.probe = probe;
+        }
+
+        @Override
+        public void visit(final IMoveable element)
+        {
+            if (probe.intersect(element))
+            {
+                sink.addBulletCollision(store, bullet, element);
+            }
+        }
+    }
+}
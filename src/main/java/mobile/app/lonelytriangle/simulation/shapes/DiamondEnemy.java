@@ -1,23 +1,36 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
-import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.simulation.IShapeFactory;
-import android.util.FloatMath;
+import mobile.app.lonelytriangle.simulation.IShotSink;
+import mobile.app.lonelytriangle.simulation.SimulationClock;
 
 /**
  * The DiamondEnemy switch between vertical and horizontal movement. And it also shots vertical and horizontal.
  * 
+ * The movement depends on s = 3 * sin(3 * age): down for -2 < s < 2, right for s > 2 and left for s < -2. The position
+ * is the integral of this movement, it is evaluated in closed form by the time of every movement up to the age.
+ * 
  * @author Waldeck Alexander
  * @version v1.0
  * 
  */
 public class DiamondEnemy extends EnemyShip
 {
-    
+    /** the phase at which 3 * sin(phase) reaches 2. */
+    private static final float SWITCH = (float) Math.asin(2.0 / 3.0);
+
+    private static final float PI     = (float) Math.PI;
+
+    /**
+     * Construct a blank DiamondEnemy for a pool, it has to be reset before it is used.
+     */
+    DiamondEnemy()
+    {
+        this(0, 0, 1, 1, null, 0);
+    }
+
     /**
      * Construct a new DiamondEnemy with a specified position, size and color.
      * 
@@ -34,54 +47,46 @@ public class DiamondEnemy extends EnemyShip
     }
 
     @Override
-    public void update(final float delta)
+    public void moveTo(final float newAge)
     {
-        super.update(delta);
+        super.moveTo(newAge);
 
-        final float sin = 3 * FloatMath.sin(3 * getElapsedTime());
-        int xDirection = 0;
-        int yDirection = 0;
+        // one period (2 PI) of the phase: down, right, down, left, down
+        final float phase = 3 * newAge;
+        final float periods = (float) Math.floor(phase / (2 * PI));
+        final float rest = phase - periods * 2 * PI;
 
-        if (sin > -2 && sin < 2)
-        {
-            xDirection = 0;
-            yDirection = 1;
-        }
-        else if (sin > 2)
-        {
-            yDirection = 0;
-            xDirection = 1;
-        }
-        else
-        {
-            yDirection = 0;
-            xDirection = -1;
-        }
+        final float down = periods * 4 * SWITCH + Math.min(rest, SWITCH) + clamp(rest - (PI - SWITCH), 2 * SWITCH)
+                + Math.max(rest - (2 * PI - SWITCH), 0);
+        final float side = clamp(rest - SWITCH, PI - 2 * SWITCH) - clamp(rest - (PI + SWITCH), PI - 2 * SWITCH);
 
-        setY(getY() + getXVelocity() * yDirection * -delta);
-        setX(getX() + getYVelocity() * xDirection * delta);
+        // the time of a movement is a third of its phase
+        setY(getSpawnY() - getXVelocity() * down / 3);
+        setX(getSpawnX() + getYVelocity() * side / 3);
+    }
 
+    private static float clamp(final float value, final float max)
+    {
+        return Math.max(0, Math.min(value, max));
     }
 
     @Override
-    public ArrayList<IMoveable> shot(final float elapsedTime)
+    public boolean shot(final float elapsedTime, final SimulationClock clock, final IShotSink shots, final Random random)
     {
-        final ArrayList<IMoveable> returnList = new ArrayList<IMoveable>();
-
-        final long currentShot = System.currentTimeMillis();
+        final long currentShot = clock.getTimeMillis();
         final long delta = currentShot - getLastShotElapsedTime();
-        final IShapeFactory sF = ShapeFactory.getInsance();
 
-        if (new Random().nextFloat() < getShotChance() * elapsedTime && delta > getShotInterval())
+        if (random.nextFloat() < getShotChance() * elapsedTime && delta > getShotInterval())
         {
-            returnList.add(sF.getShot(getX() + getWidth(), getY() + getHeight() / 2, this, 0));
-            returnList.add(sF.getShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90));
-            returnList.add(sF.getShot(getX(), getY() + getHeight() / 2, this, 180));
-            returnList.add(sF.getShot(getX() + getWidth() / 2, getY(), this, 270));
+            shots.addShot(getX() + getWidth(), getY() + getHeight() / 2, this, 0);
+            shots.addShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90);
+            shots.addShot(getX(), getY() + getHeight() / 2, this, 180);
+            shots.addShot(getX() + getWidth() / 2, getY(), this, 270);
 
             setLastShot(currentShot);
+            return true;
         }
 
-        return returnList;
+        return false;
     }
 }
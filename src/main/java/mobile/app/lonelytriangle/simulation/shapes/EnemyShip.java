@@ -1,10 +1,13 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
-import java.util.List;
+import java.util.Random;
 
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
 import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.simulation.Vector;
+import mobile.app.lonelytriangle.simulation.IShotSink;
+import mobile.app.lonelytriangle.simulation.SimulationClock;
+import mobile.app.lonelytriangle.util.StateBuffer;
+import mobile.app.lonelytriangle.util.Vector2;
 
 /**
  * The EnemyShip implements the collision handling for the Shape. Every EnemyShip has some 
@@ -16,12 +19,11 @@ import mobile.app.lonelytriangle.simulation.Vector;
  */
 public abstract class EnemyShip extends Shape
 {
-    private float   elapsedTime;
     private boolean destroyed;
     private long    lastShotElapsedTime;
     private float   shotChance;
     private float   shotInterval;
-    private final int score;
+    private int     score;
 
     /**
      * Construct an EnemyShip with a specifie position, size and color.
@@ -34,8 +36,7 @@ public abstract class EnemyShip extends Shape
      */
     protected EnemyShip(final float x, final float y, final float width, final float height, final Colors color, final int score)
     {
-        super(new Vector(x, y, 0), width, height, color);
-        elapsedTime = 0f;
+        super(new Vector2(x, y), width, height, color);
         destroyed = false;
         lastShotElapsedTime = 0;
         shotChance = 0f;
@@ -43,19 +44,65 @@ public abstract class EnemyShip extends Shape
         this.score = score;
     }
 
+    /**
+     * Resets a pooled EnemyShip to a new position, size and color. The shot chance and the shot interval have to be set again.
+     * 
+     * @param x x-coordinate of the position
+     * @param y y-coordinate of the position
+     * @param width width of the Shape
+     * @param height height of the Shape
+     * @param color color of the Shape
+     * @param newScore the score value which the user gain if he destroy this enemy
+     */
+    protected void reset(final float x, final float y, final float width, final float height, final Colors color, final int newScore)
+    {
+        reset(x, y, width, height, color);
+        destroyed = false;
+        lastShotElapsedTime = 0;
+        shotChance = 0f;
+        shotInterval = 0;
+        score = newScore;
+    }
+
+    @Override
+    public void saveState(final StateBuffer state)
+    {
+        super.saveState(state);
+        state.putBoolean(destroyed);
+        state.putLong(lastShotElapsedTime);
+        state.putFloat(shotChance);
+        state.putFloat(shotInterval);
+        state.putInt(score);
+    }
+
+    @Override
+    public void restoreState(final StateBuffer state)
+    {
+        super.restoreState(state);
+        destroyed = state.getBoolean();
+        lastShotElapsedTime = state.getLong();
+        shotChance = state.getFloat();
+        shotInterval = state.getFloat();
+        score = state.getInt();
+    }
+
     @Override
     public void update(final float delta)
     {
-        setElapsedTime(getElapsedTime() + delta);
+        moveTo(getAge() + delta);
     }
 
     /**
-     * generate and returns an List of IMoveable shots. Every shot has the same display format (only smaler) as his mothership.
+     * generate shots and adds them to the IShotSink. Every shot has the same display format (only smaler) as his mothership.
+     * Nothing is allocated if the EnemyShip does not shoot.
      * 
      * @param elTime the elapsed time
-     * @return an List of IMoveable shots
+     * @param clock the clock of the simulation (the shot interval is measured in simulated time)
+     * @param shots the sink of the shots
+     * @param random the (shared) random number generator of the simulation
+     * @return true if the EnemyShip has shot, otherwise false
      */
-    public abstract List<IMoveable> shot(final float elTime);
+    public abstract boolean shot(final float elTime, final SimulationClock clock, final IShotSink shots, final Random random);
 
     /**
      * Sets the destroyed flag of this EnemyShip so that the simulation can remove it.
@@ -83,29 +130,9 @@ public abstract class EnemyShip extends Shape
     }
 
     /**
-     * Returns the elapsed time.
-     * 
-     * @return the elapsed time
-     */
-    protected float getElapsedTime()
-    {
-        return elapsedTime;
-    }
-
-    /**
-     * Sets the elapsed time.
-     * 
-     * @param elapsedTime the new elapsed time
-     */
-    protected void setElapsedTime(final float elapsedTime)
-    {
-        this.elapsedTime = elapsedTime;
-    }
-
-    /**
-     * Returns the time in millis which has elapsed after the last shot happens.
+     * Returns the simulated time in millis of the last shot.
      * 
-     * @return the time in millis which has elapsed after the last shot happens
+     * @return the simulated time in millis of the last shot
      */
     protected long getLastShotElapsedTime()
     {
@@ -113,9 +140,9 @@ public abstract class EnemyShip extends Shape
     }
     
     /**
-     * Sets the time in millis which has elapsed after the last shot happens.
+     * Sets the simulated time in millis of the last shot.
      * 
-     * @param elapsedShotTime the new time in millis which has elapsed after the last shot happens.
+     * @param elapsedShotTime the simulated time in millis of the last shot
      */
     protected void setLastShot(final long elapsedShotTime)
     {
@@ -1,12 +1,12 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
-import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.simulation.IShapeFactory;
-import android.util.FloatMath;
+import mobile.app.lonelytriangle.simulation.IShotSink;
+import mobile.app.lonelytriangle.simulation.SimulationClock;
+import mobile.app.lonelytriangle.util.FloatMath;
+import mobile.app.lonelytriangle.util.StateBuffer;
 
 /**
  * A RectangleEnemy implements a vertical sinus movement with a specified radius. Its shoots at 45, 135, 225 and 315 degree.
@@ -19,7 +19,15 @@ public class RectangleEnemy extends EnemyShip
 {
     private float movementRadius;
     private float movementFrequency;
-    private final float baseX;
+
+    /**
+     * Construct a blank RectangleEnemy for a pool, it has to be reset before it is used.
+     */
+    RectangleEnemy()
+    {
+        this(0, 0, 1, null, 0);
+    }
+
     /**
      * Construct a new DiamondEnemy with a specified position, size and color.
      * 
@@ -32,38 +40,59 @@ public class RectangleEnemy extends EnemyShip
     protected RectangleEnemy(final float x, final float y, final float size, final Colors color, final int score)
     {
         super(x, y, size, size, color, score);
-        baseX = x;
         movementRadius = 0;
     }
 
     @Override
-    public void update(final float delta)
+    protected void reset(final float x, final float y, final float width, final float height, final Colors color, final int score)
+    {
+        super.reset(x, y, width, height, color, score);
+        movementRadius = 0;
+        movementFrequency = 0;
+    }
+
+    @Override
+    public void saveState(final StateBuffer state)
     {
-        super.update(delta);
-        setY(getY() + getXVelocity() * -delta);
-        setX(baseX + movementRadius * FloatMath.sin(movementFrequency * getElapsedTime()));
+        super.saveState(state);
+        state.putFloat(movementRadius);
+        state.putFloat(movementFrequency);
     }
 
     @Override
-    public ArrayList<IMoveable> shot(final float elapsedTime)
+    public void restoreState(final StateBuffer state)
     {
-        final ArrayList<IMoveable> returnList = new ArrayList<IMoveable>();
+        super.restoreState(state);
+        movementRadius = state.getFloat();
+        movementFrequency = state.getFloat();
+    }
 
-        final long currentShot = System.currentTimeMillis();
+    @Override
+    public void moveTo(final float newAge)
+    {
+        super.moveTo(newAge);
+        setY(getSpawnY() - getXVelocity() * newAge);
+        setX(getSpawnX() + movementRadius * FloatMath.sin(movementFrequency * newAge));
+    }
+
+    @Override
+    public boolean shot(final float elapsedTime, final SimulationClock clock, final IShotSink shots, final Random random)
+    {
+        final long currentShot = clock.getTimeMillis();
         final long delta = currentShot - getLastShotElapsedTime();
-        final IShapeFactory shapeFactory = ShapeFactory.getInsance();
 
-        if (new Random().nextDouble() < getShotChance() * elapsedTime && delta > getShotInterval())
+        if (random.nextDouble() < getShotChance() * elapsedTime && delta > getShotInterval())
         {
-            returnList.add(shapeFactory.getShot(getX(), getY(), this, 225));
-            returnList.add(shapeFactory.getShot(getX() + getWidth(), getY(), this, 315));
-            returnList.add(shapeFactory.getShot(getX(), getY() + getHeight(), this, 135));
-            returnList.add(shapeFactory.getShot(getX() + getWidth(), getY() + getHeight(), this, 45));
+            shots.addShot(getX(), getY(), this, 225);
+            shots.addShot(getX() + getWidth(), getY(), this, 315);
+            shots.addShot(getX(), getY() + getHeight(), this, 135);
+            shots.addShot(getX() + getWidth(), getY() + getHeight(), this, 45);
 
             setLastShot(currentShot);
+            return true;
         }
 
-        return returnList;
+        return false;
     }
 
     /**
@@ -1,24 +1,45 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
-import mobile.app.lonelytriangle.rendering.IDrawableMesh;
+import mobile.app.lonelytriangle.rendering.IMesh;
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
 import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.simulation.Vector;
-import android.graphics.RectF;
+import mobile.app.lonelytriangle.simulation.IShapeFactory;
+import mobile.app.lonelytriangle.util.AABB;
+import mobile.app.lonelytriangle.util.ConvexPolygon;
+import mobile.app.lonelytriangle.util.StateBuffer;
+import mobile.app.lonelytriangle.util.Vector2;
 
 /**
  * A shape is a abstract moveable object without a specific moving behavior.
  * But with a specified position, width, height, velocity color and mesh (display format).
  * The moving behavior and the collision handling should be implemented in sub classes.
  * 
+ * A shape with a closed-form motion model computes its position by moveTo from its spawn position and its age (the
+ * simulated time since the spawn) instead of integrating the velocity by every update. So the position does not drift
+ * and can be evaluated for any age, e.g. only when it is needed.
+ * 
  * @author Benedikt Zönnchen
  * @version v1.0
  * 
  */
 public abstract class Shape implements IMoveable
 {
+    /** all colors (values() creates a new array with every call). */
+    private static final Colors[] COLORS = Colors.values();
+
     /** the current position (x,y-coordinates) of this shape. */
-    private final Vector  position;
+    private final Vector2 position;
+
+    /** the position before the last update (used for the interpolation of the rendering). */
+    private float         previousX;
+    private float         previousY;
+
+    /** the position at the age 0 (the origin of the motion model). */
+    private float         spawnX;
+    private float         spawnY;
+
+    /** the simulated time since the spawn in seconds. */
+    private float         age;
 
     /** the velocity in y direction. */
     private float         xVelocity;
@@ -27,16 +48,22 @@ public abstract class Shape implements IMoveable
     private float         yVelocity;
 
     /** the width of the shape. */
-    private final float   width;
+    private float         width;
 
     /** the height of the shape. */
-    private final float   height;
+    private float         height;
 
     /** the color of the shape. */
-    private final Colors  color;
+    private Colors        color;
 
     /** mesh of the shape. */
-    private IDrawableMesh mesh;
+    private IMesh         mesh;
+
+    /** the collision geometry of the mesh (null => the box is exact). */
+    private ConvexPolygon hull;
+
+    /** the factory which has created this shape, it creates the shots of the shape. */
+    private IShapeFactory shapeFactory;
 
     /**
      * Construct a new shape.
@@ -49,7 +76,7 @@ public abstract class Shape implements IMoveable
      */
     protected Shape(final float x, final float y, final float width, final float height, final Colors color)
     {
-        this(new Vector(x, y, 0), width, height, color);
+        this(new Vector2(x, y), width, height, color);
     }
 
     /**
@@ -60,33 +87,75 @@ public abstract class Shape implements IMoveable
      * @param height height of the shape
      * @param color the color of this shape
      */
-    protected Shape(final Vector position, final float width, final float height, final Colors color)
+    protected Shape(final Vector2 position, final float width, final float height, final Colors color)
     {
         this.position = position;
-        this.width = width;
-        this.height = height;
-        this.color = color;
-        
-        if (width <= 0)
+        savePosition();
+        spawnX = position.getX();
+        spawnY = position.getY();
+        setBounds(width, height, color);
+    }
+
+    /**
+     * Resets a (pooled) shape to a new position, size and color. The velocity and the mesh have to be set again.
+     * 
+     * @param x x-coordinate of the shape
+     * @param y y-coordinate of the shape
+     * @param newWidth width of the shape
+     * @param newHeight height of the shape
+     * @param newColor the color of this shape
+     */
+    protected void reset(final float x, final float y, final float newWidth, final float newHeight, final Colors newColor)
+    {
+        position.setX(x);
+        position.setY(y);
+        savePosition();
+        spawnX = x;
+        spawnY = y;
+        age = 0;
+        setBounds(newWidth, newHeight, newColor);
+        xVelocity = 0;
+        yVelocity = 0;
+        mesh = null;
+        hull = null;
+    }
+
+    private void setBounds(final float newWidth, final float newHeight, final Colors newColor)
+    {
+        if (newWidth <= 0)
         {
             throw new IllegalArgumentException("width is lower or equals zero!");
         }
         
-        if (height <= 0)
+        if (newHeight <= 0)
         {
             throw new IllegalArgumentException("height is lower or equals zero!");
         }
+
+        width = newWidth;
+        height = newHeight;
+        color = newColor;
     }
 
+    /**
+     * Returns true if this shape intersects the moveable. The boxes are tested first, most pairs are rejected by this
+     * cheap test. Only if the boxes intersect the convex hulls of the meshes are tested exactly (SAT), so the empty
+     * corners of a triangle or a diamond do not collide.
+     * 
+     * @param moveable the other moveable
+     * @return true if the moveables intersect, otherwise false
+     */
     @Override
     public boolean intersect(final IMoveable moveable)
     {
-        final IMoveable left = getX() < moveable.getX() ? this : moveable;
-        final IMoveable right = getX() > moveable.getX() ? this : moveable;
-        final IMoveable top = getY() > moveable.getY() ? this : moveable;
-        final IMoveable bottom = getY() < moveable.getY() ? this : moveable;
+        if (!AABB.intersects(getX(), getY(), width, height, moveable.getX(), moveable.getY(), moveable.getWidth(), moveable.getHeight()))
+        {
+            return false;
+        }
 
-        return right.getX() < left.getX() + left.getHeight() && top.getY() < bottom.getY() + bottom.getHeight();
+        final ConvexPolygon other = moveable instanceof Shape ? ((Shape) moveable).hull : null;
+        return (hull == null && other == null)
+                || ConvexPolygon.intersects(hull, getX(), getY(), width, height, other, moveable.getX(), moveable.getY(), moveable.getWidth(), moveable.getHeight());
     }
 
     @Override
@@ -113,6 +182,25 @@ public abstract class Shape implements IMoveable
         position.setY(y);
     }
 
+    @Override
+    public void savePosition()
+    {
+        previousX = position.getX();
+        previousY = position.getY();
+    }
+
+    @Override
+    public float getPreviousX()
+    {
+        return previousX;
+    }
+
+    @Override
+    public float getPreviousY()
+    {
+        return previousY;
+    }
+
     @Override
     public float getWidth()
     {
@@ -142,24 +230,71 @@ public abstract class Shape implements IMoveable
     }
 
     /**
-     * Returns the IDrawableMesh which defines the display format.
+     * Returns the IMesh which defines the display format.
      * 
-     * @return the IDrawableMesh which defines the display format
+     * @return the IMesh which defines the display format
      */
-    public IDrawableMesh getMesh()
+    public IMesh getMesh()
     {
         return mesh;
     }
 
     /**
-     * Sets the IDrawableMesh which defines the display format.
+     * Sets the IMesh which defines the display format.
      * This Mesh should has the same width and height of the Shape otherwise the collsion detection and the drawing dont fit together.
      * 
-     * @param mesh the IDrawableMesh which defines the display format
+     * @param mesh the IMesh which defines the display format
      */
-    public void setMesh(final IDrawableMesh mesh)
+    public void setMesh(final IMesh mesh)
     {
         this.mesh = mesh;
+        hull = getHull(mesh, width, height);
+    }
+
+    /**
+     * Sets the collision geometry without a mesh (e.g. for a probe).
+     * 
+     * @param hull the hull (null => the box)
+     */
+    void setHull(final ConvexPolygon hull)
+    {
+        this.hull = hull;
+    }
+
+    /**
+     * Returns the collision geometry of a mesh drawn on a shape of the specified size or null if the box of the shape is
+     * already exact. The hull keeps the coordinates of the mesh, so a mesh smaller than its shape collides like it is
+     * drawn.
+     * 
+     * @param mesh the mesh
+     * @param width the width of the shape
+     * @param height the height of the shape
+     * @return the hull of the mesh or null
+     */
+    static ConvexPolygon getHull(final IMesh mesh, final float width, final float height)
+    {
+        final ConvexPolygon meshHull = mesh != null ? mesh.getHull() : null;
+        return meshHull == null || meshHull.isBox(width, height) ? null : meshHull;
+    }
+
+    /**
+     * Returns the IShapeFactory which has created this shape.
+     * 
+     * @return the IShapeFactory which has created this shape
+     */
+    protected IShapeFactory getShapeFactory()
+    {
+        return shapeFactory;
+    }
+
+    /**
+     * Sets the IShapeFactory which has created this shape.
+     * 
+     * @param shapeFactory the IShapeFactory which has created this shape
+     */
+    void setShapeFactory(final IShapeFactory shapeFactory)
+    {
+        this.shapeFactory = shapeFactory;
     }
 
     @Override
@@ -186,6 +321,92 @@ public abstract class Shape implements IMoveable
         yVelocity = velocity;
     }
 
+    /**
+     * Moves the shape to the position of the specified age by its motion model. The default motion model only sets the
+     * age, the position has to be changed by the update.
+     * 
+     * @param newAge the time since the spawn in seconds
+     */
+    public void moveTo(final float newAge)
+    {
+        age = newAge;
+    }
+
+    /**
+     * Returns the simulated time since the spawn of the shape.
+     * 
+     * @return the age in seconds
+     */
+    public float getAge()
+    {
+        return age;
+    }
+
+    /**
+     * Returns the x-coordinate of the spawn position (the origin of the motion model).
+     * 
+     * @return the x-coordinate of the spawn position
+     */
+    protected float getSpawnX()
+    {
+        return spawnX;
+    }
+
+    /**
+     * Returns the y-coordinate of the spawn position (the origin of the motion model).
+     * 
+     * @return the y-coordinate of the spawn position
+     */
+    protected float getSpawnY()
+    {
+        return spawnY;
+    }
+
+    /**
+     * Writes the state of this shape (a checkpoint). The mesh is not part of the state, it is set by the IShapeFactory.
+     * Sub classes with additional state have to call this method first.
+     * 
+     * @param state the buffer of the state
+     */
+    public void saveState(final StateBuffer state)
+    {
+        state.putFloat(position.getX());
+        state.putFloat(position.getY());
+        state.putFloat(previousX);
+        state.putFloat(previousY);
+        state.putFloat(spawnX);
+        state.putFloat(spawnY);
+        state.putFloat(age);
+        state.putFloat(xVelocity);
+        state.putFloat(yVelocity);
+        state.putFloat(width);
+        state.putFloat(height);
+        state.putInt(color == null ? -1 : color.ordinal());
+    }
+
+    /**
+     * Reads the state of this shape which was written by saveState. Sub classes with additional state have to call this
+     * method first.
+     * 
+     * @param state the buffer of the state
+     */
+    public void restoreState(final StateBuffer state)
+    {
+        position.setX(state.getFloat());
+        position.setY(state.getFloat());
+        previousX = state.getFloat();
+        previousY = state.getFloat();
+        spawnX = state.getFloat();
+        spawnY = state.getFloat();
+        age = state.getFloat();
+        xVelocity = state.getFloat();
+        yVelocity = state.getFloat();
+        width = state.getFloat();
+        height = state.getFloat();
+        final int colorIndex = state.getInt();
+        color = colorIndex < 0 ? null : COLORS[colorIndex];
+    }
+
     // do nothing is the standard behavior.
     @Override
     public void handleCollision(final IMoveable shape)
@@ -195,12 +416,49 @@ public abstract class Shape implements IMoveable
     @Override
     public boolean intersect(final float widthf, final float heightf)
     {
-        return intersect(new RectF(0f, 0f, widthf, heightf));
+        return intersect(0f, 0f, widthf, heightf);
     }
     
     @Override
-    public boolean intersect(final RectF rect)
+    public boolean intersect(final float minX, final float minY, final float maxX, final float maxY)
+    {
+        return AABB.intersectsBounds(getX(), getY(), getWidth(), getHeight(), minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Returns the time until a linearly moving rectangle is completely outside of the screen (0 if it is already
+     * outside, infinity if it never leaves the screen).
+     *
+     * @param x x-coordinate of the position
+     * @param y y-coordinate of the position
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     * @param xVelocity the velocity in x direction
+     * @param yVelocity the velocity in y direction
+     * @param screenWidth the width of the screen
+     * @param screenHeight the height of the screen
+     * @return the time in seconds
+     */
+    static float getExitTime(final float x, final float y, final float width, final float height, final float xVelocity, final float yVelocity, final float screenWidth, final float screenHeight)
+    {
+        if (AABB.isOutside(x, y, width, height, screenWidth, screenHeight))
+        {
+            return 0;
+        }
+
+        return Math.min(getExitTime(x, width, xVelocity, screenWidth), getExitTime(y, height, yVelocity, screenHeight));
+    }
+
+    private static float getExitTime(final float position, final float size, final float velocity, final float screenSize)
     {
-        return new RectF(getX(), getY(), getX() + getWidth(), getY() + getHeight()).intersect(rect);  
+        if (velocity > 0)
+        {
+            return (screenSize - position) / velocity;
+        }
+        else if (velocity < 0)
+        {
+            return (position + size) / -velocity;
+        }
+        return Float.POSITIVE_INFINITY;
     }
 }
@@ -7,9 +7,15 @@ import mobile.app.lonelytriangle.resource.ResourceManager;
 import mobile.app.lonelytriangle.simulation.IMoveable;
 import mobile.app.lonelytriangle.simulation.IShapeFactory;
 import mobile.app.lonelytriangle.simulation.shapes.Bonus.BonusType;
+import mobile.app.lonelytriangle.util.FloatMath;
+import mobile.app.lonelytriangle.util.Pool;
+import mobile.app.lonelytriangle.util.StateBuffer;
 
 /**
- * The implementation of IShapeFactory as singleton.
+ * The implementation of IShapeFactory as singleton. The enemies and boni are pooled: the factory resets a free instance
+ * of the pool and the simulation frees it if the shape is no longer part of the game. The pools keep at most twice their
+ * configured size, they are adjusted to the difficulty at the start of every game. The shots are no objects, they are
+ * added to a BulletStore.
  * 
  * @author Benedikt Zönnchen
  * @version v1.0
@@ -17,47 +23,135 @@ import mobile.app.lonelytriangle.simulation.shapes.Bonus.BonusType;
  */
 public final class ShapeFactory implements IShapeFactory
 {
+    /** the kinds of the saved shapes. */
+    private static final int           RECTANGLE_ENEMY = 0;
+    private static final int           TRIANGLE_ENEMY  = 1;
+    private static final int           DIAMOND_ENEMY   = 2;
+    private static final int           FAST_SHOT       = 3;
+    private static final int           TRIPLE_SHOT     = 4;
+    private static final int           LIFE_UP         = 5;
+
     /** the IResourceManager which stores all the configuration data. */
     private final IResourceManager     resourceManager;
     
     /** the IMeshFactory for adding Meshes to the Shapes. */
     private final IMeshFactory         meshFactory;
     
-    /** the instance of this singleton. */
-    private static final IShapeFactory INSTANCE = new ShapeFactory();
+    /** the pooled shapes. */
+    private final Pool<RectangleEnemy> rectangleEnemyPool;
+    private final Pool<TriangleEnemy>  triangleEnemyPool;
+    private final Pool<DiamondEnemy>   diamondEnemyPool;
+    private final Pool<Bonus>          bonusPool;
+
+    /** the instance of this singleton, it is created after the configuration was loaded (pool sizes). */
+    private static IShapeFactory       instance;
 
     private ShapeFactory()
     {
-        resourceManager = ResourceManager.getInstance();
-        meshFactory = MeshFactory.getInstance();
+        this(ResourceManager.getInstance(), MeshFactory.getInstance());
+    }
+
+    /**
+     * Construct a new ShapeFactory with a specified IResourceManager and IMeshFactory. Use this constructor if the
+     * shapes should not be configured by the singleton IResourceManager (e.g. for headless simulations).
+     * 
+     * @param resourceManager the IResourceManager which stores all the configuration data
+     * @param meshFactory the IMeshFactory for adding Meshes to the Shapes
+     */
+    public ShapeFactory(final IResourceManager resourceManager, final IMeshFactory meshFactory)
+    {
+        this.resourceManager = resourceManager;
+        this.meshFactory = meshFactory;
+
+        final int enemyPoolSize = resourceManager.getEnemyPoolSize();
+        final int bonusPoolSize = resourceManager.getBonusPoolSize();
+
+        rectangleEnemyPool = new Pool<RectangleEnemy>(enemyPoolSize, 2 * enemyPoolSize)
+        {
+            @Override
+            protected RectangleEnemy create()
+            {
+                return init(new RectangleEnemy());
+            }
+        };
+        triangleEnemyPool = new Pool<TriangleEnemy>(enemyPoolSize, 2 * enemyPoolSize)
+        {
+            @Override
+            protected TriangleEnemy create()
+            {
+                return init(new TriangleEnemy());
+            }
+        };
+        diamondEnemyPool = new Pool<DiamondEnemy>(enemyPoolSize, 2 * enemyPoolSize)
+        {
+            @Override
+            protected DiamondEnemy create()
+            {
+                return init(new DiamondEnemy());
+            }
+        };
+        bonusPool = new Pool<Bonus>(bonusPoolSize, 2 * bonusPoolSize)
+        {
+            @Override
+            protected Bonus create()
+            {
+                return init(new Bonus());
+            }
+        };
+    }
+
+    /**
+     * Adjusts the pools to the pool sizes of the current difficulty. The pools are created with the pool sizes of the
+     * difficulty which is loaded if the singleton is constructed.
+     */
+    @Override
+    public void initPools()
+    {
+        final int enemyPoolSize = resourceManager.getEnemyPoolSize();
+        final int bonusPoolSize = resourceManager.getBonusPoolSize();
+
+        rectangleEnemyPool.resize(enemyPoolSize, 2 * enemyPoolSize);
+        triangleEnemyPool.resize(enemyPoolSize, 2 * enemyPoolSize);
+        diamondEnemyPool.resize(enemyPoolSize, 2 * enemyPoolSize);
+        bonusPool.resize(bonusPoolSize, 2 * bonusPoolSize);
+    }
+
+    private <T extends Shape> T init(final T shape)
+    {
+        shape.setShapeFactory(this);
+        return shape;
     }
 
     /** returns the instance of this singleton. 
      *
      * @return the instance of this singleton
      */
-    public static IShapeFactory getInsance()
+    public static synchronized IShapeFactory getInsance()
     {
-        return INSTANCE;
+        if (instance == null)
+        {
+            instance = new ShapeFactory();
+        }
+        return instance;
     }
 
     @Override
-    public IMoveable getShot(final float x, final float y, final Shape parent, final float angle)
+    public void addShot(final BulletStore bullets, final float x, final float y, final Shape parent, final float angle)
     {
         final float shotScale = parent instanceof EnemyShip ? resourceManager.getEnemyShotScale() : resourceManager.getShotScale();
         final float width = parent.getWidth() * shotScale;
         final float height = parent.getHeight() * shotScale;
-        final Shot shot = new Shot(x, y, width, height, parent, angle);
-        shot.setXVecolity(resourceManager.getShotVelocity());
-        shot.setYVecolity(resourceManager.getShotVelocity());
-        shot.setMesh(meshFactory.getShot(parent, width, height));
-        return shot;
+        final float velocity = resourceManager.getShotVelocity();
+        final float radian = (float) Math.PI * angle / 180;
+        final int owner = parent instanceof EnemyShip ? BulletStore.ENEMY : BulletStore.PLAYER;
+        final int style = bullets.getStyle(parent.getColor(), meshFactory.getShot(parent, width, height), width, height);
+        bullets.add(x, y, velocity * FloatMath.cos(radian), velocity * FloatMath.sin(radian), owner, style);
     }
 
     @Override
     public Ship getShip(final float x, final float y)
     {
-        final Ship ship = new Ship(x, y, resourceManager.getShipWidth(), resourceManager.getShipHeight(), resourceManager.getShipColor(), resourceManager.getShipMaxDelta(), resourceManager.getShipShotInterval());
+        final Ship ship = init(new Ship(x, y, resourceManager.getShipWidth(), resourceManager.getShipHeight(), resourceManager.getShipColor(), resourceManager.getShipMaxDelta(), resourceManager.getShipShotInterval()));
         ship.setXVecolity(resourceManager.getShipVelocity());
         ship.setYVecolity(resourceManager.getShipVelocity());
         ship.setInitialLifes(resourceManager.getInitialLifes());
@@ -71,7 +165,8 @@ public final class ShapeFactory implements IShapeFactory
     @Override
     public EnemyShip getRectangleEnemy(final float x, final float y)
     {
-        final RectangleEnemy recEnemy = new RectangleEnemy(x, y, resourceManager.getEnemySize(), resourceManager.getRectColor(), resourceManager.getRectScore());
+        final RectangleEnemy recEnemy = rectangleEnemyPool.obtain();
+        recEnemy.reset(x, y, resourceManager.getEnemySize(), resourceManager.getEnemySize(), resourceManager.getRectColor(), resourceManager.getRectScore());
         recEnemy.setMovementRadius(resourceManager.getRectRad());
         recEnemy.setMovementFrequency(resourceManager.getRectFreq());
         recEnemy.setXVecolity(resourceManager.getRectVelocity());
@@ -84,7 +179,8 @@ public final class ShapeFactory implements IShapeFactory
     @Override
     public EnemyShip getDiamondEnemy(final float x, final float y)
     {
-        final DiamondEnemy diamondEnemy = new DiamondEnemy(x, y, resourceManager.getEnemySize(), resourceManager.getEnemySize(), resourceManager.getDiamColor(), resourceManager.getDiamScore());
+        final DiamondEnemy diamondEnemy = diamondEnemyPool.obtain();
+        diamondEnemy.reset(x, y, resourceManager.getEnemySize(), resourceManager.getEnemySize(), resourceManager.getDiamColor(), resourceManager.getDiamScore());
         diamondEnemy.setXVecolity(resourceManager.getDiamVelocity());
         diamondEnemy.setYVecolity(resourceManager.getDiamVelocity());
         diamondEnemy.setShotChance(resourceManager.getDiamShotChance());
@@ -96,7 +192,8 @@ public final class ShapeFactory implements IShapeFactory
     @Override
     public EnemyShip getTriangleEnemy(final float x, final float y)
     {
-        final TriangleEnemy triangleEnemy = new TriangleEnemy(x, y, resourceManager.getEnemySize(), resourceManager.getEnemySize(), resourceManager.getTriColor(), resourceManager.getTriScore());
+        final TriangleEnemy triangleEnemy = triangleEnemyPool.obtain();
+        triangleEnemy.reset(x, y, resourceManager.getEnemySize(), resourceManager.getEnemySize(), resourceManager.getTriColor(), resourceManager.getTriScore());
         triangleEnemy.setShotChance(resourceManager.getTriShotChance());
         triangleEnemy.setShotInterval(resourceManager.getEnemyMinShotInterval());
         triangleEnemy.setMesh(meshFactory.getTriangleEnemy());
@@ -134,7 +231,8 @@ public final class ShapeFactory implements IShapeFactory
     private IMoveable getBonus(final float x, final float y, final BonusType type)
     {
         //Bonus(int x, int y, final float width, final float height, final Colors color, BonusType type)
-        final Bonus bonus = new Bonus(x, y, resourceManager.getBonusSize(), resourceManager.getBonusSize(), resourceManager.getBonusLifeColor(), type);
+        final Bonus bonus = bonusPool.obtain();
+        bonus.reset(x, y, resourceManager.getBonusSize(), resourceManager.getBonusSize(), resourceManager.getBonusLifeColor(), type);
         bonus.setVisibleTime(resourceManager.getBonusVisibleTime());
         bonus.setMesh(meshFactory.getLifePlus());
         bonus.setYVecolity(resourceManager.getBonusYVelocity());
@@ -148,4 +246,140 @@ public final class ShapeFactory implements IShapeFactory
         }
         return bonus;
     }
+
+    @Override
+    public void free(final IMoveable moveable)
+    {
+        // only shapes of this factory go back to its pools
+        if (!(moveable instanceof Shape) || ((Shape) moveable).getShapeFactory() != this)
+        {
+            return;
+        }
+
+        if (moveable instanceof RectangleEnemy)
+        {
+            rectangleEnemyPool.free((RectangleEnemy) moveable);
+        }
+        else if (moveable instanceof TriangleEnemy)
+        {
+            triangleEnemyPool.free((TriangleEnemy) moveable);
+        }
+        else if (moveable instanceof DiamondEnemy)
+        {
+            diamondEnemyPool.free((DiamondEnemy) moveable);
+        }
+        else if (moveable instanceof Bonus)
+        {
+            bonusPool.free((Bonus) moveable);
+        }
+    }
+
+    @Override
+    public void saveShape(final IMoveable moveable, final StateBuffer state)
+    {
+        state.putInt(getKind(moveable));
+        ((Shape) moveable).saveState(state);
+    }
+
+    @Override
+    public IMoveable restoreShape(final StateBuffer state)
+    {
+        final Shape shape;
+
+        switch (state.getInt())
+        {
+            case RECTANGLE_ENEMY:
+                shape = (Shape) getRectangleEnemy(0, 0);
+                break;
+            case TRIANGLE_ENEMY:
+                shape = (Shape) getTriangleEnemy(0, 0);
+                break;
+            case DIAMOND_ENEMY:
+                shape = (Shape) getDiamondEnemy(0, 0);
+                break;
+            case FAST_SHOT:
+                shape = (Shape) getFastShot(0, 0);
+                break;
+            case TRIPLE_SHOT:
+                shape = (Shape) getTripleShot(0, 0);
+                break;
+            case LIFE_UP:
+                shape = (Shape) getLifeUp(0, 0);
+                break;
+            default:
+                throw new IllegalArgumentException("wrong kind of shape");
+        }
+
+        shape.restoreState(state);
+        return shape;
+    }
+
+    private static int getKind(final IMoveable moveable)
+    {
+        if (moveable instanceof RectangleEnemy)
+        {
+            return RECTANGLE_ENEMY;
+        }
+        else if (moveable instanceof TriangleEnemy)
+        {
+            return TRIANGLE_ENEMY;
+        }
+        else if (moveable instanceof DiamondEnemy)
+        {
+            return DIAMOND_ENEMY;
+        }
+        else if (moveable instanceof Bonus)
+        {
+            switch (((Bonus) moveable).getType())
+            {
+                case FastShot:
+                    return FAST_SHOT;
+                case TripleShot:
+                    return TRIPLE_SHOT;
+                default:
+                    return LIFE_UP;
+            }
+        }
+        throw new IllegalArgumentException("the shape can not be saved");
+    }
+
+    /**
+     * Returns the pool of the RectangleEnemies.
+     * 
+     * @return the pool of the RectangleEnemies
+     */
+    public Pool<RectangleEnemy> getRectangleEnemyPool()
+    {
+        return rectangleEnemyPool;
+    }
+
+    /**
+     * Returns the pool of the TriangleEnemies.
+     * 
+     * @return the pool of the TriangleEnemies
+     */
+    public Pool<TriangleEnemy> getTriangleEnemyPool()
+    {
+        return triangleEnemyPool;
+    }
+
+    /**
+     * Returns the pool of the DiamondEnemies.
+     * 
+     * @return the pool of the DiamondEnemies
+     */
+    public Pool<DiamondEnemy> getDiamondEnemyPool()
+    {
+        return diamondEnemyPool;
+    }
+
+    /**
+     * Returns the pool of the boni.
+     * 
+     * @return the pool of the boni
+     */
+    public Pool<Bonus> getBonusPool()
+    {
+        return bonusPool;
+    }
 }
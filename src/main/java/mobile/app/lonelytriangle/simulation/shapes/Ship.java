@@ -2,8 +2,11 @@ package mobile.app.lonelytriangle.simulation.shapes;
 
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
 import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.util.Grid;
-import android.util.FloatMath;
+import mobile.app.lonelytriangle.simulation.IShotSink;
+import mobile.app.lonelytriangle.simulation.SimulationClock;
+import mobile.app.lonelytriangle.simulation.shapes.Bonus.BonusType;
+import mobile.app.lonelytriangle.util.Vector2;
+import mobile.app.lonelytriangle.util.StateBuffer;
 
 /**
  * The Ship represents the player ship, its the most complex Shape. The player ship is moving towards the targetX and
@@ -21,9 +24,12 @@ public class Ship extends Shape
     /** the time that has to elapsed after a shot (single or triple) happens. It is affected by fastShotSpeedUp. */
     private final int             shotInterval;
 
-    /** saves the time (in millis) when a shot happens. */
+    /** saves the simulated time (in millis) when a shot happens. */
     private long                  lastShot;
 
+    /** the clock of the simulation. */
+    private SimulationClock       clock;
+
     /** the period of time in which the shots are triple shots. */
     private float                 tripleShotTime;
 
@@ -60,11 +66,11 @@ public class Ship extends Shape
     /** indicate that one or more shots were generated. This depends on the shotinterval. */
     private boolean               generateShot;
 
-    /** TODO . */
-    private Grid<IMoveable> shots;
+    /** the sink of the shots. */
+    private IShotSink             shots;
 
-    /** last collected Bonus. */
-    private Bonus lastBonus = null;
+    /** the type of the last collected Bonus (the Bonus itself is recycled). */
+    private BonusType lastBonusType = null;
 
     /** current shot type. */
     private boolean currentShotType = false;
@@ -84,7 +90,7 @@ public class Ship extends Shape
     protected Ship(final float x, final float y, final float width, final float height, final Colors color, final float notMovingTolerance, final int shotInterval)
     {
         super(x, y, width, height, color);
-        lastShot = System.currentTimeMillis();
+        lastShot = 0;
         targetX = getX();
         targetY = getY();
         this.notMovingTolerance = notMovingTolerance;
@@ -100,12 +106,47 @@ public class Ship extends Shape
         generateShot = false;
     }
 
+    @Override
+    public void saveState(final StateBuffer state)
+    {
+        super.saveState(state);
+        state.putLong(lastShot);
+        state.putFloat(tripleShotTime);
+        state.putFloat(fastShotTime);
+        state.putInt(life);
+        state.putFloat(targetX);
+        state.putFloat(targetY);
+        state.putBoolean(destroyed);
+        state.putBoolean(shoting);
+        state.putBoolean(generateShot);
+        state.putInt(lastBonusType == null ? -1 : lastBonusType.ordinal());
+        state.putBoolean(currentShotType);
+    }
+
+    @Override
+    public void restoreState(final StateBuffer state)
+    {
+        super.restoreState(state);
+        lastShot = state.getLong();
+        tripleShotTime = state.getFloat();
+        fastShotTime = state.getFloat();
+        life = state.getInt();
+        targetX = state.getFloat();
+        targetY = state.getFloat();
+        destroyed = state.getBoolean();
+        shoting = state.getBoolean();
+        generateShot = state.getBoolean();
+        final int bonusType = state.getInt();
+        lastBonusType = bonusType < 0 ? null : BonusType.values()[bonusType];
+        currentShotType = state.getBoolean();
+    }
+
     @Override
     public void update(final float delta)
     {
         final float xlength = Math.abs(targetX - getX());
         final float ylength = Math.abs(targetY - getY());
-        final float length = FloatMath.sqrt(xlength * xlength + ylength * ylength);
+        final float length = Vector2.length(xlength, ylength);
 
         if (xlength > notMovingTolerance)
         {
@@ -140,7 +181,7 @@ public class Ship extends Shape
 
     private boolean shot()
     {
-        final long currentShot = System.currentTimeMillis();
+        final long currentShot = clock.getTimeMillis();
         final long delta = currentShot - lastShot;
         float shotIntervalOffset = 0;
 
@@ -153,13 +194,13 @@ public class Ship extends Shape
 
         if (shouldShot)
         {
-            shots.add(ShapeFactory.getInsance().getShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90));
+            shots.addShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90);
             currentShotType = false;
 
             if (tripleShotTime > 0)
             {
-                shots.add(ShapeFactory.getInsance().getShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90 + bonusTripleShotAngle));
-                shots.add(ShapeFactory.getInsance().getShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90 - bonusTripleShotAngle));
+                shots.addShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90 + bonusTripleShotAngle);
+                shots.addShot(getX() + getWidth() / 2, getY() + getHeight(), this, 90 - bonusTripleShotAngle);
                 currentShotType = true;
                 
             }
@@ -202,21 +243,33 @@ public class Ship extends Shape
     }
 
     /**
-     * Returns the current shots of this ship.
+     * Returns the sink of the shots of this ship.
      * 
-     * @return the current shots of this ship
+     * @return the sink of the shots of this ship
      */
-    public Grid<IMoveable> getShots()
+    public IShotSink getShots()
     {
         return shots;
     }
     
     /**
-     * Sets the current shots of this ship.
+     * Sets the clock of the simulation, the shot interval is measured in simulated time. The next shot is possible after
+     * the shot interval.
+     * 
+     * @param clock the clock of the simulation
+     */
+    public void setClock(final SimulationClock clock)
+    {
+        this.clock = clock;
+        lastShot = clock.getTimeMillis();
+    }
+
+    /**
+     * Sets the sink of the shots of this ship.
      * 
-     * @param shots the new shots of this ship
+     * @param shots the new sink of the shots of this ship
      */
-    public void setShots(final Grid<IMoveable> shots)
+    public void setShots(final IShotSink shots)
     {
         this.shots = shots;
     }
@@ -251,7 +304,7 @@ public class Ship extends Shape
                 default:
             }
             
-            lastBonus = bonus;
+            lastBonusType = bonus.getType();
         }
         else
         {
@@ -298,11 +351,11 @@ public class Ship extends Shape
     
     /**
      * 
-     * @return true if lastBonus not null
+     * @return true if lastBonusType not null
      */
     public boolean collectedBonus()
     {
-        return (lastBonus != null);
+        return (lastBonusType != null);
     }
     
     /**
@@ -310,8 +363,8 @@ public class Ship extends Shape
      * @return the last collected Bonus
      */
     public String pullcollectedBonusName(){
-        String temp = lastBonus.getType().toString();
-        lastBonus = null;
+        String temp = lastBonusType.toString();
+        lastBonusType = null;
         return temp;
     }
 
@@ -1,46 +1,50 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
 import mobile.app.lonelytriangle.simulation.IMoveable;
-import android.util.FloatMath;
 
 /**
- * A Shot is a smaller version of his mothership. The movement 
- * 
+ * A Shot is a smaller version of his mothership. The shots of the game are stored in a BulletStore, a Shot is the
+ * reusable representative of one bullet of the store: it is passed to the collision handling of the hit IMoveable and
+ * remembers if the bullet was destroyed.
+ *
  * @author Benedikt Zönnchen, Johannes Szeibert
  * @version v1.0
- * 
+ *
  */
 public class Shot extends Shape
 {
 
     /** indicate that his shot is destroyed. */
     private boolean                destroyed;
-    
-    /** the angle of the flying shot 0 is equals orthogonal up (y direction). */
-    private final float            angle;
 
     /**
-     * Construct a new Shot with a specified position, size and color.
-     * 
+     * Construct a blank Shot, it has to be reset before it is used.
+     */
+    Shot()
+    {
+        super(0, 0, 1, 1, null);
+        destroyed = true;
+    }
+
+    /**
+     * Resets the Shot to the position and size of a bullet.
+     *
      * @param x x-coordinate of the position
      * @param y y-coordinate of the position
      * @param width width of the Shape
      * @param height height of the Shape
-     * @param parent the mothership
-     * @param angle the of the shot direction (0 is straight up)
      */
-    protected Shot(final float x, final float y, final float width, final float height, final Shape parent, final float angle)
+    void reset(final float x, final float y, final float width, final float height)
     {
-        super(x, y, width, height, parent.getColor());
-        this.angle = angle;
+        reset(x, y, width, height, null);
         destroyed = false;
     }
 
     @Override
     public void update(final float delta)
     {
-        setY(getY() + getXVelocity() * delta * FloatMath.sin((float) Math.PI * angle / 180));
-        setX(getX() + getYVelocity() * delta * FloatMath.cos((float) Math.PI * angle / 180));
+        setX(getX() + getXVelocity() * delta);
+        setY(getY() + getYVelocity() * delta);
     }
 
     @Override
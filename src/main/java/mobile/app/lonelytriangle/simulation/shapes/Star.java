@@ -1,11 +1,16 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+import mobile.app.lonelytriangle.util.SplitMixRandom;
 
 /**
  * A Star is only for the background and has no logic for collision detection or collision handling.
  * Its moving straight down.
  * 
+ * A star which leaves the bottom of the screen comes back at the top at a new x-coordinate. The x-coordinate of every
+ * wrap is a hash of the seed of the starfield, the star and the number of the wrap, so the position is a closed-form
+ * function of the age: a star has not to be updated, it is only evaluated if it is rendered.
+ * 
  * @author Waldeck Alexander
  * @version v1.0
  * 
@@ -28,9 +33,42 @@ public class Star extends Shape
         this.setYVecolity(velocity);
     }
 
+    /**
+     * Only ages the star, the position is evaluated by moveTo (a star has to know the screen to wrap around).
+     * 
+     * @param delta the elapsed time in seconds
+     */
     @Override
     public void update(final float delta)
     {
-        this.setY(this.getY() + this.getYVelocity() * -delta);
+        super.moveTo(getAge() + delta);
+    }
+
+    /**
+     * Moves the star to the position of the specified age of the starfield. The age is a double, the starfield lives as
+     * long as the application.
+     * 
+     * @param newAge the time since the spawn in seconds
+     * @param screenWidth the width of the screen
+     * @param screenHeight the height of the screen
+     * @param key the seed of the starfield combined with the index of the star
+     */
+    public void moveTo(final double newAge, final int screenWidth, final int screenHeight, final long key)
+    {
+        super.moveTo((float) newAge);
+        final double y = getSpawnY() - getYVelocity() * newAge;
+
+        if (y >= 0 || screenHeight <= 0)
+        {
+            setX(getSpawnX());
+            setY((float) y);
+        }
+        else
+        {
+            // every wrap restarts at the top of the screen
+            final long wrap = (long) (-y / screenHeight) + 1;
+            setY((float) (y + wrap * screenHeight));
+            setX((int) ((SplitMixRandom.mix64(key + wrap) >>> 33) % (screenWidth + 1)));
+        }
     }
 }
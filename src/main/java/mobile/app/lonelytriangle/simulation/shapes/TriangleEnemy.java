@@ -1,15 +1,14 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
-import mobile.app.lonelytriangle.simulation.IMoveable;
-import mobile.app.lonelytriangle.simulation.IShapeFactory;
-import android.util.FloatMath;
+import mobile.app.lonelytriangle.simulation.IShotSink;
+import mobile.app.lonelytriangle.simulation.SimulationClock;
 
 /**
- * A TriangleEnemy implements a linear down, switching left, right movement.
+ * A TriangleEnemy implements a linear down, switching left, right movement. The direction switches with the sign of
+ * sin(3 * age), so the horizontal position is a triangle wave of the age.
  * 
  * @author Waldeck Alexander
  * @version v1.0
@@ -17,6 +16,17 @@ import android.util.FloatMath;
  */
 public class TriangleEnemy extends EnemyShip
 {
+    /** the period of the left, right movement. */
+    private static final float PERIOD = (float) (2 * Math.PI / 3);
+
+    /**
+     * Construct a blank TriangleEnemy for a pool, it has to be reset before it is used.
+     */
+    TriangleEnemy()
+    {
+        this(0, 0, 1, 1, null, 0);
+    }
+
     /**
      * Construct a new TriangleEnemy with a specified position, size and color.
      * 
@@ -33,32 +43,32 @@ public class TriangleEnemy extends EnemyShip
     }
 
     @Override
-    public void update(final float delta)
+    public void moveTo(final float newAge)
     {
-        super.update(delta);
-        setY(getY() + getYVelocity() * -delta);
-        final int direction = FloatMath.sin(3 * getElapsedTime()) > 0 ? 1 : -1;
-        setX(getX() + getXVelocity() * direction * delta);
+        super.moveTo(newAge);
+        setY(getSpawnY() - getYVelocity() * newAge);
+
+        // right in the first half of a period, left in the second half
+        final float phase = newAge - PERIOD * (float) Math.floor(newAge / PERIOD);
+        setX(getSpawnX() + getXVelocity() * (phase < PERIOD / 2 ? phase : PERIOD - phase));
     }
 
     @Override
-    public ArrayList<IMoveable> shot(final float elapsedTime)
+    public boolean shot(final float elapsedTime, final SimulationClock clock, final IShotSink shots, final Random random)
     {
-        final ArrayList<IMoveable> returnList = new ArrayList<IMoveable>();
-
-        final long currentShot = System.currentTimeMillis();
+        final long currentShot = clock.getTimeMillis();
         final long delta = currentShot - getLastShotElapsedTime();
-        final IShapeFactory sF = ShapeFactory.getInsance();
 
-        if (new Random().nextDouble() < getShotChance() * elapsedTime && delta > getShotInterval())
+        if (random.nextDouble() < getShotChance() * elapsedTime && delta > getShotInterval())
         {
-            returnList.add(sF.getShot(getX() + getWidth() / 2, getY(), this, 270));
-            returnList.add(sF.getShot(getX() + getWidth(), getY() + getHeight(), this, 30));
-            returnList.add(sF.getShot(getX(), getY() + getHeight(), this, 150));
+            shots.addShot(getX() + getWidth() / 2, getY(), this, 270);
+            shots.addShot(getX() + getWidth(), getY() + getHeight(), this, 30);
+            shots.addShot(getX(), getY() + getHeight(), this, 150);
             setLastShot(currentShot);
+            return true;
         }
 
-        return returnList;
+        return false;
     }
 
 }
@@ -8,6 +8,7 @@ import java.nio.ShortBuffer;
 import javax.microedition.khronos.opengles.GL10;
 
 import mobile.app.lonelytriangle.rendering.IDrawableMesh;
+import mobile.app.lonelytriangle.util.ConvexPolygon;
 
 /**
  * UNUSED! A Mesh is defined by a number of Vertices (coordinates) and a type (Triangle, Point, and so on). It is rendered directly by the GPU by using OpenGL. It is a helper to draw simple geometry graphical Objects.
@@ -55,6 +56,16 @@ public class Mesh implements IDrawableMesh
 		this.vertices = new float[3 * numberOfVertices];
 	}
 
+	/**
+	 * The Mesh has no collision geometry, the box of its shape is used.
+	 * 
+	 * @return null
+	 */
+	public ConvexPolygon getHull()
+	{
+		return null;
+	}
+
 	/**
 	 * 
 	 * @param gl
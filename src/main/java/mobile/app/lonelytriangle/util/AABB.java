@@ -0,0 +1,66 @@
+package mobile.app.lonelytriangle.util;
+
+/**
+ * AABB is the kernel of the axis aligned bounding box tests. The boxes are plain floats (position of the lower left
+ * corner and size), so the tests do not allocate and compile to a few comparisons. The comparisons are combined by the
+ * non short-circuit and (&), so the tests have no data dependent branches which the branch predictor could miss. The
+ * boxes are half open: boxes which only touch do not intersect.
+ */
+public final class AABB
+{
+    private AABB()
+    {
+    }
+
+    /**
+     * Returns true if two boxes intersect.
+     *
+     * @param x1 the x-coordinate of the first box
+     * @param y1 the y-coordinate of the first box
+     * @param width1 the width of the first box
+     * @param height1 the height of the first box
+     * @param x2 the x-coordinate of the second box
+     * @param y2 the y-coordinate of the second box
+     * @param width2 the width of the second box
+     * @param height2 the height of the second box
+     * @return true if the boxes intersect, otherwise false
+     */
+    public static boolean intersects(final float x1, final float y1, final float width1, final float height1, final float x2, final float y2, final float width2, final float height2)
+    {
+        return x1 < x2 + width2 & x2 < x1 + width1 & y1 < y2 + height2 & y2 < y1 + height1;
+    }
+
+    /**
+     * Returns true if a box intersects an area given by its bounds.
+     *
+     * @param x the x-coordinate of the box
+     * @param y the y-coordinate of the box
+     * @param width the width of the box
+     * @param height the height of the box
+     * @param minX the minimal x-coordinate of the area
+     * @param minY the minimal y-coordinate of the area
+     * @param maxX the maximal x-coordinate of the area
+     * @param maxY the maximal y-coordinate of the area
+     * @return true if the box intersects the area, otherwise false
+     */
+    public static boolean intersectsBounds(final float x, final float y, final float width, final float height, final float minX, final float minY, final float maxX, final float maxY)
+    {
+        return x < maxX & minX < x + width & y < maxY & minY < y + height;
+    }
+
+    /**
+     * Returns true if a box is completely outside of the screen (0, 0, screenWidth, screenHeight).
+     *
+     * @param x the x-coordinate of the box
+     * @param y the y-coordinate of the box
+     * @param width the width of the box
+     * @param height the height of the box
+     * @param screenWidth the width of the screen
+     * @param screenHeight the height of the screen
+     * @return true if the box is outside, otherwise false
+     */
+    public static boolean isOutside(final float x, final float y, final float width, final float height, final float screenWidth, final float screenHeight)
+    {
+        return !intersectsBounds(x, y, width, height, 0, 0, screenWidth, screenHeight);
+    }
+}
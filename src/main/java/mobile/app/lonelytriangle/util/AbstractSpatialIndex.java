@@ -0,0 +1,179 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The AbstractSpatialIndex stores the elements of a ISpatialIndex densely and implements the swap-remove of the elements.
+ * A query can de-duplicate the visited elements by a stamp per query, so it does not allocate any memory. The subclasses
+ * only organize the indices of the elements (e.g. in cells).
+ *
+ * @param <T>-Tag the index is for Objects which are IGridable
+ */
+public abstract class AbstractSpatialIndex<T extends IGridable> implements ISpatialIndex<T>
+{
+    /** the initial capacity of the element index. */
+    protected static final int INITIAL_CAPACITY = 16;
+
+    /** all elements of the index (dense). */
+    private final List<T>      elements;
+
+    /** the stamp of the last query which has visited the element (index of elements). */
+    private int[]              stamps;
+
+    /** the stamp of the current query. */
+    private int                currentStamp;
+
+    /**
+     * Construct a new empty index.
+     */
+    protected AbstractSpatialIndex()
+    {
+        elements = new ArrayList<T>(INITIAL_CAPACITY);
+        stamps = new int[INITIAL_CAPACITY];
+        currentStamp = 0;
+    }
+
+    @Override
+    public void add(final T element)
+    {
+        final int index = elements.size();
+
+        if (index == stamps.length)
+        {
+            final int capacity = index * 2;
+            stamps = Arrays.copyOf(stamps, capacity);
+            grow(capacity);
+        }
+
+        elements.add(element);
+        stamps[index] = 0;
+        insert(index);
+    }
+
+    @Override
+    public T remove(final int index)
+    {
+        final T element = elements.get(index);
+        final int lastIndex = elements.size() - 1;
+        delete(index);
+
+        if (index != lastIndex)
+        {
+            relink(lastIndex, index);
+            elements.set(index, elements.get(lastIndex));
+            stamps[index] = stamps[lastIndex];
+        }
+
+        elements.remove(lastIndex);
+        return element;
+    }
+
+    @Override
+    public boolean remove(final T element)
+    {
+        final int index = elements.indexOf(element);
+
+        if (index < 0)
+        {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public void clear()
+    {
+        elements.clear();
+        reset();
+    }
+
+    @Override
+    public int size()
+    {
+        return elements.size();
+    }
+
+    @Override
+    public T get(final int index)
+    {
+        return elements.get(index);
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return elements.iterator();
+    }
+
+    /**
+     * Starts a new query and returns its stamp.
+     *
+     * @return the stamp of the new query
+     */
+    protected final int nextStamp()
+    {
+        currentStamp++;
+
+        // overflow: no element may keep a stamp of an earlier query
+        if (currentStamp == 0)
+        {
+            Arrays.fill(stamps, 0);
+            currentStamp = 1;
+        }
+        return currentStamp;
+    }
+
+    /**
+     * Visits the element with the specified index if it was not visited by the query (stamp) so far.
+     *
+     * @param index the index of the element
+     * @param stamp the stamp of the query
+     * @param visitor the visitor of the query
+     */
+    protected final void visit(final int index, final int stamp, final IGridVisitor<? super T> visitor)
+    {
+        if (stamps[index] != stamp)
+        {
+            stamps[index] = stamp;
+            visitor.visit(elements.get(index));
+        }
+    }
+
+    /**
+     * Grows the per element arrays of the subclass.
+     *
+     * @param capacity the new capacity
+     */
+    protected abstract void grow(final int capacity);
+
+    /**
+     * Inserts the new element with the specified index. The element is already part of the elements.
+     *
+     * @param index the index of the new element
+     */
+    protected abstract void insert(final int index);
+
+    /**
+     * Deletes the element with the specified index. The element is still part of the elements.
+     *
+     * @param index the index of the deleted element
+     */
+    protected abstract void delete(final int index);
+
+    /**
+     * The element with the old index takes the new index (swap-remove).
+     *
+     * @param oldIndex the old index (the last index)
+     * @param newIndex the new index (the index of the removed element)
+     */
+    protected abstract void relink(final int oldIndex, final int newIndex);
+
+    /**
+     * Deletes all elements. The elements are already cleared.
+     */
+    protected abstract void reset();
+}
@@ -0,0 +1,109 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Arrays;
+
+/**
+ * The Cells are a fixed number of growing int arrays. Every cell contains the indices of its elements. After warming up
+ * the cells do not allocate any memory.
+ */
+final class Cells
+{
+    private final int[][] indices;
+    private final int[]   sizes;
+
+    /**
+     * Construct new empty cells.
+     *
+     * @param numberOfCells the number of cells
+     * @param initialCapacity the initial capacity of every cell
+     */
+    Cells(final int numberOfCells, final int initialCapacity)
+    {
+        indices = new int[numberOfCells][];
+        sizes = new int[numberOfCells];
+
+        for (int i = 0; i < numberOfCells; i++)
+        {
+            indices[i] = new int[initialCapacity];
+        }
+    }
+
+    /**
+     * Returns the number of cells.
+     *
+     * @return the number of cells
+     */
+    int getNumberOfCells()
+    {
+        return sizes.length;
+    }
+
+    /**
+     * Returns the indices of the cell, only the first size(cell) indices are valid.
+     *
+     * @param cell the cell
+     * @return the indices of the cell
+     */
+    int[] get(final int cell)
+    {
+        return indices[cell];
+    }
+
+    /**
+     * Returns the number of indices of the cell.
+     *
+     * @param cell the cell
+     * @return the number of indices of the cell
+     */
+    int size(final int cell)
+    {
+        return sizes[cell];
+    }
+
+    void add(final int cell, final int index)
+    {
+        final int size = sizes[cell];
+
+        if (size == indices[cell].length)
+        {
+            indices[cell] = Arrays.copyOf(indices[cell], size * 2);
+        }
+        indices[cell][size] = index;
+        sizes[cell] = size + 1;
+    }
+
+    void remove(final int cell, final int index)
+    {
+        final int[] cellIndices = indices[cell];
+        final int last = sizes[cell] - 1;
+
+        for (int i = last; i >= 0; i--)
+        {
+            if (cellIndices[i] == index)
+            {
+                cellIndices[i] = cellIndices[last];
+                sizes[cell] = last;
+                break;
+            }
+        }
+    }
+
+    void replace(final int cell, final int oldIndex, final int newIndex)
+    {
+        final int[] cellIndices = indices[cell];
+
+        for (int i = sizes[cell] - 1; i >= 0; i--)
+        {
+            if (cellIndices[i] == oldIndex)
+            {
+                cellIndices[i] = newIndex;
+                break;
+            }
+        }
+    }
+
+    void clear()
+    {
+        Arrays.fill(sizes, 0);
+    }
+}
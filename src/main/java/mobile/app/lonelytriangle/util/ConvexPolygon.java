@@ -0,0 +1,226 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Arrays;
+
+/**
+ * A ConvexPolygon is the collision geometry of a mesh: the convex hull of its vertices in the coordinates of the mesh.
+ * A mesh is drawn at the position of its shape (not scaled to the box of the shape), so a polygon is only translated by
+ * the position of the shape and one polygon serves all shapes of a mesh. The edge normals (the separating axes) are
+ * computed once.
+ *
+ * The intersection test is the separating axis theorem (SAT): two convex polygons do not intersect if the projections
+ * of their vertices onto one of the edge normals do not overlap. It does not allocate memory.
+ */
+public final class ConvexPolygon
+{
+    /** the unit box, it is scaled to the box of a shape without a polygon. */
+    private static final ConvexPolygon BOX = new ConvexPolygon(new float[] {0, 0, 1, 0, 1, 1, 0, 1});
+
+    /** the vertices in counter clockwise order: x0, y0, x1, y1, ... */
+    private final float[] vertices;
+
+    /** the (not normalized) normals of the edges: x0, y0, x1, y1, ... */
+    private final float[] axes;
+
+    // the bounding box of the vertices
+    private final float   minX;
+    private final float   minY;
+    private final float   maxX;
+    private final float   maxY;
+
+    private ConvexPolygon(final float[] vertices)
+    {
+        this.vertices = vertices;
+        axes = new float[vertices.length];
+
+        final int n = vertices.length / 2;
+        float left = Float.MAX_VALUE;
+        float bottom = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float top = -Float.MAX_VALUE;
+
+        for (int i = 0; i < n; i++)
+        {
+            final int j = (i + 1) % n;
+            axes[2 * i] = vertices[2 * i + 1] - vertices[2 * j + 1];
+            axes[2 * i + 1] = vertices[2 * j] - vertices[2 * i];
+            left = Math.min(left, vertices[2 * i]);
+            bottom = Math.min(bottom, vertices[2 * i + 1]);
+            right = Math.max(right, vertices[2 * i]);
+            top = Math.max(top, vertices[2 * i + 1]);
+        }
+
+        minX = left;
+        minY = bottom;
+        maxX = right;
+        maxY = top;
+    }
+
+    /**
+     * Creates the convex hull of the points (monotone chain).
+     *
+     * @param points the coordinates of the points
+     * @param stride the number of coordinates of one point (the first two are x and y)
+     * @return the hull or null if the points do not span an area
+     */
+    public static ConvexPolygon createHull(final float[] points, final int stride)
+    {
+        final int count = points.length / stride;
+
+        if (count < 3)
+        {
+            return null;
+        }
+
+        // the points sorted by x and y (a long per point keeps the sort primitive)
+        final long[] order = new long[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            order[i] = ((long) toSortable(points[i * stride]) << 32) | ((toSortable(points[i * stride + 1]) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(order);
+
+        final float[] hull = new float[4 * count];
+        int size = 0;
+
+        // the lower hull from left to right, then the upper hull from right to left
+        for (int pass = 0; pass < 2; pass++)
+        {
+            final int start = size;
+
+            for (int k = 0; k < count; k++)
+            {
+                final long key = order[pass == 0 ? k : count - 1 - k];
+                final float x = Float.intBitsToFloat(toSortable((int) (key >>> 32)));
+                final float y = Float.intBitsToFloat(toSortable((int) key ^ Integer.MIN_VALUE));
+
+                while (size - start >= 2 && cross(hull, size, x, y) <= 0)
+                {
+                    size--;
+                }
+                hull[2 * size] = x;
+                hull[2 * size + 1] = y;
+                size++;
+            }
+
+            // the last point is the first point of the other chain
+            size--;
+        }
+
+        return size < 3 ? null : new ConvexPolygon(Arrays.copyOf(hull, 2 * size));
+    }
+
+    /**
+     * Maps the bits of a float to an int with the same order (and back, the mapping is its own inverse).
+     */
+    private static int toSortable(final float value)
+    {
+        return toSortable(Float.floatToIntBits(value));
+    }
+
+    private static int toSortable(final int bits)
+    {
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    private static float cross(final float[] hull, final int size, final float x, final float y)
+    {
+        final float ax = hull[2 * (size - 2)];
+        final float ay = hull[2 * (size - 2) + 1];
+        final float bx = hull[2 * (size - 1)];
+        final float by = hull[2 * (size - 1) + 1];
+        return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+    }
+
+    /**
+     * Returns true if the polygon is the box (0, 0) to (width, height), so the AABB test of a shape of this size is
+     * already exact.
+     *
+     * @param width the width of the box
+     * @param height the height of the box
+     * @return true if the polygon is the box, otherwise false
+     */
+    public boolean isBox(final float width, final float height)
+    {
+        return vertices.length == 8 && minX == 0 && minY == 0 && maxX == width && maxY == height;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int size()
+    {
+        return vertices.length / 2;
+    }
+
+    /**
+     * Returns true if two placed polygons intersect (SAT). A polygon is translated by the position of its box, a missing
+     * polygon is the box itself. The boxes should be tested by the AABB test before, this test only refines it.
+     *
+     * @param a the first polygon (null => its box)
+     * @param ax the x-coordinate of the box of the first polygon
+     * @param ay the y-coordinate of the box of the first polygon
+     * @param aWidth the width of the box of the first polygon
+     * @param aHeight the height of the box of the first polygon
+     * @param b the second polygon (null => its box)
+     * @param bx the x-coordinate of the box of the second polygon
+     * @param by the y-coordinate of the box of the second polygon
+     * @param bWidth the width of the box of the second polygon
+     * @param bHeight the height of the box of the second polygon
+     * @return true if the polygons intersect, otherwise false
+     */
+    public static boolean intersects(final ConvexPolygon a, final float ax, final float ay, final float aWidth, final float aHeight, final ConvexPolygon b, final float bx, final float by, final float bWidth, final float bHeight)
+    {
+        // the unit box is scaled to the box, a polygon keeps its size
+        final ConvexPolygon first = a == null ? BOX : a;
+        final ConvexPolygon second = b == null ? BOX : b;
+        final float aScaleX = a == null ? aWidth : 1;
+        final float aScaleY = a == null ? aHeight : 1;
+        final float bScaleX = b == null ? bWidth : 1;
+        final float bScaleY = b == null ? bHeight : 1;
+
+        return !separates(first, ax, ay, aScaleX, aScaleY, second, bx, by, bScaleX, bScaleY)
+                && !separates(second, bx, by, bScaleX, bScaleY, first, ax, ay, aScaleX, aScaleY);
+    }
+
+    /**
+     * Returns true if one of the edge normals of the first polygon separates the polygons. The normal of a scaled
+     * edge (ex * sx, ey * sy) is (nx * sy, ny * sx).
+     */
+    private static boolean separates(final ConvexPolygon a, final float ax, final float ay, final float aWidth, final float aHeight, final ConvexPolygon b, final float bx, final float by, final float bWidth, final float bHeight)
+    {
+        final float[] axes = a.axes;
+
+        for (int i = 0; i < axes.length; i += 2)
+        {
+            final float nx = axes[i] * aHeight;
+            final float ny = axes[i + 1] * aWidth;
+
+            if (project(a, ax, ay, aWidth, aHeight, nx, ny, true) <= project(b, bx, by, bWidth, bHeight, nx, ny, false)
+                    || project(b, bx, by, bWidth, bHeight, nx, ny, true) <= project(a, ax, ay, aWidth, aHeight, nx, ny, false))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the maximum (or the minimum) of the projections of the placed vertices onto the axis.
+     */
+    private static float project(final ConvexPolygon polygon, final float x, final float y, final float width, final float height, final float nx, final float ny, final boolean max)
+    {
+        final float[] vertices = polygon.vertices;
+        float result = max ? -Float.MAX_VALUE : Float.MAX_VALUE;
+
+        for (int i = 0; i < vertices.length; i += 2)
+        {
+            final float projection = Vector2.dot(x + vertices[i] * width, y + vertices[i + 1] * height, nx, ny);
+            result = max ? Math.max(result, projection) : Math.min(result, projection);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package mobile.app.lonelytriangle.util;
+
+/**
+ * FloatMath is the platform shim for the float math of the simulation. It offers the same methods as android.util.FloatMath
+ * but only uses java.lang.Math, so the simulation does not depend on the android platform and can run on every JVM.
+ */
+public final class FloatMath
+{
+    private FloatMath()
+    {
+    }
+
+    /**
+     * Returns the sine of the angle (in radians).
+     *
+     * @param angle the angle in radians
+     * @return the sine of the angle
+     */
+    public static float sin(final float angle)
+    {
+        return (float) Math.sin(angle);
+    }
+
+    /**
+     * Returns the cosine of the angle (in radians).
+     *
+     * @param angle the angle in radians
+     * @return the cosine of the angle
+     */
+    public static float cos(final float angle)
+    {
+        return (float) Math.cos(angle);
+    }
+
+    /**
+     * Returns the square root of the value.
+     *
+     * @param value the value
+     * @return the square root of the value
+     */
+    public static float sqrt(final float value)
+    {
+        return (float) Math.sqrt(value);
+    }
+}
@@ -0,0 +1,212 @@
+package mobile.app.lonelytriangle.util;
+
+/**
+ * A FrameTimeHistogram collects frame times (in nano seconds) in buckets of a fixed width. Recording is allocation-free
+ * and constant time, so it can be done in every iteration of the game loop. Times above the last bucket are counted in
+ * an overflow bucket. The percentiles are accurate up to the width of a bucket.
+ *
+ * The histogram should be written by one thread only, other threads may read slightly outdated values.
+ */
+public final class FrameTimeHistogram
+{
+    /** the default width of a bucket: 0.1 ms. */
+    public static final long DEFAULT_BUCKET_WIDTH     = 100000L;
+
+    /** the default number of buckets (0 to 50 ms). */
+    public static final int  DEFAULT_NUMBER_OF_BUCKETS = 500;
+
+    private final long       bucketWidth;
+    private final long[]     buckets;
+    private long             overflow;
+    private long             count;
+    private long             sum;
+    private long             min;
+    private long             max;
+
+    /**
+     * Construct a new FrameTimeHistogram with 500 buckets of 0.1 ms.
+     */
+    public FrameTimeHistogram()
+    {
+        this(DEFAULT_BUCKET_WIDTH, DEFAULT_NUMBER_OF_BUCKETS);
+    }
+
+    /**
+     * Construct a new FrameTimeHistogram.
+     *
+     * @param bucketWidth the width of a bucket in nano seconds
+     * @param numberOfBuckets the number of buckets
+     */
+    public FrameTimeHistogram(final long bucketWidth, final int numberOfBuckets)
+    {
+        if (bucketWidth <= 0 || numberOfBuckets <= 0)
+        {
+            throw new IllegalArgumentException("the bucket width and the number of buckets have to be positive");
+        }
+
+        this.bucketWidth = bucketWidth;
+        buckets = new long[numberOfBuckets];
+        reset();
+    }
+
+    /**
+     * Records a frame time.
+     *
+     * @param nanos the frame time in nano seconds
+     */
+    public void record(final long nanos)
+    {
+        final long time = nanos < 0 ? 0 : nanos;
+        final long bucket = time / bucketWidth;
+
+        if (bucket < buckets.length)
+        {
+            buckets[(int) bucket]++;
+        }
+        else
+        {
+            overflow++;
+        }
+
+        count++;
+        sum += time;
+
+        if (time < min)
+        {
+            min = time;
+        }
+
+        if (time > max)
+        {
+            max = time;
+        }
+    }
+
+    /**
+     * Adds all frame times of another histogram with the same buckets (e.g. to aggregate the histograms of several
+     * threads).
+     *
+     * @param other the added histogram
+     */
+    public void add(final FrameTimeHistogram other)
+    {
+        if (other.bucketWidth != bucketWidth || other.buckets.length != buckets.length)
+        {
+            throw new IllegalArgumentException("the histograms have different buckets");
+        }
+
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] += other.buckets[i];
+        }
+
+        overflow += other.overflow;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all recorded frame times.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = 0;
+        }
+
+        overflow = 0;
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Returns the number of recorded frame times.
+     *
+     * @return the number of recorded frame times
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the mean frame time.
+     *
+     * @return the mean frame time in nano seconds (0 if nothing was recorded)
+     */
+    public long getMean()
+    {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Returns the shortest frame time.
+     *
+     * @return the shortest frame time in nano seconds (0 if nothing was recorded)
+     */
+    public long getMin()
+    {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the longest frame time.
+     *
+     * @return the longest frame time in nano seconds
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Returns the frame time which is not exceeded by the specified fraction of all frames. The result is the upper bound
+     * of the bucket which contains the percentile (or the maximum if the percentile is in the overflow bucket).
+     *
+     * @param fraction the fraction of the frames (0.0 to 1.0), e.g. 0.99 for the 99th percentile
+     * @return the percentile in nano seconds (0 if nothing was recorded)
+     */
+    public long getPercentile(final double fraction)
+    {
+        if (fraction < 0.0 || fraction > 1.0)
+        {
+            throw new IllegalArgumentException("the fraction has to be between 0.0 and 1.0");
+        }
+
+        if (count == 0)
+        {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+
+        for (int i = 0; i < buckets.length; i++)
+        {
+            seen += buckets[i];
+
+            if (seen >= rank)
+            {
+                return Math.min((i + 1) * bucketWidth, max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "frames=" + count + " mean=" + toMillis(getMean()) + "ms min=" + toMillis(getMin()) + "ms p50="
+                + toMillis(getPercentile(0.5)) + "ms p99=" + toMillis(getPercentile(0.99)) + "ms max=" + toMillis(max) + "ms";
+    }
+
+    private static String toMillis(final long nanos)
+    {
+        return String.valueOf(nanos / 1000 / 1000.0);
+    }
+}
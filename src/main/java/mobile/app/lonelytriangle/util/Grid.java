@@ -1,23 +1,22 @@
 package mobile.app.lonelytriangle.util;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * A Grid is a collection of IGridables. A Grid represents a area with a sprecified width and height. The grid seperate this area to different cells of a table with a specified number of rows and number of columns.
  * If u add an IGridable to a grid it will be part of all the cells which it intersect. The grid can return all IGridables of all cells of another IGridable. This is very useful for improve the collision detection
- * in the game. Becareful its forbidden to change the IGridables after adding them to a grid. This will result in an inconsistent grid!!! Generally the cell with and cell height of a gird should be greater
- * than its IGridable width and height. If this is the case, a IGridable can intersect 4 cells, otherwise more than 4!
+ * in the game. The query does not allocate any memory, it calls a IGridVisitor for every element. The grid is persistent: if an IGridable changes its position you have to call move, this relocates the IGridable between the cells only if its cell span has changed.
+ * Generally the cell with and cell height of a gird should be greater than its IGridable width and height. If this is the case, a IGridable can intersect 4 cells, otherwise more than 4!
+ *
+ * The elements are stored densely (index 0 to size - 1), removing an element moves the last element to its index. After warming up
+ * add, move and remove do not allocate any memory.
  * 
  * @author Benedikt Zönnchen
  * @version v1.0
  * @param <T>-Tag the grid is for Objects which are IGridable
  * 
  */
-public class Grid<T extends IGridable> implements Iterable<T>
+public class Grid<T extends IGridable> extends AbstractSpatialIndex<T>
 {
     /** the numberOfCells 2^n (n is a natural number bigger than zero). */
     private final int      numberOfCells;
@@ -25,72 +24,214 @@ public class Grid<T extends IGridable> implements Iterable<T>
     private final int      numberOfColumns;
     private final int      numberOfRows;
   
-    private final float    cellWidth;
-    private final float    cellHeight;
+    private float          cellWidth;
+    private float          cellHeight;
     
+    /** the grid, every cell contains the indices of its elements. The cell of (col, row) is getCellNumber(col, row). */
+    private final Cells    cells;
 
-    /** the grid. */
-    private final List<T>[][] grid;
-    
-    private final List<T> elements;
+    /** the cell span of each element (index of elements). */
+    private int[]          minColumns;
+    private int[]          minRows;
+    private int[]          maxColumns;
+    private int[]          maxRows;
 
     /**
-     * Construct a new Grid collection. There is no support to remove elements.
+     * Construct a new Grid collection.
      * 
      * @param width the width of the grid (viewport width)
      * @param height the height of the grid (viewport height)
      * @param numberOfRows the number of rows
      * @param numberOfColumns the number of colums
      */
-    @SuppressWarnings("unchecked")
     public Grid(final float width, final float height, final int numberOfRows, final int numberOfColumns)
+    {
+        this(width, height, numberOfRows, numberOfColumns, numberOfRows * numberOfColumns);
+    }
+
+    /**
+     * Construct a new Grid collection with a specified number of cells. This is used by grids which map more than one
+     * column and row to the same cell.
+     *
+     * @param width the width of the grid (viewport width)
+     * @param height the height of the grid (viewport height)
+     * @param numberOfRows the number of rows
+     * @param numberOfColumns the number of colums
+     * @param numberOfCells the number of cells
+     */
+    protected Grid(final float width, final float height, final int numberOfRows, final int numberOfColumns, final int numberOfCells)
     {
         if (numberOfRows < 1 || numberOfColumns < 1)
         {
             throw new IllegalArgumentException("number of rows and number of colums in grid have to be bigger then zero");
         }
         
-        numberOfCells = numberOfRows * numberOfColumns;
+        this.numberOfCells = numberOfCells;
         this.numberOfColumns = numberOfColumns;
         this.numberOfRows = numberOfRows;
-        cellWidth = width / numberOfRows;
-        cellHeight = height / numberOfColumns;   
-        elements = new ArrayList<T>();
+        cellWidth = width / numberOfColumns;
+        cellHeight = height / numberOfRows;
 
         // construct grid
-        grid = new List[numberOfColumns][numberOfRows];
+        cells = new Cells(numberOfCells, INITIAL_CAPACITY);
         
+        minColumns = new int[INITIAL_CAPACITY];
+        minRows = new int[INITIAL_CAPACITY];
+        maxColumns = new int[INITIAL_CAPACITY];
+        maxRows = new int[INITIAL_CAPACITY];
+    }
         
-        for (int i = 0; i < numberOfColumns; i++)
+    /**
+     * Relocates the element with the specified index after it has changed its position. The element is only moved between
+     * the cells if its cell span has changed.
+     *
+     * @param index the index of the element (0 to size - 1)
+     */
+    @Override
+    public void move(final int index)
+    {
+        final T element = get(index);
+        final int minColNumber = getColumnNumber(element.getX());
+        final int minRowNumber = getRowNumber(element.getY());
+        final int maxColNumber = getColumnNumber(element.getX() + element.getWidth());
+        final int maxRowNumber = getRowNumber(element.getY() + element.getHeight());
+
+        if (minColNumber != minColumns[index] || minRowNumber != minRows[index] || maxColNumber != maxColumns[index] || maxRowNumber != maxRows[index])
         {
-            for (int j = 0; j < numberOfRows; j++)
-            {
-                grid[i][j] = new ArrayList<T>();
-            }
+            delete(index);
+            minColumns[index] = minColNumber;
+            minRows[index] = minRowNumber;
+            maxColumns[index] = maxColNumber;
+            maxRows[index] = maxRowNumber;
+            addToCells(index);
         }
     }
 
     /**
-     * Add an element to one or more cells (max 4).
-     * 
-     * @param element the gridable element
+     * Changes the area of the grid (e.g. after a screen resize) and relocates all elements.
+     *
+     * @param width the new width of the grid (viewport width)
+     * @param height the new height of the grid (viewport height)
      */
-    public void add(final T element)
-    {       
-        int minColNumber = getColumnNumber(element.getX());
-        int minRowNumber = getRowNumber(element.getY());
-        
-        int maxColNumber = getColumnNumber(element.getX() + element.getWidth());
-        int maxRowNumber = getRowNumber(element.getY() + element.getHeight());
-        
+    @Override
+    public void resize(final float width, final float height)
+    {
+        cellWidth = width / numberOfColumns;
+        cellHeight = height / numberOfRows;
+
+        for (int i = 0; i < size(); i++)
+        {
+            move(i);
+        }
+    }
+
+    /**
+     * Visits all elements of the cells (max 4) which intersect the area. Every element is visited only once even if it is part
+     * of more than one of these cells. The elements are de-duplicated by a stamp per query, so the query does not allocate any memory.
+     *
+     * @param area the area which identify the correct cells of the grid
+     * @param visitor the visitor which will be called for every element
+     */
+    @Override
+    public void query(final IGridable area, final IGridVisitor<? super T> visitor)
+    {
+        final int minColNumber = getColumnNumber(area.getX());
+        final int minRowNumber = getRowNumber(area.getY());
+        final int maxColNumber = getColumnNumber(area.getX() + area.getWidth());
+        final int maxRowNumber = getRowNumber(area.getY() + area.getHeight());
+        final int stamp = nextStamp();
+
         for (int col = minColNumber; col <= maxColNumber; col++)
         {
             for (int row = minRowNumber; row <= maxRowNumber; row++)
             {
-                grid[col][row].add(element);
+                final int cell = getCellNumber(col, row);
+                final int[] cellIndices = cells.get(cell);
+
+                for (int i = 0; i < cells.size(cell); i++)
+                {
+                    visit(cellIndices[i], stamp, visitor);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void grow(final int capacity)
+    {
+        minColumns = Arrays.copyOf(minColumns, capacity);
+        minRows = Arrays.copyOf(minRows, capacity);
+        maxColumns = Arrays.copyOf(maxColumns, capacity);
+        maxRows = Arrays.copyOf(maxRows, capacity);
+    }
+
+    @Override
+    protected void insert(final int index)
+    {
+        final T element = get(index);
+        minColumns[index] = getColumnNumber(element.getX());
+        minRows[index] = getRowNumber(element.getY());
+        maxColumns[index] = getColumnNumber(element.getX() + element.getWidth());
+        maxRows[index] = getRowNumber(element.getY() + element.getHeight());
+        addToCells(index);
+    }
+
+    @Override
+    protected void delete(final int index)
+    {
+        for (int col = minColumns[index]; col <= maxColumns[index]; col++)
+        {
+            for (int row = minRows[index]; row <= maxRows[index]; row++)
+            {
+                cells.remove(getCellNumber(col, row), index);
+            }
+        }
+    }
+
+    @Override
+    protected void relink(final int oldIndex, final int newIndex)
+    {
+        for (int col = minColumns[oldIndex]; col <= maxColumns[oldIndex]; col++)
+        {
+            for (int row = minRows[oldIndex]; row <= maxRows[oldIndex]; row++)
+            {
+                cells.replace(getCellNumber(col, row), oldIndex, newIndex);
+            }
+        }
+
+        minColumns[newIndex] = minColumns[oldIndex];
+        minRows[newIndex] = minRows[oldIndex];
+        maxColumns[newIndex] = maxColumns[oldIndex];
+        maxRows[newIndex] = maxRows[oldIndex];
+    }
+
+    @Override
+    protected void reset()
+    {
+        cells.clear();
+    }
+
+    private void addToCells(final int index)
+    {
+        for (int col = minColumns[index]; col <= maxColumns[index]; col++)
+        {
+            for (int row = minRows[index]; row <= maxRows[index]; row++)
+            {
+                cells.add(getCellNumber(col, row), index);
             }
         }
-        elements.add(element);
+    }
+
+    /**
+     * Convert a column number and a row number to a cell number.
+     * 
+     * @param col column number
+     * @param row row number
+     * @return the cell number of (col, row)
+     */
+    protected int getCellNumber(final int col, final int row)
+    {       
+        return col * numberOfRows + row;
     }
 
     /**
@@ -124,30 +265,23 @@ public class Grid<T extends IGridable> implements Iterable<T>
     }
 
     /**
-     * Returns one or more cells (max 4) which contains elements.
+     * Return the width of a cell.
      * 
-     * @param element the element which identify the correct cells of the grid
-     * @return one or more cells (max 4) which contains elements
+     * @return the width of a cell
      */
-    public Iterable<T> getElements(IGridable element)
+    protected float getCellWidth()
     {
-        // TODO: find a better solution than addAll because it is too expensive!
-        Set<T> setOfElements = new LinkedHashSet<T>();
-        int minColNumber = getColumnNumber(element.getX());
-        int minRowNumber = getRowNumber(element.getY());
-        
-        int maxColNumber = getColumnNumber(element.getX() + element.getWidth());
-        int maxRowNumber = getRowNumber(element.getY() + element.getHeight());
-        
-        for (int col = minColNumber; col <= maxColNumber; col++)
-        {
-            for (int row = minRowNumber; row <= maxRowNumber; row++)
-            {
-                setOfElements.addAll(grid[col][row]);
-            }
-        }
+        return cellWidth;
+    }
         
-        return setOfElements;
+    /**
+     * Return the height of a cell.
+     *
+     * @return the height of a cell
+     */
+    protected float getCellHeight()
+    {
+        return cellHeight;
     }
 
     /**
@@ -179,11 +313,4 @@ public class Grid<T extends IGridable> implements Iterable<T>
     {
         return numberOfCells;
     }
-
-    @Override
-    public Iterator<T> iterator()
-    {
-        return elements.iterator();
-    }
-
 }
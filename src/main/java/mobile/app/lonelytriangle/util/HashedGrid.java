@@ -0,0 +1,61 @@
+package mobile.app.lonelytriangle.util;
+
+/**
+ * A HashedGrid is a Grid without borders. The columns and rows continue outside of the area, so elements outside of the
+ * viewport are not collected in the border cells. Every column and row is hashed to one of a fixed number of cells
+ * (buckets). Two (col, row) pairs may share a cell, the query visits every element only once anyway.
+ *
+ * @param <T>-Tag the grid is for Objects which are IGridable
+ */
+public class HashedGrid<T extends IGridable> extends Grid<T>
+{
+    private static final int PRIME_COLUMN = 73856093;
+    private static final int PRIME_ROW    = 19349663;
+
+    /** numberOfCells - 1, the number of cells is a power of two. */
+    private final int        mask;
+
+    /**
+     * Construct a new HashedGrid. The cell size is the same as the cell size of a Grid with the same area, rows and
+     * columns.
+     *
+     * @param width the width of the grid (viewport width)
+     * @param height the height of the grid (viewport height)
+     * @param numberOfRows the number of rows inside the area
+     * @param numberOfColumns the number of colums inside the area
+     */
+    public HashedGrid(final float width, final float height, final int numberOfRows, final int numberOfColumns)
+    {
+        super(width, height, numberOfRows, numberOfColumns, getNumberOfBuckets(numberOfRows * numberOfColumns));
+        mask = getNumberOfCells() - 1;
+    }
+
+    /**
+     * Returns the smallest power of two which is at least twice the number of cells inside the area.
+     *
+     * @param numberOfCells the number of cells inside the area
+     * @return the number of buckets
+     */
+    private static int getNumberOfBuckets(final int numberOfCells)
+    {
+        return Integer.highestOneBit(Math.max(numberOfCells, 1) * 4 - 1);
+    }
+
+    @Override
+    protected int getCellNumber(final int col, final int row)
+    {
+        return (col * PRIME_COLUMN ^ row * PRIME_ROW) & mask;
+    }
+
+    @Override
+    protected int getColumnNumber(final float x)
+    {
+        return (int) Math.floor(x / getCellWidth());
+    }
+
+    @Override
+    protected int getRowNumber(final float y)
+    {
+        return (int) Math.floor(y / getCellHeight());
+    }
+}
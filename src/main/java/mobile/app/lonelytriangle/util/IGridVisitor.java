@@ -0,0 +1,17 @@
+package mobile.app.lonelytriangle.util;
+
+/**
+ * A IGridVisitor is a callback for the neighbour query of a Grid. The Grid calls visit once for every element of the
+ * cells which intersect the queried area, even if the element is part of more than one of these cells.
+ *
+ * @param <T>-Tag the type of the visited elements
+ */
+public interface IGridVisitor<T>
+{
+    /**
+     * Visits one element of the queried area. The grid must not be changed while it is queried.
+     *
+     * @param element the element
+     */
+    void visit(final T element);
+}
@@ -0,0 +1,78 @@
+package mobile.app.lonelytriangle.util;
+
+/**
+ * A ISpatialIndex is the broadphase of the collision detection. It is a collection of IGridables which can visit all
+ * elements which may intersect a specified area. The visited elements are only candidates, the caller has to test the
+ * exact intersection. The elements are stored densely (index 0 to size - 1), removing an element moves the last element
+ * to its index. If an element changes its position you have to call move.
+ *
+ * @param <T>-Tag the index is for Objects which are IGridable
+ */
+public interface ISpatialIndex<T extends IGridable> extends Iterable<T>
+{
+    /**
+     * Adds an element to the index.
+     *
+     * @param element the gridable element
+     */
+    void add(final T element);
+
+    /**
+     * Relocates the element with the specified index after it has changed its position.
+     *
+     * @param index the index of the element (0 to size - 1)
+     */
+    void move(final int index);
+
+    /**
+     * Removes the element with the specified index. The last element of the index takes its index.
+     *
+     * @param index the index of the element (0 to size - 1)
+     * @return the removed element
+     */
+    T remove(final int index);
+
+    /**
+     * Removes the element from the index.
+     *
+     * @param element the element which will be removed
+     * @return true if the index contained the element, otherwise false
+     */
+    boolean remove(final T element);
+
+    /**
+     * Removes all elements of the index.
+     */
+    void clear();
+
+    /**
+     * Changes the area of the index (e.g. after a screen resize) and relocates all elements.
+     *
+     * @param width the new width of the area (viewport width)
+     * @param height the new height of the area (viewport height)
+     */
+    void resize(final float width, final float height);
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    int size();
+
+    /**
+     * Returns the element with the specified index.
+     *
+     * @param index the index of the element (0 to size - 1)
+     * @return the element with the specified index
+     */
+    T get(final int index);
+
+    /**
+     * Visits every element which may intersect the area exactly once. The index must not be changed while it is queried.
+     *
+     * @param area the queried area
+     * @param visitor the visitor which will be called for every candidate
+     */
+    void query(final IGridable area, final IGridVisitor<? super T> visitor);
+}
@@ -0,0 +1,201 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Arrays;
+
+/**
+ * A LooseQuadtree is a quadtree with implicit levels. The level l divides the area into 2^l x 2^l nodes. The bounds of
+ * a node are loose: they are expanded by the half of the node size on every side. So every element is part of exactly one
+ * node, which is the node of its center at the deepest level whose node size is not smaller than the element size.
+ * Elements outside of the area are part of the border nodes.
+ *
+ * The nodes are stored in one array, moving an element only relocates it if its node has changed. After warming up add,
+ * move and remove do not allocate any memory.
+ *
+ * @param <T>-Tag the tree is for Objects which are IGridable
+ */
+public class LooseQuadtree<T extends IGridable> extends AbstractSpatialIndex<T>
+{
+    /** the initial capacity of a node. */
+    private static final int NODE_CAPACITY = 4;
+
+    /** the deepest level. */
+    private final int        depth;
+
+    /** the index of the first node of each level. */
+    private final int[]      levelOffsets;
+
+    private float            width;
+    private float            height;
+
+    /** the nodes of all levels, every node contains the indices of its elements. */
+    private final Cells      nodes;
+
+    /** the node of each element (index of elements). */
+    private int[]            elementNodes;
+
+    /**
+     * Construct a new LooseQuadtree.
+     *
+     * @param width the width of the tree (viewport width)
+     * @param height the height of the tree (viewport height)
+     * @param depth the deepest level (the root is level 0)
+     */
+    public LooseQuadtree(final float width, final float height, final int depth)
+    {
+        if (depth < 0 || depth > 10)
+        {
+            throw new IllegalArgumentException("the depth of the quadtree has to be between 0 and 10");
+        }
+
+        this.depth = depth;
+        this.width = width;
+        this.height = height;
+        levelOffsets = new int[depth + 2];
+
+        for (int level = 0; level <= depth; level++)
+        {
+            levelOffsets[level + 1] = levelOffsets[level] + (1 << level) * (1 << level);
+        }
+
+        nodes = new Cells(levelOffsets[depth + 1], NODE_CAPACITY);
+        elementNodes = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void move(final int index)
+    {
+        final int node = getNodeNumber(get(index));
+
+        if (node != elementNodes[index])
+        {
+            nodes.remove(elementNodes[index], index);
+            elementNodes[index] = node;
+            nodes.add(node, index);
+        }
+    }
+
+    @Override
+    public void resize(final float newWidth, final float newHeight)
+    {
+        width = newWidth;
+        height = newHeight;
+
+        for (int i = 0; i < size(); i++)
+        {
+            move(i);
+        }
+    }
+
+    /**
+     * Visits all elements of the nodes whose loose bounds intersect the area. Every element is part of only one node,
+     * so every element is visited only once.
+     *
+     * @param area the queried area
+     * @param visitor the visitor which will be called for every element
+     */
+    @Override
+    public void query(final IGridable area, final IGridVisitor<? super T> visitor)
+    {
+        final int stamp = nextStamp();
+
+        for (int level = 0; level <= depth; level++)
+        {
+            final int count = 1 << level;
+            final float nodeWidth = width / count;
+            final float nodeHeight = height / count;
+
+            // the center of an element of this level is at most a half node size outside of the area
+            final int minCol = clamp(area.getX() / nodeWidth - 0.5f, count);
+            final int maxCol = clamp((area.getX() + area.getWidth()) / nodeWidth + 0.5f, count);
+            final int minRow = clamp(area.getY() / nodeHeight - 0.5f, count);
+            final int maxRow = clamp((area.getY() + area.getHeight()) / nodeHeight + 0.5f, count);
+
+            for (int col = minCol; col <= maxCol; col++)
+            {
+                for (int row = minRow; row <= maxRow; row++)
+                {
+                    final int node = levelOffsets[level] + col * count + row;
+                    final int[] nodeIndices = nodes.get(node);
+
+                    for (int i = 0; i < nodes.size(node); i++)
+                    {
+                        visit(nodeIndices[i], stamp, visitor);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void grow(final int capacity)
+    {
+        elementNodes = Arrays.copyOf(elementNodes, capacity);
+    }
+
+    @Override
+    protected void insert(final int index)
+    {
+        elementNodes[index] = getNodeNumber(get(index));
+        nodes.add(elementNodes[index], index);
+    }
+
+    @Override
+    protected void delete(final int index)
+    {
+        nodes.remove(elementNodes[index], index);
+    }
+
+    @Override
+    protected void relink(final int oldIndex, final int newIndex)
+    {
+        nodes.replace(elementNodes[oldIndex], oldIndex, newIndex);
+        elementNodes[newIndex] = elementNodes[oldIndex];
+    }
+
+    @Override
+    protected void reset()
+    {
+        nodes.clear();
+    }
+
+    /**
+     * Returns the node of the element: the node of its center at the deepest level whose node size is not smaller than the element size.
+     *
+     * @param element the element
+     * @return the node number
+     */
+    private int getNodeNumber(final IGridable element)
+    {
+        int level = depth;
+        int count = 1 << level;
+
+        while (level > 0 && (element.getWidth() > width / count || element.getHeight() > height / count))
+        {
+            level--;
+            count = count >> 1;
+        }
+
+        final int col = clamp((element.getX() + element.getWidth() / 2) * count / width, count);
+        final int row = clamp((element.getY() + element.getHeight() / 2) * count / height, count);
+        return levelOffsets[level] + col * count + row;
+    }
+
+    private static int clamp(final float value, final int count)
+    {
+        if (value < 0)
+        {
+            return 0;
+        }
+        return Math.min((int) value, count - 1);
+    }
+
+    /**
+     * Returns the deepest level of the tree.
+     *
+     * @return the deepest level
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+}
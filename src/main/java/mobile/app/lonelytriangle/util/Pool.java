@@ -0,0 +1,222 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Arrays;
+
+/**
+ * A Pool recycles objects which are expensive or frequent to create. obtain returns a free object or creates a new one if
+ * the pool is empty, free puts the object back. The pool keeps at most maxSize free objects, the others are left to the
+ * garbage collector. The caller has to reset an obtained object.
+ *
+ * The pool counts the created objects and the maximal number of objects in use at the same time (high-water mark), so
+ * the size of the pool can be adjusted to the game.
+ *
+ * Freeing more objects than obtained or freeing a free object twice throws an exception, the free objects would be
+ * shared otherwise. The check scans the free objects, the pool is small (at most maxSize).
+ *
+ * @param <T>-Tag the type of the pooled objects
+ */
+public abstract class Pool<T>
+{
+    /** the free objects (a stack). */
+    private Object[]  free;
+
+    /** the number of free objects. */
+    private int       size;
+
+    /** the maximal number of free objects. */
+    private int       maxSize;
+
+    /** the number of objects which are obtained and not freed. */
+    private int       inUse;
+
+    /** the maximal number of objects which were in use at the same time. */
+    private int       highWater;
+
+    /** the number of created objects. */
+    private int       created;
+
+    /**
+     * Construct a new Pool and creates the initial free objects.
+     *
+     * @param initialSize the number of objects which are created immediately
+     * @param maxSize the maximal number of free objects
+     */
+    protected Pool(final int initialSize, final int maxSize)
+    {
+        if (initialSize < 0 || maxSize < initialSize)
+        {
+            throw new IllegalArgumentException("the initial size has to be between zero and the maximal size");
+        }
+
+        this.maxSize = maxSize;
+        free = new Object[Math.max(initialSize, 16)];
+
+        for (int i = 0; i < initialSize; i++)
+        {
+            free[size++] = newObject();
+        }
+    }
+
+    /**
+     * Creates a new object of the pool.
+     *
+     * @return a new object
+     */
+    protected abstract T create();
+
+    /**
+     * Returns a free object or a new object if there is no free object.
+     *
+     * @return a free object
+     */
+    @SuppressWarnings("unchecked")
+    public T obtain()
+    {
+        final T object;
+
+        if (size > 0)
+        {
+            size--;
+            object = (T) free[size];
+            free[size] = null;
+        }
+        else
+        {
+            object = newObject();
+        }
+
+        inUse++;
+
+        if (inUse > highWater)
+        {
+            highWater = inUse;
+        }
+        return object;
+    }
+
+    /**
+     * Puts the object back to the pool. The object must not be used after this call.
+     *
+     * @param object the object which is no longer used
+     */
+    public void free(final T object)
+    {
+        if (inUse == 0)
+        {
+            throw new IllegalStateException("more objects freed than obtained");
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            if (free[i] == object)
+            {
+                throw new IllegalArgumentException("the object is already free");
+            }
+        }
+
+        inUse--;
+
+        if (size < maxSize)
+        {
+            if (size == free.length)
+            {
+                free = Arrays.copyOf(free, Math.min(size * 2, maxSize));
+            }
+            free[size++] = object;
+        }
+    }
+
+    /**
+     * Adjusts the pool to a new configuration: the pool keeps at most maxSize free objects and creates free objects until
+     * there are at least minSize free objects. The objects in use are not affected.
+     *
+     * @param minSize the minimal number of free objects
+     * @param maxSize the maximal number of free objects
+     */
+    public void resize(final int minSize, final int maxSize)
+    {
+        if (minSize < 0 || maxSize < minSize)
+        {
+            throw new IllegalArgumentException("the minimal size has to be between zero and the maximal size");
+        }
+
+        this.maxSize = maxSize;
+
+        while (size > maxSize)
+        {
+            free[--size] = null;
+        }
+
+        if (free.length < minSize)
+        {
+            free = Arrays.copyOf(free, minSize);
+        }
+
+        while (size < minSize)
+        {
+            free[size++] = newObject();
+        }
+    }
+
+    private T newObject()
+    {
+        created++;
+        return create();
+    }
+
+    /**
+     * Returns the number of free objects.
+     *
+     * @return the number of free objects
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the maximal number of free objects.
+     *
+     * @return the maximal number of free objects
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of objects which are obtained and not freed.
+     *
+     * @return the number of objects in use
+     */
+    public int getInUse()
+    {
+        return inUse;
+    }
+
+    /**
+     * Returns the maximal number of objects which were in use at the same time.
+     *
+     * @return the high-water mark
+     */
+    public int getHighWater()
+    {
+        return highWater;
+    }
+
+    /**
+     * Returns the number of objects which were created by this pool.
+     *
+     * @return the number of created objects
+     */
+    public int getCreated()
+    {
+        return created;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "size=" + size + "/" + maxSize + " inUse=" + inUse + " highWater=" + highWater + " created=" + created;
+    }
+}
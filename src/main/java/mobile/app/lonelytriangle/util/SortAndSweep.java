@@ -0,0 +1,190 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Arrays;
+
+/**
+ * A SortAndSweep keeps its elements sorted by their minimal x-coordinate. A query searches the first element which may
+ * overlap the area in x-direction (binary search) and sweeps until the elements start right of the area. Only elements
+ * which overlap the area in x-direction are visited.
+ *
+ * The order is repaired lazily by an insertion sort before the next query. The elements move only a little bit between two
+ * frames, so the order is nearly sorted and the insertion sort is nearly linear. A removed element is replaced by the
+ * last element of the order, the insertion sort moves it to its place. The position of each element in the order is known,
+ * therefore adding and removing an element is O(1). The index does not allocate any memory after warming up.
+ *
+ * @param <T>-Tag the index is for Objects which are IGridable
+ */
+public class SortAndSweep<T extends IGridable> extends AbstractSpatialIndex<T>
+{
+    /** the indices of the elements sorted by their minimal x-coordinate. */
+    private int[]   order;
+
+    /** the position of each element (index of elements) in the order. */
+    private int[]   positions;
+
+    /** the minimal x-coordinate of each element (index of elements), the value of the last move. */
+    private float[] minXs;
+
+    /** the maximal width of all elements since the last clear. */
+    private float   maxWidth;
+
+    /** true if an element was added or moved since the last sort. */
+    private boolean unsorted;
+
+    /**
+     * Construct a new empty SortAndSweep.
+     */
+    public SortAndSweep()
+    {
+        order = new int[INITIAL_CAPACITY];
+        positions = new int[INITIAL_CAPACITY];
+        minXs = new float[INITIAL_CAPACITY];
+        maxWidth = 0;
+        unsorted = false;
+    }
+
+    @Override
+    public void move(final int index)
+    {
+        final T element = get(index);
+        minXs[index] = element.getX();
+        maxWidth = Math.max(maxWidth, element.getWidth());
+        unsorted = true;
+    }
+
+    @Override
+    public void resize(final float width, final float height)
+    {
+        // the order does not depend on the area
+    }
+
+    /**
+     * Visits all elements which overlap the area in x-direction.
+     *
+     * @param area the queried area
+     * @param visitor the visitor which will be called for every element
+     */
+    @Override
+    public void query(final IGridable area, final IGridVisitor<? super T> visitor)
+    {
+        if (unsorted)
+        {
+            sort();
+        }
+
+        final int stamp = nextStamp();
+        final float minX = area.getX();
+        final float maxX = area.getX() + area.getWidth();
+        final int size = size();
+
+        for (int i = firstPosition(minX - maxWidth); i < size && minXs[order[i]] < maxX; i++)
+        {
+            final int index = order[i];
+
+            if (minXs[index] + get(index).getWidth() > minX)
+            {
+                visit(index, stamp, visitor);
+            }
+        }
+    }
+
+    /**
+     * Returns the first position of the order whose element starts at or right of x (binary search).
+     *
+     * @param x x-coordinate
+     * @return the first position whose element starts at or right of x
+     */
+    private int firstPosition(final float x)
+    {
+        int low = 0;
+        int high = size();
+
+        while (low < high)
+        {
+            final int mid = (low + high) >>> 1;
+
+            if (minXs[order[mid]] < x)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Insertion sort of the order.
+     */
+    private void sort()
+    {
+        final int size = size();
+
+        for (int i = 1; i < size; i++)
+        {
+            final int index = order[i];
+            final float x = minXs[index];
+            int j = i - 1;
+
+            while (j >= 0 && minXs[order[j]] > x)
+            {
+                order[j + 1] = order[j];
+                positions[order[j + 1]] = j + 1;
+                j--;
+            }
+            order[j + 1] = index;
+            positions[index] = j + 1;
+        }
+        unsorted = false;
+    }
+
+    @Override
+    protected void grow(final int capacity)
+    {
+        order = Arrays.copyOf(order, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        minXs = Arrays.copyOf(minXs, capacity);
+    }
+
+    @Override
+    protected void insert(final int index)
+    {
+        order[index] = index;
+        positions[index] = index;
+        move(index);
+    }
+
+    @Override
+    protected void delete(final int index)
+    {
+        // the last element of the order fills the gap, the next sort moves it to its place
+        final int position = positions[index];
+        final int lastPosition = size() - 1;
+
+        if (position != lastPosition)
+        {
+            final int last = order[lastPosition];
+            order[position] = last;
+            positions[last] = position;
+            unsorted = true;
+        }
+    }
+
+    @Override
+    protected void relink(final int oldIndex, final int newIndex)
+    {
+        final int position = positions[oldIndex];
+        order[position] = newIndex;
+        positions[newIndex] = position;
+        minXs[newIndex] = minXs[oldIndex];
+    }
+
+    @Override
+    protected void reset()
+    {
+        maxWidth = 0;
+        unsorted = false;
+    }
+}
@@ -0,0 +1,164 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Random;
+
+/**
+ * A SplitMixRandom is a fast, unsynchronized random number generator (SplitMix64 by Steele, Lea and Flood). It extends
+ * java.util.Random, so it can be used everywhere a Random is expected, but the state is a plain long instead of an
+ * AtomicLong and the generated numbers are equal on every JVM for the same seed.
+ *
+ * A SplitMixRandom can be split into a new generator whose numbers are statistically independent of the numbers of this
+ * generator. So a whole tree of generators can be derived from one seed.
+ *
+ * A SplitMixRandom is not thread safe.
+ */
+public class SplitMixRandom extends Random
+{
+    private static final long serialVersionUID = 1L;
+
+    /** the increment of the state (the odd integer closest to 2^64 / golden ratio). */
+    private static final long GOLDEN_GAMMA     = 0x9e3779b97f4a7c15L;
+
+    /** 2^-53, it converts the upper 53 bits to a double in [0, 1). */
+    private static final double DOUBLE_UNIT    = 1.0 / (1L << 53);
+
+    /** 2^-24, it converts the upper 24 bits to a float in [0, 1). */
+    private static final float FLOAT_UNIT      = 1.0f / (1 << 24);
+
+    private long              state;
+
+    /**
+     * Construct a new SplitMixRandom with a seed which is (very likely) different from every other invocation.
+     */
+    public SplitMixRandom()
+    {
+        this(mix64(System.nanoTime()) ^ System.identityHashCode(new Object()));
+    }
+
+    /**
+     * Construct a new SplitMixRandom with the specified seed.
+     *
+     * @param seed the seed
+     */
+    public SplitMixRandom(final long seed)
+    {
+        super(seed);
+        state = seed;
+    }
+
+    @Override
+    public synchronized void setSeed(final long seed)
+    {
+        // called by the constructor of Random, resets the cached gaussian as well
+        super.setSeed(seed);
+        state = seed;
+    }
+
+    /**
+     * Returns the internal state (e.g. for a checkpoint), the seed is the initial state.
+     *
+     * @return the internal state
+     */
+    public long getState()
+    {
+        return state;
+    }
+
+    /**
+     * Sets the internal state which was returned by getState. In contrast to setSeed this does not allocate.
+     *
+     * @param state the internal state
+     */
+    public void setState(final long state)
+    {
+        this.state = state;
+    }
+
+    /**
+     * Returns a new SplitMixRandom which is seeded by the next number of this generator. The numbers of the new generator
+     * are independent of the numbers of this generator.
+     *
+     * @return a new, independent SplitMixRandom
+     */
+    public SplitMixRandom split()
+    {
+        return new SplitMixRandom(nextLong());
+    }
+
+    @Override
+    protected int next(final int bits)
+    {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong()
+    {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    @Override
+    public int nextInt()
+    {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public int nextInt(final int bound)
+    {
+        if (bound <= 0)
+        {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        // Lemire's multiply and shift with rejection of the biased results
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xffffffffL;
+
+        if (low < bound)
+        {
+            final long threshold = (0x100000000L - bound) % bound;
+
+            while (low < threshold)
+            {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xffffffffL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public boolean nextBoolean()
+    {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public float nextFloat()
+    {
+        return (nextLong() >>> 40) * FLOAT_UNIT;
+    }
+
+    @Override
+    public double nextDouble()
+    {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns the SplitMix64 mix of a value, a fast hash with a good avalanche (e.g. to derive a random value from
+     * indices without a stream).
+     *
+     * @param value the value
+     * @return the hash of the value
+     */
+    public static long mix64(final long value)
+    {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
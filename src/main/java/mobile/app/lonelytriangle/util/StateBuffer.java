@@ -0,0 +1,155 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Arrays;
+
+/**
+ * A StateBuffer stores the state of objects as a sequence of ints (floats are stored by their bits, longs as two ints).
+ * The values are read in the order they were written. The buffer grows if necessary and keeps its memory after clear, so
+ * a reused buffer does not allocate memory after it has reached the size of the largest state.
+ */
+public final class StateBuffer
+{
+    private int[] data;
+
+    /** the number of written ints. */
+    private int   size;
+
+    /** the read position. */
+    private int   position;
+
+    /**
+     * Construct a new empty StateBuffer.
+     *
+     * @param capacity the initial capacity in ints
+     */
+    public StateBuffer(final int capacity)
+    {
+        data = new int[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear()
+    {
+        size = 0;
+        position = 0;
+    }
+
+    /**
+     * Sets the read position to the first value.
+     */
+    public void rewind()
+    {
+        position = 0;
+    }
+
+    /**
+     * Returns the number of written ints.
+     *
+     * @return the number of written ints
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of ints the buffer can hold without growing.
+     *
+     * @return the capacity in ints
+     */
+    public int getCapacity()
+    {
+        return data.length;
+    }
+
+    /**
+     * Writes an int.
+     *
+     * @param value the value
+     */
+    public void putInt(final int value)
+    {
+        if (size == data.length)
+        {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Writes a float.
+     *
+     * @param value the value
+     */
+    public void putFloat(final float value)
+    {
+        putInt(Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Writes a long.
+     *
+     * @param value the value
+     */
+    public void putLong(final long value)
+    {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value the value
+     */
+    public void putBoolean(final boolean value)
+    {
+        putInt(value ? 1 : 0);
+    }
+
+    /**
+     * Reads the next int.
+     *
+     * @return the value
+     */
+    public int getInt()
+    {
+        if (position >= size)
+        {
+            throw new IllegalStateException("no more values in the state buffer");
+        }
+        return data[position++];
+    }
+
+    /**
+     * Reads the next float.
+     *
+     * @return the value
+     */
+    public float getFloat()
+    {
+        return Float.intBitsToFloat(getInt());
+    }
+
+    /**
+     * Reads the next long.
+     *
+     * @return the value
+     */
+    public long getLong()
+    {
+        return ((long) getInt() << 32) | (getInt() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Reads the next boolean.
+     *
+     * @return the value
+     */
+    public boolean getBoolean()
+    {
+        return getInt() != 0;
+    }
+}
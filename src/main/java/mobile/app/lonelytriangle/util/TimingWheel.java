@@ -0,0 +1,361 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Arrays;
+
+/**
+ * A TimingWheel is a hierarchical timing wheel for int ids (e.g. the indices of dense arrays). Every id can be scheduled
+ * for one tick. The wheel has LEVELS levels of SLOTS slots, a slot of level l spans SLOTS^l ticks. An id is stored in the
+ * lowest level whose slot range contains its tick and falls down to the lower levels when the wheel reaches its slot
+ * (cascading), ids which are too far away wait in an overflow list. Scheduling, cancelling and moving are constant time,
+ * advancing costs a constant per tick plus the expired and cascaded ids, so the caller only pays for the ids which
+ * expire and not for all scheduled ids.
+ *
+ * The slots are doubly linked lists through the id arrays (no allocation after the wheel has grown to its capacity). The
+ * expired ids of an advance are sorted in descending order, so they can be removed from a dense array where the last
+ * element takes the index of a removed element.
+ */
+public final class TimingWheel
+{
+    /** the number of bits of the slot index of one level. */
+    private static final int BITS     = 6;
+
+    /** the number of slots of one level. */
+    public static final int  SLOTS    = 1 << BITS;
+
+    /** the number of levels. */
+    public static final int  LEVELS   = 4;
+
+    private static final int MASK     = SLOTS - 1;
+
+    /** the list of the ids which expire with the next advance. */
+    private static final int DUE      = LEVELS * SLOTS;
+
+    /** the list of the ids which are beyond the highest level. */
+    private static final int OVERFLOW = DUE + 1;
+
+    private static final int NONE     = -1;
+
+    /** the first id of every list. */
+    private final int[]      heads;
+
+    // the ids
+    private int[]            next;
+    private int[]            previous;
+    private int[]            lists;
+    private long[]           ticks;
+
+    /** the number of scheduled ids. */
+    private int              size;
+
+    /** the last processed tick. */
+    private long             now;
+
+    // the ids which expired with the last advance (in descending order)
+    private int[]            expired;
+    private int              numberOfExpired;
+
+    /**
+     * Construct a new empty TimingWheel.
+     *
+     * @param capacity the initial number of ids (the wheel grows if necessary)
+     */
+    public TimingWheel(final int capacity)
+    {
+        final int initialCapacity = Math.max(capacity, 16);
+        heads = new int[OVERFLOW + 1];
+        next = new int[initialCapacity];
+        previous = new int[initialCapacity];
+        lists = new int[initialCapacity];
+        ticks = new long[initialCapacity];
+        expired = new int[initialCapacity];
+        Arrays.fill(lists, NONE);
+        reset(0);
+    }
+
+    /**
+     * Cancels all ids and sets the current tick.
+     *
+     * @param tick the new current tick (the last processed tick)
+     */
+    public void reset(final long tick)
+    {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(lists, NONE);
+        size = 0;
+        numberOfExpired = 0;
+        now = tick;
+    }
+
+    /**
+     * Schedules the id for a tick, an id which is already scheduled is rescheduled. An id with a tick which is not after
+     * the current tick expires with the next advance.
+     *
+     * @param id the id (not negative)
+     * @param tick the tick of the expiry
+     */
+    public void schedule(final int id, final long tick)
+    {
+        if (id >= lists.length)
+        {
+            grow(Math.max(id + 1, lists.length * 2));
+        }
+
+        cancel(id);
+        ticks[id] = tick;
+        link(id, tick <= now ? DUE : getList(tick));
+        size++;
+    }
+
+    /**
+     * Cancels the id, nothing happens if the id is not scheduled.
+     *
+     * @param id the id
+     */
+    public void cancel(final int id)
+    {
+        if (id < lists.length && lists[id] != NONE)
+        {
+            unlink(id);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the schedule of an id to another id which is not scheduled (e.g. if the last element of a dense array takes
+     * the index of a removed element). Nothing happens if the first id is not scheduled.
+     *
+     * @param from the scheduled id
+     * @param to the new id of the schedule
+     */
+    public void move(final int from, final int to)
+    {
+        if (from == to || from >= lists.length || lists[from] == NONE)
+        {
+            return;
+        }
+
+        if (to >= lists.length)
+        {
+            grow(Math.max(to + 1, lists.length * 2));
+        }
+
+        cancel(to);
+        final int list = lists[from];
+        ticks[to] = ticks[from];
+        unlink(from);
+        link(to, list);
+    }
+
+    /**
+     * Returns true if the id is scheduled.
+     *
+     * @param id the id
+     * @return true if the id is scheduled, otherwise false
+     */
+    public boolean isScheduled(final int id)
+    {
+        return id < lists.length && lists[id] != NONE;
+    }
+
+    /**
+     * Returns the tick of a scheduled id.
+     *
+     * @param id the scheduled id
+     * @return the tick of the expiry
+     */
+    public long getTick(final int id)
+    {
+        return ticks[id];
+    }
+
+    /**
+     * Returns the last processed tick.
+     *
+     * @return the current tick
+     */
+    public long getNow()
+    {
+        return now;
+    }
+
+    /**
+     * Returns the number of scheduled ids.
+     *
+     * @return the number of scheduled ids
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Processes all ticks up to the specified tick. The expired ids are no longer scheduled, they can be read by
+     * getExpired (in descending order) until the next advance. A tick which is not after the current tick only expires
+     * the due ids.
+     *
+     * @param tick the new current tick
+     * @return the number of expired ids
+     */
+    public int advance(final long tick)
+    {
+        numberOfExpired = 0;
+        expire(DUE);
+
+        while (now < tick)
+        {
+            if (size == numberOfExpired)
+            {
+                // nothing is scheduled, the empty ticks can be skipped
+                now = tick;
+                break;
+            }
+
+            now++;
+            cascade();
+            expire((int) (now & MASK));
+        }
+
+        // descending order
+        Arrays.sort(expired, 0, numberOfExpired);
+        for (int i = 0, j = numberOfExpired - 1; i < j; i++, j--)
+        {
+            final int id = expired[i];
+            expired[i] = expired[j];
+            expired[j] = id;
+        }
+        size -= numberOfExpired;
+        return numberOfExpired;
+    }
+
+    /**
+     * Returns an expired id of the last advance, the ids are sorted in descending order.
+     *
+     * @param index the index of the expired id (0 to the result of advance - 1)
+     * @return the expired id
+     */
+    public int getExpired(final int index)
+    {
+        return expired[index];
+    }
+
+    /**
+     * Moves the ids of the slots of the higher levels which start with the current tick to the lower levels.
+     */
+    private void cascade()
+    {
+        int level = 0;
+
+        while (level < LEVELS && (now & ((1L << (BITS * (level + 1))) - 1)) == 0)
+        {
+            level++;
+        }
+
+        // the overflow first, then from the highest level to the lowest
+        if (level == LEVELS)
+        {
+            redistribute(OVERFLOW);
+        }
+
+        for (int l = Math.min(level, LEVELS - 1); l > 0; l--)
+        {
+            redistribute(l * SLOTS + (int) ((now >>> (BITS * l)) & MASK));
+        }
+    }
+
+    private void redistribute(final int list)
+    {
+        int id = heads[list];
+        heads[list] = NONE;
+
+        while (id != NONE)
+        {
+            final int following = next[id];
+            lists[id] = NONE;
+            link(id, getList(ticks[id]));
+            id = following;
+        }
+    }
+
+    private void expire(final int list)
+    {
+        int id = heads[list];
+        heads[list] = NONE;
+
+        while (id != NONE)
+        {
+            final int following = next[id];
+            lists[id] = NONE;
+
+            if (numberOfExpired == expired.length)
+            {
+                expired = Arrays.copyOf(expired, numberOfExpired * 2);
+            }
+            expired[numberOfExpired++] = id;
+            id = following;
+        }
+    }
+
+    /**
+     * Returns the list of a tick which is not before the current tick.
+     */
+    private int getList(final long tick)
+    {
+        for (int level = 0; level < LEVELS; level++)
+        {
+            final int shift = BITS * (level + 1);
+
+            if ((tick >>> shift) == (now >>> shift))
+            {
+                return level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK);
+            }
+        }
+        return OVERFLOW;
+    }
+
+    private void link(final int id, final int list)
+    {
+        final int head = heads[list];
+        next[id] = head;
+        previous[id] = NONE;
+
+        if (head != NONE)
+        {
+            previous[head] = id;
+        }
+
+        heads[list] = id;
+        lists[id] = list;
+    }
+
+    private void unlink(final int id)
+    {
+        final int before = previous[id];
+        final int after = next[id];
+
+        if (before == NONE)
+        {
+            heads[lists[id]] = after;
+        }
+        else
+        {
+            next[before] = after;
+        }
+
+        if (after != NONE)
+        {
+            previous[after] = before;
+        }
+
+        lists[id] = NONE;
+    }
+
+    private void grow(final int capacity)
+    {
+        final int oldCapacity = lists.length;
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        lists = Arrays.copyOf(lists, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+        Arrays.fill(lists, oldCapacity, capacity, NONE);
+    }
+}
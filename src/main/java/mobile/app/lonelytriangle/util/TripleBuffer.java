@@ -0,0 +1,76 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A TripleBuffer hands over objects from one writer thread to one reader thread without locking. The writer fills the
+ * back slot and publishes it, the reader acquires the latest published slot. The third slot is exchanged between both
+ * threads by an atomic swap, so neither thread ever waits for the other and the reader never sees a slot which is written.
+ *
+ * @param <T>-Tag the type of the slots
+ */
+public final class TripleBuffer<T>
+{
+    /** the flag of the middle slot which indicates that it was published and not acquired so far. */
+    private static final int    FRESH = 1;
+
+    private final Object[]      slots;
+
+    /** the middle slot: (index << 1) | FRESH. */
+    private final AtomicInteger middle;
+
+    /** the slot of the writer. */
+    private int                 back;
+
+    /** the slot of the reader. */
+    private int                 front;
+
+    /**
+     * Construct a new TripleBuffer with three slots. The reader starts with the second slot.
+     *
+     * @param first the first slot (the first back slot of the writer)
+     * @param second the second slot (the first front slot of the reader)
+     * @param third the third slot
+     */
+    public TripleBuffer(final T first, final T second, final T third)
+    {
+        slots = new Object[] {first, second, third};
+        back = 0;
+        front = 1;
+        middle = new AtomicInteger(2 << 1);
+    }
+
+    /**
+     * Returns the back slot which can be filled by the writer.
+     *
+     * @return the back slot
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack()
+    {
+        return (T) slots[back];
+    }
+
+    /**
+     * Publishes the back slot (writer). The writer gets a new back slot.
+     */
+    public void publish()
+    {
+        back = middle.getAndSet((back << 1) | FRESH) >> 1;
+    }
+
+    /**
+     * Returns the latest published slot (reader). If nothing was published since the last call the same slot is returned again.
+     *
+     * @return the latest published slot
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire()
+    {
+        if ((middle.get() & FRESH) != 0)
+        {
+            front = middle.getAndSet(front << 1) >> 1;
+        }
+        return (T) slots[front];
+    }
+}
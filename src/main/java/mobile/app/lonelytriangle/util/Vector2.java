@@ -0,0 +1,208 @@
+package mobile.app.lonelytriangle.util;
+
+/**
+ * A Vector2 is a mutable 2D vector of floats. All operations change the vector itself and never allocate, the static
+ * methods work on plain floats (for code which does not hold a Vector2).
+ */
+public final class Vector2
+{
+    /** x-coordinate of this vector. */
+    private float x;
+
+    /** y-coordinate of this vector. */
+    private float y;
+
+    /**
+     * Construct a new Vector2 (0, 0).
+     */
+    public Vector2()
+    {
+        this(0, 0);
+    }
+
+    /**
+     * Construct a new Vector2.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public Vector2(final float x, final float y)
+    {
+        set(x, y);
+    }
+
+    /**
+     * Sets both coordinates.
+     *
+     * @param newX the x coordinate
+     * @param newY the y coordinate
+     * @return this vector
+     */
+    public Vector2 set(final float newX, final float newY)
+    {
+        x = newX;
+        y = newY;
+        return this;
+    }
+
+    /**
+     * Adds a vector to this vector.
+     *
+     * @param vector the added vector
+     * @return this vector
+     */
+    public Vector2 add(final Vector2 vector)
+    {
+        return set(x + vector.x, y + vector.y);
+    }
+
+    /**
+     * Adds a scaled vector (e.g. a velocity multiplied by the elapsed time) to this vector.
+     *
+     * @param dx the x coordinate of the added vector
+     * @param dy the y coordinate of the added vector
+     * @param scale the factor of the added vector
+     * @return this vector
+     */
+    public Vector2 add(final float dx, final float dy, final float scale)
+    {
+        return set(x + dx * scale, y + dy * scale);
+    }
+
+    /**
+     * Subtracts a vector from this vector.
+     *
+     * @param vector the subtracted vector
+     * @return this vector
+     */
+    public Vector2 sub(final Vector2 vector)
+    {
+        return set(x - vector.x, y - vector.y);
+    }
+
+    /**
+     * Multiplies this vector by a factor.
+     *
+     * @param factor the factor
+     * @return this vector
+     */
+    public Vector2 scale(final float factor)
+    {
+        return set(x * factor, y * factor);
+    }
+
+    /**
+     * Returns the scalar product of this vector and another vector.
+     *
+     * @param vector the other vector
+     * @return the scalar product
+     */
+    public float dot(final Vector2 vector)
+    {
+        return dot(x, y, vector.x, vector.y);
+    }
+
+    /**
+     * Returns the length of this vector.
+     *
+     * @return the length
+     */
+    public float length()
+    {
+        return length(x, y);
+    }
+
+    /**
+     * Returns the distance between this vector and another vector.
+     *
+     * @param vector the other vector
+     * @return the distance
+     */
+    public float distance(final Vector2 vector)
+    {
+        return length(vector.x - x, vector.y - y);
+    }
+
+    /**
+     * Scales this vector to the length 1, the null vector is not changed.
+     *
+     * @return this vector
+     */
+    public Vector2 normalize()
+    {
+        final float length = length();
+        return length == 0 ? this : scale(1 / length);
+    }
+
+    /**
+     * Returns the x coordinate.
+     *
+     * @return the x coordinate
+     */
+    public float getX()
+    {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate.
+     *
+     * @return the y coordinate
+     */
+    public float getY()
+    {
+        return y;
+    }
+
+    /**
+     * Sets the x coordinate.
+     *
+     * @param newX the x coordinate
+     */
+    public void setX(final float newX)
+    {
+        x = newX;
+    }
+
+    /**
+     * Sets the y coordinate.
+     *
+     * @param newY the y coordinate
+     */
+    public void setY(final float newY)
+    {
+        y = newY;
+    }
+
+    /**
+     * Returns the scalar product of two vectors.
+     *
+     * @param x1 the x coordinate of the first vector
+     * @param y1 the y coordinate of the first vector
+     * @param x2 the x coordinate of the second vector
+     * @param y2 the y coordinate of the second vector
+     * @return the scalar product
+     */
+    public static float dot(final float x1, final float y1, final float x2, final float y2)
+    {
+        return x1 * x2 + y1 * y2;
+    }
+
+    /**
+     * Returns the length of a vector.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the length
+     */
+    public static float length(final float x, final float y)
+    {
+        return FloatMath.sqrt(x * x + y * y);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + x + ", " + y + "]";
+    }
+}
@@ -0,0 +1,173 @@
+package mobile.app.lonelytriangle.core;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.ResourceManager.CatchUpPolicy;
+import mobile.app.lonelytriangle.util.FrameTimeHistogram;
+
+/**
+ * Tests the scheduling of the GameLoop and the FrameTimeHistogram.
+ */
+public class TestGameLoop extends TestCase
+{
+    /** 50 frames per second. */
+    private static final long PERIOD = 20000000L;
+
+    public void testDriftCorrection()
+    {
+        final GameLoop loop = new GameLoop(null, 50, CatchUpPolicy.Skip, 5);
+
+        // a late iteration does not move the schedule
+        assertEquals(2 * PERIOD, loop.schedule(PERIOD, PERIOD + 3000000L));
+        assertEquals(3 * PERIOD, loop.schedule(2 * PERIOD, 3 * PERIOD - 1));
+    }
+
+    public void testCatchUp()
+    {
+        final GameLoop skip = new GameLoop(null, 50, CatchUpPolicy.Skip, 5);
+        final GameLoop burst = new GameLoop(null, 50, CatchUpPolicy.Burst, 5);
+
+        // 2.5 frames behind: skip waits for the next regular frame, burst runs the missed frames immediately
+        final long now = 3 * PERIOD + PERIOD / 2;
+        assertEquals(4 * PERIOD, skip.schedule(0, now));
+        assertEquals(PERIOD, burst.schedule(0, now));
+
+        // a long stall resets the schedule of burst
+        final long stall = 100 * PERIOD;
+        assertEquals(stall, burst.schedule(0, stall));
+    }
+
+    public void testSimulatedTimeAfterStall()
+    {
+        // a stall of 3.5 frames in the 10th frame: both policies simulate the elapsed time
+        final StallingGame skip = new StallingGame(CatchUpPolicy.Skip, 10, 3 * PERIOD + PERIOD / 2);
+        skip.run(50);
+        assertEquals(skip.now, skip.simulatedTime);
+        assertEquals(47, skip.iterations);
+        assertEquals(4 * PERIOD, skip.maxDelta);
+
+        // burst catches up with three more frames of one period each
+        final StallingGame burst = new StallingGame(CatchUpPolicy.Burst, 10, 3 * PERIOD + PERIOD / 2);
+        burst.run(50);
+        assertEquals(burst.now, burst.simulatedTime);
+        assertEquals(50, burst.iterations);
+        assertEquals(PERIOD, burst.maxDelta);
+
+        // a long stall resets the schedule of burst, the time of the stall is not simulated (except for one period)
+        final StallingGame longStall = new StallingGame(CatchUpPolicy.Burst, 10, 100 * PERIOD);
+        longStall.run(150);
+        assertEquals(longStall.now - 99 * PERIOD, longStall.simulatedTime);
+        assertEquals(PERIOD, longStall.maxDelta);
+    }
+
+    public void testHistogram()
+    {
+        final FrameTimeHistogram histogram = new FrameTimeHistogram(1000000L, 100);
+
+        for (int i = 1; i <= 100; i++)
+        {
+            histogram.record(i * 100000L);
+        }
+        histogram.record(500000000L);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(100000L, histogram.getMin());
+        assertEquals(500000000L, histogram.getMax());
+        // the median (5.1 ms) is in the bucket 5 ms to 6 ms
+        assertEquals(6000000L, histogram.getPercentile(0.5));
+        assertEquals(500000000L, histogram.getPercentile(1.0));
+    }
+
+    /**
+     * A game which stalls once and a GameLoop on a virtual clock. The loop waits by advancing the clock to the next frame.
+     */
+    private static final class StallingGame implements IGameManager
+    {
+        private final GameLoop loop;
+        private final int      stallFrame;
+        private final long     stall;
+        private long           now;
+        private long           simulatedTime;
+        private long           maxDelta;
+        private int            iterations;
+
+        private StallingGame(final CatchUpPolicy policy, final int stallFrame, final long stall)
+        {
+            this.stallFrame = stallFrame;
+            this.stall = stall;
+            loop = new GameLoop(this, 50, policy, 5)
+            {
+                @Override
+                long nanoTime()
+                {
+                    return now;
+                }
+            };
+        }
+
+        /**
+         * Runs the loop until the virtual clock reaches the specified number of frames.
+         */
+        private void run(final int frames)
+        {
+            loop.startSchedule();
+
+            while (loop.getNextFrame() <= frames * PERIOD)
+            {
+                now = Math.max(now, loop.getNextFrame());
+                loop.iterate();
+            }
+        }
+
+        @Override
+        public void loopIteration(final float delta)
+        {
+            // the delta is a float, it is exact to the micro second
+            final long nanos = Math.round(delta * 1e6) * 1000L;
+            simulatedTime += nanos;
+            maxDelta = Math.max(maxDelta, nanos);
+            iterations++;
+
+            if (iterations == stallFrame)
+            {
+                now += stall;
+            }
+        }
+
+        @Override
+        public void pauseGame()
+        {
+        }
+
+        @Override
+        public void createNewGame()
+        {
+        }
+
+        @Override
+        public void resumeGame()
+        {
+        }
+
+        @Override
+        public void endGame()
+        {
+        }
+
+        @Override
+        public boolean isPaused()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isSimulation()
+        {
+            return true;
+        }
+
+        @Override
+        public void killGame()
+        {
+        }
+    }
+}
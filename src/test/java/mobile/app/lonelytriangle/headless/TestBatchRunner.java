@@ -0,0 +1,58 @@
+package mobile.app.lonelytriangle.headless;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the games of the BatchRunner are independent of the number of threads and of the broadphase.
+ */
+public class TestBatchRunner extends TestCase
+{
+    public void testThreadsDoNotChangeTheResults() throws IOException, InterruptedException
+    {
+        final List<byte[]> configs = new ArrayList<byte[]>();
+        configs.add(BatchRunner.readConfig("res/raw/difficulty_hard.cfg"));
+        configs.add(BatchRunner.readConfig("res/raw/difficulty_insane.cfg"));
+
+        final List<BatchRunner.Game> sequential = new BatchRunner(1, 30).run(configs, 4, 42L);
+        final List<BatchRunner.Game> parallel = new BatchRunner(4, 30).run(configs, 4, 42L);
+
+        assertEquals(8, sequential.size());
+        assertEquals(8, parallel.size());
+
+        for (int i = 0; i < sequential.size(); i++)
+        {
+            assertEquals(sequential.get(i).getSeed(), parallel.get(i).getSeed());
+            assertEquals(sequential.get(i).getScore(), parallel.get(i).getScore());
+            assertEquals(sequential.get(i).getSurvivalTime(), parallel.get(i).getSurvivalTime());
+        }
+    }
+
+    public void testBroadphaseDoesNotChangeTheResults() throws IOException, InterruptedException
+    {
+        final byte[] config = BatchRunner.readConfig("res/raw/difficulty_insane.cfg");
+        final String text = new String(config, "UTF-8");
+        assertTrue(text.contains("broadphase = SortAndSweep"));
+
+        final List<byte[]> sortAndSweep = new ArrayList<byte[]>();
+        sortAndSweep.add(config);
+        final List<byte[]> grid = new ArrayList<byte[]>();
+        grid.add(text.replace("broadphase = SortAndSweep", "broadphase = Grid").getBytes("UTF-8"));
+
+        final List<BatchRunner.Game> first = new BatchRunner(1, 30).run(sortAndSweep, 3, 42L);
+        final List<BatchRunner.Game> second = new BatchRunner(1, 30).run(grid, 3, 42L);
+
+        assertEquals(3, second.size());
+
+        for (int i = 0; i < first.size(); i++)
+        {
+            assertTrue(first.get(i).getScore() > 0);
+            assertEquals(first.get(i).getSeed(), second.get(i).getSeed());
+            assertEquals(first.get(i).getScore(), second.get(i).getScore());
+            assertEquals(first.get(i).getSurvivalTime(), second.get(i).getSurvivalTime());
+        }
+    }
+}
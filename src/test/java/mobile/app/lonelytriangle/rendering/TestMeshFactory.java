@@ -0,0 +1,68 @@
+package mobile.app.lonelytriangle.rendering;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.IResourceManager;
+import mobile.app.lonelytriangle.resource.ResourceManager;
+import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
+import mobile.app.lonelytriangle.simulation.shapes.ShapeFactory;
+
+/**
+ * Tests the cache of the shot meshes of the MeshFactory, a shot mesh is identified by the mesh type of its parent and its
+ * size.
+ */
+public class TestMeshFactory extends TestCase
+{
+    private IResourceManager resourceManager;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        resourceManager = ResourceManager.getInstance();
+        final InputStream stream = new FileInputStream("res/raw/difficulty_hard.cfg");
+        try
+        {
+            resourceManager.loadConfig(stream);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    public void testShotMeshCache()
+    {
+        final MeshFactory meshFactory = new MeshFactory(resourceManager);
+        final ShapeFactory shapeFactory = new ShapeFactory(resourceManager, meshFactory);
+        final EnemyShip rectangle = shapeFactory.getRectangleEnemy(0, 0);
+        final EnemyShip triangle = shapeFactory.getTriangleEnemy(0, 0);
+
+        // hit: same type and size, the size is truncated to whole pixels
+        final IMesh shot = meshFactory.getShot(rectangle, 4, 8);
+        assertSame(rectangle.getMesh().getClass(), shot.getClass());
+        assertSame(shot, meshFactory.getShot(rectangle, 4, 8));
+        assertSame(shot, meshFactory.getShot(rectangle, 4.9f, 8.2f));
+
+        // miss: another size
+        final IMesh higherShot = meshFactory.getShot(rectangle, 4, 9);
+        assertNotSame(shot, higherShot);
+        assertNotSame(shot, meshFactory.getShot(rectangle, 5, 8));
+        assertSame(higherShot, meshFactory.getShot(rectangle, 4, 9));
+
+        // miss: another type of the same size
+        final IMesh triangleShot = meshFactory.getShot(triangle, 4, 8);
+        assertNotSame(shot, triangleShot);
+        assertSame(triangle.getMesh().getClass(), triangleShot.getClass());
+        assertSame(triangleShot, meshFactory.getShot(triangle, 4, 8));
+
+        // the cache grows beyond its initial capacity and keeps its entries
+        for (int size = 10; size < 30; size++)
+        {
+            meshFactory.getShot(rectangle, size, size);
+        }
+        assertSame(shot, meshFactory.getShot(rectangle, 4, 8));
+        assertSame(triangleShot, meshFactory.getShot(triangle, 4, 8));
+    }
+}
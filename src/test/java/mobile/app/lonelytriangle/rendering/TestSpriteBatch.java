@@ -0,0 +1,66 @@
+package mobile.app.lonelytriangle.rendering;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+
+/**
+ * Tests the conversion of the meshes to triangles and the grouping of the SpriteBatch (without GL10).
+ */
+public class TestSpriteBatch extends TestCase
+{
+    public void testTriangleIndices()
+    {
+        // triangle strip {0, 1, 2, 3, 0}
+        final short[] strip = new Rectangle(10, 10).getTriangleIndices();
+        assertTrue(Arrays.equals(new short[] {0, 1, 2, 1, 2, 3, 2, 3, 0}, strip));
+
+        // triangles stay triangles
+        final short[] triangles = new Triangle(10, 10).getTriangleIndices();
+        assertTrue(Arrays.equals(new short[] {0, 1, 2}, triangles));
+    }
+
+    public void testGroupsByColor()
+    {
+        final SpriteBatch batch = new SpriteBatch();
+        final IMesh rectangle = new Rectangle(10, 10);
+        final IMesh diamond = new Diamond(10, 10);
+
+        batch.begin();
+        for (int i = 0; i < 1000; i++)
+        {
+            assertTrue(batch.add(rectangle, Colors.Yellow, i, i));
+            assertTrue(batch.add(diamond, Colors.Blue, i, i));
+        }
+        assertEquals(2, batch.getNumberOfGroups());
+
+        // a group holds at most 65536 vertices
+        batch.begin();
+        for (int i = 0; i < 20000; i++)
+        {
+            batch.add(rectangle, Colors.Yellow, i, i);
+        }
+        assertEquals(2, batch.getNumberOfGroups());
+    }
+
+    public void testGroupsByLayer()
+    {
+        final SpriteBatch batch = new SpriteBatch();
+        final IMesh rectangle = new Rectangle(10, 10);
+
+        // the lower and the upper layer share a color, they must not share a group
+        batch.begin();
+        batch.add(rectangle, Colors.White, 0, 0);
+        batch.add(rectangle, Colors.Red, 0, 0);
+        batch.nextLayer();
+        batch.add(rectangle, Colors.White, 0, 0);
+        batch.add(rectangle, Colors.White, 10, 10);
+        assertEquals(3, batch.getNumberOfGroups());
+
+        // a layer change without a mesh does not create a group
+        batch.nextLayer();
+        batch.nextLayer();
+        assertEquals(3, batch.getNumberOfGroups());
+    }
+}
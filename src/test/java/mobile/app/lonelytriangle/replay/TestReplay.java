@@ -0,0 +1,150 @@
+package mobile.app.lonelytriangle.replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.IResourceManager;
+import mobile.app.lonelytriangle.resource.ResourceManager;
+import mobile.app.lonelytriangle.simulation.CheckpointRing;
+import mobile.app.lonelytriangle.simulation.Simulation;
+import mobile.app.lonelytriangle.util.StateBuffer;
+
+/**
+ * Tests the encoding of the replays and that a replay reproduces the recorded game.
+ */
+public class TestReplay extends TestCase
+{
+    private static final float STEP = 1.0f / 50;
+
+    /** the simulation of the last recorded game. */
+    private Simulation         recorded;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        final IResourceManager resourceManager = ResourceManager.getInstance();
+        final InputStream stream = new FileInputStream("res/raw/difficulty_hard.cfg");
+        try
+        {
+            resourceManager.loadConfig(stream);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    public void testVarLong()
+    {
+        final long[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, -1, Long.MIN_VALUE};
+        final byte[] buffer = new byte[10];
+
+        for (int i = 0; i < values.length; i++)
+        {
+            final int length = ReplayFormat.writeVarLong(buffer, 0, values[i]);
+            long value = 0;
+
+            for (int j = 0; j < length; j++)
+            {
+                value |= (long) (buffer[j] & 0x7F) << (7 * j);
+            }
+            assertEquals(values[i], value);
+            assertEquals(values[i], ReplayFormat.unZigZag(ReplayFormat.zigZag(values[i])));
+        }
+
+        assertEquals(1, ReplayFormat.writeVarLong(buffer, 0, ReplayFormat.zigZag(-5)));
+    }
+
+    public void testReplayReproducesTheGame() throws IOException
+    {
+        final ByteArrayOutputStream out = record();
+
+        final ReplayPlayer player = new ReplayPlayer(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(4711L, player.getSeed());
+
+        final Simulation replayed = new Simulation();
+        assertEquals(1500, player.play(replayed, null, null));
+        assertEquals(recorded.getClock().getTimeNanos(), replayed.getClock().getTimeNanos());
+        assertTrue(recorded.getScore() > 0);
+        assertEquals(recorded.getScore(), replayed.getScore());
+        assertEquals(recorded.getShip().getX(), replayed.getShip().getX());
+        assertEquals(recorded.getShip().getY(), replayed.getShip().getY());
+        assertEquals(recorded.getBullets().size(), replayed.getBullets().size());
+        assertEquals(800, replayed.getScreenWidth());
+        assertEquals(480, replayed.getScreenHeight());
+    }
+
+    public void testSeek() throws IOException
+    {
+        final ReplayPlayer player = new ReplayPlayer(new ByteArrayInputStream(record().toByteArray()));
+        final Simulation replayed = new Simulation();
+        final CheckpointRing checkpoints = new CheckpointRing(replayed, 2.0f, 16);
+        player.play(replayed, null, checkpoints);
+
+        final StateBuffer end = new StateBuffer(1024);
+        replayed.saveState(end);
+
+        // back to 13 s (from a checkpoint at most 2 s before) and forward to the end again
+        final int steps = player.seek(checkpoints, 13000000000L);
+        assertTrue(steps > 0 && steps <= 101);
+        assertTrue(Math.abs(player.getTime() - 13000000000L) < 20000000L);
+
+        // the screen was resized after 14 s, the seek goes back to the recorded size
+        assertEquals(480, replayed.getScreenWidth());
+        assertEquals(800, replayed.getScreenHeight());
+        player.seek(checkpoints, Long.MAX_VALUE);
+
+        final StateBuffer seeked = new StateBuffer(1024);
+        replayed.saveState(seeked);
+        assertEquals(end.size(), seeked.size());
+
+        for (int i = 0; i < end.size(); i++)
+        {
+            assertEquals(end.getInt(), seeked.getInt());
+        }
+    }
+
+    private ByteArrayOutputStream record() throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ReplayRecorder recorder = new ReplayRecorder(out);
+
+        recorded = new Simulation();
+        recorded.screenResize(480, 800);
+        recorded.initSimulation();
+        recorded.update(STEP);
+        recorded.setSeed(4711L);
+        recorder.begin(recorded, STEP);
+        recorded.initGame();
+
+        for (int i = 0; i < 1500; i++)
+        {
+            if (i % 100 == 10)
+            {
+                recorder.moveAndShoot(40 + i % 400, i % 200);
+                recorded.enableShipShoting();
+                recorded.setTargetX(40 + i % 400);
+                recorded.setTargetY(i % 200);
+            }
+            else if (i % 100 == 70)
+            {
+                recorder.stopShooting();
+                recorded.disableShipShoting();
+            }
+
+            // the screen is rotated after 14 s, the simulation gets the new size with the next update
+            if (i == 700)
+            {
+                recorder.screenResize(800, 480);
+                recorded.screenResize(800, 480);
+            }
+            recorded.update(STEP);
+        }
+        recorder.close();
+        return out;
+    }
+}
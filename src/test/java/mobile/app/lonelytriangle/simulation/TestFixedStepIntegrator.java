@@ -0,0 +1,82 @@
+package mobile.app.lonelytriangle.simulation;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the steps and the interpolation factor of the FixedStepIntegrator.
+ */
+public class TestFixedStepIntegrator extends TestCase
+{
+    private static final float EPSILON = 0.0001f;
+
+    public void testFixedSteps()
+    {
+        final CountingSimulation simulation = new CountingSimulation();
+        final FixedStepIntegrator integrator = new FixedStepIntegrator(simulation, 50, 5);
+
+        // 0.03 s => one step of 0.02 s, 0.01 s remain
+        assertEquals(1, integrator.advance(0.03f));
+        assertEquals(0.02f, simulation.lastDelta, EPSILON);
+        assertEquals(0.5f, simulation.lastAlpha, EPSILON);
+
+        // 0.01 s + 0.01 s => one step
+        assertEquals(1, integrator.advance(0.01f));
+        assertEquals(0.0f, integrator.getAlpha(), EPSILON);
+
+        // a frame without a step still publishes a snapshot
+        assertEquals(0, integrator.advance(0.005f));
+        assertEquals(3, simulation.snapshots);
+        assertEquals(2, simulation.updates);
+    }
+
+    public void testMaxStepsPerFrame()
+    {
+        final CountingSimulation simulation = new CountingSimulation();
+        final FixedStepIntegrator integrator = new FixedStepIntegrator(simulation, 50, 5);
+
+        // a stall of one second is simulated by 5 steps, the rest is dropped
+        assertEquals(5, integrator.advance(1.0f));
+        assertEquals(45, integrator.getDroppedSteps());
+        assertTrue(integrator.getAlpha() < 1.0f);
+    }
+
+    public void testVariableSteps()
+    {
+        final CountingSimulation simulation = new CountingSimulation();
+        final FixedStepIntegrator integrator = new FixedStepIntegrator(simulation, 0, 5);
+
+        assertEquals(1, integrator.advance(0.123f));
+        assertEquals(0.123f, simulation.lastDelta, EPSILON);
+        assertEquals(1.0f, simulation.lastAlpha, EPSILON);
+    }
+
+    /**
+     * A simulation which only counts the calls.
+     */
+    private static final class CountingSimulation extends Simulation
+    {
+        private int   updates;
+        private int   snapshots;
+        private float lastDelta;
+        private float lastAlpha;
+
+        private CountingSimulation()
+        {
+            super(null, null);
+        }
+
+        @Override
+        public void update(final float delta)
+        {
+            updates++;
+            lastDelta = delta;
+        }
+
+        @Override
+        public void publishRenderSnapshot(final float alpha)
+        {
+            snapshots++;
+            lastAlpha = alpha;
+        }
+    }
+}
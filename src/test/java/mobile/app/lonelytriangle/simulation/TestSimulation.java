@@ -1,53 +1,174 @@
 package mobile.app.lonelytriangle.simulation;
 
+import java.io.FileInputStream;
+import java.io.InputStream;
+
 import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.IResourceManager;
+import mobile.app.lonelytriangle.resource.ResourceManager;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
 
 /**
- * TODO: test the whole simulation methods! But we need to mock the ResourceManager or we have to init it!
- * 
+ * Tests the simulation headless (without android). The ResourceManager is initialised by the config file of res/raw.
+ * TODO: test the whole simulation methods!
+ *
  * @author Benedikt Zönnchen
  * @version v1.0
  *
  */
 public class TestSimulation extends TestCase
 {
-    // doesnt work jet!
+    private IResourceManager resourceManager;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        resourceManager = ResourceManager.getInstance();
+        final InputStream stream = new FileInputStream("res/raw/difficulty_hard.cfg");
+        try
+        {
+            resourceManager.loadConfig(stream);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
     public void testStarUpdate()
     {
         final int screenWidth = 1024;
         final int screenHeight = 824;
-        final int starCount = 10;
-        
+        final int starCount = resourceManager.getNumberOfStars();
+
         // new background simulation
         Simulation sim = new Simulation();
         sim.screenResize(screenWidth, screenHeight);
-        //sim.initNewGame();
-        
+
         // add stars on the screen
         sim.initBackground();
-        
+
         // get one sample star
         IMoveable sampleStar = sim.getStars().get(0);
-        float x = sampleStar.getX();
         float y = sampleStar.getY();
-        
-        System.out.println(y);
-        
+
+        // the stars are evaluated if they are rendered
         sim.update(3000f);
-        
-        System.out.println(sim.getStars().get(0).getY());
-        
+        sim.publishRenderSnapshot(1.0f);
+
         // star should move!
         assertFalse(y == sampleStar.getY());
-        
-        x = sampleStar.getX();
+
         y = sampleStar.getY();
-        
+
         sim.update(1231f);
-        
+        sim.publishRenderSnapshot(1.0f);
+
         // star should move again
         assertFalse(y == sampleStar.getY());
-        
+
         assertEquals(starCount, sim.getStars().size());
     }
+
+    public void testGameUpdate()
+    {
+        final Simulation sim = new Simulation();
+        sim.screenResize(480, 800);
+        sim.initGame();
+        sim.setTargetX(50);
+        sim.setTargetY(0);
+        sim.enableShipShoting();
+
+        final float startX = sim.getShip().getX();
+        final long startTime = sim.getClock().getTimeNanos();
+        boolean fired = false;
+
+        for (int i = 0; i < 1000; i++)
+        {
+            sim.update(0.02f);
+            fired |= sim.getBullets().size(BulletStore.PLAYER) > 0;
+        }
+
+        assertFalse(sim.isBackground());
+        assertEquals(resourceManager.getNumberOfStars(), sim.getStars().size());
+
+        // the ship moves to the target, shoots and the simulated time advances
+        assertTrue(sim.getShip().getX() < startX);
+        assertTrue(fired);
+        assertTrue(sim.getClock().getTimeNanos() > startTime);
+    }
+
+    public void testSameSeedSameGame()
+    {
+        final Simulation first = simulateGame(42L);
+        final Simulation second = simulateGame(42L);
+
+        assertEquals(42L, first.getSeed());
+        assertEquals(first.getScore(), second.getScore());
+        assertEquals(first.getShip().getX(), second.getShip().getX());
+        assertEquals(first.getShip().getY(), second.getShip().getY());
+        assertEquals(first.getBullets().size(), second.getBullets().size());
+
+        for (int i = 0; i < first.getBullets().size(); i++)
+        {
+            assertEquals(first.getBullets().getX(i), second.getBullets().getX(i));
+            assertEquals(first.getBullets().getY(i), second.getBullets().getY(i));
+        }
+
+        // the stars are evaluated if they are rendered
+        first.publishRenderSnapshot(1.0f);
+        second.publishRenderSnapshot(1.0f);
+        assertStarsEquals(first, second);
+    }
+
+    public void testResizeKeepsStarfield()
+    {
+        final Simulation resized = simulateGame(7L);
+        final Simulation notResized = simulateGame(7L);
+
+        // a resize to the same size lays out the same stars and does not consume the random numbers of the starfield
+        resized.screenResize(480, 800);
+        resized.update(0.02f);
+        notResized.update(0.02f);
+        resized.publishRenderSnapshot(1.0f);
+        notResized.publishRenderSnapshot(1.0f);
+        assertStarsEquals(resized, notResized);
+
+        // so the next starfield is the same as well
+        resized.initGame();
+        notResized.initGame();
+        resized.update(0.02f);
+        notResized.update(0.02f);
+        resized.publishRenderSnapshot(1.0f);
+        notResized.publishRenderSnapshot(1.0f);
+        assertStarsEquals(resized, notResized);
+    }
+
+    private static void assertStarsEquals(final Simulation first, final Simulation second)
+    {
+        assertEquals(first.getStars().size(), second.getStars().size());
+
+        for (int i = 0; i < first.getStars().size(); i++)
+        {
+            assertEquals(first.getStars().get(i).getX(), second.getStars().get(i).getX());
+            assertEquals(first.getStars().get(i).getY(), second.getStars().get(i).getY());
+        }
+    }
+
+    private Simulation simulateGame(final long seed)
+    {
+        final Simulation sim = new Simulation();
+        sim.setSeed(seed);
+        sim.screenResize(480, 800);
+        sim.initGame();
+        sim.setTargetX(240);
+        sim.setTargetY(0);
+        sim.enableShipShoting();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            sim.update(0.02f);
+        }
+        return sim;
+    }
 }
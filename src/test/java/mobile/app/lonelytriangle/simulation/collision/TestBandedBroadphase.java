@@ -0,0 +1,149 @@
+package mobile.app.lonelytriangle.simulation.collision;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+import mobile.app.lonelytriangle.simulation.ICollisionSink;
+import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.simulation.shapes.BulletStore;
+import mobile.app.lonelytriangle.simulation.shapes.EnemyShip;
+import mobile.app.lonelytriangle.simulation.shapes.RectangleEnemy;
+import mobile.app.lonelytriangle.util.Grid;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+
+/**
+ * Tests that the BandedBroadphase finds the same hits as the queries of the spatial index, for every number of threads.
+ */
+public class TestBandedBroadphase extends TestCase
+{
+    public void testSameHitsAsQueries()
+    {
+        final Random random = new Random(42);
+        final BulletStore bullets = new BulletStore(16);
+        final int small = bullets.getStyle(Colors.Red, null, 4, 4);
+        final int big = bullets.getStyle(Colors.Red, null, 60, 60);
+        final ISpatialIndex<EnemyShip> enemies = new Grid<EnemyShip>(400, 400, 4, 4);
+
+        for (int i = 0; i < 2000; i++)
+        {
+            bullets.add(random.nextFloat() * 500 - 50, random.nextFloat() * 500 - 50, 0, 0, random.nextInt(2), i % 10 == 0 ? big : small);
+        }
+
+        for (int i = 0; i < 60; i++)
+        {
+            enemies.add(new RectangleEnemy(random.nextFloat() * 400, random.nextFloat() * 400, 20 + random.nextFloat() * 80, Colors.Blue, 10)
+            {
+            });
+        }
+
+        final PairSink queried = new PairSink(enemies);
+        bullets.collide(BulletStore.PLAYER, enemies, queried);
+        Collections.sort(queried.pairs);
+        assertFalse(queried.pairs.isEmpty());
+
+        for (int threads = 1; threads <= 3; threads++)
+        {
+            final BandedBroadphase broadphase = new BandedBroadphase(threads, 4, 4);
+            final PairSink banded = new PairSink(enemies);
+            broadphase.collide(bullets, BulletStore.PLAYER, enemies, banded);
+            broadphase.shutdown();
+
+            // sorted by bullet and target and without duplicates
+            assertEquals(queried.pairs, banded.pairs);
+        }
+    }
+
+    /**
+     * The query path (sorted by the CollisionBuffer) and the banded path dispatch the hits of the same scenario in the
+     * same order.
+     */
+    public void testSameDispatchOrderAsQueries()
+    {
+        final List<String> queried = new ArrayList<String>();
+        final BulletStore queriedBullets = new BulletStore(16);
+        final ISpatialIndex<EnemyShip> queriedEnemies = createScenario(queriedBullets, queried);
+        final CollisionBuffer queryBuffer = new CollisionBuffer(16);
+        queriedBullets.collide(BulletStore.PLAYER, queriedEnemies, queryBuffer);
+        queryBuffer.sortBulletPairs(0, queriedEnemies);
+        queryBuffer.dispatch();
+        assertFalse(queried.isEmpty());
+
+        final List<String> banded = new ArrayList<String>();
+        final BulletStore bandedBullets = new BulletStore(16);
+        final ISpatialIndex<EnemyShip> bandedEnemies = createScenario(bandedBullets, banded);
+        final CollisionBuffer bandedBuffer = new CollisionBuffer(16);
+        final BandedBroadphase broadphase = new BandedBroadphase(2, 4, 4);
+        broadphase.collide(bandedBullets, BulletStore.PLAYER, bandedEnemies, bandedBuffer);
+        broadphase.shutdown();
+        bandedBuffer.dispatch();
+
+        assertEquals(queried, banded);
+    }
+
+    /**
+     * Creates the bullets and enemies of a seeded scenario, the enemies record the hits (the enemy and the position of
+     * the bullet) in the order of the dispatch.
+     */
+    private static ISpatialIndex<EnemyShip> createScenario(final BulletStore bullets, final List<String> hits)
+    {
+        final Random random = new Random(7);
+        final int small = bullets.getStyle(Colors.Red, null, 4, 4);
+        final int big = bullets.getStyle(Colors.Red, null, 60, 60);
+        final ISpatialIndex<EnemyShip> enemies = new Grid<EnemyShip>(400, 400, 4, 4);
+
+        for (int i = 0; i < 500; i++)
+        {
+            bullets.add(random.nextFloat() * 500 - 50, random.nextFloat() * 500 - 50, 0, 0, BulletStore.PLAYER, i % 5 == 0 ? big : small);
+        }
+
+        for (int i = 0; i < 40; i++)
+        {
+            final int id = i;
+            enemies.add(new RectangleEnemy(random.nextFloat() * 400, random.nextFloat() * 400, 20 + random.nextFloat() * 80, Colors.Blue, 10)
+            {
+                @Override
+                public void handleCollision(final IMoveable shape)
+                {
+                    hits.add(id + ":" + shape.getX() + ":" + shape.getY());
+                }
+            });
+        }
+        return enemies;
+    }
+
+    /**
+     * Collects the hits as bullet * 1000 + the index of the target.
+     */
+    private static final class PairSink implements ICollisionSink
+    {
+        private final ISpatialIndex<EnemyShip> targets;
+        private final List<Long>               pairs = new ArrayList<Long>();
+
+        private PairSink(final ISpatialIndex<EnemyShip> targets)
+        {
+            this.targets = targets;
+        }
+
+        @Override
+        public void addCollision(final IMoveable first, final IMoveable second)
+        {
+            fail("only bullets are tested");
+        }
+
+        @Override
+        public void addBulletCollision(final BulletStore store, final int bullet, final IMoveable target)
+        {
+            for (int i = 0; i < targets.size(); i++)
+            {
+                if (targets.get(i) == target)
+                {
+                    pairs.add(Long.valueOf(bullet * 1000L + i));
+                }
+            }
+        }
+    }
+}
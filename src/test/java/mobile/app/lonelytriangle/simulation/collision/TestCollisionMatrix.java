@@ -0,0 +1,29 @@
+package mobile.app.lonelytriangle.simulation.collision;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the symmetry and the masks of the CollisionMatrix.
+ */
+public class TestCollisionMatrix extends TestCase
+{
+    public void testEnableAndDisable()
+    {
+        final CollisionMatrix matrix = new CollisionMatrix();
+        matrix.enable(1, 4);
+        matrix.enable(4, 31);
+
+        assertTrue(matrix.collides(1, 4));
+        assertTrue(matrix.collides(4, 1));
+        assertTrue(matrix.collides(31, 4));
+        assertFalse(matrix.collides(1, 31));
+        assertEquals((1 << 1) | (1 << 31), matrix.getMask(4));
+
+        matrix.disable(4, 1);
+        assertFalse(matrix.collides(1, 4));
+        assertEquals(0, matrix.getMask(1));
+
+        matrix.clear();
+        assertEquals(0, matrix.getMask(4));
+    }
+}
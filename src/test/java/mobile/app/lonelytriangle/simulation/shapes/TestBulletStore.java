@@ -0,0 +1,75 @@
+package mobile.app.lonelytriangle.simulation.shapes;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.simulation.collision.CollisionBuffer;
+import mobile.app.lonelytriangle.util.Grid;
+import mobile.app.lonelytriangle.util.ISpatialIndex;
+
+/**
+ * Tests the bulk update, the bulk cull and the bulk collision passes of the BulletStore.
+ */
+public class TestBulletStore extends TestCase
+{
+    public void testUpdateAndCull()
+    {
+        final BulletStore bullets = new BulletStore(1);
+        final int style = bullets.getStyle(Colors.Red, null, 2, 2);
+        assertEquals(style, bullets.getStyle(Colors.Red, null, 2, 2));
+
+        // the store grows
+        for (int i = 0; i < 100; i++)
+        {
+            bullets.add(i, 10, 0, 100, BulletStore.PLAYER, style);
+        }
+        bullets.add(50, 50, 0, -100, BulletStore.ENEMY, style);
+        assertEquals(101, bullets.size());
+        assertEquals(1, bullets.size(BulletStore.ENEMY));
+
+        bullets.update(0.5f);
+        assertEquals(60f, bullets.getY(0), 0.0001f);
+        assertEquals(10f, bullets.getPreviousY(0), 0.0001f);
+
+        // the player bullets (y = 60) leave a screen of height 50
+        assertEquals(100, bullets.cull(200, 50));
+        assertEquals(1, bullets.size());
+        assertEquals(BulletStore.ENEMY, bullets.getOwner(0));
+        assertEquals(101, bullets.getHighWater());
+    }
+
+    public void testCollide()
+    {
+        final BulletStore bullets = new BulletStore(16);
+        final int style = bullets.getStyle(Colors.Red, null, 2, 2);
+        final ISpatialIndex<IMoveable> enemies = new Grid<IMoveable>(100, 100, 4, 4);
+        final EnemyShip enemy = new RectangleEnemy(40, 40, 10, Colors.Blue, 10);
+        enemies.add(enemy);
+
+        // a player bullet hits the enemy, an enemy bullet does not
+        bullets.add(45, 45, 0, 0, BulletStore.PLAYER, style);
+        bullets.add(45, 45, 0, 0, BulletStore.ENEMY, style);
+        bullets.add(5, 5, 0, 0, BulletStore.PLAYER, style);
+        final CollisionBuffer buffer = new CollisionBuffer(4);
+        bullets.collide(BulletStore.PLAYER, enemies, buffer);
+
+        // the hits are deferred
+        assertEquals(1, buffer.size());
+        assertFalse(enemy.isDestroyed());
+        buffer.dispatch();
+
+        assertTrue(enemy.isDestroyed());
+        assertTrue(bullets.isDestroyed(0));
+        assertFalse(bullets.isDestroyed(1));
+        assertFalse(bullets.isDestroyed(2));
+
+        // the enemy bullet hits the target
+        final EnemyShip target = new RectangleEnemy(44, 44, 10, Colors.Blue, 10);
+        bullets.collide(BulletStore.ENEMY, target, buffer);
+        buffer.dispatch();
+        assertTrue(target.isDestroyed());
+        assertTrue(bullets.isDestroyed(1));
+
+        assertEquals(2, bullets.cull(100, 100));
+    }
+}
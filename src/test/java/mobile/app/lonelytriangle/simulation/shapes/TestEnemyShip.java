@@ -0,0 +1,122 @@
+package mobile.app.lonelytriangle.simulation.shapes;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+import mobile.app.lonelytriangle.simulation.IShotSink;
+import mobile.app.lonelytriangle.simulation.SimulationClock;
+
+/**
+ * Tests the firing schedule of the EnemyShip, it is driven by the simulated time and not by the system time.
+ */
+public class TestEnemyShip extends TestCase
+{
+    /** the shot interval in millis. */
+    private static final float INTERVAL = 500;
+
+    /** a random number generator whose chance always hits. */
+    private static final Random ALWAYS = new Random()
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public double nextDouble()
+        {
+            return 0;
+        }
+    };
+
+    private int shots;
+
+    private final IShotSink sink = new IShotSink()
+    {
+        @Override
+        public void addShot(final float x, final float y, final Shape parent, final float angle)
+        {
+            shots++;
+        }
+    };
+
+    public void testFiringSchedule()
+    {
+        final RectangleEnemy enemy = createEnemy();
+        final SimulationClock clock = new SimulationClock();
+        enemy.setShotChance(1);
+
+        // the interval has to elapse after the last shot (the spawn counts as shot at 0)
+        clock.setTimeNanos(500000000L);
+        assertFalse(enemy.shot(0.02f, clock, sink, ALWAYS));
+        clock.setTimeNanos(501000000L);
+        assertTrue(enemy.shot(0.02f, clock, sink, ALWAYS));
+        assertEquals(4, shots);
+        assertEquals(501, enemy.getLastShotElapsedTime());
+
+        // the next shot is scheduled by the simulated time of the last shot
+        assertFalse(enemy.shot(0.02f, clock, sink, ALWAYS));
+        clock.setTimeNanos(1001000000L);
+        assertFalse(enemy.shot(0.02f, clock, sink, ALWAYS));
+        clock.setTimeNanos(1002000000L);
+        assertTrue(enemy.shot(0.02f, clock, sink, ALWAYS));
+        assertEquals(8, shots);
+
+        // a paused clock stops the schedule, no matter how much system time elapses
+        for (int i = 0; i < 100; i++)
+        {
+            assertFalse(enemy.shot(0.02f, clock, sink, ALWAYS));
+        }
+        assertEquals(8, shots);
+    }
+
+    /**
+     * Frames without a shot should not allocate any memory.
+     */
+    public void testNoAllocationWithoutShot()
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        // the test needs a HotSpot like JVM, it must not pass without measuring anything
+        assertTrue("the JVM can not count the allocated bytes of a thread (com.sun.management.ThreadMXBean is missing)",
+                bean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assertTrue("the JVM does not support counting the allocated bytes of a thread", threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        final long threadId = Thread.currentThread().getId();
+        final RectangleEnemy enemy = createEnemy();
+        final SimulationClock clock = new SimulationClock();
+        final Random random = new Random(42);
+
+        // warm up
+        simulateFrames(enemy, clock, random, 20000);
+
+        final long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        final long start = threadBean.getThreadAllocatedBytes(threadId);
+        simulateFrames(enemy, clock, random, 10000);
+        final long end = threadBean.getThreadAllocatedBytes(threadId);
+
+        assertEquals("allocated bytes", 0, end - start - (start - overhead));
+    }
+
+    private void simulateFrames(final RectangleEnemy enemy, final SimulationClock clock, final Random random, final int frames)
+    {
+        for (int frame = 0; frame < frames; frame++)
+        {
+            clock.advance(0.02f);
+            enemy.update(0.02f);
+            // the chance is zero, so the enemy never shoots
+            assertFalse(enemy.shot(0.02f, clock, sink, random));
+        }
+    }
+
+    private static RectangleEnemy createEnemy()
+    {
+        final RectangleEnemy enemy = new RectangleEnemy(0, 0, 30, Colors.Blue, 10);
+        enemy.setShotChance(0);
+        enemy.setShotInterval(INTERVAL);
+        return enemy;
+    }
+}
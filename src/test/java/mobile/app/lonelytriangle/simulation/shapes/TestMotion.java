@@ -0,0 +1,60 @@
+package mobile.app.lonelytriangle.simulation.shapes;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the closed-form motion models of the enemies against a fine integration of their movement rules.
+ */
+public class TestMotion extends TestCase
+{
+    private static final float STEP = 0.0001f;
+
+    public void testTriangleEnemy()
+    {
+        final TriangleEnemy enemy = new TriangleEnemy(100, 500, 10, 10, null, 0);
+        enemy.setXVecolity(40);
+        enemy.setYVecolity(30);
+
+        double x = 100;
+        double y = 500;
+
+        for (int i = 1; i <= 50000; i++)
+        {
+            final double age = i * (double) STEP;
+            y -= 30 * STEP;
+            x += 40 * (Math.sin(3 * age) > 0 ? 1 : -1) * STEP;
+        }
+
+        enemy.moveTo(50000 * STEP);
+        assertEquals(x, enemy.getX(), 0.05);
+        assertEquals(y, enemy.getY(), 0.05);
+    }
+
+    public void testDiamondEnemy()
+    {
+        final DiamondEnemy enemy = new DiamondEnemy(100, 500, 10, 10, null, 0);
+        enemy.setXVecolity(30);
+        enemy.setYVecolity(40);
+
+        double x = 100;
+        double y = 500;
+
+        for (int i = 1; i <= 50000; i++)
+        {
+            final double sin = 3 * Math.sin(3 * i * (double) STEP);
+
+            if (sin > -2 && sin < 2)
+            {
+                y -= 30 * STEP;
+            }
+            else
+            {
+                x += 40 * (sin > 2 ? 1 : -1) * STEP;
+            }
+        }
+
+        enemy.moveTo(50000 * STEP);
+        assertEquals(x, enemy.getX(), 0.05);
+        assertEquals(y, enemy.getY(), 0.05);
+    }
+}
@@ -1,8 +1,10 @@
 package mobile.app.lonelytriangle.simulation.shapes;
 
 import junit.framework.TestCase;
+import mobile.app.lonelytriangle.rendering.AbstractMesh;
 import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
 import mobile.app.lonelytriangle.simulation.IMoveable;
+import mobile.app.lonelytriangle.simulation.shapes.Bonus.BonusType;
 
 /**
  * Tests the core functionality of the shapes.
@@ -61,6 +63,37 @@ public class TestShape extends TestCase
         assertTrue(rectEnemy.intersect(diamondEnemy));
         assertTrue(diamondEnemy.intersect(rectEnemy));
     }
-    
-    
+
+    /**
+     * Test a mesh which is narrower than its shape (like the mesh of the fast shot bonus). The mesh is drawn at the
+     * position of the shape without scaling, so only the left half of the shape collides.
+     */
+    public void testIntersectionOfANarrowMesh()
+    {
+        int size = 30;
+
+        Shape bonus = new Bonus(0, 0, size, size, Colors.Blue, BonusType.FastShot);
+        bonus.setMesh(new AbstractMesh(size / 2, size)
+        {
+            @Override
+            protected short[] getIndicies()
+            {
+                return null;
+            }
+
+            @Override
+            protected float[] getVerticies()
+            {
+                return new float[] {0, 0, 0, getWidth(), 0, 0, getWidth(), getHeight(), 0, 0, getHeight(), 0};
+            }
+        });
+
+        IMoveable leftEnemy = new RectangleEnemy(size / 2 - 5, 10, 10, Colors.Blue, 10);
+        IMoveable rightEnemy = new RectangleEnemy(size / 2 + 5, 10, 10, Colors.Blue, 10);
+
+        assertTrue(bonus.intersect(leftEnemy));
+        assertTrue(leftEnemy.intersect(bonus));
+        assertFalse(bonus.intersect(rightEnemy));
+        assertFalse(rightEnemy.intersect(bonus));
+    }
 }
@@ -0,0 +1,88 @@
+package mobile.app.lonelytriangle.simulation.shapes;
+
+import junit.framework.TestCase;
+import mobile.app.lonelytriangle.resource.ResourceManager.Colors;
+import mobile.app.lonelytriangle.simulation.IShotSink;
+import mobile.app.lonelytriangle.simulation.SimulationClock;
+
+/**
+ * Tests the fire rate of the Ship. The shot interval is compared with the simulated time in whole millis, the clock
+ * truncates its nano seconds.
+ */
+public class TestShip extends TestCase
+{
+    /** the shot interval in millis. */
+    private static final int INTERVAL = 200;
+
+    private int shots;
+
+    private final IShotSink sink = new IShotSink()
+    {
+        @Override
+        public void addShot(final float x, final float y, final Shape parent, final float angle)
+        {
+            shots++;
+        }
+    };
+
+    public void testFireRateBoundary()
+    {
+        final SimulationClock clock = new SimulationClock();
+        final Ship ship = createShip(clock);
+
+        // exactly one interval after the last shot is too early, the next milli second is not
+        clock.setTimeNanos(INTERVAL * 1000000L);
+        ship.update(0);
+        assertFalse(ship.isGenerateShot());
+
+        clock.setTimeNanos((INTERVAL + 1) * 1000000L - 1);
+        ship.update(0);
+        assertFalse(ship.isGenerateShot());
+
+        clock.setTimeNanos((INTERVAL + 1) * 1000000L);
+        ship.update(0);
+        assertTrue(ship.isGenerateShot());
+        assertEquals(1, shots);
+
+        // the next interval starts at the milli second of the last shot
+        clock.setTimeNanos((2 * INTERVAL + 1) * 1000000L + 999999L);
+        ship.update(0);
+        assertFalse(ship.isGenerateShot());
+
+        clock.setTimeNanos((2 * INTERVAL + 2) * 1000000L);
+        ship.update(0);
+        assertTrue(ship.isGenerateShot());
+        assertEquals(2, shots);
+    }
+
+    public void testFireRateOfFrames()
+    {
+        final SimulationClock clock = new SimulationClock();
+        final Ship ship = createShip(clock);
+        int lastShotFrame = 0;
+
+        // 20 ms frames: a shot needs more than the interval, 11 frames (the float delta is a bit shorter than 20 ms, the
+        // clock reads 219 ms after 11 frames)
+        for (int frame = 1; frame <= 100; frame++)
+        {
+            clock.advance(0.02f);
+            ship.update(0.02f);
+
+            if (ship.isGenerateShot())
+            {
+                assertEquals(11, frame - lastShotFrame);
+                lastShotFrame = frame;
+            }
+        }
+        assertEquals(9, shots);
+    }
+
+    private Ship createShip(final SimulationClock clock)
+    {
+        final Ship ship = new Ship(0, 0, 30, 30, Colors.White, 1, INTERVAL);
+        ship.setClock(clock);
+        ship.setShots(sink);
+        ship.setShoting(true);
+        return ship;
+    }
+}
@@ -0,0 +1,52 @@
+package mobile.app.lonelytriangle.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the edge cases of the half open boxes of AABB.
+ */
+public class TestAABB extends TestCase
+{
+    public void testTouchingBoxes()
+    {
+        // overlapping boxes intersect in both orders
+        assertTrue(AABB.intersects(0, 0, 10, 10, 5, 5, 10, 10));
+        assertTrue(AABB.intersects(5, 5, 10, 10, 0, 0, 10, 10));
+
+        // boxes which only touch at an edge or a corner do not intersect
+        assertFalse(AABB.intersects(0, 0, 10, 10, 10, 0, 10, 10));
+        assertFalse(AABB.intersects(10, 0, 10, 10, 0, 0, 10, 10));
+        assertFalse(AABB.intersects(0, 0, 10, 10, 0, 10, 10, 10));
+        assertFalse(AABB.intersects(0, 0, 10, 10, 10, 10, 10, 10));
+
+        // the smallest overlap counts
+        assertTrue(AABB.intersects(0, 0, 10, 10, Math.nextAfter(10f, 0), 0, 10, 10));
+    }
+
+    public void testContainedAndEmptyBoxes()
+    {
+        // a box contains an other box or itself
+        assertTrue(AABB.intersects(0, 0, 10, 10, 2, 2, 1, 1));
+        assertTrue(AABB.intersects(0, 0, 10, 10, 0, 0, 10, 10));
+
+        // a box without area inside of another box intersects, on its border it does not
+        assertTrue(AABB.intersects(0, 0, 10, 10, 5, 5, 0, 0));
+        assertFalse(AABB.intersects(0, 0, 10, 10, 0, 5, 0, 0));
+        assertFalse(AABB.intersects(5, 5, 0, 0, 5, 5, 0, 0));
+    }
+
+    public void testBoundsAndScreen()
+    {
+        assertTrue(AABB.intersectsBounds(0, 0, 10, 10, 5, 5, 20, 20));
+        assertFalse(AABB.intersectsBounds(0, 0, 10, 10, 10, 10, 20, 20));
+        assertFalse(AABB.intersectsBounds(20, 20, 10, 10, 10, 10, 20, 20));
+
+        // a box which touches the screen is outside, a box which overlaps by a pixel is inside
+        assertTrue(AABB.isOutside(-10, 0, 10, 10, 480, 800));
+        assertFalse(AABB.isOutside(-9, 0, 10, 10, 480, 800));
+        assertTrue(AABB.isOutside(480, 0, 10, 10, 480, 800));
+        assertTrue(AABB.isOutside(0, 800, 10, 10, 480, 800));
+        assertFalse(AABB.isOutside(0, 799, 10, 10, 480, 800));
+        assertTrue(AABB.isOutside(0, -10, 10, 10, 480, 800));
+    }
+}
@@ -0,0 +1,54 @@
+package mobile.app.lonelytriangle.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the hull creation and the separating axis test of the ConvexPolygon.
+ */
+public class TestConvexPolygon extends TestCase
+{
+    /** a triangle (x, y, z) pointing down with an inner point. */
+    private static final float[] TRIANGLE = new float[] {0, 10, 0, 10, 10, 0, 5, 0, 0, 5, 5, 0};
+
+    public void testCreateHull()
+    {
+        final ConvexPolygon triangle = ConvexPolygon.createHull(TRIANGLE, 3);
+        assertEquals(3, triangle.size());
+        assertFalse(triangle.isBox(10, 10));
+
+        final ConvexPolygon box = ConvexPolygon.createHull(new float[] {0, 0, 4, 0, 4, 2, 2, 1, 0, 2}, 2);
+        assertEquals(4, box.size());
+        assertTrue(box.isBox(4, 2));
+        assertFalse(box.isBox(8, 2));
+
+        // negative coordinates
+        final ConvexPolygon centered = ConvexPolygon.createHull(new float[] {-2, -1, 2, -1, 0, 0, 2, 1, -2, 1}, 2);
+        assertEquals(4, centered.size());
+        assertFalse(centered.isBox(4, 2));
+
+        assertNull(ConvexPolygon.createHull(new float[] {0, 0, 1, 1, 2, 2}, 2));
+    }
+
+    public void testIntersects()
+    {
+        final ConvexPolygon triangle = ConvexPolygon.createHull(TRIANGLE, 3);
+
+        // the boxes intersect but the box is in the empty lower left corner of the triangle
+        assertFalse(ConvexPolygon.intersects(triangle, 0, 0, 10, 10, null, -1, -1, 3, 3));
+        assertTrue(ConvexPolygon.intersects(triangle, 0, 0, 10, 10, null, 4, -1, 2, 3));
+        assertTrue(ConvexPolygon.intersects(triangle, 0, 0, 10, 10, null, -1, 8, 3, 3));
+
+        // a triangle on a wider box is not scaled, the right half of the box is empty
+        assertFalse(ConvexPolygon.intersects(triangle, 0, 0, 20, 10, null, 12, 5, 4, 3));
+        assertTrue(ConvexPolygon.intersects(triangle, 0, 0, 20, 10, null, 8, 5, 4, 3));
+
+        // the box of a negative hull
+        final ConvexPolygon centered = ConvexPolygon.createHull(new float[] {-2, -1, 2, -1, 2, 1, -2, 1}, 2);
+        assertTrue(ConvexPolygon.intersects(centered, 0, 0, 4, 2, null, -3, 0, 2, 2));
+        assertFalse(ConvexPolygon.intersects(centered, 0, 0, 4, 2, null, 3, 0, 2, 2));
+
+        // two triangles which touch only with their boxes
+        assertFalse(ConvexPolygon.intersects(triangle, 0, 0, 10, 10, triangle, 8, -8, 10, 10));
+        assertTrue(ConvexPolygon.intersects(triangle, 0, 0, 10, 10, triangle, 3, 3, 10, 10));
+    }
+}
@@ -1,5 +1,8 @@
 package mobile.app.lonelytriangle.util;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 import junit.framework.TestCase;
 
 /**
@@ -11,6 +14,8 @@ import junit.framework.TestCase;
  */
 public class TestGrid extends TestCase
 {
+    private static final CountingVisitor NO_VISITOR = new CountingVisitor(null);
+
     public void testGridInitialisation()
     {
         Grid grid = new Grid(300, 400, 4, 4);
@@ -19,4 +24,181 @@ public class TestGrid extends TestCase
         assertEquals(grid.getNumberOfColumns(), 4);
         assertEquals(grid.getNumberOfRows(), 4);
     }
+
+    /**
+     * An element has to be found in its new cells after a move and never after its removal.
+     */
+    public void testMoveAndRemove()
+    {
+        final Grid<Element> grid = new Grid<Element>(400, 400, 4, 4);
+        final Element a = new Element(10, 10);
+        final Element b = new Element(300, 300);
+        grid.add(a);
+        grid.add(b);
+
+        assertTrue(contains(grid, new Element(20, 20), a));
+        assertFalse(contains(grid, new Element(20, 20), b));
+
+        a.x = 310;
+        a.y = 310;
+        grid.move(0);
+
+        assertFalse(contains(grid, new Element(20, 20), a));
+        assertTrue(contains(grid, new Element(320, 320), a));
+
+        assertSame(a, grid.remove(0));
+        assertEquals(1, grid.size());
+        assertSame(b, grid.get(0));
+        assertFalse(contains(grid, new Element(320, 320), a));
+        assertTrue(contains(grid, new Element(320, 320), b));
+
+        assertFalse(grid.remove(a));
+        assertTrue(grid.remove(b));
+        assertEquals(0, grid.size());
+    }
+
+    /**
+     * Moving, removing, adding and querying elements of a warmed up grid should not allocate any memory.
+     */
+    public void testSteadyStateAllocation()
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        // the test needs a HotSpot like JVM, it must not pass without measuring anything
+        assertTrue("the JVM can not count the allocated bytes of a thread (com.sun.management.ThreadMXBean is missing)",
+                bean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assertTrue("the JVM does not support counting the allocated bytes of a thread", threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+        final Grid<Element> grid = new Grid<Element>(480, 800, 4, 4);
+
+        for (int i = 0; i < 500; i++)
+        {
+            grid.add(new Element(i % 480, i % 800));
+        }
+
+        // warm up: all cells reach their maximal capacity
+        simulateFrames(grid, 2000);
+
+        final long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        final long start = threadBean.getThreadAllocatedBytes(threadId);
+        simulateFrames(grid, 1000);
+        final long end = threadBean.getThreadAllocatedBytes(threadId);
+
+        assertEquals("allocated bytes", 0, end - start - (start - overhead));
+    }
+
+    private static void simulateFrames(final Grid<Element> grid, final int frames)
+    {
+        for (int frame = 0; frame < frames; frame++)
+        {
+            for (int i = 0; i < grid.size(); i++)
+            {
+                final Element element = grid.get(i);
+                element.x = (element.x + 7) % 480;
+                element.y = (element.y + 13) % 800;
+                grid.move(i);
+            }
+
+            for (int i = 0; i < grid.size(); i += 10)
+            {
+                grid.query(grid.get(i), NO_VISITOR);
+            }
+
+            // churn: remove and add an element every frame
+            grid.add(grid.remove(frame % grid.size()));
+        }
+    }
+
+    private static boolean contains(final Grid<Element> grid, final Element area, final Element element)
+    {
+        final CountingVisitor visitor = new CountingVisitor(element);
+        grid.query(area, visitor);
+        return visitor.count > 0;
+    }
+
+    /**
+     * An element which is part of 4 cells has to be visited only once by a query.
+     */
+    public void testQueryVisitsOnce()
+    {
+        final Grid<Element> grid = new Grid<Element>(400, 400, 4, 4);
+        final Element a = new Element(95, 95);
+        grid.add(a);
+        grid.add(new Element(300, 300));
+
+        final CountingVisitor visitor = new CountingVisitor(a);
+        grid.query(new Element(90, 90), visitor);
+        assertEquals(1, visitor.count);
+        assertEquals(1, visitor.visited);
+
+        grid.query(new Element(0, 0), visitor);
+        assertEquals(2, visitor.count);
+    }
+
+    /**
+     * Counts the visited elements and how often the visitor has met a specified element.
+     */
+    private static final class CountingVisitor implements IGridVisitor<Element>
+    {
+        private final Element element;
+        private int count;
+        private int visited;
+
+        private CountingVisitor(final Element element)
+        {
+            this.element = element;
+        }
+
+        @Override
+        public void visit(final Element e)
+        {
+            visited++;
+            if (e == element)
+            {
+                count++;
+            }
+        }
+    }
+
+    /**
+     * A simple mutable IGridable.
+     */
+    private static final class Element implements IGridable
+    {
+        private float x;
+        private float y;
+
+        private Element(final float x, final float y)
+        {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public float getX()
+        {
+            return x;
+        }
+
+        @Override
+        public float getY()
+        {
+            return y;
+        }
+
+        @Override
+        public float getHeight()
+        {
+            return 10;
+        }
+
+        @Override
+        public float getWidth()
+        {
+            return 10;
+        }
+    }
 }
@@ -0,0 +1,109 @@
+package mobile.app.lonelytriangle.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the recycling and the metrics of the Pool.
+ */
+public class TestPool extends TestCase
+{
+    public void testRecycling()
+    {
+        final Pool<Object> pool = new Pool<Object>(2, 3)
+        {
+            @Override
+            protected Object create()
+            {
+                return new Object();
+            }
+        };
+
+        assertEquals(2, pool.getCreated());
+        assertEquals(2, pool.getSize());
+
+        final Object a = pool.obtain();
+        final Object b = pool.obtain();
+        final Object c = pool.obtain();
+        assertEquals(3, pool.getCreated());
+        assertEquals(3, pool.getHighWater());
+        assertEquals(0, pool.getSize());
+
+        pool.free(a);
+        pool.free(b);
+        assertSame(b, pool.obtain());
+        assertEquals(2, pool.getInUse());
+        assertEquals(3, pool.getHighWater());
+
+        final Object d = pool.obtain();
+        assertSame(a, d);
+        assertEquals(3, pool.getCreated());
+
+        // the pool keeps at most 3 free objects
+        final Object e = pool.obtain();
+        pool.free(b);
+        pool.free(c);
+        pool.free(d);
+        pool.free(e);
+        assertEquals(3, pool.getSize());
+        assertEquals(0, pool.getInUse());
+    }
+
+    public void testFreeGuard()
+    {
+        final Pool<Object> pool = new Pool<Object>(0, 3)
+        {
+            @Override
+            protected Object create()
+            {
+                return new Object();
+            }
+        };
+
+        final Object a = pool.obtain();
+        pool.obtain();
+        pool.free(a);
+
+        try
+        {
+            pool.free(a);
+            fail("a free object was freed twice");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            assertEquals(1, pool.getInUse());
+        }
+
+        pool.free(new Object());
+
+        try
+        {
+            pool.free(new Object());
+            fail("more objects were freed than obtained");
+        }
+        catch (IllegalStateException ex)
+        {
+            assertEquals(0, pool.getInUse());
+            assertEquals(2, pool.getSize());
+        }
+    }
+
+    public void testResize()
+    {
+        final Pool<Object> pool = new Pool<Object>(2, 4)
+        {
+            @Override
+            protected Object create()
+            {
+                return new Object();
+            }
+        };
+
+        pool.resize(20, 40);
+        assertEquals(20, pool.getSize());
+        assertEquals(20, pool.getCreated());
+
+        pool.resize(1, 2);
+        assertEquals(2, pool.getSize());
+        assertEquals(2, pool.getMaxSize());
+    }
+}
@@ -0,0 +1,163 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests all ISpatialIndex implementations against a brute force search: every element which intersects a queried area
+ * has to be visited exactly once.
+ */
+public class TestSpatialIndex extends TestCase
+{
+    private static final float WIDTH  = 480;
+    private static final float HEIGHT = 800;
+
+    public void testGrid()
+    {
+        check(new Grid<Element>(WIDTH, HEIGHT, 4, 4));
+    }
+
+    public void testHashedGrid()
+    {
+        check(new HashedGrid<Element>(WIDTH, HEIGHT, 4, 4));
+    }
+
+    public void testLooseQuadtree()
+    {
+        check(new LooseQuadtree<Element>(WIDTH, HEIGHT, 4));
+    }
+
+    public void testSortAndSweep()
+    {
+        check(new SortAndSweep<Element>());
+    }
+
+    private static void check(final ISpatialIndex<Element> index)
+    {
+        final Random random = new Random(42);
+        final List<Element> all = new ArrayList<Element>();
+
+        for (int i = 0; i < 300; i++)
+        {
+            final Element element = randomElement(random);
+            all.add(element);
+            index.add(element);
+        }
+
+        for (int frame = 0; frame < 50; frame++)
+        {
+            for (int i = 0; i < index.size(); i++)
+            {
+                final Element element = index.get(i);
+                element.x += random.nextFloat() * 40 - 20;
+                element.y += random.nextFloat() * 40 - 20;
+                index.move(i);
+            }
+
+            // churn
+            all.remove(index.remove(random.nextInt(index.size())));
+            final Element element = randomElement(random);
+            all.add(element);
+            index.add(element);
+
+            if (frame == 25)
+            {
+                index.resize(WIDTH * 2, HEIGHT / 2);
+            }
+
+            for (int q = 0; q < 20; q++)
+            {
+                final Element area = randomElement(random);
+                final CollectingVisitor visitor = new CollectingVisitor();
+                index.query(area, visitor);
+
+                for (final Element e : all)
+                {
+                    if (intersect(area, e))
+                    {
+                        assertTrue(index.getClass().getSimpleName() + " misses an element", visitor.visited.contains(e));
+                    }
+                }
+
+                for (final Element e : visitor.visited)
+                {
+                    assertEquals("visited twice", visitor.visited.indexOf(e), visitor.visited.lastIndexOf(e));
+                }
+            }
+        }
+
+        assertEquals(all.size(), index.size());
+        index.clear();
+        assertEquals(0, index.size());
+    }
+
+    private static Element randomElement(final Random random)
+    {
+        // some elements are outside of the area and some are bigger than a cell
+        final float size = random.nextInt(10) == 0 ? 150 : 5 + random.nextFloat() * 30;
+        return new Element(random.nextFloat() * (WIDTH + 200) - 100, random.nextFloat() * (HEIGHT + 200) - 100, size);
+    }
+
+    private static boolean intersect(final Element a, final Element b)
+    {
+        return a.x < b.x + b.size && b.x < a.x + a.size && a.y < b.y + b.size && b.y < a.y + a.size;
+    }
+
+    /**
+     * Collects the visited elements.
+     */
+    private static final class CollectingVisitor implements IGridVisitor<Element>
+    {
+        private final List<Element> visited = new ArrayList<Element>();
+
+        @Override
+        public void visit(final Element element)
+        {
+            visited.add(element);
+        }
+    }
+
+    /**
+     * A simple mutable quadratic IGridable.
+     */
+    private static final class Element implements IGridable
+    {
+        private float       x;
+        private float       y;
+        private final float size;
+
+        private Element(final float x, final float y, final float size)
+        {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+        @Override
+        public float getX()
+        {
+            return x;
+        }
+
+        @Override
+        public float getY()
+        {
+            return y;
+        }
+
+        @Override
+        public float getHeight()
+        {
+            return size;
+        }
+
+        @Override
+        public float getWidth()
+        {
+            return size;
+        }
+    }
+}
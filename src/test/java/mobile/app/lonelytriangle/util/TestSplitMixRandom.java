@@ -0,0 +1,49 @@
+package mobile.app.lonelytriangle.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the reproducibility and the ranges of the SplitMixRandom.
+ */
+public class TestSplitMixRandom extends TestCase
+{
+    public void testReferenceValues()
+    {
+        // the first numbers of SplitMix64 with seed 0
+        final SplitMixRandom random = new SplitMixRandom(0);
+        assertEquals(0xe220a8397b1dcdafL, random.nextLong());
+        assertEquals(0x6e789e6aa1b965f4L, random.nextLong());
+    }
+
+    public void testSeed()
+    {
+        final SplitMixRandom first = new SplitMixRandom(7);
+        final SplitMixRandom second = new SplitMixRandom(13);
+        second.setSeed(7);
+
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(first.nextDouble(), second.nextDouble());
+        }
+
+        final SplitMixRandom split = first.split();
+        assertFalse(split.nextLong() == first.nextLong());
+    }
+
+    public void testRanges()
+    {
+        final SplitMixRandom random = new SplitMixRandom(1);
+
+        for (int i = 0; i < 10000; i++)
+        {
+            final int n = random.nextInt(7);
+            assertTrue(n >= 0 && n < 7);
+
+            final double d = random.nextDouble();
+            assertTrue(d >= 0.0 && d < 1.0);
+
+            final float f = random.nextFloat();
+            assertTrue(f >= 0.0f && f < 1.0f);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package mobile.app.lonelytriangle.util;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the expiry order, the cascading and the moving of ids of the TimingWheel.
+ */
+public class TestTimingWheel extends TestCase
+{
+    public void testExpiry()
+    {
+        final TimingWheel wheel = new TimingWheel(4);
+        wheel.schedule(0, 3);
+        wheel.schedule(1, 70);
+        wheel.schedule(2, 5000);
+        wheel.schedule(3, 20000000);
+        wheel.schedule(4, 3);
+        wheel.schedule(5, -1);
+        assertEquals(6, wheel.size());
+
+        // the due id and the ids of tick 3 in descending order
+        assertEquals(1, wheel.advance(0));
+        assertEquals(5, wheel.getExpired(0));
+        assertEquals(2, wheel.advance(3));
+        assertEquals(4, wheel.getExpired(0));
+        assertEquals(0, wheel.getExpired(1));
+
+        assertEquals(0, wheel.advance(69));
+        assertEquals(1, wheel.advance(70));
+        assertEquals(1, wheel.getExpired(0));
+
+        wheel.cancel(2);
+        assertFalse(wheel.isScheduled(2));
+        assertEquals(0, wheel.advance(10000));
+
+        // beyond the highest level
+        assertEquals(0, wheel.advance(19999999));
+        assertEquals(1, wheel.advance(20000000));
+        assertEquals(3, wheel.getExpired(0));
+        assertEquals(0, wheel.size());
+    }
+
+    public void testMove()
+    {
+        final TimingWheel wheel = new TimingWheel(1);
+        wheel.schedule(0, 10);
+        wheel.schedule(7, 10);
+        wheel.schedule(30, 20);
+
+        wheel.cancel(0);
+        wheel.move(30, 0);
+        assertFalse(wheel.isScheduled(30));
+        assertEquals(20, wheel.getTick(0));
+
+        assertEquals(1, wheel.advance(10));
+        assertEquals(7, wheel.getExpired(0));
+        assertEquals(1, wheel.advance(20));
+        assertEquals(0, wheel.getExpired(0));
+    }
+
+    public void testAgainstSortedTicks()
+    {
+        final Random random = new SplitMixRandom(5);
+        final TimingWheel wheel = new TimingWheel(16);
+        final long[] ticks = new long[500];
+
+        for (int i = 0; i < ticks.length; i++)
+        {
+            ticks[i] = random.nextInt(1 << (random.nextInt(20) + 1));
+            wheel.schedule(i, ticks[i]);
+        }
+
+        long now = 0;
+        int count = 0;
+
+        while (count < ticks.length)
+        {
+            now += random.nextInt(3000);
+            final int expired = wheel.advance(now);
+
+            for (int i = 0; i < expired; i++)
+            {
+                final int id = wheel.getExpired(i);
+                assertTrue(ticks[id] <= now);
+                assertTrue(ticks[id] > now - 3000 || now < 3000);
+
+                if (i > 0)
+                {
+                    assertTrue(wheel.getExpired(i - 1) > id);
+                }
+            }
+            count += expired;
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,38 @@
+package mobile.app.lonelytriangle.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the handover of the slots of the TripleBuffer.
+ */
+public class TestTripleBuffer extends TestCase
+{
+    public void testHandover()
+    {
+        final TripleBuffer<int[]> buffer = new TripleBuffer<int[]>(new int[1], new int[1], new int[1]);
+
+        // nothing published so far
+        final int[] initial = buffer.acquire();
+        assertSame(initial, buffer.acquire());
+
+        buffer.getBack()[0] = 1;
+        buffer.publish();
+        assertEquals(1, buffer.acquire()[0]);
+
+        // the reader gets the latest slot, older slots are dropped
+        buffer.getBack()[0] = 2;
+        buffer.publish();
+        buffer.getBack()[0] = 3;
+        buffer.publish();
+        final int[] front = buffer.acquire();
+        assertEquals(3, front[0]);
+        assertSame(front, buffer.acquire());
+
+        // the writer never gets the slot of the reader
+        for (int i = 0; i < 10; i++)
+        {
+            assertNotSame(front, buffer.getBack());
+            buffer.publish();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package mobile.app.lonelytriangle.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the in-place operations and the edge cases of Vector2.
+ */
+public class TestVector2 extends TestCase
+{
+    public void testInPlaceOperations()
+    {
+        final Vector2 vector = new Vector2(1, 2);
+
+        // the operations change and return the vector itself
+        assertSame(vector, vector.add(new Vector2(2, 2)).sub(new Vector2(1, 0)).scale(2));
+        assertEquals(4f, vector.getX());
+        assertEquals(8f, vector.getY());
+
+        assertSame(vector, vector.set(3, 4).add(1, 0, 2));
+        assertEquals(5f, vector.getX());
+        assertEquals(4f, vector.getY());
+
+        assertEquals(23f, vector.dot(new Vector2(3, 2)));
+        assertEquals(5f, new Vector2(3, 4).length());
+        assertEquals(5f, new Vector2(1, 1).distance(new Vector2(4, 5)));
+    }
+
+    public void testNormalize()
+    {
+        final Vector2 vector = new Vector2(3, 4).normalize();
+        assertEquals(0.6f, vector.getX(), 1e-6f);
+        assertEquals(0.8f, vector.getY(), 1e-6f);
+        assertEquals(1f, vector.length(), 1e-6f);
+
+        // the null vector is not changed (no division by zero)
+        final Vector2 nullVector = new Vector2().normalize();
+        assertEquals(0f, nullVector.getX());
+        assertEquals(0f, nullVector.getY());
+        assertEquals(0f, nullVector.length());
+
+        // the squared length of a tiny vector underflows to zero, so it is treated like the null vector (and not NaN)
+        final Vector2 tiny = new Vector2(Float.MIN_VALUE, 0).normalize();
+        assertEquals(Float.MIN_VALUE, tiny.getX());
+        assertEquals(0f, tiny.getY());
+    }
+}